@@ -0,0 +1,97 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.benchmarks;
+
+import android.telephony.CellIdentityCdma;
+import android.telephony.CellIdentityGsm;
+import android.telephony.CellIdentityLte;
+import android.telephony.CellIdentityWcdma;
+import android.telephony.CellInfoCdma;
+import android.telephony.CellInfoGsm;
+import android.telephony.CellInfoLte;
+import android.telephony.CellInfoWcdma;
+import android.telephony.CellSignalStrengthCdma;
+import android.telephony.CellSignalStrengthGsm;
+import android.telephony.CellSignalStrengthLte;
+import android.telephony.CellSignalStrengthWcdma;
+
+import com.esri.cordova.geolocation.utils.JSONHelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON of each CellInfo type, with and without its signal strength.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CellInfoJSONBenchmark {
+
+    @Param({"true", "false"})
+    public boolean returnSignalStrength;
+
+    private final CellInfoCdma _cdma = new CellInfoCdma(
+            1000000000L,
+            new CellIdentityCdma(4, 331, 4112, -1687747, 490451),
+            new CellSignalStrengthCdma(-89, -70, -95, -60, 7));
+    private final CellInfoWcdma _wcdma = new CellInfoWcdma(
+            1000000000L,
+            new CellIdentityWcdma(310, 260, 11012, 84261933, 312),
+            new CellSignalStrengthWcdma(-97));
+    private final CellInfoGsm _gsm = new CellInfoGsm(
+            1000000000L,
+            new CellIdentityGsm(310, 410, 5263, 20873),
+            new CellSignalStrengthGsm(-81));
+    private final CellInfoLte _lte = new CellInfoLte(
+            1000000000L,
+            new CellIdentityLte(310, 260, 28032003, 301, 11012),
+            new CellSignalStrengthLte(-104, 12));
+
+    @Benchmark
+    public String cellInfoCDMAJSON(){
+        return JSONHelper.cellInfoCDMAJSON(_cdma, returnSignalStrength, 123456789L);
+    }
+
+    @Benchmark
+    public String cellInfoWCDMAJSON(){
+        return JSONHelper.cellInfoWCDMAJSON(_wcdma, returnSignalStrength, 123456789L);
+    }
+
+    @Benchmark
+    public String cellInfoGSMJSON(){
+        return JSONHelper.cellInfoGSMJSON(_gsm, returnSignalStrength, 123456789L);
+    }
+
+    @Benchmark
+    public String cellInfoLTEJSON(){
+        return JSONHelper.cellInfoLTEJSON(_lte, returnSignalStrength, 123456789L);
+    }
+}
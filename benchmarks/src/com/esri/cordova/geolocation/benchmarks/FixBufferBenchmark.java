@@ -0,0 +1,84 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.benchmarks;
+
+import com.esri.cordova.geolocation.core.FixBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding a fix to a full buffer, and adding one followed by the geographic center the tracking
+ * path computes for every fix, at several buffer sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FixBufferBenchmark {
+
+    private static final int POSITIONS = 1024;
+
+    @Param({"2", "10", "100", "1000"})
+    public int bufferSize;
+
+    private final double[] _latitudes = new double[POSITIONS];
+    private final double[] _longitudes = new double[POSITIONS];
+    private FixBuffer _buffer;
+    private int _next = 0;
+
+    @Setup
+    public void setup(){
+        for(int i = 0; i < POSITIONS; i++){
+            _latitudes[i] = 34.0568 + Math.sin(i * 0.1) * 0.0005;
+            _longitudes[i] = -117.1957 + Math.cos(i * 0.1) * 0.0005;
+        }
+
+        _buffer = new FixBuffer(bufferSize);
+
+        // Start full, so every add also removes the oldest element
+        for(int i = 0; i < bufferSize; i++){
+            add();
+        }
+    }
+
+    @Benchmark
+    public int add(){
+        final int i = _next++ & (POSITIONS - 1);
+        return _buffer.add(_latitudes[i], _longitudes[i], 5f);
+    }
+
+    @Benchmark
+    public double addAndComputeCenter(){
+        add();
+        _buffer.computeCenter();
+        return _buffer.getCenterLatitude() + _buffer.getCenterLongitude() + _buffer.getCenterAccuracy();
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.benchmarks;
+
+import android.location.Location;
+
+import com.esri.cordova.geolocation.core.Fix;
+import com.esri.cordova.geolocation.core.FixEncoder;
+import com.esri.cordova.geolocation.core.PayloadFormat;
+import com.esri.cordova.geolocation.utils.JSONHelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Location JSON from an Android Location, from a Fix, with a reduced PayloadFormat, and through
+ * the reused encoder of the tracking path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LocationJSONBenchmark {
+
+    private final Location _location = new Location("gps");
+    private final Fix _fix = new Fix();
+    private final PayloadFormat _format = new PayloadFormat(
+            PayloadFormat.LATITUDE | PayloadFormat.LONGITUDE | PayloadFormat.ACCURACY | PayloadFormat.TIMESTAMP,
+            PayloadFormat.ALL, 6, 1, 0);
+    private FixEncoder _encoder;
+
+    @Setup
+    public void setup(){
+        _location.setTime(1539900000000L);
+        _location.setElapsedRealtimeNanos(System.nanoTime());
+        _location.setLatitude(34.0568211);
+        _location.setLongitude(-117.1956846);
+        _location.setAltitude(352.30000305175781);
+        _location.setAccuracy(4.551f);
+        _location.setSpeed(1.37f);
+        _location.setBearing(271.4f);
+
+        _fix.provider = "gps";
+        _fix.time = _location.getTime();
+        _fix.elapsedRealtimeNanos = _location.getElapsedRealtimeNanos();
+        _fix.receivedNanos = _fix.elapsedRealtimeNanos + 250000;
+        _fix.latitude = _location.getLatitude();
+        _fix.longitude = _location.getLongitude();
+        _fix.altitude = _location.getAltitude();
+        _fix.accuracy = _location.getAccuracy();
+        _fix.speed = _location.getSpeed();
+        _fix.bearing = _location.getBearing();
+
+        _encoder = new FixEncoder();
+    }
+
+    @Benchmark
+    public String locationJSONFromLocation(){
+        return JSONHelper.locationJSON("gps", _location, false);
+    }
+
+    @Benchmark
+    public String locationJSONFromFix(){
+        return JSONHelper.locationJSON(_fix);
+    }
+
+    @Benchmark
+    public String locationJSONWithFormat(){
+        return JSONHelper.locationJSON(_fix, _format);
+    }
+
+    @Benchmark
+    public String reusedFixEncoder(){
+        return _encoder.encode(_fix, true, 34.05681, -117.19567, 5.2f, 10);
+    }
+}
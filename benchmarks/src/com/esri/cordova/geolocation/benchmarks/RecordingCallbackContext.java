@@ -0,0 +1,113 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.benchmarks;
+
+import com.esri.cordova.geolocation.core.ElapsedClock;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stub CallbackContext that keeps every result the plugin sends, with the ElapsedClock time it
+ * was sent, so callback volume and latency can be checked on a plain JVM. Each part of a
+ * multipart result is kept as a result of its own, the way the plugin's JavaScript hands them
+ * to the callback.
+ */
+public class RecordingCallbackContext extends CallbackContext {
+
+    /**
+     * One result passed to the callback.
+     */
+    public static final class Result {
+        public final boolean error;
+        public final String message;
+        public final long sentNanos;
+
+        Result(boolean error, String message, long sentNanos){
+            this.error = error;
+            this.message = message;
+            this.sentNanos = sentNanos;
+        }
+    }
+
+    private final List<Result> _results = new ArrayList<Result>();
+
+    public RecordingCallbackContext(String callbackId){
+        super(callbackId);
+    }
+
+    @Override
+    protected void onResult(PluginResult result){
+        final long now = ElapsedClock.nanos();
+
+        final boolean error = result.getStatus() == PluginResult.Status.ERROR.ordinal();
+        final List<PluginResult> parts = result.getMultipartMessages();
+
+        synchronized(_results){
+            if(parts == null){
+                _results.add(new Result(error, result.getStrMessage(), now));
+            }
+            else {
+                for(PluginResult part : parts){
+                    _results.add(new Result(error, part.getStrMessage(), now));
+                }
+            }
+
+            _results.notifyAll();
+        }
+    }
+
+    /**
+     * @return A copy of the results received so far
+     */
+    public List<Result> getResults(){
+        synchronized(_results){
+            return new ArrayList<Result>(_results);
+        }
+    }
+
+    public int size(){
+        synchronized(_results){
+            return _results.size();
+        }
+    }
+
+    /**
+     * Waits until at least <code>count</code> results were received.
+     * @return <code>false</code> if the timeout expired first
+     */
+    public boolean await(int count, long timeoutMillis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        synchronized(_results){
+            while(_results.size() < count){
+                final long remaining = deadline - System.currentTimeMillis();
+
+                if(remaining <= 0){
+                    return false;
+                }
+
+                _results.wait(remaining);
+            }
+        }
+
+        return true;
+    }
+}
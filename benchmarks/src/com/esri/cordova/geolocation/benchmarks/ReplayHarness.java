@@ -0,0 +1,141 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.benchmarks;
+
+import android.app.Activity;
+import android.content.Context;
+import android.location.LocationManager;
+
+import com.esri.cordova.geolocation.controllers.NetworkLocationController;
+import com.esri.cordova.geolocation.core.Histogram;
+import com.esri.cordova.geolocation.model.GeolocationConfig;
+
+import org.apache.cordova.CordovaInterface;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Runs a NetworkLocationController on its own Looper thread, as the plugin does, with a
+ * recorded log in place of the LocationManager and a RecordingCallbackContext in place of the
+ * WebView. Replayed logs need "provider":"network" JSON lines, see ReplayReader.
+ *
+ * The controller keeps its state in static fields, so only one harness may run at a time.
+ *
+ * java -cp target/benchmarks.jar com.esri.cordova.geolocation.benchmarks.ReplayHarness log.json [speed] [bufferSize]
+ */
+public final class ReplayHarness {
+
+    private final RecordingCallbackContext _callbackContext = new RecordingCallbackContext("harness");
+    private final NetworkLocationController _controller;
+    private Thread _thread = null;
+
+    public ReplayHarness(GeolocationConfig config, File replayFile){
+        final CordovaInterface cordova = new CordovaInterface() {
+            @Override
+            public Activity getActivity() {
+                return new Activity() {
+                    @Override
+                    public Object getSystemService(String name) {
+                        return Context.LOCATION_SERVICE.equals(name) ? new LocationManager() : null;
+                    }
+                };
+            }
+        };
+
+        NetworkLocationController.STATS.reset();
+        _controller = new NetworkLocationController(cordova, _callbackContext, config, replayFile);
+    }
+
+    public void start(){
+        _thread = new Thread(_controller, "NetworkLocationController");
+        _thread.start();
+    }
+
+    /**
+     * Stops the controller the way the plugin does, then ends its Looper thread.
+     */
+    public void stop() throws InterruptedException {
+        _controller.stopLocation();
+
+        // stopLocation interrupts the calling thread, as it does on the plugin's thread
+        Thread.interrupted();
+        _thread.interrupt();
+        _thread.join(5000);
+    }
+
+    public RecordingCallbackContext getCallbackContext(){
+        return _callbackContext;
+    }
+
+    /**
+     * @return Time from each location's receipt by the listener to its callback, in nanoseconds
+     */
+    public Histogram getLatency() throws JSONException {
+        final Histogram latency = new Histogram();
+        final List<RecordingCallbackContext.Result> results = _callbackContext.getResults();
+
+        for(RecordingCallbackContext.Result result : results){
+            final JSONObject json = new JSONObject(result.message);
+
+            if(!result.error && json.has("receivedNanos")){
+                latency.record(result.sentNanos - json.getLong("receivedNanos"));
+            }
+        }
+
+        return latency;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if(args.length == 0){
+            System.err.println("Usage: ReplayHarness <log> [speed] [bufferSize]");
+            return;
+        }
+
+        final GeolocationConfig config = new GeolocationConfig();
+        config.replaySpeed = args.length > 1 ? Float.parseFloat(args[1]) : 0;
+        config.bufferSize = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        config.buffer = config.bufferSize > 0;
+
+        final ReplayHarness harness = new ReplayHarness(config, new File(args[0]));
+        final long start = System.nanoTime();
+
+        harness.start();
+
+        // Wait until no callback has arrived for a second
+        int count = -1;
+        while(count != harness.getCallbackContext().size()){
+            count = harness.getCallbackContext().size();
+            Thread.sleep(1000);
+        }
+
+        final double seconds = (System.nanoTime() - start) / 1e9 - 1;
+        harness.stop();
+
+        final Histogram latency = harness.getLatency();
+        System.out.printf("callbacks: %d (%.0f/s)%n", count, count / seconds);
+        System.out.printf("received: %d, sent: %d, dropped: %d%n",
+                NetworkLocationController.STATS.getReceived(),
+                NetworkLocationController.STATS.getSent(),
+                NetworkLocationController.STATS.getDropped());
+        System.out.printf("latency us: mean %.1f, p50 %.1f, p99 %.1f, max %.1f%n",
+                latency.getMean() / 1e3, latency.getPercentile(50) / 1e3,
+                latency.getPercentile(99) / 1e3, latency.getMax() / 1e3);
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.benchmarks;
+
+import android.location.GpsSatellite;
+import android.location.GpsStatus;
+
+import com.esri.cordova.geolocation.core.PayloadFormat;
+import com.esri.cordova.geolocation.utils.JSONHelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GpsStatus satellite JSON for a typical and a busy multi-constellation sky.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SatelliteJSONBenchmark {
+
+    @Param({"30", "45", "60"})
+    public int satellites;
+
+    private final PayloadFormat _format = new PayloadFormat(
+            PayloadFormat.ALL, PayloadFormat.SVID | PayloadFormat.CN0 | PayloadFormat.USED_IN_FIX, 6, 1, 0);
+    private GpsStatus _gpsStatus;
+
+    @Setup
+    public void setup(){
+        final List<GpsSatellite> list = new ArrayList<GpsSatellite>(satellites);
+
+        for(int i = 0; i < satellites; i++){
+            list.add(new GpsSatellite(i + 1, 18.5f + (i * 7) % 30, 5.25f + (i * 13) % 85, (i * 37) % 360 + 0.5f, i % 3 != 0));
+        }
+
+        _gpsStatus = new GpsStatus(list, 31250);
+    }
+
+    @Benchmark
+    public String satelliteDataJSON(){
+        return JSONHelper.satelliteDataJSON(_gpsStatus, 123456789L);
+    }
+
+    @Benchmark
+    public String satelliteDataJSONWithFormat(){
+        return JSONHelper.satelliteDataJSON(_gpsStatus, 123456789L, _format);
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.location;
+
+/**
+ * JVM stand-in for android.location.GpsSatellite.
+ */
+public final class GpsSatellite {
+
+    private final int _prn;
+    private final float _snr;
+    private final float _elevation;
+    private final float _azimuth;
+    private final boolean _usedInFix;
+
+    public GpsSatellite(int prn, float snr, float elevation, float azimuth, boolean usedInFix){
+        _prn = prn;
+        _snr = snr;
+        _elevation = elevation;
+        _azimuth = azimuth;
+        _usedInFix = usedInFix;
+    }
+
+    public int getPrn(){
+        return _prn;
+    }
+
+    public float getSnr(){
+        return _snr;
+    }
+
+    public float getElevation(){
+        return _elevation;
+    }
+
+    public float getAzimuth(){
+        return _azimuth;
+    }
+
+    public boolean hasEphemeris(){
+        return _usedInFix;
+    }
+
+    public boolean hasAlmanac(){
+        return true;
+    }
+
+    public boolean usedInFix(){
+        return _usedInFix;
+    }
+}
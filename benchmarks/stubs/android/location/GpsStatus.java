@@ -0,0 +1,41 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.location;
+
+import java.util.List;
+
+/**
+ * JVM stand-in for android.location.GpsStatus over a fixed list of satellites.
+ */
+public final class GpsStatus {
+
+    private final List<GpsSatellite> _satellites;
+    private final int _timeToFirstFix;
+
+    public GpsStatus(List<GpsSatellite> satellites, int timeToFirstFix){
+        _satellites = satellites;
+        _timeToFirstFix = timeToFirstFix;
+    }
+
+    public Iterable<GpsSatellite> getSatellites(){
+        return _satellites;
+    }
+
+    public int getTimeToFirstFix(){
+        return _timeToFirstFix;
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.location;
+
+/**
+ * JVM stand-in for android.location.Location with the members the plugin reads.
+ */
+public class Location {
+
+    private final String _provider;
+    private long _time;
+    private long _elapsedRealtimeNanos;
+    private double _latitude;
+    private double _longitude;
+    private double _altitude;
+    private float _accuracy;
+    private float _speed;
+    private float _bearing;
+
+    public Location(String provider){
+        _provider = provider;
+    }
+
+    public String getProvider(){
+        return _provider;
+    }
+
+    public long getTime(){
+        return _time;
+    }
+
+    public void setTime(long time){
+        _time = time;
+    }
+
+    public long getElapsedRealtimeNanos(){
+        return _elapsedRealtimeNanos;
+    }
+
+    public void setElapsedRealtimeNanos(long elapsedRealtimeNanos){
+        _elapsedRealtimeNanos = elapsedRealtimeNanos;
+    }
+
+    public double getLatitude(){
+        return _latitude;
+    }
+
+    public void setLatitude(double latitude){
+        _latitude = latitude;
+    }
+
+    public double getLongitude(){
+        return _longitude;
+    }
+
+    public void setLongitude(double longitude){
+        _longitude = longitude;
+    }
+
+    public double getAltitude(){
+        return _altitude;
+    }
+
+    public void setAltitude(double altitude){
+        _altitude = altitude;
+    }
+
+    public float getAccuracy(){
+        return _accuracy;
+    }
+
+    public void setAccuracy(float accuracy){
+        _accuracy = accuracy;
+    }
+
+    public float getSpeed(){
+        return _speed;
+    }
+
+    public void setSpeed(float speed){
+        _speed = speed;
+    }
+
+    public float getBearing(){
+        return _bearing;
+    }
+
+    public void setBearing(float bearing){
+        _bearing = bearing;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.location;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JVM stand-in for android.location.LocationManager. Providers are enabled but never report a
+ * location, so the plugin is driven with a replay file, and there are no last known locations.
+ */
+public class LocationManager {
+
+    public static final String GPS_PROVIDER = "gps";
+    public static final String NETWORK_PROVIDER = "network";
+    public static final String PASSIVE_PROVIDER = "passive";
+
+    public List<String> getAllProviders(){
+        return Arrays.asList(GPS_PROVIDER, NETWORK_PROVIDER, PASSIVE_PROVIDER);
+    }
+
+    public boolean isProviderEnabled(String provider){
+        return true;
+    }
+
+    public void requestLocationUpdates(String provider, long minTime, float minDistance, LocationListener listener){
+    }
+
+    public void removeUpdates(LocationListener listener){
+    }
+
+    public Location getLastKnownLocation(String provider){
+        return null;
+    }
+}
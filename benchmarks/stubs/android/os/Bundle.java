@@ -14,10 +14,10 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.​
  */
-package com.esri.cordova.geolocation.model;
+package android.os;
 
-public class Coordinate {
-    public double latitude;
-    public double longitude;
-    public float accuracy;
+/**
+ * JVM stand-in for android.os.Bundle.
+ */
+public final class Bundle {
 }
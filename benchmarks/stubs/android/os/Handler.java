@@ -0,0 +1,64 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.os;
+
+/**
+ * JVM stand-in for android.os.Handler that posts Runnables to a Looper.
+ */
+public class Handler {
+
+    private final Looper _looper;
+
+    public Handler(){
+        this(Looper.myLooper());
+    }
+
+    public Handler(Looper looper){
+        if(looper == null){
+            throw new RuntimeException("Can't create handler inside thread that has not called Looper.prepare()");
+        }
+        _looper = looper;
+    }
+
+    public final Looper getLooper(){
+        return _looper;
+    }
+
+    public final boolean post(Runnable runnable){
+        return _looper.enqueue(runnable, null, SystemClock.uptimeMillis());
+    }
+
+    public final boolean postDelayed(Runnable runnable, long delayMillis){
+        return _looper.enqueue(runnable, null, SystemClock.uptimeMillis() + Math.max(0, delayMillis));
+    }
+
+    public final boolean postAtTime(Runnable runnable, long uptimeMillis){
+        return _looper.enqueue(runnable, null, uptimeMillis);
+    }
+
+    public final boolean postAtTime(Runnable runnable, Object token, long uptimeMillis){
+        return _looper.enqueue(runnable, token, uptimeMillis);
+    }
+
+    public final void removeCallbacks(Runnable runnable){
+        _looper.remove(runnable, null);
+    }
+
+    public final void removeCallbacks(Runnable runnable, Object token){
+        _looper.remove(runnable, token);
+    }
+}
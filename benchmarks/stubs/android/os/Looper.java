@@ -0,0 +1,139 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.os;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM stand-in for android.os.Looper. Messages are Runnables ordered by their uptime, and
+ * loop() returns once the Looper quits or its thread is interrupted.
+ */
+public final class Looper {
+
+    private static final ThreadLocal<Looper> LOOPERS = new ThreadLocal<Looper>();
+
+    private final List<Message> _queue = new ArrayList<Message>();
+    private final Thread _thread;
+    private boolean _quitting = false;
+
+    private Looper(){
+        _thread = Thread.currentThread();
+    }
+
+    public static void prepare(){
+        if(LOOPERS.get() != null){
+            throw new RuntimeException("Only one Looper may be created per thread");
+        }
+        LOOPERS.set(new Looper());
+    }
+
+    public static Looper myLooper(){
+        return LOOPERS.get();
+    }
+
+    public static void loop(){
+        final Looper looper = myLooper();
+
+        if(looper == null){
+            throw new RuntimeException("No Looper; Looper.prepare() wasn't called on this thread.");
+        }
+
+        while(true){
+            final Runnable next = looper.take();
+
+            if(next == null){
+                return;
+            }
+
+            next.run();
+        }
+    }
+
+    public Thread getThread(){
+        return _thread;
+    }
+
+    public synchronized void quit(){
+        _quitting = true;
+        _queue.clear();
+        notifyAll();
+    }
+
+    synchronized boolean enqueue(Runnable runnable, Object token, long uptimeMillis){
+        if(_quitting){
+            return false;
+        }
+
+        int index = _queue.size();
+
+        // Keep the queue ordered by time, FIFO for equal times
+        while(index > 0 && _queue.get(index - 1).when > uptimeMillis){
+            index--;
+        }
+
+        _queue.add(index, new Message(runnable, token, uptimeMillis));
+        notifyAll();
+
+        return true;
+    }
+
+    synchronized void remove(Runnable runnable, Object token){
+        for(int i = _queue.size() - 1; i >= 0; i--){
+            final Message message = _queue.get(i);
+            if(message.runnable == runnable && message.token == token){
+                _queue.remove(i);
+            }
+        }
+    }
+
+    private synchronized Runnable take(){
+        try {
+            while(!_quitting){
+                if(_queue.isEmpty()){
+                    wait();
+                    continue;
+                }
+
+                final long delay = _queue.get(0).when - SystemClock.uptimeMillis();
+
+                if(delay <= 0){
+                    return _queue.remove(0).runnable;
+                }
+
+                wait(delay);
+            }
+        }
+        catch(InterruptedException exc){
+            // An interrupted controller thread stops looping
+        }
+
+        return null;
+    }
+
+    private static final class Message {
+        final Runnable runnable;
+        final Object token;
+        final long when;
+
+        Message(Runnable runnable, Object token, long when){
+            this.runnable = runnable;
+            this.token = token;
+            this.when = when;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.telephony;
+
+/**
+ * JVM stand-in for android.telephony.CellIdentityCdma.
+ */
+public final class CellIdentityCdma {
+
+    private final int _networkId;
+    private final int _systemId;
+    private final int _basestationId;
+    private final int _longitude;
+    private final int _latitude;
+
+    public CellIdentityCdma(int networkId, int systemId, int basestationId, int longitude, int latitude){
+        _networkId = networkId;
+        _systemId = systemId;
+        _basestationId = basestationId;
+        _longitude = longitude;
+        _latitude = latitude;
+    }
+
+    public int getNetworkId(){
+        return _networkId;
+    }
+
+    public int getSystemId(){
+        return _systemId;
+    }
+
+    public int getBasestationId(){
+        return _basestationId;
+    }
+
+    public int getLongitude(){
+        return _longitude;
+    }
+
+    public int getLatitude(){
+        return _latitude;
+    }
+}
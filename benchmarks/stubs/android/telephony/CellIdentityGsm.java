@@ -0,0 +1,51 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.telephony;
+
+/**
+ * JVM stand-in for android.telephony.CellIdentityGsm.
+ */
+public final class CellIdentityGsm {
+
+    private final int _mcc;
+    private final int _mnc;
+    private final int _lac;
+    private final int _cid;
+
+    public CellIdentityGsm(int mcc, int mnc, int lac, int cid){
+        _mcc = mcc;
+        _mnc = mnc;
+        _lac = lac;
+        _cid = cid;
+    }
+
+    public int getMcc(){
+        return _mcc;
+    }
+
+    public int getMnc(){
+        return _mnc;
+    }
+
+    public int getLac(){
+        return _lac;
+    }
+
+    public int getCid(){
+        return _cid;
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.telephony;
+
+/**
+ * JVM stand-in for android.telephony.CellIdentityLte.
+ */
+public final class CellIdentityLte {
+
+    private final int _mcc;
+    private final int _mnc;
+    private final int _ci;
+    private final int _pci;
+    private final int _tac;
+
+    public CellIdentityLte(int mcc, int mnc, int ci, int pci, int tac){
+        _mcc = mcc;
+        _mnc = mnc;
+        _ci = ci;
+        _pci = pci;
+        _tac = tac;
+    }
+
+    public int getMcc(){
+        return _mcc;
+    }
+
+    public int getMnc(){
+        return _mnc;
+    }
+
+    public int getCi(){
+        return _ci;
+    }
+
+    public int getPci(){
+        return _pci;
+    }
+
+    public int getTac(){
+        return _tac;
+    }
+}
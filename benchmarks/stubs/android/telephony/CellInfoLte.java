@@ -0,0 +1,40 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.telephony;
+
+/**
+ * JVM stand-in for android.telephony.CellInfoLte.
+ */
+public final class CellInfoLte extends CellInfo {
+
+    private final CellIdentityLte _identity;
+    private final CellSignalStrengthLte _signalStrength;
+
+    public CellInfoLte(long timeStamp, CellIdentityLte identity, CellSignalStrengthLte signalStrength){
+        super(timeStamp);
+        _identity = identity;
+        _signalStrength = signalStrength;
+    }
+
+    public CellIdentityLte getCellIdentity(){
+        return _identity;
+    }
+
+    public CellSignalStrengthLte getCellSignalStrength(){
+        return _signalStrength;
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.telephony;
+
+/**
+ * JVM stand-in for android.telephony.CellSignalStrength.
+ */
+public abstract class CellSignalStrength {
+
+    private final int _dbm;
+
+    protected CellSignalStrength(int dbm){
+        _dbm = dbm;
+    }
+
+    public int getDbm(){
+        return _dbm;
+    }
+
+    public int getAsuLevel(){
+        return (_dbm + 113) / 2;
+    }
+
+    public int getLevel(){
+        return Math.max(0, Math.min(4, (_dbm + 113) / 8));
+    }
+}
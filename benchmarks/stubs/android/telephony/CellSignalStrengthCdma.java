@@ -0,0 +1,64 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.telephony;
+
+/**
+ * JVM stand-in for android.telephony.CellSignalStrengthCdma.
+ */
+public final class CellSignalStrengthCdma extends CellSignalStrength {
+
+    private final int _cdmaEcio;
+    private final int _evdoDbm;
+    private final int _evdoEcio;
+    private final int _evdoSnr;
+
+    public CellSignalStrengthCdma(int cdmaDbm, int cdmaEcio, int evdoDbm, int evdoEcio, int evdoSnr){
+        super(cdmaDbm);
+        _cdmaEcio = cdmaEcio;
+        _evdoDbm = evdoDbm;
+        _evdoEcio = evdoEcio;
+        _evdoSnr = evdoSnr;
+    }
+
+    public int getCdmaDbm(){
+        return getDbm();
+    }
+
+    public int getCdmaEcio(){
+        return _cdmaEcio;
+    }
+
+    public int getCdmaLevel(){
+        return getLevel();
+    }
+
+    public int getEvdoDbm(){
+        return _evdoDbm;
+    }
+
+    public int getEvdoEcio(){
+        return _evdoEcio;
+    }
+
+    public int getEvdoLevel(){
+        return Math.max(0, Math.min(4, (_evdoDbm + 113) / 8));
+    }
+
+    public int getEvdoSnr(){
+        return _evdoSnr;
+    }
+}
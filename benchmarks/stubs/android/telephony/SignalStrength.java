@@ -0,0 +1,65 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.telephony;
+
+/**
+ * JVM stand-in for android.telephony.SignalStrength of a GSM network.
+ */
+public class SignalStrength {
+
+    private final int _gsmSignalStrength;
+
+    public SignalStrength(int gsmSignalStrength){
+        _gsmSignalStrength = gsmSignalStrength;
+    }
+
+    public int getGsmSignalStrength(){
+        return _gsmSignalStrength;
+    }
+
+    public int getGsmBitErrorRate(){
+        return 99;
+    }
+
+    public int getCdmaDbm(){
+        return -120;
+    }
+
+    public int getCdmaEcio(){
+        return -160;
+    }
+
+    public int getEvdoDbm(){
+        return -120;
+    }
+
+    public int getEvdoEcio(){
+        return -1;
+    }
+
+    public int getEvdoSnr(){
+        return -1;
+    }
+
+    public int getLevel(){
+        return Math.max(0, Math.min(4, _gsmSignalStrength / 8));
+    }
+
+    public boolean isGsm(){
+        return true;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.telephony.cdma;
+
+import android.telephony.CellLocation;
+
+/**
+ * JVM stand-in for android.telephony.cdma.CdmaCellLocation, every value is unknown.
+ */
+public class CdmaCellLocation extends CellLocation {
+
+    public static double convertQuartSecToDecDegrees(int quartSec){
+        return ((double) quartSec) / (3600 * 4);
+    }
+
+    public int getBaseStationId(){
+        return -1;
+    }
+
+    public int getBaseStationLatitude(){
+        return Integer.MAX_VALUE;
+    }
+
+    public int getBaseStationLongitude(){
+        return Integer.MAX_VALUE;
+    }
+
+    public int getSystemId(){
+        return -1;
+    }
+
+    public int getNetworkId(){
+        return -1;
+    }
+}
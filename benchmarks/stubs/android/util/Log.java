@@ -0,0 +1,50 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package android.util;
+
+/**
+ * JVM stand-in for android.util.Log that discards everything.
+ */
+public final class Log {
+
+    public static final int VERBOSE = 2;
+    public static final int DEBUG = 3;
+
+    public static boolean isLoggable(String tag, int level){
+        return false;
+    }
+
+    public static int v(String tag, String msg){
+        return 0;
+    }
+
+    public static int d(String tag, String msg){
+        return 0;
+    }
+
+    public static int i(String tag, String msg){
+        return 0;
+    }
+
+    public static int w(String tag, String msg){
+        return 0;
+    }
+
+    public static int e(String tag, String msg){
+        return 0;
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package org.apache.cordova;
+
+/**
+ * JVM stand-in for org.apache.cordova.CallbackContext. Like Cordova, a result without
+ * keepCallback finishes the context and results sent after that are dropped. Subclasses
+ * receive every delivered result in onResult.
+ */
+public class CallbackContext {
+
+    private final String _callbackId;
+    private boolean _finished = false;
+
+    public CallbackContext(String callbackId){
+        _callbackId = callbackId;
+    }
+
+    public String getCallbackId(){
+        return _callbackId;
+    }
+
+    public synchronized boolean isFinished(){
+        return _finished;
+    }
+
+    public void sendPluginResult(PluginResult result){
+        synchronized(this){
+            if(_finished){
+                return;
+            }
+            _finished = !result.getKeepCallback();
+        }
+
+        onResult(result);
+    }
+
+    public void success(String message){
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void error(String message){
+        sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+    }
+
+    protected void onResult(PluginResult result){
+    }
+}
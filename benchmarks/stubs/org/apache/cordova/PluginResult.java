@@ -0,0 +1,96 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package org.apache.cordova;
+
+import java.util.List;
+
+/**
+ * JVM stand-in for org.apache.cordova.PluginResult with string, binary and multipart messages.
+ */
+public class PluginResult {
+
+    public enum Status {
+        NO_RESULT,
+        OK,
+        CLASS_NOT_FOUND_EXCEPTION,
+        ILLEGAL_ACCESS_EXCEPTION,
+        INSTANTIATION_EXCEPTION,
+        MALFORMED_URL_EXCEPTION,
+        IO_EXCEPTION,
+        INVALID_ACTION,
+        JSON_EXCEPTION,
+        ERROR
+    }
+
+    private final Status _status;
+    private final String _message;
+    private final byte[] _binary;
+    private final List<PluginResult> _multipart;
+    private boolean _keepCallback = false;
+
+    public PluginResult(Status status){
+        this(status, (String) null);
+    }
+
+    public PluginResult(Status status, String message){
+        _status = status;
+        _message = message;
+        _binary = null;
+        _multipart = null;
+    }
+
+    public PluginResult(Status status, byte[] data){
+        _status = status;
+        _message = null;
+        _binary = data;
+        _multipart = null;
+    }
+
+    public PluginResult(Status status, List<PluginResult> multipartMessages){
+        _status = status;
+        _message = null;
+        _binary = null;
+        _multipart = multipartMessages;
+    }
+
+    public void setKeepCallback(boolean keepCallback){
+        _keepCallback = keepCallback;
+    }
+
+    public boolean getKeepCallback(){
+        return _keepCallback;
+    }
+
+    public int getStatus(){
+        return _status.ordinal();
+    }
+
+    public String getStrMessage(){
+        return _message;
+    }
+
+    public byte[] getBinaryMessage(){
+        return _binary;
+    }
+
+    /**
+     * @return The parts of a multipart result, or <code>null</code>
+     */
+    public List<PluginResult> getMultipartMessages(){
+        return _multipart;
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.benchmarks;
+
+import com.esri.cordova.geolocation.utils.CallbackChannels;
+
+import org.apache.cordova.PluginResult;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CallbackChannelsTest {
+
+    private final RecordingCallbackContext _start = new RecordingCallbackContext("start");
+
+    @After
+    public void clearChannels(){
+        CallbackChannels.clear();
+    }
+
+    @Test
+    public void sendsToTheSubscriberOrTheStartCallback(){
+        final RecordingCallbackContext gps = new RecordingCallbackContext("gps");
+        CallbackChannels.subscribe(CallbackChannels.GPS, gps);
+
+        CallbackChannels.send(CallbackChannels.GPS, _start, result("fix"));
+        CallbackChannels.send(CallbackChannels.NMEA, _start, result("sentence"));
+
+        assertEquals("fix", last(gps.getResults()));
+        assertEquals("sentence", last(_start.getResults()));
+    }
+
+    @Test
+    public void aClosedSubscriberIsLookedUpAgain(){
+        final RecordingCallbackContext first = new RecordingCallbackContext("first");
+        final RecordingCallbackContext second = new RecordingCallbackContext("second");
+        CallbackChannels.subscribe(CallbackChannels.GPS, first);
+
+        // A provider looked up the first subscriber just before it was replaced
+        final RecordingCallbackContext fetched = (RecordingCallbackContext) CallbackChannels.get(CallbackChannels.GPS, _start);
+        CallbackChannels.subscribe(CallbackChannels.GPS, second);
+
+        // Like Cordova, the stub drops results sent to a finished callback
+        assertTrue(fetched.isFinished());
+        fetched.sendPluginResult(result("lost"));
+        assertEquals(2, first.size());
+
+        CallbackChannels.send(CallbackChannels.GPS, _start, result("fix"));
+        assertEquals("fix", last(second.getResults()));
+    }
+
+    @Test
+    public void unsubscribeRoutesBackToTheStartCallback(){
+        final RecordingCallbackContext gps = new RecordingCallbackContext("gps");
+        CallbackChannels.subscribe(CallbackChannels.GPS, gps);
+
+        assertTrue(CallbackChannels.unsubscribe(CallbackChannels.GPS));
+        CallbackChannels.send(CallbackChannels.GPS, _start, result("fix"));
+
+        assertEquals(2, gps.size());
+        assertEquals("fix", last(_start.getResults()));
+    }
+
+    private static PluginResult result(String message){
+        final PluginResult result = new PluginResult(PluginResult.Status.OK, message);
+        result.setKeepCallback(true);
+        return result;
+    }
+
+    private static String last(List<RecordingCallbackContext.Result> results){
+        return results.get(results.size() - 1).message;
+    }
+}
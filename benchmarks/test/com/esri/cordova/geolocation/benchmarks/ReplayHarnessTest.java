@@ -0,0 +1,197 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.benchmarks;
+
+import com.esri.cordova.geolocation.controllers.NetworkLocationController;
+import com.esri.cordova.geolocation.core.Histogram;
+import com.esri.cordova.geolocation.model.GeolocationConfig;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayHarnessTest {
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private ReplayHarness _harness = null;
+
+    @After
+    public void stopHarness() throws InterruptedException {
+        if(_harness != null){
+            _harness.stop();
+        }
+    }
+
+    @Test
+    public void sendsOneCallbackPerFix() throws Exception {
+        final int count = 200;
+        final GeolocationConfig config = new GeolocationConfig();
+        config.replaySpeed = 0;
+
+        _harness = start(config, log(count, 1000));
+
+        assertTrue(_harness.getCallbackContext().await(count, 5000));
+        Thread.sleep(100);
+
+        final List<RecordingCallbackContext.Result> results = _harness.getCallbackContext().getResults();
+        assertEquals(count, results.size());
+
+        for(int i = 0; i < count; i++){
+            final JSONObject json = new JSONObject(results.get(i).message);
+            assertFalse(results.get(i).error);
+            assertEquals("network", json.getString("provider"));
+            assertEquals(34 + i * 1e-4, json.getDouble("latitude"), 1e-9);
+        }
+
+        assertEquals(count, NetworkLocationController.STATS.getReceived());
+        assertEquals(count, NetworkLocationController.STATS.getSent());
+    }
+
+    @Test
+    public void encodeThreadSendsFixesInOrder() throws Exception {
+        final int count = 200;
+        final GeolocationConfig config = new GeolocationConfig();
+        config.replaySpeed = 0;
+        config.encodeThread = true;
+
+        _harness = start(config, log(count, 1000));
+
+        // Unthrottled replay can fill the encode stage's queue, the fixes that don't fit are dropped
+        final long deadline = System.currentTimeMillis() + 5000;
+        while(NetworkLocationController.STATS.getSent() + NetworkLocationController.STATS.getDropped() < count
+                && System.currentTimeMillis() < deadline){
+            Thread.sleep(10);
+        }
+
+        final List<RecordingCallbackContext.Result> results = _harness.getCallbackContext().getResults();
+        assertEquals(count, NetworkLocationController.STATS.getSent() + NetworkLocationController.STATS.getDropped());
+        assertEquals(NetworkLocationController.STATS.getSent(), results.size());
+        assertTrue(results.size() > 0);
+
+        double latitude = 0;
+        for(RecordingCallbackContext.Result result : results){
+            final double next = new JSONObject(result.message).getDouble("latitude");
+            assertTrue(next > latitude);
+            latitude = next;
+        }
+    }
+
+    @Test
+    public void buffersTheNewestFixes() throws Exception {
+        final int count = 20;
+        final GeolocationConfig config = new GeolocationConfig();
+        config.replaySpeed = 0;
+        config.buffer = true;
+        config.bufferSize = 5;
+
+        _harness = start(config, log(count, 1000));
+
+        assertTrue(_harness.getCallbackContext().await(count, 5000));
+
+        final List<RecordingCallbackContext.Result> results = _harness.getCallbackContext().getResults();
+        final JSONObject first = new JSONObject(results.get(0).message);
+        final JSONObject last = new JSONObject(results.get(count - 1).message);
+
+        assertEquals(1, first.getInt("bufferSize"));
+        assertEquals(5, last.getInt("bufferSize"));
+        // The mean of the last five latitudes, 34.0015 to 34.0019
+        assertEquals(34.0017, last.getDouble("bufferedLatitude"), 1e-7);
+    }
+
+    @Test
+    public void measuresLatencyFromReceiptToCallback() throws Exception {
+        final int count = 50;
+        final GeolocationConfig config = new GeolocationConfig();
+        config.replaySpeed = 0;
+
+        _harness = start(config, log(count, 1000));
+
+        assertTrue(_harness.getCallbackContext().await(count, 5000));
+
+        final Histogram latency = _harness.getLatency();
+        assertEquals(count, latency.getCount());
+        assertTrue(latency.getPercentile(0) >= 0);
+    }
+
+    @Test
+    public void replaysAtTheRecordedRate() throws Exception {
+        final GeolocationConfig config = new GeolocationConfig();
+        config.replaySpeed = 1;
+
+        _harness = start(config, log(3, 100));
+
+        assertTrue(_harness.getCallbackContext().await(3, 5000));
+
+        final List<RecordingCallbackContext.Result> results = _harness.getCallbackContext().getResults();
+        final long elapsed = results.get(2).sentNanos - results.get(0).sentNanos;
+
+        assertTrue("Replayed in " + elapsed + " ns", elapsed >= 150000000L);
+    }
+
+    @Test
+    public void sendsNothingAfterStop() throws Exception {
+        final GeolocationConfig config = new GeolocationConfig();
+        config.replaySpeed = 1;
+
+        _harness = start(config, log(100, 20));
+
+        assertTrue(_harness.getCallbackContext().await(2, 5000));
+        _harness.stop();
+
+        final int sent = _harness.getCallbackContext().size();
+        Thread.sleep(200);
+
+        assertEquals(sent, _harness.getCallbackContext().size());
+        _harness = null;
+    }
+
+    private static ReplayHarness start(GeolocationConfig config, File log){
+        final ReplayHarness harness = new ReplayHarness(config, log);
+        harness.start();
+        return harness;
+    }
+
+    /**
+     * Writes a JSON lines log of network fixes spaced <code>interval</code> milliseconds apart.
+     */
+    private File log(int count, long interval) throws IOException {
+        final File file = _folder.newFile("replay.json");
+
+        try (Writer writer = new FileWriter(file)) {
+            for(int i = 0; i < count; i++){
+                writer.write("{\"provider\":\"network\",\"latitude\":" + (34 + i * 1e-4)
+                        + ",\"longitude\":-117.19,\"accuracy\":20,\"timestamp\":" + (1500000000000L + i * interval) + "}\n");
+            }
+        }
+
+        return file;
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.benchmarks;
+
+import com.esri.cordova.geolocation.core.Fix;
+import com.esri.cordova.geolocation.utils.ReplayReader;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayReaderTest {
+
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void mergesTheSentencesOfAnNmeaEpoch() throws IOException {
+        final ReplayReader reader = reader(
+                "$GPRMC,123519,A,4807.038,N,01131.000,E,022.4,084.4,230394,003.1,W*6A",
+                "$GPGGA,123519,4807.038,N,01131.000,E,1,08,0.9,545.4,M,46.9,M,,*47");
+        final Fix fix = new Fix();
+
+        assertTrue(reader.next(fix));
+        assertNull(fix.provider);
+        assertEquals(48.1173, fix.latitude, DELTA);
+        assertEquals(11.516667, fix.longitude, DELTA);
+        assertEquals(545.4, fix.altitude, DELTA);
+        assertEquals(4.5, fix.accuracy, DELTA);
+        assertEquals(84.4, fix.bearing, 1e-4);
+        // 1994-03-23T12:35:19Z
+        assertEquals(764426119000L, fix.time);
+        assertFalse(reader.next(fix));
+    }
+
+    @Test
+    public void skipsNmeaEpochsWithoutAFix() throws IOException {
+        final ReplayReader reader = reader(
+                "$GPRMC,123519,V,4807.038,N,01131.000,E,022.4,084.4,230394,003.1,W*7D",
+                "$GPRMC,123520,A,4807.038,N,01131.000,E,022.4,084.4,230394,003.1,W*60",
+                "$GPGGA,123520,4807.038,N,01131.000,E,0,00,,,M,,M,,*58",
+                "$GPRMC,123521,A,4807.100,N,01131.000,E,022.4,084.4,230394,003.1,W*6B");
+        final Fix fix = new Fix();
+
+        assertTrue(reader.next(fix));
+        assertEquals(48.118333, fix.latitude, DELTA);
+        assertFalse(reader.next(fix));
+    }
+
+    @Test
+    public void readsGpxTrackPoints() throws IOException {
+        final ReplayReader reader = reader(
+                "<gpx><trk><trkseg>",
+                "<trkpt lat=\"34.05\" lon=\"-117.19\"><ele>350.5</ele><time>2016-01-12T14:39:29.250-07:00</time></trkpt>",
+                "<trkpt lat=\"34.06\" lon=\"-117.2\"/>",
+                "</trkseg></trk></gpx>");
+        final Fix fix = new Fix();
+
+        assertTrue(reader.next(fix));
+        assertEquals(34.05, fix.latitude, DELTA);
+        assertEquals(-117.19, fix.longitude, DELTA);
+        assertEquals(350.5, fix.altitude, DELTA);
+        // 2016-01-12T21:39:29.250Z
+        assertEquals(1452634769250L, fix.time);
+
+        assertTrue(reader.next(fix));
+        assertEquals(34.06, fix.latitude, DELTA);
+        assertFalse(reader.next(fix));
+    }
+
+    @Test
+    public void readsPluginJsonAndSkipsOtherPayloads() throws IOException {
+        final ReplayReader reader = reader(
+                "[{\"provider\":\"network\",\"latitude\":1.5,\"longitude\":2.5,\"accuracy\":30,\"timestamp\":42},",
+                "{\"provider\":\"satellite\",\"count\":0},",
+                "{\"latitude\":3,\"longitude\":4}]");
+        final Fix fix = new Fix();
+
+        assertTrue(reader.next(fix));
+        assertEquals("network", fix.provider);
+        assertEquals(1.5, fix.latitude, DELTA);
+        assertEquals(30, fix.accuracy, DELTA);
+        assertEquals(42, fix.time);
+
+        assertTrue(reader.next(fix));
+        assertEquals("gps", fix.provider);
+        assertEquals(3, fix.latitude, DELTA);
+        assertFalse(reader.next(fix));
+    }
+
+    private static ReplayReader reader(String... lines){
+        final StringBuilder text = new StringBuilder();
+
+        for(String line : lines){
+            text.append(line).append('\n');
+        }
+
+        return new ReplayReader(new StringReader(text.toString()));
+    }
+}
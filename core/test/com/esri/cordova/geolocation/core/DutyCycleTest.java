@@ -0,0 +1,170 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DutyCycleTest {
+
+    private static final long MILLIS = 1000000L;
+    private static final long SECOND = 1000 * MILLIS;
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void measuresTimeToFirstFixAndTimeToFix(){
+        final DutyCycle cycle = new DutyCycle(10f, 60000, 120000);
+        final long start = 50 * SECOND;
+
+        cycle.startWindow(start);
+        assertTrue(cycle.isOn());
+        assertEquals(-1, cycle.getTimeToFirstFix());
+        assertEquals(-1, cycle.getTimeToFix());
+
+        assertFalse(cycle.onFix(40f, start + 2500 * MILLIS));
+        assertFalse(cycle.onFix(25f, start + 3500 * MILLIS));
+        assertEquals(2500, cycle.getTimeToFirstFix());
+        assertEquals(-1, cycle.getTimeToFix());
+        assertFalse(cycle.isFixed());
+
+        assertTrue(cycle.onFix(8f, start + 7250 * MILLIS));
+        assertEquals(2500, cycle.getTimeToFirstFix());
+        assertEquals(7250, cycle.getTimeToFix());
+        assertTrue(cycle.isFixed());
+        assertEquals(8f, cycle.getBestAccuracy(), 0);
+
+        cycle.endWindow(start + 7300 * MILLIS);
+        assertFalse(cycle.isOn());
+        assertEquals(7300, cycle.getWindowMillis());
+        assertEquals(1, cycle.getWindows());
+    }
+
+    @Test
+    public void aTimedOutWindowHasNoTimeToFix(){
+        final DutyCycle cycle = new DutyCycle(10f, 30000, 120000);
+
+        cycle.startWindow(0);
+        assertFalse(cycle.onFix(30f, 4 * SECOND));
+        assertFalse(cycle.onFix(0f, 5 * SECOND));
+        assertFalse(cycle.onFix(20f, 6 * SECOND));
+        cycle.endWindow(30 * SECOND);
+
+        assertFalse(cycle.isFixed());
+        assertEquals(-1, cycle.getTimeToFix());
+        assertEquals(4000, cycle.getTimeToFirstFix());
+        assertEquals(20f, cycle.getBestAccuracy(), 0);
+        assertEquals(30000, cycle.getWindowMillis());
+    }
+
+    @Test
+    public void eachWindowStartsItsOwnTimings(){
+        final DutyCycle cycle = new DutyCycle(10f, 30000, 60000);
+
+        cycle.startWindow(0);
+        cycle.onFix(5f, 3 * SECOND);
+        cycle.endWindow(3 * SECOND);
+
+        cycle.startWindow(63 * SECOND);
+        assertEquals(-1, cycle.getTimeToFirstFix());
+        assertEquals(-1, cycle.getTimeToFix());
+        assertEquals(0f, cycle.getBestAccuracy(), 0);
+
+        cycle.onFix(9f, 64 * SECOND);
+        assertEquals(1000, cycle.getTimeToFix());
+    }
+
+    @Test
+    public void ignoresFixesWhileOff(){
+        final DutyCycle cycle = new DutyCycle(10f, 30000, 60000);
+
+        assertFalse(cycle.onFix(5f, SECOND));
+        assertEquals(-1, cycle.getTimeToFirstFix());
+
+        cycle.startWindow(2 * SECOND);
+        cycle.endWindow(4 * SECOND);
+
+        assertFalse(cycle.onFix(5f, 5 * SECOND));
+        assertEquals(-1, cycle.getTimeToFix());
+    }
+
+    @Test
+    public void onTimeRatioCountsClosedAndOpenWindows(){
+        final DutyCycle cycle = new DutyCycle(10f, 30000, 60000);
+
+        assertEquals(0, cycle.getOnTimeRatio(SECOND), 0);
+
+        cycle.startWindow(10 * SECOND);
+        assertEquals(0, cycle.getOnTimeRatio(10 * SECOND), 0);
+        // Open window only
+        assertEquals(1, cycle.getOnTimeRatio(15 * SECOND), DELTA);
+
+        cycle.endWindow(20 * SECOND);
+        assertEquals(0.5, cycle.getOnTimeRatio(30 * SECOND), DELTA);
+
+        // 10 seconds closed plus 5 seconds of the open window, over 45 seconds
+        cycle.startWindow(50 * SECOND);
+        assertEquals(15.0 / 45, cycle.getOnTimeRatio(55 * SECOND), DELTA);
+
+        cycle.endWindow(60 * SECOND);
+        assertEquals(20.0 / 90, cycle.getOnTimeRatio(100 * SECOND), DELTA);
+        assertEquals(2, cycle.getWindows());
+    }
+
+    @Test
+    public void endingAClosedWindowChangesNothing(){
+        final DutyCycle cycle = new DutyCycle(10f, 30000, 60000);
+
+        cycle.startWindow(0);
+        cycle.endWindow(10 * SECOND);
+        cycle.endWindow(20 * SECOND);
+
+        assertEquals(1, cycle.getWindows());
+        assertEquals(10000, cycle.getWindowMillis());
+        assertEquals(0.5, cycle.getOnTimeRatio(20 * SECOND), DELTA);
+    }
+
+    @Test
+    public void resetForgetsEveryWindow(){
+        final DutyCycle cycle = new DutyCycle(10f, 30000, 60000);
+
+        cycle.startWindow(0);
+        cycle.onFix(5f, 2 * SECOND);
+        cycle.endWindow(2 * SECOND);
+        cycle.startWindow(10 * SECOND);
+
+        cycle.reset();
+
+        assertFalse(cycle.isOn());
+        assertFalse(cycle.isFixed());
+        assertEquals(0, cycle.getWindows());
+        assertEquals(-1, cycle.getTimeToFix());
+        assertEquals(-1, cycle.getTimeToFirstFix());
+        assertEquals(0f, cycle.getBestAccuracy(), 0);
+        assertEquals(0, cycle.getWindowMillis());
+        assertEquals(0, cycle.getOnTimeRatio(20 * SECOND), 0);
+
+        // The ratio is measured from the first window after the reset
+        cycle.startWindow(100 * SECOND);
+        cycle.endWindow(110 * SECOND);
+        assertEquals(0.25, cycle.getOnTimeRatio(140 * SECOND), DELTA);
+        assertEquals(30000, cycle.getTimeoutMillis());
+        assertEquals(60000, cycle.getIntervalMillis());
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EncodeStageTest {
+
+    private final List<String> _events = new ArrayList<String>();
+    private final ProviderStats _stats = new ProviderStats("test");
+    private final EncodeStage _stage = new EncodeStage(_stats, new EncodeStage.ControlSink() {
+        @Override
+        public void send(boolean error, String payload) {
+            record(payload);
+            _controlThread = Thread.currentThread();
+        }
+    }, new EncodeStage.BatchSink() {
+        @Override
+        public void flush() {
+            record("flush");
+        }
+
+        @Override
+        public void discard() {
+            record("discard");
+        }
+    });
+
+    private volatile Thread _controlThread = null;
+    private volatile CountDownLatch _entered = new CountDownLatch(1);
+    private volatile long _blockNanos = 0;
+    private SpscQueue<int[]> _queue = null;
+
+    @After
+    public void stopStage(){
+        _stage.stop();
+        Thread.interrupted();
+    }
+
+    @Test
+    public void handlesSlotsInOrderAndFlushesEachBatch() throws InterruptedException {
+        addLane();
+        publish(1);
+        publish(2);
+        publish(3);
+        _stage.start("test encoder");
+
+        awaitEvents(4);
+        assertEquals(Arrays.asList("1", "2", "3", "flush"), events());
+    }
+
+    @Test
+    public void controlGoesBeforeTheRestOfABatch() throws InterruptedException {
+        addLane();
+        _blockNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        _stage.start("test encoder");
+        publish(1);
+        publish(2);
+
+        assertTrue(_entered.await(1, TimeUnit.SECONDS));
+        _stage.publishControl(false, "control");
+
+        // The data handled before the message is flushed first to keep the order
+        awaitEvents(5);
+        assertEquals(Arrays.asList("1", "flush", "control", "2", "flush"), events());
+    }
+
+    @Test
+    public void stopWaitsAndDiscardsQueuedData() throws InterruptedException {
+        addLane();
+        _blockNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        publish(1);
+        publish(2);
+        publish(3);
+        _stage.start("test encoder");
+
+        assertTrue(_entered.await(1, TimeUnit.SECONDS));
+        _stage.stop();
+
+        assertEquals(Arrays.asList("1", "discard"), events());
+        assertEquals(2, _stats.getDropped());
+
+        Thread.sleep(50);
+        assertEquals(2, events().size());
+    }
+
+    @Test
+    public void controlAfterStopIsSentDirectly(){
+        addLane();
+        _stage.start("test encoder");
+        _stage.stop();
+
+        _stage.publishControl(true, "error");
+
+        assertEquals(Arrays.asList("error"), events());
+        assertSame(Thread.currentThread(), _controlThread);
+    }
+
+    private void addLane(){
+        final int[][] slots = new int[4][];
+        for(int i = 0; i < slots.length; i++){
+            slots[i] = new int[1];
+        }
+
+        _queue = _stage.addLane(slots, new EncodeStage.SlotHandler<int[]>() {
+            @Override
+            public void handle(int[] slot) {
+                record(Integer.toString(slot[0]));
+                _entered.countDown();
+
+                // Keeps the stage busy with the first slot, ignoring the interrupt from stop()
+                final long end = System.nanoTime() + _blockNanos;
+                _blockNanos = 0;
+                while(System.nanoTime() < end){
+                    Thread.yield();
+                }
+            }
+        });
+    }
+
+    private void publish(int value){
+        _queue.claim()[0] = value;
+        _stage.publish(_queue);
+    }
+
+    private void record(String event){
+        synchronized(_events){
+            _events.add(event);
+            _events.notifyAll();
+        }
+    }
+
+    private List<String> events(){
+        synchronized(_events){
+            return new ArrayList<String>(_events);
+        }
+    }
+
+    private void awaitEvents(int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 2000;
+
+        synchronized(_events){
+            while(_events.size() < count && System.currentTimeMillis() < deadline){
+                _events.wait(deadline - System.currentTimeMillis());
+            }
+        }
+
+        Thread.sleep(20);
+    }
+}
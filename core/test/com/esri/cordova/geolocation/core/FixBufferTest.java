@@ -0,0 +1,155 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FixBufferTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void emptyBufferHasZeroCenter(){
+        final FixBuffer buffer = new FixBuffer(5);
+        buffer.computeCenter();
+
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.getCenterLatitude(), 0);
+        assertEquals(0, buffer.getCenterLongitude(), 0);
+        assertEquals(0, buffer.getCenterAccuracy(), 0);
+    }
+
+    @Test
+    public void holdsExactlyBufferSizeElements(){
+        final FixBuffer buffer = new FixBuffer(3);
+
+        assertEquals(1, buffer.add(1, 1, 1));
+        assertEquals(2, buffer.add(2, 2, 1));
+        assertEquals(3, buffer.add(3, 3, 1));
+        assertEquals(3, buffer.add(4, 4, 1));
+        assertEquals(3, buffer.add(5, 5, 1));
+        assertEquals(3, buffer.size());
+    }
+
+    @Test
+    public void zeroBufferSizeHoldsOneElement(){
+        final FixBuffer buffer = new FixBuffer(0);
+
+        buffer.add(10, 20, 5);
+        buffer.add(30, 40, 7);
+        buffer.computeCenter();
+
+        assertEquals(1, buffer.size());
+        assertEquals(30, buffer.getCenterLatitude(), DELTA);
+        assertEquals(40, buffer.getCenterLongitude(), DELTA);
+        assertEquals(7, buffer.getCenterAccuracy(), 0);
+    }
+
+    @Test
+    public void centerOfSymmetricPoints(){
+        final FixBuffer buffer = new FixBuffer(4);
+
+        buffer.add(10, 20, 4);
+        buffer.add(-10, 20, 8);
+        buffer.computeCenter();
+
+        assertEquals(0, buffer.getCenterLatitude(), DELTA);
+        assertEquals(20, buffer.getCenterLongitude(), DELTA);
+        assertEquals(6, buffer.getCenterAccuracy(), 0);
+    }
+
+    @Test
+    public void centerAcrossTheAntimeridian(){
+        final FixBuffer buffer = new FixBuffer(2);
+
+        buffer.add(0, 179, 1);
+        buffer.add(0, -179, 1);
+        buffer.computeCenter();
+
+        assertEquals(180, Math.abs(buffer.getCenterLongitude()), DELTA);
+        assertEquals(0, buffer.getCenterLatitude(), DELTA);
+    }
+
+    @Test
+    public void centerOnlyUsesTheNewestElements(){
+        final FixBuffer buffer = new FixBuffer(2);
+
+        buffer.add(80, -120, 100);
+        buffer.add(10, 10, 2);
+        buffer.add(10, 10, 4);
+        buffer.computeCenter();
+
+        assertEquals(10, buffer.getCenterLatitude(), DELTA);
+        assertEquals(10, buffer.getCenterLongitude(), DELTA);
+        assertEquals(3, buffer.getCenterAccuracy(), 0);
+    }
+
+    @Test
+    public void runningSumsMatchAFullRecomputation(){
+        final int size = 7;
+        final FixBuffer buffer = new FixBuffer(size);
+        final double[] latitudes = new double[1000];
+        final double[] longitudes = new double[1000];
+
+        for(int i = 0; i < latitudes.length; i++){
+            latitudes[i] = 34 + Math.sin(i) * 0.01;
+            longitudes[i] = -117 + Math.cos(i * 0.7) * 0.01;
+            buffer.add(latitudes[i], longitudes[i], 5);
+        }
+
+        buffer.computeCenter();
+
+        double x = 0;
+        double y = 0;
+        double z = 0;
+
+        for(int i = latitudes.length - size; i < latitudes.length; i++){
+            final double latRad = Math.toRadians(latitudes[i]);
+            final double lonRad = Math.toRadians(longitudes[i]);
+            x += Math.cos(latRad) * Math.cos(lonRad);
+            y += Math.cos(latRad) * Math.sin(lonRad);
+            z += Math.sin(latRad);
+        }
+
+        assertEquals(Math.toDegrees(Math.asin(z / size)), buffer.getCenterLatitude(), DELTA);
+        assertEquals(Math.toDegrees(Math.atan2(y / size, x / size)), buffer.getCenterLongitude(), DELTA);
+    }
+
+    @Test
+    public void clearEmptiesTheBuffer(){
+        final FixBuffer buffer = new FixBuffer(3);
+
+        buffer.add(1, 2, 3);
+        buffer.add(4, 5, 6);
+        buffer.clear();
+
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.size());
+
+        buffer.add(-5, 6, 2);
+        buffer.computeCenter();
+
+        assertFalse(buffer.isEmpty());
+        assertEquals(-5, buffer.getCenterLatitude(), DELTA);
+        assertEquals(6, buffer.getCenterLongitude(), DELTA);
+        assertEquals(2, buffer.getCenterAccuracy(), 0);
+    }
+}
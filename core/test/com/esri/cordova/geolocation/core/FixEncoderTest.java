@@ -0,0 +1,153 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FixEncoderTest {
+
+    @Test
+    public void encodesEveryFieldInOrder(){
+        final String json = new FixEncoder().encode(fix(34.05, -117.19, 1500000000000L));
+
+        assertTrue(json, json.startsWith("{\"provider\":\"gps\",\"latitude\":34.05,\"longitude\":-117.19,"
+                + "\"altitude\":350,\"accuracy\":4.5,\"bearing\":90,\"speed\":1.25,"
+                + "\"timestamp\":1500000000000,\"cached\":false,"
+                + "\"sensorNanos\":2000,\"receivedNanos\":3000,\"dispatchNanos\":"));
+        assertTrue(json, json.endsWith("}"));
+    }
+
+    @Test
+    public void encodesTheBufferState(){
+        final String json = new FixEncoder().encode(fix(1, 2, 3), true, 1.5, 2.5, 6f, 4);
+
+        assertTrue(json, json.startsWith("{\"provider\":\"gps\",\"timestamp\":3,\"latitude\":1,\"longitude\":2,"
+                + "\"altitude\":350,\"accuracy\":4.5,\"bearing\":90,\"speed\":1.25,\"cached\":false,"
+                + "\"buffer\":true,\"bufferSize\":4,\"bufferedLatitude\":1.5,\"bufferedLongitude\":2.5,"
+                + "\"bufferedAccuracy\":6,\"sensorNanos\":2000,"));
+    }
+
+    @Test
+    public void sensorNanosFallBackToReceivedNanos(){
+        final Fix fix = fix(1, 2, 3);
+        fix.elapsedRealtimeNanos = 0;
+
+        final String json = new FixEncoder().encode(fix);
+
+        assertTrue(json, json.contains("\"sensorNanos\":3000,\"receivedNanos\":3000,"));
+    }
+
+    @Test
+    public void writesOnlySelectedFields(){
+        final PayloadFormat format = new PayloadFormat(
+                PayloadFormat.LATITUDE | PayloadFormat.LONGITUDE | PayloadFormat.TIMESTAMP,
+                PayloadFormat.ALL, 4, 1, 0);
+
+        final String json = new FixEncoder(format).encode(fix(34.056789, -117.195684, 42));
+
+        assertEquals("{\"provider\":\"gps\",\"latitude\":34.0568,\"longitude\":-117.1957,\"timestamp\":42}", json);
+    }
+
+    @Test
+    public void roundsOtherDecimalsToFloatPrecision(){
+        final PayloadFormat format = new PayloadFormat(
+                PayloadFormat.ACCURACY | PayloadFormat.SPEED,
+                PayloadFormat.ALL, PayloadFormat.FULL_PRECISION, 0, 0);
+
+        assertEquals("{\"provider\":\"gps\",\"accuracy\":5,\"speed\":1}", new FixEncoder(format).encode(fix(1, 2, 3)));
+    }
+
+    @Test
+    public void deltaEncodesBetweenKeyframes(){
+        final PayloadFormat format = new PayloadFormat(
+                PayloadFormat.LATITUDE | PayloadFormat.LONGITUDE | PayloadFormat.TIMESTAMP,
+                PayloadFormat.ALL, 5, PayloadFormat.FULL_PRECISION, 3);
+        final FixEncoder encoder = new FixEncoder(format, true);
+
+        assertEquals("{\"provider\":\"gps\",\"seq\":0,\"keyframe\":true,\"decimals\":5,"
+                + "\"latitude\":34.00001,\"longitude\":-117.5,\"timestamp\":1000}",
+                encoder.encode(fix(34.000012, -117.5, 1000)));
+        assertEquals("{\"provider\":\"gps\",\"seq\":1,\"dLat\":2,\"dLon\":-10,\"dTime\":1000}",
+                encoder.encode(fix(34.00003, -117.5001, 2000)));
+        assertEquals("{\"provider\":\"gps\",\"seq\":2,\"dLat\":0,\"dLon\":0,\"dTime\":500}",
+                encoder.encode(fix(34.00003, -117.5001, 2500)));
+        assertEquals("{\"provider\":\"gps\",\"seq\":3,\"keyframe\":true,\"decimals\":5,"
+                + "\"latitude\":34.00004,\"longitude\":-117.5001,\"timestamp\":3000}",
+                encoder.encode(fix(34.00004, -117.5001, 3000)));
+    }
+
+    @Test
+    public void deltasSumToTheQuantizedPosition(){
+        final PayloadFormat format = new PayloadFormat(
+                PayloadFormat.LATITUDE, PayloadFormat.ALL, PayloadFormat.FULL_PRECISION, PayloadFormat.FULL_PRECISION, 1000);
+        final FixEncoder encoder = new FixEncoder(format, true);
+        final double scale = Math.pow(10, PayloadFormat.DELTA_DECIMALS);
+
+        long latitude = Math.round(Double.parseDouble(field(encoder.encode(fix(10, 0, 0)), "latitude")) * scale);
+        double expected = 10;
+
+        for(int i = 1; i < 200; i++){
+            expected = 10 + Math.sin(i) * 0.001;
+            latitude += Long.parseLong(field(encoder.encode(fix(expected, 0, 0)), "dLat"));
+        }
+
+        assertEquals(Math.round(expected * scale), latitude);
+    }
+
+    @Test
+    public void onlyStreamEncodersDeltaEncode(){
+        final PayloadFormat format = new PayloadFormat(
+                PayloadFormat.LATITUDE, PayloadFormat.ALL, PayloadFormat.FULL_PRECISION, PayloadFormat.FULL_PRECISION, 5);
+        final FixEncoder encoder = new FixEncoder(format);
+
+        encoder.encode(fix(1, 2, 3));
+        final String json = encoder.encode(fix(1.5, 2, 3));
+
+        assertEquals("{\"provider\":\"gps\",\"latitude\":1.5}", json);
+        assertFalse(json.contains("seq"));
+    }
+
+    private static Fix fix(double latitude, double longitude, long time){
+        final Fix fix = new Fix();
+        fix.provider = "gps";
+        fix.latitude = latitude;
+        fix.longitude = longitude;
+        fix.time = time;
+        fix.altitude = 350;
+        fix.accuracy = 4.5f;
+        fix.bearing = 90;
+        fix.speed = 1.25f;
+        fix.elapsedRealtimeNanos = 2000;
+        fix.receivedNanos = 3000;
+        return fix;
+    }
+
+    private static String field(String json, String key){
+        final int start = json.indexOf("\"" + key + "\":") + key.length() + 3;
+        int end = start;
+
+        while(end < json.length() && json.charAt(end) != ',' && json.charAt(end) != '}'){
+            end++;
+        }
+
+        return json.substring(start, end);
+    }
+}
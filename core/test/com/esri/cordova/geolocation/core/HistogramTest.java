@@ -0,0 +1,107 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+
+public class HistogramTest {
+
+    @Test
+    public void reportsBucketUpperBounds(){
+        final Histogram histogram = new Histogram();
+
+        for(int i = 1; i <= 100; i++){
+            histogram.record(i);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+        assertEquals(63, histogram.getPercentile(50));
+        assertEquals(100, histogram.getPercentile(99));
+        assertEquals(100, histogram.getMax());
+    }
+
+    @Test
+    public void snapshotWithoutResetKeepsTheValues(){
+        final Histogram histogram = new Histogram();
+        histogram.record(10);
+        histogram.record(20);
+
+        final Histogram snapshot = histogram.snapshot(false);
+        histogram.record(30);
+
+        assertEquals(2, snapshot.getCount());
+        assertEquals(15, snapshot.getMean(), 1e-9);
+        assertEquals(3, histogram.getCount());
+    }
+
+    @Test
+    public void snapshotWithResetZerosTheHistogram(){
+        final Histogram histogram = new Histogram();
+        histogram.record(10);
+
+        final Histogram snapshot = histogram.snapshot(true);
+
+        assertEquals(1, snapshot.getCount());
+        assertEquals(10, snapshot.getMax());
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void resettingSnapshotsCountEveryValueOnce() throws InterruptedException {
+        final Histogram histogram = new Histogram();
+        final ProviderStats stats = new ProviderStats("gps");
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final CountDownLatch done = new CountDownLatch(1);
+        final int values = 200000;
+
+        final Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for(int i = 0; i < values; i++){
+                    histogram.record(i & 1023);
+                    stats.onReceived();
+                }
+                running.set(false);
+                done.countDown();
+            }
+        });
+        writer.start();
+
+        long count = 0;
+        long received = 0;
+
+        while(running.get()){
+            count += histogram.snapshot(true).getCount();
+            received += stats.snapshot(true).getReceived();
+        }
+        done.await();
+
+        count += histogram.snapshot(true).getCount();
+        received += stats.snapshot(true).getReceived();
+
+        assertEquals(values, count);
+        assertEquals(values, received);
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonWriterTest {
+
+    @Test
+    public void insertsSeparators(){
+        final JsonWriter json = new JsonWriter(64);
+
+        json.beginObject()
+                .put("a", 1)
+                .key("b").beginArray().value(1).value("two").value(true).endArray()
+                .key("c").beginObject().put("d", false).endObject()
+                .endObject();
+
+        assertEquals("{\"a\":1,\"b\":[1,\"two\",true],\"c\":{\"d\":false}}", json.toString());
+    }
+
+    @Test
+    public void resetReusesTheWriter(){
+        final JsonWriter json = new JsonWriter(16);
+
+        json.beginObject().put("a", 1).endObject();
+        json.reset().beginObject().put("b", 2).endObject();
+
+        assertEquals("{\"b\":2}", json.toString());
+        assertEquals(7, json.length());
+    }
+
+    @Test
+    public void escapesStrings(){
+        final JsonWriter json = new JsonWriter(16);
+
+        json.beginArray().value("a\"b\\c").value((String) null).endArray();
+
+        assertEquals("[\"a\\\"b\\\\c\",null]", json.toString());
+    }
+
+    @Test
+    public void writesDoublesLikeOrgJson(){
+        final JsonWriter json = new JsonWriter(64);
+
+        json.beginArray()
+                .value(3.0)
+                .value(-0.5)
+                .value(34.056789)
+                .value((double) 1.1f)
+                .value(Double.NaN)
+                .value(Double.POSITIVE_INFINITY)
+                .endArray();
+
+        assertEquals("[3,-0.5,34.056789," + (double) 1.1f + ",0,0]", json.toString());
+    }
+
+    @Test
+    public void roundsToDecimals(){
+        assertEquals("34.0568", decimals(34.056789, 4));
+        assertEquals("-117.1", decimals(-117.100004, 4));
+        assertEquals("2", decimals(1.99999, 3));
+        assertEquals("0.005", decimals(0.005, 3));
+        assertEquals("-0.05", decimals(-0.05, 2));
+        assertEquals("0", decimals(0.0004, 3));
+        assertEquals("12", decimals(12.4, 0));
+        assertEquals("0.000000001", decimals(0.000000001, 12));
+    }
+
+    @Test
+    public void negativeDecimalsKeepFullPrecision(){
+        assertEquals("34.056789", decimals(34.056789, PayloadFormat.FULL_PRECISION));
+    }
+
+    @Test
+    public void valuesTooLargeToRoundAreWrittenInFull(){
+        assertEquals(Double.toString(1.5E15 + 0.25), decimals(1.5E15 + 0.25, 9));
+    }
+
+    private static String decimals(double value, int decimals){
+        return new JsonWriter(32).value(value, decimals).toString();
+    }
+}
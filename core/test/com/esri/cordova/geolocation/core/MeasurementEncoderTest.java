@@ -0,0 +1,179 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Decodes batches at the offsets documented for rawMeasurements in api_reference.md.
+ */
+public class MeasurementEncoderTest {
+
+    @Test
+    public void headerAndRecordSizesMatchTheDocumentation(){
+        final MeasurementEncoder encoder = new MeasurementEncoder();
+        encoder.beginEpoch(1, 2, 3, 4, 0, 0);
+        encoder.endEpoch();
+        assertEquals(40, encoder.drain().length);
+
+        encoder.beginEpoch(1, 2, 3, 4, 0, 0);
+        measurement(encoder, 1);
+        measurement(encoder, 2);
+        encoder.endEpoch();
+        assertEquals(40 + 2 * 64, encoder.drain().length);
+    }
+
+    @Test
+    public void decodesAMultiEpochBatch(){
+        final MeasurementEncoder encoder = new MeasurementEncoder();
+
+        encoder.beginEpoch(123456789012L, -1200000000000000000L, 0.625, 3,
+                MeasurementEncoder.FLAG_FULL_BIAS | MeasurementEncoder.FLAG_BIAS | MeasurementEncoder.FLAG_LEAP_SECOND, 18);
+        encoder.addMeasurement(6, 301, 2, 0x4fff, 12.5, 987654321098L, 40, 42.75,
+                -512.25, 0.125, 0x11, 2345678.5, 0.0625, 1575420030f);
+        measurement(encoder, 17);
+        encoder.endEpoch();
+
+        encoder.beginEpoch(223456789012L, 0, 0, 4, 0, 0);
+        measurement(encoder, 5);
+        encoder.endEpoch();
+
+        assertEquals(2, encoder.getEpochs());
+
+        final ByteBuffer batch = ByteBuffer.wrap(encoder.drain());
+        assertEquals(40 + 2 * 64 + 40 + 64, batch.capacity());
+
+        // First epoch header
+        assertEquals(0x4147524D, batch.getInt(0));
+        assertEquals(1, batch.getShort(4));
+        assertEquals(2, batch.getShort(6));
+        assertEquals(123456789012L, batch.getLong(8));
+        assertEquals(-1200000000000000000L, batch.getLong(16));
+        assertEquals(0.625, batch.getDouble(24), 0);
+        assertEquals(3, batch.getInt(32));
+        assertEquals(7, batch.getShort(36));
+        assertEquals(18, batch.getShort(38));
+
+        // First record
+        final int record = 40;
+        assertEquals(6, batch.get(record));
+        assertEquals(301, batch.getShort(record + 1));
+        assertEquals(2, batch.get(record + 3));
+        assertEquals(0x4fff, batch.getInt(record + 4));
+        assertEquals(12.5, batch.getDouble(record + 8), 0);
+        assertEquals(987654321098L, batch.getLong(record + 16));
+        assertEquals(40f, batch.getFloat(record + 24), 0);
+        assertEquals(42.75f, batch.getFloat(record + 28), 0);
+        assertEquals(-512.25, batch.getDouble(record + 32), 0);
+        assertEquals(0.125f, batch.getFloat(record + 40), 0);
+        assertEquals(0x11, batch.getShort(record + 44));
+        assertEquals(2345678.5, batch.getDouble(record + 46), 0);
+        assertEquals(0.0625f, batch.getFloat(record + 54), 0);
+        assertEquals(1575420030f, batch.getFloat(record + 58), 0);
+        assertEquals(0, batch.getShort(record + 62));
+
+        assertEquals(17, batch.getShort(record + 64 + 1));
+
+        // Second epoch follows the last record of the first
+        final int second = 40 + 2 * 64;
+        assertEquals(0x4147524D, batch.getInt(second));
+        assertEquals(1, batch.getShort(second + 6));
+        assertEquals(223456789012L, batch.getLong(second + 8));
+        assertEquals(0, batch.getShort(second + 36));
+        assertEquals(5, batch.getShort(second + 40 + 1));
+    }
+
+    @Test
+    public void endEpochPatchesOnlyItsOwnCount(){
+        final MeasurementEncoder encoder = new MeasurementEncoder();
+
+        encoder.beginEpoch(1, 0, 0, 0, 0, 0);
+        measurement(encoder, 1);
+        measurement(encoder, 2);
+        measurement(encoder, 3);
+        encoder.endEpoch();
+
+        encoder.beginEpoch(2, 0, 0, 0, 0, 0);
+        encoder.endEpoch();
+
+        encoder.beginEpoch(3, 0, 0, 0, 0, 0);
+        measurement(encoder, 4);
+        encoder.endEpoch();
+
+        final ByteBuffer batch = ByteBuffer.wrap(encoder.drain());
+
+        assertEquals(3, batch.getShort(6));
+        assertEquals(0, batch.getShort(40 + 3 * 64 + 6));
+        assertEquals(1, batch.getShort(40 + 3 * 64 + 40 + 6));
+        assertEquals(3, batch.getLong(40 + 3 * 64 + 40 + 8));
+    }
+
+    @Test
+    public void growsWithoutLosingEarlierEpochs(){
+        final MeasurementEncoder encoder = new MeasurementEncoder();
+
+        encoder.beginEpoch(1, 0, 0, 0, 0, 0);
+        measurement(encoder, 1);
+        encoder.endEpoch();
+
+        // More than the initial room for 64 measurements, so the buffer grows mid-epoch
+        encoder.beginEpoch(2, 0, 0, 0, 0, 0);
+        for(int i = 0; i < 150; i++){
+            measurement(encoder, i);
+        }
+        encoder.endEpoch();
+
+        final ByteBuffer batch = ByteBuffer.wrap(encoder.drain());
+        final int second = 40 + 64;
+
+        assertEquals(second + 40 + 150 * 64, batch.capacity());
+        assertEquals(1, batch.getShort(6));
+        assertEquals(1, batch.getShort(40 + 1));
+        assertEquals(150, batch.getShort(second + 6));
+        assertEquals(2, batch.getLong(second + 8));
+
+        for(int i = 0; i < 150; i++){
+            assertEquals(i, batch.getShort(second + 40 + i * 64 + 1));
+        }
+    }
+
+    @Test
+    public void drainingEmptiesTheEncoder() throws IOException {
+        final MeasurementEncoder encoder = new MeasurementEncoder();
+        encoder.beginEpoch(1, 0, 0, 0, 0, 0);
+        measurement(encoder, 9);
+        encoder.endEpoch();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.drainTo(out);
+
+        assertEquals(40 + 64, out.size());
+        assertEquals(0, encoder.getEpochs());
+        assertArrayEquals(new byte[0], encoder.drain());
+    }
+
+    private static void measurement(MeasurementEncoder encoder, int svid){
+        encoder.addMeasurement(1, svid, 0, 0, 0, 0, 0, 30, 0, 0, 0, 0, 0, 0f);
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SamplingPolicyTest {
+
+    private static final long SECOND = 1000000000L;
+
+    @Test
+    public void needsRequiredFixesForTheFirstLevel(){
+        final SamplingPolicy policy = new SamplingPolicy();
+
+        for(int i = 0; i < SamplingPolicy.REQUIRED_FIXES - 1; i++){
+            assertFalse(policy.update(fix(2f, i)));
+            assertEquals(-1, policy.getLevel());
+        }
+
+        assertTrue(policy.update(fix(2f, SamplingPolicy.REQUIRED_FIXES - 1)));
+        assertEquals(SamplingPolicy.WALKING, policy.getLevel());
+        assertEquals(-1, policy.getPreviousLevel());
+        assertEquals(5000, policy.getMinTime());
+        assertEquals(5, policy.getMinDistance());
+    }
+
+    @Test
+    public void aDisagreeingFixRestartsTheCount(){
+        final SamplingPolicy policy = walking();
+        long second = 100;
+
+        assertFalse(policy.update(fix(10f, second++)));
+        assertFalse(policy.update(fix(10f, second++)));
+        // Back within the current level
+        assertFalse(policy.update(fix(2f, second++)));
+        assertFalse(policy.update(fix(10f, second++)));
+        assertFalse(policy.update(fix(10f, second++)));
+        // A different level also restarts the count
+        assertFalse(policy.update(fix(20f, second++)));
+        assertFalse(policy.update(fix(10f, second++)));
+        assertFalse(policy.update(fix(10f, second++)));
+        assertEquals(SamplingPolicy.WALKING, policy.getLevel());
+
+        assertTrue(policy.update(fix(10f, second)));
+        assertEquals(SamplingPolicy.MOVING, policy.getLevel());
+        assertEquals(SamplingPolicy.WALKING, policy.getPreviousLevel());
+    }
+
+    @Test
+    public void leavingALevelUpwardsNeedsTheHysteresisMargin(){
+        final SamplingPolicy policy = walking();
+        final float boundary = 3f;
+        final float margin = boundary * (1 + SamplingPolicy.HYSTERESIS);
+
+        assertFalse(changes(policy, boundary + 0.1f, 100));
+        assertFalse(changes(policy, margin - 0.05f, 200));
+        assertEquals(SamplingPolicy.WALKING, policy.getLevel());
+
+        assertTrue(changes(policy, margin + 0.05f, 300));
+        assertEquals(SamplingPolicy.MOVING, policy.getLevel());
+    }
+
+    @Test
+    public void leavingALevelDownwardsNeedsTheHysteresisMargin(){
+        final SamplingPolicy policy = walking();
+        final float boundary = 0.5f;
+        final float margin = boundary * (1 - SamplingPolicy.HYSTERESIS);
+
+        assertFalse(changes(policy, boundary - 0.01f, 100));
+        assertFalse(changes(policy, margin + 0.01f, 200));
+        assertEquals(SamplingPolicy.WALKING, policy.getLevel());
+
+        assertTrue(changes(policy, margin - 0.01f, 300));
+        assertEquals(SamplingPolicy.STATIONARY, policy.getLevel());
+        assertEquals(30000, policy.getMinTime());
+    }
+
+    @Test
+    public void holdsALevelForTheMinimumDwell(){
+        final SamplingPolicy policy = walking();
+        final long dwell = SamplingPolicy.MIN_DWELL_NANOS / SECOND;
+        final long changed = SamplingPolicy.REQUIRED_FIXES - 1;
+
+        assertFalse(policy.update(fix(10f, changed + 1)));
+        assertFalse(policy.update(fix(10f, changed + 2)));
+        assertFalse(policy.update(fix(10f, changed + 3)));
+        assertFalse(policy.update(fix(10f, changed + dwell - 1)));
+        assertEquals(SamplingPolicy.WALKING, policy.getLevel());
+
+        // The agreeing fixes were counted during the hold
+        assertTrue(policy.update(fix(10f, changed + dwell)));
+        assertEquals(SamplingPolicy.MOVING, policy.getLevel());
+    }
+
+    @Test
+    public void derivesSpeedFromDistanceWhenNoneIsReported(){
+        final SamplingPolicy policy = new SamplingPolicy();
+        // 0.0001 degrees of latitude is about 11 meters
+        policy.update(fix(0f, 0, 34.0, 5f));
+        policy.update(fix(0f, 1, 34.0001, 5f));
+
+        assertEquals(11.13, policy.getSpeed(), 0.01);
+    }
+
+    @Test
+    public void ignoresMovementWithinTheAccuracy(){
+        final SamplingPolicy policy = new SamplingPolicy();
+        policy.update(fix(0f, 0, 34.0, 10f));
+        policy.update(fix(0f, 1, 34.0001, 10f));
+
+        assertEquals(0, policy.getSpeed(), 0);
+    }
+
+    @Test
+    public void prefersTheReportedSpeed(){
+        final SamplingPolicy policy = new SamplingPolicy();
+        policy.update(fix(0f, 0, 34.0, 5f));
+        policy.update(fix(1.5f, 1, 34.001, 5f));
+
+        assertEquals(1.5f, policy.getSpeed(), 0);
+    }
+
+    @Test
+    public void ignoresInaccurateFixes(){
+        final SamplingPolicy policy = new SamplingPolicy();
+
+        for(int i = 0; i < SamplingPolicy.REQUIRED_FIXES; i++){
+            assertFalse(policy.update(fix(2f, i, 34, SamplingPolicy.MAX_ACCURACY + 1)));
+            assertFalse(policy.update(fix(2f, i, 34, 0)));
+        }
+
+        assertEquals(-1, policy.getLevel());
+    }
+
+    @Test
+    public void resetForgetsTheLevel(){
+        final SamplingPolicy policy = walking();
+        policy.reset();
+
+        assertEquals(-1, policy.getLevel());
+        assertEquals(0, policy.getSpeed(), 0);
+        // No dwell applies to the first level after a reset
+        assertTrue(changes(policy, 20f, 3));
+        assertEquals(SamplingPolicy.FAST, policy.getLevel());
+    }
+
+    /**
+     * A policy that settled on WALKING at second REQUIRED_FIXES - 1.
+     */
+    private static SamplingPolicy walking(){
+        final SamplingPolicy policy = new SamplingPolicy();
+        for(int i = 0; i < SamplingPolicy.REQUIRED_FIXES; i++){
+            policy.update(fix(2f, i));
+        }
+        assertEquals(SamplingPolicy.WALKING, policy.getLevel());
+        return policy;
+    }
+
+    /**
+     * Feeds REQUIRED_FIXES fixes one second apart starting at a given second.
+     */
+    private static boolean changes(SamplingPolicy policy, float speed, long second){
+        boolean changed = false;
+        for(int i = 0; i < SamplingPolicy.REQUIRED_FIXES; i++){
+            changed |= policy.update(fix(speed, second + i));
+        }
+        return changed;
+    }
+
+    private static Fix fix(float speed, long second){
+        return fix(speed, second, 34, 5f);
+    }
+
+    private static Fix fix(float speed, long second, double latitude, float accuracy){
+        final Fix fix = new Fix();
+        fix.provider = "gps";
+        fix.latitude = latitude;
+        fix.longitude = -117;
+        fix.speed = speed;
+        fix.accuracy = accuracy;
+        fix.elapsedRealtimeNanos = second * SECOND;
+        return fix;
+    }
+}
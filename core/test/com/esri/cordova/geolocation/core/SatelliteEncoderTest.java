@@ -0,0 +1,104 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SatelliteEncoderTest {
+
+    @Before
+    public void fixTheClock(){
+        ElapsedClock.setSource(new ElapsedClock.Source() {
+            @Override
+            public long nanos() {
+                return 9000;
+            }
+        });
+    }
+
+    @After
+    public void restoreTheClock(){
+        ElapsedClock.setSource(null);
+    }
+
+    @Test
+    public void encodesSummariesAndColumns(){
+        final String json = new SatelliteEncoder("gnss").encode(table(), 1500000000000L, 7000, 3200, true);
+
+        assertEquals("{\"provider\":\"gnss\",\"timestamp\":1500000000000,\"sensorNanos\":7000,\"receivedNanos\":7000,"
+                + "\"timeToFirstFix\":3200,\"inView\":3,\"usedInFix\":2,\"meanCn0\":30,\"maxCn0\":40,"
+                + "\"constellations\":["
+                + "{\"constellation\":\"gps\",\"inView\":2,\"usedInFix\":1,\"meanCn0\":35,\"maxCn0\":40},"
+                + "{\"constellation\":\"galileo\",\"inView\":1,\"usedInFix\":1,\"meanCn0\":20,\"maxCn0\":20}],"
+                + "\"satellites\":{\"constellation\":[1,1,6],\"svid\":[12,7,3],\"cn0\":[40,30,20],"
+                + "\"elevation\":[45.5,10,80],\"azimuth\":[270,90.25,0],\"usedInFix\":[0,1,1],"
+                + "\"hasEphemeris\":[1,0,1],\"hasAlmanac\":[0,1,1],\"carrierFrequencyHz\":[1575420032,0,1575420032]},"
+                + "\"dispatchNanos\":9000}", json);
+    }
+
+    @Test
+    public void omitsUnknownTimeToFirstFixAndTheColumns(){
+        final String json = new SatelliteEncoder("gnss").encode(table(), 1, 2, -1, false);
+
+        assertEquals("{\"provider\":\"gnss\",\"timestamp\":1,\"sensorNanos\":2,\"receivedNanos\":2,"
+                + "\"inView\":3,\"usedInFix\":2,\"meanCn0\":30,\"maxCn0\":40,"
+                + "\"constellations\":["
+                + "{\"constellation\":\"gps\",\"inView\":2,\"usedInFix\":1,\"meanCn0\":35,\"maxCn0\":40},"
+                + "{\"constellation\":\"galileo\",\"inView\":1,\"usedInFix\":1,\"meanCn0\":20,\"maxCn0\":20}],"
+                + "\"dispatchNanos\":9000}", json);
+    }
+
+    @Test
+    public void writesOnlySelectedColumns(){
+        final PayloadFormat format = new PayloadFormat(
+                PayloadFormat.ALL, PayloadFormat.SVID | PayloadFormat.ELEVATION, PayloadFormat.FULL_PRECISION, 0, 0);
+
+        final String json = new SatelliteEncoder("gnss", format).encode(table(), 1, 2, 3200, true);
+
+        assertEquals("\"satellites\":{\"svid\":[12,7,3],\"elevation\":[46,10,80]},\"dispatchNanos\":9000}",
+                json.substring(json.indexOf("\"satellites\"")));
+    }
+
+    @Test
+    public void reusesTheEncoderForAnEmptyTable(){
+        final SatelliteEncoder encoder = new SatelliteEncoder("gnss");
+        encoder.encode(table(), 1, 2, 3200, true);
+
+        final SatelliteTable empty = new SatelliteTable();
+        empty.reset(0);
+
+        assertEquals("{\"provider\":\"gnss\",\"timestamp\":1,\"sensorNanos\":2,\"receivedNanos\":2,"
+                + "\"inView\":0,\"usedInFix\":0,\"meanCn0\":0,\"maxCn0\":0,\"constellations\":[],"
+                + "\"satellites\":{\"constellation\":[],\"svid\":[],\"cn0\":[],\"elevation\":[],\"azimuth\":[],"
+                + "\"usedInFix\":[],\"hasEphemeris\":[],\"hasAlmanac\":[],\"carrierFrequencyHz\":[]},"
+                + "\"dispatchNanos\":9000}",
+                encoder.encode(empty, 1, 2, -1, true));
+    }
+
+    private static SatelliteTable table(){
+        final SatelliteTable table = new SatelliteTable();
+        table.reset(3);
+        table.add(1, 12, 40f, 45.5f, 270f, false, true, false, 1575420030f);
+        table.add(1, 7, 30f, 10f, 90.25f, true, false, true, 0f);
+        table.add(6, 3, 20f, 80f, 0f, true, true, true, 1575420030f);
+        return table;
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SatelliteTableTest {
+
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void storesEachSatellite(){
+        final SatelliteTable table = new SatelliteTable();
+        table.reset(2);
+        table.add(1, 12, 38.5f, 45f, 270f, true, true, false, 1575420030f);
+        table.add(3, 7, 22.25f, 10f, 90f, false, false, true, 0f);
+
+        assertEquals(2, table.size());
+        assertEquals(1, table.getConstellation(0));
+        assertEquals(12, table.getSvid(0));
+        assertEquals(38.5f, table.getCn0(0), 0);
+        assertEquals(45f, table.getElevation(0), 0);
+        assertEquals(270f, table.getAzimuth(0), 0);
+        assertEquals(1575420030f, table.getCarrierFrequency(0), 0);
+        assertTrue(table.isUsedInFix(0));
+        assertTrue(table.hasEphemeris(0));
+        assertFalse(table.hasAlmanac(0));
+
+        assertEquals(3, table.getConstellation(1));
+        assertEquals(7, table.getSvid(1));
+        assertFalse(table.isUsedInFix(1));
+        assertFalse(table.hasEphemeris(1));
+        assertTrue(table.hasAlmanac(1));
+    }
+
+    @Test
+    public void aggregatesPerConstellationAndOverall(){
+        final SatelliteTable table = new SatelliteTable();
+        table.reset(5);
+        table.add(1, 1, 40f, 0, 0, true, false, false, 0);
+        table.add(1, 2, 30f, 0, 0, true, false, false, 0);
+        table.add(1, 3, 20f, 0, 0, false, false, false, 0);
+        table.add(6, 4, 45f, 0, 0, true, false, false, 0);
+        table.add(6, 5, 15f, 0, 0, false, false, false, 0);
+
+        assertEquals(3, table.getInView(1));
+        assertEquals(2, table.getUsedInFix(1));
+        assertEquals(30, table.getMeanCn0(1), DELTA);
+        assertEquals(40f, table.getMaxCn0(1), 0);
+
+        assertEquals(2, table.getInView(6));
+        assertEquals(1, table.getUsedInFix(6));
+        assertEquals(30, table.getMeanCn0(6), DELTA);
+        assertEquals(45f, table.getMaxCn0(6), 0);
+
+        assertEquals(5, table.getInView(-1));
+        assertEquals(3, table.getUsedInFix(-1));
+        assertEquals(30, table.getMeanCn0(-1), DELTA);
+        assertEquals(45f, table.getMaxCn0(-1), 0);
+
+        assertEquals(0, table.getInView(3));
+        assertEquals(0, table.getMeanCn0(3), 0);
+    }
+
+    @Test
+    public void unknownConstellationsAreCountedAsUnknown(){
+        final SatelliteTable table = new SatelliteTable();
+        table.reset(2);
+        table.add(42, 1, 20f, 0, 0, false, false, false, 0);
+        table.add(-1, 2, 30f, 0, 0, false, false, false, 0);
+
+        assertEquals(0, table.getConstellation(0));
+        assertEquals(0, table.getConstellation(1));
+        assertEquals(2, table.getInView(0));
+        assertEquals(25, table.getMeanCn0(0), DELTA);
+    }
+
+    @Test
+    public void resetClearsRowsAndAggregates(){
+        final SatelliteTable table = new SatelliteTable();
+        table.reset(2);
+        table.add(1, 1, 40f, 0, 0, true, false, false, 0);
+        table.add(5, 2, 30f, 0, 0, true, false, false, 0);
+
+        table.reset(1);
+
+        assertEquals(0, table.size());
+        assertEquals(0, table.getInView(-1));
+        assertEquals(0, table.getUsedInFix(-1));
+        assertEquals(0, table.getMeanCn0(-1), 0);
+        assertEquals(0f, table.getMaxCn0(1), 0);
+
+        // Smaller resets keep the columns, so a second row still fits
+        table.add(5, 3, 25f, 0, 0, false, false, false, 0);
+        table.add(5, 4, 35f, 0, 0, false, false, false, 0);
+
+        assertEquals(2, table.getInView(5));
+        assertEquals(30, table.getMeanCn0(5), DELTA);
+    }
+
+    @Test
+    public void growsWhenMoreSatellitesAreReported(){
+        final SatelliteTable table = new SatelliteTable();
+        table.reset(1);
+        table.add(1, 1, 40f, 0, 0, true, false, false, 0);
+
+        table.reset(40);
+        for(int i = 0; i < 40; i++){
+            table.add(1 + i % 7, i, i, 0, 0, i % 2 == 0, false, false, 0);
+        }
+
+        assertEquals(40, table.size());
+        assertEquals(39, table.getSvid(39));
+        assertEquals(20, table.getUsedInFix(-1));
+        assertEquals(39f, table.getMaxCn0(-1), 0);
+    }
+
+    @Test
+    public void mapsLegacyPrnRangesToConstellations(){
+        assertEquals(0, SatelliteTable.constellationFromPrn(0));
+        assertEquals(1, SatelliteTable.constellationFromPrn(1));
+        assertEquals(1, SatelliteTable.constellationFromPrn(32));
+        assertEquals(2, SatelliteTable.constellationFromPrn(33));
+        assertEquals(2, SatelliteTable.constellationFromPrn(64));
+        assertEquals(3, SatelliteTable.constellationFromPrn(65));
+        assertEquals(3, SatelliteTable.constellationFromPrn(96));
+        assertEquals(0, SatelliteTable.constellationFromPrn(97));
+        assertEquals(0, SatelliteTable.constellationFromPrn(192));
+        assertEquals(4, SatelliteTable.constellationFromPrn(193));
+        assertEquals(4, SatelliteTable.constellationFromPrn(200));
+        assertEquals(5, SatelliteTable.constellationFromPrn(201));
+        assertEquals(5, SatelliteTable.constellationFromPrn(235));
+        assertEquals(0, SatelliteTable.constellationFromPrn(236));
+        assertEquals(6, SatelliteTable.constellationFromPrn(301));
+        assertEquals(6, SatelliteTable.constellationFromPrn(336));
+        assertEquals(0, SatelliteTable.constellationFromPrn(337));
+    }
+
+    @Test
+    public void summarizesLegacyPrnsByConstellation(){
+        final int[] prns = {5, 12, 40, 70, 195, 210, 305, 310};
+        final SatelliteTable table = new SatelliteTable();
+        table.reset(prns.length);
+
+        for(int prn : prns){
+            table.add(SatelliteTable.constellationFromPrn(prn), prn, 30f, 0, 0, prn < 100, false, false, 0);
+        }
+
+        assertEquals(2, table.getInView(1));
+        assertEquals(1, table.getInView(2));
+        assertEquals(1, table.getInView(3));
+        assertEquals(1, table.getInView(4));
+        assertEquals(1, table.getInView(5));
+        assertEquals(2, table.getInView(6));
+        assertEquals(0, table.getInView(0));
+        assertEquals(4, table.getUsedInFix(-1));
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SignalCoalescerTest {
+
+    private static final long MS = 1000000;
+
+    @Test
+    public void emitsTheFirstEventAndChangesAboveTheThreshold(){
+        final SignalCoalescer coalescer = new SignalCoalescer(5, 0);
+
+        assertTrue(coalescer.offer(-90, 2, MS));
+        assertFalse(coalescer.offer(-92, 2, 2 * MS));
+        assertTrue(coalescer.offer(-96, 2, 3 * MS));
+        assertTrue(coalescer.offer(-96, 1, 4 * MS));
+        assertFalse(coalescer.hasPending());
+    }
+
+    @Test
+    public void holdsAChangeThatCameTooSoon(){
+        final SignalCoalescer coalescer = new SignalCoalescer(5, 1000);
+
+        assertTrue(coalescer.offer(-90, 2, 0));
+        assertFalse(coalescer.offer(-100, 1, 200 * MS));
+
+        assertTrue(coalescer.hasPending());
+        assertEquals(800, coalescer.getPendingDelayMillis(200 * MS));
+        assertFalse(coalescer.takePending(500 * MS));
+        assertTrue(coalescer.takePending(1000 * MS));
+        assertFalse(coalescer.hasPending());
+
+        // The pending change is now the last emitted one
+        assertFalse(coalescer.offer(-100, 1, 3000 * MS));
+        assertFalse(coalescer.hasPending());
+    }
+
+    @Test
+    public void onlyTheLatestEventIsPending(){
+        final SignalCoalescer coalescer = new SignalCoalescer(5, 1000);
+
+        assertTrue(coalescer.offer(-90, 2, 0));
+        assertFalse(coalescer.offer(-100, 1, 100 * MS));
+        assertFalse(coalescer.offer(-91, 2, 200 * MS));
+
+        assertFalse(coalescer.hasPending());
+        assertFalse(coalescer.takePending(2000 * MS));
+    }
+
+    @Test
+    public void summarizesSuppressedEvents(){
+        final SignalCoalescer coalescer = new SignalCoalescer(10, 0);
+
+        coalescer.offer(-90, 2, MS);
+        coalescer.offer(-92, 2, 2 * MS);
+        coalescer.offer(-94, 2, 3 * MS);
+
+        assertEquals(2, coalescer.getSuppressed());
+        assertEquals(-94, coalescer.getMinDbm());
+        assertEquals(-92, coalescer.getMaxDbm());
+        assertEquals(-93, coalescer.getMeanDbm(), 1e-9);
+
+        coalescer.resetSummary(5 * MS);
+
+        assertEquals(0, coalescer.getSuppressed());
+        assertEquals(SignalCoalescer.UNKNOWN, coalescer.getMinDbm());
+    }
+
+    @Test
+    public void convertsGsmAsuToDbm(){
+        assertEquals(-113, SignalCoalescer.dbmFromAsu(0));
+        assertEquals(-83, SignalCoalescer.dbmFromAsu(15));
+        assertEquals(-51, SignalCoalescer.dbmFromAsu(31));
+        // LTE and WCDMA report isGsm() with an unknown ASU of 99
+        assertEquals(SignalCoalescer.UNKNOWN, SignalCoalescer.dbmFromAsu(99));
+        assertEquals(SignalCoalescer.UNKNOWN, SignalCoalescer.dbmFromAsu(-1));
+    }
+
+    @Test
+    public void rejectsImplausibleDbm(){
+        assertEquals(-95, SignalCoalescer.validDbm(-95));
+        assertEquals(-140, SignalCoalescer.validDbm(-140));
+        assertEquals(SignalCoalescer.UNKNOWN, SignalCoalescer.validDbm(-141));
+        assertEquals(SignalCoalescer.UNKNOWN, SignalCoalescer.validDbm(0));
+        assertEquals(SignalCoalescer.UNKNOWN, SignalCoalescer.validDbm(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void picksTheStrongerOfSeveralRadios(){
+        // An LTE anchor with an NR carrier, as reported by getCellSignalStrengths()
+        assertEquals(-85, SignalCoalescer.strongerDbm(-101, -85));
+        assertEquals(-85, SignalCoalescer.strongerDbm(-85, -101));
+        assertEquals(-101, SignalCoalescer.strongerDbm(SignalCoalescer.UNKNOWN, -101));
+        assertEquals(-101, SignalCoalescer.strongerDbm(-101, Integer.MAX_VALUE));
+        assertEquals(SignalCoalescer.UNKNOWN, SignalCoalescer.strongerDbm(SignalCoalescer.UNKNOWN, 0));
+
+        int dbm = SignalCoalescer.UNKNOWN;
+        for(int value : new int[]{Integer.MAX_VALUE, -110, -97, 0}){
+            dbm = SignalCoalescer.strongerDbm(dbm, value);
+        }
+        assertEquals(-97, dbm);
+    }
+
+    @Test
+    public void lteDbmIsCoalescedLikeAnyOther(){
+        final SignalCoalescer coalescer = new SignalCoalescer(5, 0);
+
+        assertTrue(coalescer.offer(SignalCoalescer.strongerDbm(SignalCoalescer.UNKNOWN, -100), 2, MS));
+        assertFalse(coalescer.offer(SignalCoalescer.strongerDbm(SignalCoalescer.UNKNOWN, -103), 2, 2 * MS));
+        assertTrue(coalescer.offer(SignalCoalescer.strongerDbm(SignalCoalescer.UNKNOWN, -106), 2, 3 * MS));
+    }
+}
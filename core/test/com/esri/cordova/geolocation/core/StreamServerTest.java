@@ -0,0 +1,244 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StreamServerTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String[] CHANNELS = {"gps", "network", "satellite"};
+    // The example key and accept value from RFC 6455
+    private static final String KEY = "dGhlIHNhbXBsZSBub25jZQ==";
+
+    private final ProviderStats _stats = new ProviderStats("stream");
+    private final List<Socket> _sockets = new ArrayList<Socket>();
+    private StreamServer _server = null;
+
+    @Before
+    public void startServer() throws IOException {
+        _server = new StreamServer(0, CHANNELS, 4, _stats);
+        _server.start();
+    }
+
+    @After
+    public void stopServer(){
+        _server.stop();
+
+        for(Socket socket : _sockets){
+            try {
+                socket.close();
+            }
+            catch(IOException exc){
+                // Closed already
+            }
+        }
+    }
+
+    @Test
+    public void handshakesWithTheAcceptKey() throws Exception {
+        final Socket socket = connect(0);
+        final String response = handshake(socket, _server.getPath());
+
+        assertTrue(response, response.startsWith("HTTP/1.1 101 Switching Protocols\r\n"));
+        assertTrue(response, response.contains("Sec-WebSocket-Accept: s3pPLMBiTxaQ9kYGzzhZRbK+xOo=\r\n"));
+    }
+
+    @Test
+    public void rejectsAWrongToken() throws Exception {
+        final String path = _server.getPath();
+        final String wrong = path.substring(0, path.length() - 1) + (path.endsWith("0") ? "1" : "0");
+
+        final String response = handshake(connect(0), wrong);
+
+        assertTrue(response, response.startsWith("HTTP/1.1 403 Forbidden\r\n"));
+        assertEquals(0, _server.getConnectionCount());
+    }
+
+    @Test
+    public void sendsOnlyTheSelectedChannels() throws Exception {
+        final Socket socket = connect(0);
+        handshake(socket, _server.getPath() + "?channels=gps,satellite");
+        awaitConnections(1);
+
+        _server.publish(1, "{\"network\":1}");
+        _server.publish(0, "{\"gps\":1}");
+        _server.publish(2, new byte[]{1, 2, 3});
+
+        final DataInputStream in = new DataInputStream(socket.getInputStream());
+
+        assertEquals("{\"gps\":1}", new String(readFrame(in, 0x1), UTF_8));
+        assertArrayEquals(new byte[]{1, 2, 3}, readFrame(in, 0x2));
+    }
+
+    @Test
+    public void dropsTheOldestFramesForASlowClient() throws Exception {
+        final Socket socket = connect(4096);
+        handshake(socket, _server.getPath());
+        awaitConnections(1);
+
+        // The client doesn't read until the socket buffers and the queue of 4 frames are full
+        final int count = 1000;
+        final byte[] data = new byte[16384];
+
+        for(int i = 0; i < count; i++){
+            data[0] = (byte) (i >>> 8);
+            data[1] = (byte) i;
+            _server.publish(0, data.clone());
+        }
+
+        assertTrue(_stats.getDropped() > 0);
+
+        final DataInputStream in = new DataInputStream(socket.getInputStream());
+        int previous = -1;
+        int received = 0;
+
+        while(previous != count - 1){
+            final byte[] frame = readFrame(in, 0x2);
+            final int index = (frame[0] & 0xFF) << 8 | frame[1] & 0xFF;
+
+            assertTrue(index > previous);
+            previous = index;
+            received++;
+        }
+
+        // The newest frames are kept, every frame is either sent or dropped
+        assertEquals(count, received + _stats.getDropped());
+    }
+
+    @Test
+    public void refusesClientsBeyondThePendingHandshakes() throws Exception {
+        // Four clients that connect but never send their handshake
+        for(int i = 0; i < 4; i++){
+            connect(0);
+        }
+
+        final Socket refused = connect(0);
+        refused.setSoTimeout(2000);
+
+        try {
+            assertEquals(-1, refused.getInputStream().read());
+        }
+        catch(SocketTimeoutException exc){
+            throw new AssertionError("The fifth pending client wasn't refused");
+        }
+        catch(IOException exc){
+            // Reset by the server, refused as well
+        }
+    }
+
+    private Socket connect(int receiveBufferSize) throws IOException {
+        final Socket socket = new Socket();
+        _sockets.add(socket);
+
+        if(receiveBufferSize > 0){
+            socket.setReceiveBufferSize(receiveBufferSize);
+        }
+
+        socket.connect(new InetSocketAddress("127.0.0.1", _server.getPort()), 2000);
+        socket.setSoTimeout(5000);
+
+        return socket;
+    }
+
+    /**
+     * Sends the upgrade request and reads the response headers.
+     */
+    private static String handshake(Socket socket, String target) throws IOException {
+        final OutputStream out = socket.getOutputStream();
+        out.write(("GET " + target + " HTTP/1.1\r\n"
+                + "Host: 127.0.0.1\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: " + KEY + "\r\n"
+                + "Sec-WebSocket-Version: 13\r\n\r\n").getBytes(UTF_8));
+        out.flush();
+
+        final InputStream in = socket.getInputStream();
+        final ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+        while(true){
+            final int b = in.read();
+
+            if(b < 0){
+                break;
+            }
+
+            response.write(b);
+
+            final String text = new String(response.toByteArray(), UTF_8);
+
+            if(text.endsWith("\r\n\r\n")){
+                return text;
+            }
+        }
+
+        return new String(response.toByteArray(), UTF_8);
+    }
+
+    /**
+     * Reads one unmasked server frame and checks its opcode.
+     */
+    private static byte[] readFrame(DataInputStream in, int opcode) throws IOException {
+        final int first = in.readUnsignedByte();
+        final int second = in.readUnsignedByte();
+        long length = second & 0x7F;
+
+        if(length == 126){
+            length = in.readUnsignedShort();
+        }
+        else if(length == 127){
+            length = in.readLong();
+        }
+
+        assertEquals(0x80 | opcode, first);
+        assertEquals(0, second & 0x80);
+
+        final byte[] payload = new byte[(int) length];
+        in.readFully(payload);
+
+        return payload;
+    }
+
+    private void awaitConnections(int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 2000;
+
+        while(_server.getConnectionCount() < count && System.currentTimeMillis() < deadline){
+            Thread.sleep(5);
+        }
+
+        assertEquals(count, _server.getConnectionCount());
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TraceRingTest {
+
+    @After
+    public void disable(){
+        TraceRing.setEnabled(false);
+        TraceRing.clear();
+    }
+
+    @Test
+    public void recordsNothingWhileDisabled() throws IOException {
+        TraceRing.clear();
+        TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_CALLBACK);
+
+        assertEquals(0, TraceRing.dump(new StringWriter()));
+    }
+
+    @Test
+    public void dumpsEventsOldestFirst() throws IOException {
+        TraceRing.clear();
+        TraceRing.setEnabled(true);
+        TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_CALLBACK);
+        TraceRing.record(TraceRing.PROVIDER_NETWORK, TraceRing.EVENT_SEND);
+
+        final StringWriter out = new StringWriter();
+        final int count = TraceRing.dump(out);
+        final String[] lines = out.toString().split("\n");
+
+        assertTrue(count >= 2);
+        assertTrue(lines[count - 2].endsWith(" gps callback"));
+        assertTrue(lines[count - 1].endsWith(" network send"));
+    }
+
+    @Test
+    public void dumpsWhileEventsAreRecorded() throws Exception {
+        TraceRing.clear();
+        TraceRing.setEnabled(true);
+
+        final Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for(int i = 0; i < 200000; i++){
+                    TraceRing.record(TraceRing.PROVIDER_CELL, TraceRing.EVENT_ENCODE);
+                }
+            }
+        });
+        writer.start();
+
+        while(writer.isAlive()){
+            final StringWriter out = new StringWriter();
+            TraceRing.dump(out);
+
+            for(String line : out.toString().split("\n")){
+                assertTrue(line, line.isEmpty() || line.endsWith(" cell encode"));
+            }
+        }
+    }
+}
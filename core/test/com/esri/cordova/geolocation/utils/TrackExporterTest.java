@@ -0,0 +1,229 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+
+public class TrackExporterTest {
+
+    // TrackRecorder.PROVIDER_GPS and PROVIDER_NETWORK
+    private static final byte GPS = 1;
+    private static final byte NETWORK = 2;
+
+    private static final double[][] TRACK = {
+            {34.0561234, -117.1956789, 350.25},
+            {34.0562468, -117.1951357, 351.5},
+            {34.0548642, -117.1962468, 349.75},
+            {-33.8688197, 151.2092955, -2.5}
+    };
+
+    @Rule
+    public final TemporaryFolder _folder = new TemporaryFolder();
+
+    @Test
+    public void polylineRoundTrips() throws IOException {
+        final File output = export(session(TRACK), TrackExporter.FORMAT_POLYLINE, (byte) 0);
+
+        final List<double[]> decoded = decodePolyline(read(output));
+
+        assertEquals(TRACK.length, decoded.size());
+        for(int i = 0; i < TRACK.length; i++){
+            assertEquals(TRACK[i][0], decoded.get(i)[0], 0.5e-5);
+            assertEquals(TRACK[i][1], decoded.get(i)[1], 0.5e-5);
+        }
+    }
+
+    @Test
+    public void polylineMatchesTheReferenceEncoding() throws IOException {
+        final double[][] track = {{38.5, -120.2, 0}, {40.7, -120.95, 0}, {43.252, -126.453, 0}};
+
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@",
+                read(export(session(track), TrackExporter.FORMAT_POLYLINE, (byte) 0)));
+    }
+
+    @Test
+    public void geoJsonRoundTrips() throws IOException {
+        final File output = export(session(TRACK), TrackExporter.FORMAT_GEOJSON, (byte) 0);
+        final String json = read(output);
+
+        assertEquals(0, json.indexOf("{\"type\":\"Feature\",\"properties\":{},"
+                + "\"geometry\":{\"type\":\"LineString\",\"coordinates\":[["));
+        assertEquals(json.length() - 3, json.lastIndexOf("]}}"));
+
+        final Matcher matcher = Pattern.compile("\\[(-?[0-9.]+),(-?[0-9.]+),(-?[0-9.]+)\\]").matcher(json);
+        int count = 0;
+
+        while(matcher.find()){
+            assertEquals(TRACK[count][1], Double.parseDouble(matcher.group(1)), 0.5e-7);
+            assertEquals(TRACK[count][0], Double.parseDouble(matcher.group(2)), 0.5e-7);
+            assertEquals(TRACK[count][2], Double.parseDouble(matcher.group(3)), 0.051);
+            count++;
+        }
+
+        assertEquals(TRACK.length, count);
+    }
+
+    @Test
+    public void geoJsonWithFewerThanTwoFixesHasNoGeometry() throws IOException {
+        final File empty = _folder.newFile("empty.json");
+        assertEquals(0, TrackExporter.export(session(new double[0][]), empty, TrackExporter.FORMAT_GEOJSON, (byte) 0));
+        assertEquals("{\"type\":\"Feature\",\"properties\":{},\"geometry\":null}", read(empty));
+
+        final File single = _folder.newFile("single.json");
+        assertEquals(0, TrackExporter.export(session(new double[][]{TRACK[0]}), single, TrackExporter.FORMAT_GEOJSON, (byte) 0));
+        assertEquals("{\"type\":\"Feature\",\"properties\":{},\"geometry\":null}", read(single));
+    }
+
+    @Test
+    public void gpxRoundTrips() throws IOException {
+        final File output = export(session(TRACK), TrackExporter.FORMAT_GPX, (byte) 0);
+        final String gpx = read(output);
+
+        final Matcher matcher = Pattern.compile(
+                "<trkpt lat=\"(-?[0-9.]+)\" lon=\"(-?[0-9.]+)\"><ele>(-?[0-9.]+)</ele><time>([^<]+)</time></trkpt>")
+                .matcher(gpx);
+        int count = 0;
+
+        while(matcher.find()){
+            assertEquals(TRACK[count][0], Double.parseDouble(matcher.group(1)), 0.5e-7);
+            assertEquals(TRACK[count][1], Double.parseDouble(matcher.group(2)), 0.5e-7);
+            assertEquals(TRACK[count][2], Double.parseDouble(matcher.group(3)), 0.051);
+            count++;
+        }
+
+        assertEquals(TRACK.length, count);
+        assertEquals("2017-07-14T02:40:0" + (TRACK.length - 1) + "Z", lastTime(gpx));
+        assertEquals(gpx.length() - "</trkseg></trk>\n</gpx>\n".length(), gpx.lastIndexOf("</trkseg></trk>\n</gpx>\n"));
+    }
+
+    @Test
+    public void filtersByProvider() throws IOException {
+        final byte[] records = session(TRACK, new byte[]{GPS, NETWORK, GPS, NETWORK});
+        final File output = _folder.newFile("gps.gpx");
+
+        assertEquals(2, TrackExporter.export(write(records), output, TrackExporter.FORMAT_GPX, GPS));
+        assertEquals(2, TrackExporter.export(write(records), output, TrackExporter.FORMAT_GPX, NETWORK));
+        assertEquals(4, TrackExporter.export(write(records), output, TrackExporter.FORMAT_GPX, (byte) 0));
+    }
+
+    @Test
+    public void ignoresATruncatedTrailingRecord() throws IOException {
+        final byte[] whole = session(new double[][]{TRACK[0], TRACK[1], TRACK[2]}, new byte[]{GPS, GPS, GPS});
+        // Cut the last record off after its latitude, as an interrupted write would
+        final byte[] truncated = new byte[whole.length - 20];
+        System.arraycopy(whole, 0, truncated, 0, truncated.length);
+        final File output = _folder.newFile("truncated.txt");
+
+        assertEquals(2, TrackExporter.export(write(truncated), output, TrackExporter.FORMAT_POLYLINE, (byte) 0));
+        assertEquals(2, decodePolyline(read(output)).size());
+    }
+
+    private File export(File session, String format, byte providerCode) throws IOException {
+        final File output = _folder.newFile();
+        TrackExporter.export(session, output, format, providerCode);
+        return output;
+    }
+
+    private File session(double[][] track) throws IOException {
+        final byte[] providers = new byte[track.length];
+        Arrays.fill(providers, GPS);
+        return write(session(track, providers));
+    }
+
+    private File write(byte[] bytes) throws IOException {
+        final File file = _folder.newFile();
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        }
+        finally {
+            out.close();
+        }
+        return file;
+    }
+
+    /**
+     * Writes records the way TrackRecorder.record() does, one second apart.
+     */
+    private static byte[] session(double[][] track, byte[] providers) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+
+        for(int i = 0; i < track.length; i++){
+            out.writeByte(providers[i]);
+            out.writeLong(1500000000000L + i * 1000L);
+            out.writeDouble(track[i][0]);
+            out.writeDouble(track[i][1]);
+            out.writeDouble(track[i][2]);
+            out.writeFloat(5f);
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), "UTF-8");
+    }
+
+    private static String lastTime(String gpx){
+        final int end = gpx.lastIndexOf("</time>");
+        return gpx.substring(gpx.lastIndexOf("<time>", end) + "<time>".length(), end);
+    }
+
+    private static List<double[]> decodePolyline(String encoded){
+        final List<double[]> points = new ArrayList<double[]>();
+        final long[] values = new long[2];
+        int index = 0;
+
+        while(index < encoded.length()){
+            for(int i = 0; i < 2; i++){
+                long result = 0;
+                int shift = 0;
+                int b;
+
+                do {
+                    b = encoded.charAt(index++) - 63;
+                    result |= (long) (b & 0x1f) << shift;
+                    shift += 5;
+                } while(b >= 0x20);
+
+                values[i] += (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+            }
+
+            points.add(new double[]{values[0] / 1e5, values[1] / 1e5});
+        }
+
+        return points;
+    }
+}
@@ -26,18 +26,33 @@ import android.location.LocationManager;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.os.Build;
+import android.os.SystemClock;
 import android.preference.PreferenceManager;
 import android.util.Log;
 
 import com.esri.cordova.geolocation.controllers.CellLocationController;
+import com.esri.cordova.geolocation.controllers.CurrentPositionController;
 import com.esri.cordova.geolocation.controllers.GPSController;
 import com.esri.cordova.geolocation.controllers.NetworkLocationController;
 import com.esri.cordova.geolocation.controllers.PermissionsController;
+import com.esri.cordova.geolocation.core.DutyCycle;
+import com.esri.cordova.geolocation.core.ElapsedClock;
+import com.esri.cordova.geolocation.core.Fix;
+import com.esri.cordova.geolocation.core.MeasurementFilter;
+import com.esri.cordova.geolocation.core.PayloadFormat;
+import com.esri.cordova.geolocation.core.ProviderStats;
+import com.esri.cordova.geolocation.core.StreamServer;
+import com.esri.cordova.geolocation.core.TraceRing;
 import com.esri.cordova.geolocation.fragments.GPSAlertDialogFragment;
 import com.esri.cordova.geolocation.fragments.NetworkUnavailableDialogFragment;
+import com.esri.cordova.geolocation.model.GeolocationConfig;
+import com.esri.cordova.geolocation.model.RawMeasurementOptions;
 import com.esri.cordova.geolocation.model.StopLocation;
+import com.esri.cordova.geolocation.utils.CallbackChannels;
 import com.esri.cordova.geolocation.utils.ErrorMessages;
 import com.esri.cordova.geolocation.utils.JSONHelper;
+import com.esri.cordova.geolocation.utils.TrackExporter;
+import com.esri.cordova.geolocation.utils.TrackRecorder;
 
 import org.apache.cordova.CallbackContext;
 import org.apache.cordova.CordovaInterface;
@@ -48,6 +63,12 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -63,6 +84,7 @@ public class AdvancedGeolocation extends CordovaPlugin{
     public static final String PROVIDERS_GPS = "gps";
     public static final String PROVIDERS_NETWORK = "network";
     public static final String PROVIDERS_CELL = "cell";
+
     public static final String PROVIDER_PRIMARY = "application"; // references this main controller and not tied to a sensor
 
     private static final String TAG = "GeolocationPlugin";
@@ -70,15 +92,8 @@ public class AdvancedGeolocation extends CordovaPlugin{
     private static final int MIN_API_LEVEL = 18;
     private static final int REQUEST_LOCATION_PERMS_CODE = 10;
 
-    private static long _minDistance = 0;
-    private static long _minTime = 0;
-    private static boolean _noWarn;
-    private static String _providers;
-    private static boolean _useCache;
-    private static boolean _returnSatelliteData = false;
-    private static boolean _buffer = false;
-    private static boolean _signalStrength = false;
-    private static int _bufferSize = 0;
+    private static GeolocationConfig _config = new GeolocationConfig();
+    private static boolean _newTrackSession = false;
 
     private static GPSController _gpsController = null;
     private static NetworkLocationController _networkLocationController = null;
@@ -94,11 +109,24 @@ public class AdvancedGeolocation extends CordovaPlugin{
     private static Future _networkFuture = null;
     private static Future _cellularFuture = null;
 
+    // Kept across stop() and start() so stream clients don't have to reconnect
+    private static StreamServer _streamServer = null;
+    private static final ProviderStats STREAM_STATS = new ProviderStats(JSONHelper.STREAM_PROVIDER);
+
     @Override
     public void initialize(CordovaInterface cordova, CordovaWebView webView) {
         super.initialize(cordova, webView);
         _cordova = cordova;
         _cordovaActivity = cordova.getActivity();
+
+        // Payload timestamps use the same clock as Location and CellInfo
+        ElapsedClock.setSource(new ElapsedClock.Source() {
+            @Override
+            public long nanos() {
+                return SystemClock.elapsedRealtimeNanos();
+            }
+        });
+
         _sharedPreferences = PreferenceManager.getDefaultSharedPreferences(_cordovaActivity);
         _permissionsController = new PermissionsController(_cordovaActivity, _cordova);
         _permissionsController.handleOnInitialize();
@@ -107,9 +135,58 @@ public class AdvancedGeolocation extends CordovaPlugin{
     }
 
     public boolean execute(final String action, final JSONArray args, final CallbackContext callbackContext) throws JSONException{
+        Log.d(TAG, "Action = " + action);
+
+        // Export replies once on its own callback and doesn't change the running session
+        if(action.equals("export")){
+            exportTrack(args, callbackContext);
+            return true;
+        }
+
+        if(action.equals("stats")){
+            getStats(args, callbackContext);
+            return true;
+        }
+
+        if(action.equals("trace")){
+            dumpTrace(args, callbackContext);
+            return true;
+        }
+
+        // Answered right away so JavaScript can measure the round trip
+        if(action.equals("clock")){
+            callbackContext.success(JSONHelper.clockJSON());
+            return true;
+        }
+
+        // Channels keep their own callback, which doesn't replace the start() callback
+        if(action.equals("subscribe") || action.equals("unsubscribe")){
+            setChannel(action.equals("subscribe"), args, callbackContext);
+            return true;
+        }
+
+        if(action.equals("getLastLocation")){
+            getLastLocation(args, callbackContext);
+            return true;
+        }
+
+        if(action.equals("getCurrentPosition")){
+            getCurrentPosition(args, callbackContext);
+            return true;
+        }
+
+        // Update keeps the running providers and their callback
+        if(action.equals("update")){
+            updateLocation(args, callbackContext);
+            return true;
+        }
+
         _callbackContext = callbackContext;
 
-        Log.d(TAG, "Action = " + action);
+        // A new start request begins a new track session, resuming continues the current one
+        if(action.equals("start")){
+            _newTrackSession = true;
+        }
 
         // Save this action so we can refer to it when the app restarts
         setSharedPreferences(SHARED_PREFS_ACTION, action);
@@ -229,7 +306,7 @@ public class AdvancedGeolocation extends CordovaPlugin{
             final boolean networkEnabled = isInternetConnected(_cordovaActivity.getApplicationContext());
 
             // If warnings are disabled then skip initializing alert dialog fragments
-            if(!_noWarn && (!networkLocationEnabled || !gpsEnabled || !networkEnabled)){
+            if(!_config.noWarn && (!networkLocationEnabled || !gpsEnabled || !networkEnabled)){
                 alertDialog(gpsEnabled, networkLocationEnabled, networkEnabled);
             }
             else {
@@ -238,7 +315,12 @@ public class AdvancedGeolocation extends CordovaPlugin{
         }
     }
 
-    private void startLocation(){
+    /**
+     * Starts the configured providers. The controller, future and stream server fields are also
+     * written by stop, update and the lifecycle callbacks on the UI thread, so every method that
+     * writes them is synchronized on the plugin.
+     */
+    private synchronized void startLocation(){
 
         // Misc. note: If you see the message "Attempted to send a second callback for ID:" then you need
         // to make sure to set pluginResult.setKeepCallback(true);
@@ -249,67 +331,314 @@ public class AdvancedGeolocation extends CordovaPlugin{
         }
 
         final boolean networkEnabled = isInternetConnected(_cordovaActivity.getApplicationContext());
+        final File replayFile = getReplayFile();
         ExecutorService threadPool = cordova.getThreadPool();
 
-        if(_providers.equalsIgnoreCase(PROVIDERS_ALL)){
-            _gpsController = new GPSController(
-                    _cordova, _callbackContext, _minDistance, _minTime, _useCache, _returnSatelliteData, _buffer, _bufferSize);
-            _gpsFuture = threadPool.submit(_gpsController);
+        if(_config.recordTrack){
+            TrackRecorder.start(_cordovaActivity.getFilesDir(), !_newTrackSession);
+        }
+        _newTrackSession = false;
+
+        TraceRing.setEnabled(_config.trace);
+        applyStream();
+
+        if(_config.providers.equalsIgnoreCase(PROVIDERS_ALL)){
+            startGPSController(threadPool, replayFile);
+            startNetworkController(threadPool, replayFile);
+            startCellController(threadPool, networkEnabled);
+        }
+        if(_config.providers.equalsIgnoreCase(PROVIDERS_SOME)){
+            startGPSController(threadPool, replayFile);
+            startNetworkController(threadPool, replayFile);
+        }
+        if(_config.providers.equalsIgnoreCase(PROVIDERS_GPS)){
+            startGPSController(threadPool, replayFile);
+        }
+        if(_config.providers.equalsIgnoreCase(PROVIDERS_NETWORK)){
+            startNetworkController(threadPool, replayFile);
+        }
+        if(_config.providers.equalsIgnoreCase(PROVIDERS_CELL)){
+            startCellController(threadPool, networkEnabled);
+        }
+    }
+
+    private void startGPSController(ExecutorService threadPool, File replayFile){
+        // With other providers running the network controller already fills the gaps between duty cycle windows
+        final boolean networkBridge = _config.providers.equalsIgnoreCase(PROVIDERS_GPS);
+
+        _gpsController = new GPSController(_cordova, _callbackContext, _config,
+                getRawMeasurementOptions(), getDutyCycle(replayFile), networkBridge, replayFile);
+        _gpsFuture = threadPool.submit(_gpsController);
+    }
+
+    private void startNetworkController(ExecutorService threadPool, File replayFile){
+        _networkLocationController = new NetworkLocationController(_cordova, _callbackContext, _config, replayFile);
+        _networkFuture = threadPool.submit(_networkLocationController);
+    }
+
+    private void startCellController(ExecutorService threadPool, boolean networkEnabled){
+        // Reference: https://developer.android.com/reference/android/telephony/TelephonyManager.html#getAllCellInfo()
+        // Reference: https://developer.android.com/reference/android/telephony/CellIdentityWcdma.html (added at API 18)
+        if (Build.VERSION.SDK_INT < MIN_API_LEVEL){
+            cellDataNotAllowed();
+        }
+        else {
+            _cellLocationController = new CellLocationController(
+                    networkEnabled, _config, _cordova, _callbackContext);
+            _cellularFuture = threadPool.submit(_cellLocationController);
+        }
+    }
+
+    /**
+     * Starts, keeps or stops the loopback stream server to match the configuration, and tells
+     * the start() callback where to connect. A running server is kept unless another port was requested.
+     */
+    private synchronized void applyStream(){
+        if(!_config.streamServer){
+            stopStream();
+            return;
+        }
 
-            _networkLocationController = new NetworkLocationController(
-                    _cordova, _callbackContext, _minDistance, _minTime, _useCache, _buffer, _bufferSize);
-            _networkFuture = threadPool.submit(_networkLocationController);
+        if(_streamServer != null && _config.streamPort != 0 && _streamServer.getPort() != _config.streamPort){
+            stopStream();
+        }
+
+        if(_streamServer == null){
+            final StreamServer streamServer = new StreamServer(
+                    _config.streamPort, CallbackChannels.getNames(), StreamServer.DEFAULT_QUEUE_SIZE, STREAM_STATS);
 
-            // Reference: https://developer.android.com/reference/android/telephony/TelephonyManager.html#getAllCellInfo()
-            // Reference: https://developer.android.com/reference/android/telephony/CellIdentityWcdma.html (added at API 18)
-            if (Build.VERSION.SDK_INT < MIN_API_LEVEL){
-                cellDataNotAllowed();
+            try {
+                streamServer.start();
             }
-            else {
-                _cellLocationController = new CellLocationController(networkEnabled, _signalStrength, _cordova,_callbackContext);
-                _cellularFuture = threadPool.submit(_cellLocationController);
+            catch(IOException exc){
+                Log.e(TAG, "Unable to start the stream server: " + exc.getMessage());
+                sendCallback(PluginResult.Status.ERROR,
+                        JSONHelper.errorJSON(JSONHelper.STREAM_PROVIDER, ErrorMessages.STREAM_UNAVAILABLE()));
+                return;
             }
+
+            _streamServer = streamServer;
+        }
+
+        CallbackChannels.setStream(_streamServer, _config.streamOnly);
+        sendCallback(PluginResult.Status.OK,
+                JSONHelper.streamJSON(_streamServer.getPort(), _streamServer.getPath(), _config.streamOnly));
+    }
+
+    private synchronized void stopStream(){
+        CallbackChannels.setStream(null, false);
+
+        if(_streamServer != null){
+            _streamServer.stop();
+            _streamServer = null;
+        }
+    }
+
+    /**
+     * Replies once with the newest cached location without starting a provider.
+     * @param args Optional provider and maximumAge
+     * @param callbackContext The callback for this request only
+     */
+    private void getLastLocation(JSONArray args, CallbackContext callbackContext){
+
+        if(!_permissionsController.getAppPermissions()){
+            callbackContext.error(JSONHelper.errorJSON(JSONHelper.POSITION_PROVIDER, ErrorMessages.LOCATION_SERVICES_DENIED()));
+            return;
         }
-        if(_providers.equalsIgnoreCase(PROVIDERS_SOME)){
-            _gpsController = new GPSController(
-                    _cordova, _callbackContext, _minDistance, _minTime, _useCache, _returnSatelliteData, _buffer, _bufferSize);
-            _gpsFuture = threadPool.submit(_gpsController);
 
-            _networkLocationController = new NetworkLocationController(
-                    _cordova, _callbackContext, _minDistance, _minTime, _useCache, _buffer, _bufferSize);
-            _networkFuture = threadPool.submit(_networkLocationController);
+        final JSONObject options = args != null ? args.optJSONObject(0) : null;
+        final String provider = options != null ? options.optString("provider", "any") : "any";
+        final long maximumAge = options != null ? options.optLong("maximumAge", 0) : 0;
+        // toNanos saturates rather than overflowing for very large ages
+        final long maximumAgeNanos = maximumAge > 0 ? TimeUnit.MILLISECONDS.toNanos(maximumAge) : Long.MAX_VALUE;
+
+        final String[] providers = provider.equals("any") ? CurrentPositionController.CACHED_PROVIDERS : new String[]{provider};
+        final LocationManager locationManager = (LocationManager) _cordovaActivity.getSystemService(Context.LOCATION_SERVICE);
+        final Fix fix = new Fix();
+        final boolean found;
 
+        try {
+            found = CurrentPositionController.getCachedFix(locationManager, providers, maximumAgeNanos, 0, fix);
+        }
+        catch(SecurityException exc){
+            Log.e(TAG, exc.getMessage());
+            callbackContext.error(JSONHelper.errorJSON(JSONHelper.POSITION_PROVIDER, exc.getMessage()));
+            return;
+        }
+
+        if(found){
+            callbackContext.success(JSONHelper.locationJSON(fix));
+        }
+        else {
+            callbackContext.error(JSONHelper.errorJSON(JSONHelper.POSITION_PROVIDER, ErrorMessages.LAST_LOCATION_UNAVAILABLE()));
+        }
+    }
+
+    /**
+     * Routes one type of payload to its own callback, or back to the start() callback.
+     * @param subscribe <code>true</code> to subscribe, <code>false</code> to unsubscribe
+     * @param args The channel name
+     * @param callbackContext The channel's callback when subscribing, otherwise it replies once
+     */
+    private void setChannel(boolean subscribe, JSONArray args, CallbackContext callbackContext){
+        final JSONObject options = args != null ? args.optJSONObject(0) : null;
+        final String name = options != null ? options.optString("channel", "") : "";
+        final int channel = CallbackChannels.indexOf(name);
+
+        if(channel < 0){
+            callbackContext.error(JSONHelper.errorJSON(JSONHelper.CHANNEL_PROVIDER, ErrorMessages.UNKNOWN_CHANNEL()));
+        }
+        else if(subscribe){
+            CallbackChannels.subscribe(channel, callbackContext);
+        }
+        else {
+            CallbackChannels.unsubscribe(channel);
+            callbackContext.success(JSONHelper.channelJSON(name, false));
+        }
+    }
+
+    /**
+     * Replies once with the current position, from the cache if possible. Runs independently of start,
+     * stopping the plugin cancels requests that are still waiting for a provider.
+     * @param args Optional maximumAge, timeout and desiredAccuracy
+     * @param callbackContext The callback for this request only
+     */
+    private void getCurrentPosition(JSONArray args, CallbackContext callbackContext){
+
+        if(!_permissionsController.getAppPermissions()){
+            callbackContext.error(JSONHelper.errorJSON(JSONHelper.POSITION_PROVIDER, ErrorMessages.LOCATION_SERVICES_DENIED()));
+            return;
+        }
+
+        final JSONObject options = args != null ? args.optJSONObject(0) : null;
+        final long maximumAge = options != null ? options.optLong("maximumAge", 0) : 0;
+        final long timeout = options != null ? options.optLong("timeout", 60000) : 60000;
+        final float desiredAccuracy = options != null ? (float) options.optDouble("desiredAccuracy", 0) : 0;
+
+        if(timeout < 0){
+            callbackContext.error(JSONHelper.errorJSON(JSONHelper.POSITION_PROVIDER, ErrorMessages.POSITION_INVALID_TIMEOUT()));
+            return;
+        }
+
+        new CurrentPositionController(_cordova, callbackContext, maximumAge, timeout, desiredAccuracy).start();
+    }
+
+    /**
+     * Applies a new configuration to the running providers without stopping them. Only the
+     * listeners whose options changed are registered again, so the GPS lock and the buffers
+     * are kept. Changing providers, replayFile, replaySpeed or encodeThread restarts every provider.
+     * Replies once with the parts that were applied.
+     * @param args The new configuration, in the same form as start
+     * @param callbackContext The callback for this request only
+     */
+    private synchronized void updateLocation(JSONArray args, CallbackContext callbackContext){
+
+        final GeolocationConfig config;
+
+        try {
+            config = parseConfig(args.getJSONObject(0));
+        }
+        catch(JSONException exc){
+            Log.d(TAG, ErrorMessages.INCORRECT_CONFIG_ARGS + ", " + exc.getMessage());
+            callbackContext.error(ErrorMessages.INCORRECT_CONFIG_ARGS + ", " + exc.getMessage());
+            return;
         }
-        if(_providers.equalsIgnoreCase(PROVIDERS_GPS)){
-            _gpsController = new GPSController(
-                    _cordova, _callbackContext, _minDistance, _minTime, _useCache, _returnSatelliteData, _buffer, _bufferSize);
-            _gpsFuture = threadPool.submit(_gpsController);
+
+        final GeolocationConfig previous = _config;
+        final List<String> applied = new ArrayList<String>();
+
+        _config = config;
+
+        // Nothing is running, the configuration is used by the next start
+        if(_gpsController == null && _networkLocationController == null && _cellLocationController == null){
+            callbackContext.success(JSONHelper.updateJSON(applied));
+            return;
         }
-        if(_providers.equalsIgnoreCase(PROVIDERS_NETWORK)){
-            _networkLocationController = new NetworkLocationController(
-                    _cordova, _callbackContext, _minDistance, _minTime, _useCache, _buffer, _bufferSize);
-            _networkFuture = threadPool.submit(_networkLocationController);
+
+        if(!config.providers.equalsIgnoreCase(previous.providers)
+                || !config.replayFile.equals(previous.replayFile)
+                || config.replaySpeed != previous.replaySpeed
+                || config.encodeThread != previous.encodeThread){
+            // The same path as start, so new providers are checked for permissions and warnings
+            validatePermissions();
+            applied.add("restart");
+            callbackContext.success(JSONHelper.updateJSON(applied));
+            return;
         }
-        if(_providers.equalsIgnoreCase(PROVIDERS_CELL)){
 
-            // Reference: https://developer.android.com/reference/android/telephony/TelephonyManager.html#getAllCellInfo()
-            // Reference: https://developer.android.com/reference/android/telephony/CellIdentityWcdma.html
-            if (Build.VERSION.SDK_INT < MIN_API_LEVEL){
-                cellDataNotAllowed();
+        if(config.recordTrack != previous.recordTrack){
+            if(config.recordTrack){
+                TrackRecorder.start(_cordovaActivity.getFilesDir(), true);
             }
             else {
-                _cellLocationController = new CellLocationController(networkEnabled,_signalStrength ,_cordova,_callbackContext);
-                _cellularFuture = threadPool.submit(_cellLocationController);
+                TrackRecorder.stop();
+            }
+            applied.add("recordTrack");
+        }
+
+        if(config.trace != previous.trace){
+            TraceRing.setEnabled(config.trace);
+            applied.add("trace");
+        }
+
+        if(config.streamServer != previous.streamServer
+                || config.streamPort != previous.streamPort
+                || config.streamOnly != previous.streamOnly){
+            applyStream();
+            applied.add("stream");
+        }
+
+        if(_gpsController != null){
+            final int changes = GPSController.diff(previous, config);
+
+            if(changes != 0){
+                _gpsController.update(config, getRawMeasurementOptions(), getDutyCycle(getReplayFile()), changes);
+                addChanges(applied, PROVIDERS_GPS, changes);
+            }
+        }
+
+        if(_networkLocationController != null){
+            final int changes = NetworkLocationController.diff(previous, config);
+
+            if(changes != 0){
+                _networkLocationController.update(config, changes);
+                addChanges(applied, PROVIDERS_NETWORK, changes);
+            }
+        }
+
+        // Cell data has no lock to lose, so the cell controller is simply started again
+        if(_cellLocationController != null && (config.signalStrength != previous.signalStrength
+                || config.signalStrengthThreshold != previous.signalStrengthThreshold
+                || config.signalStrengthInterval != previous.signalStrengthInterval
+                || config.signalStrengthSummaryInterval != previous.signalStrengthSummaryInterval)){
+            _cellLocationController.stopLocation();
+
+            if(_cellularFuture != null){
+                _cellularFuture.cancel(true);
+            }
+
+            startCellController(cordova.getThreadPool(), isInternetConnected(_cordovaActivity.getApplicationContext()));
+            applied.add(PROVIDERS_CELL + ".restart");
+        }
+
+        callbackContext.success(JSONHelper.updateJSON(applied));
+    }
+
+    private static void addChanges(List<String> applied, String provider, int changes){
+        for(int i = 0; i < GeolocationConfig.CHANGE_NAMES.length; i++){
+            if((changes & (1 << i)) != 0){
+                applied.add(provider + "." + GeolocationConfig.CHANGE_NAMES[i]);
             }
         }
     }
 
     /**
-     * Halt any active providers.
+     * Halt any active providers. Called from both the UI and the WebCore thread, so it is
+     * synchronized and reports on its own list.
      */
-    private void stopLocation(){
+    private synchronized void stopLocation(){
 
-        List<StopLocation> providers = new ArrayList<StopLocation>();
+        final List<StopLocation> providers = new ArrayList<StopLocation>(3);
 
         if(_gpsController != null){
             // Gracefully attempt to stop location
@@ -320,10 +649,7 @@ public class AdvancedGeolocation extends CordovaPlugin{
 
             // Cancel the threadpool execution of this task
             if(_gpsFuture != null){
-                StopLocation sl = new StopLocation();
-                sl.provider = PROVIDERS_GPS;
-                sl.success = _gpsFuture.cancel(true);
-                providers.add(sl);
+                providers.add(new StopLocation(PROVIDERS_GPS, _gpsFuture.cancel(true)));
             }
         }
         if(_networkLocationController != null){
@@ -335,10 +661,7 @@ public class AdvancedGeolocation extends CordovaPlugin{
 
             // Cancel the threadpool execution of this task
             if(_networkFuture != null){
-                StopLocation sl = new StopLocation();
-                sl.provider = PROVIDERS_NETWORK;
-                sl.success = _networkFuture.cancel(true);
-                providers.add(sl);
+                providers.add(new StopLocation(PROVIDERS_NETWORK, _networkFuture.cancel(true)));
             }
         }
 
@@ -352,13 +675,15 @@ public class AdvancedGeolocation extends CordovaPlugin{
 
             // Cancel the threadpool execution of this task
             if(_cellularFuture != null){
-                StopLocation sl = new StopLocation();
-                sl.provider = PROVIDERS_CELL;
-                sl.success = _cellularFuture.cancel(true);
-                providers.add(sl);
+                providers.add(new StopLocation(PROVIDERS_CELL, _cellularFuture.cancel(true)));
             }
         }
 
+        // Keep the session file so it can still be exported
+        TrackRecorder.stop();
+
+        CurrentPositionController.cancelAll();
+
         if(providers.size() > 0){
             sendCallback(PluginResult.Status.OK,
                     JSONHelper.stopLocationJSON(providers));
@@ -367,6 +692,127 @@ public class AdvancedGeolocation extends CordovaPlugin{
         Log.d(TAG, "Stopping geolocation");
     }
 
+    /**
+     * Streams the recorded track session to a file on a background thread. Replies once
+     * with the path of the exported file.
+     * @param args Optional format, provider and fileName
+     * @param callbackContext The callback for this request only
+     */
+    private void exportTrack(final JSONArray args, final CallbackContext callbackContext){
+
+        final JSONObject options = args != null ? args.optJSONObject(0) : null;
+        final String format = options != null
+                ? options.optString("format", TrackExporter.FORMAT_GEOJSON) : TrackExporter.FORMAT_GEOJSON;
+        final String providerArg = options != null ? options.optString("provider", PROVIDERS_ALL) : PROVIDERS_ALL;
+        final String fileName = options != null ? options.optString("fileName", "") : "";
+
+        if(!TrackExporter.isSupportedFormat(format)){
+            callbackContext.error(
+                    JSONHelper.errorJSON(JSONHelper.TRACK_PROVIDER, ErrorMessages.TRACK_FORMAT_NOT_SUPPORTED()));
+            return;
+        }
+
+        final byte providerCode = providerArg.equals(PROVIDERS_GPS) || providerArg.equals(PROVIDERS_NETWORK)
+                ? TrackRecorder.providerCode(providerArg) : 0;
+        final File directory = _cordovaActivity.getFilesDir();
+
+        cordova.getThreadPool().execute(new Runnable() {
+            @Override
+            public void run() {
+                TrackRecorder.flush();
+
+                final File session = TrackRecorder.getSessionFile(directory);
+
+                if(!session.exists()){
+                    callbackContext.error(
+                            JSONHelper.errorJSON(JSONHelper.TRACK_PROVIDER, ErrorMessages.TRACK_NOT_AVAILABLE()));
+                    return;
+                }
+
+                // Only use the name portion so the export can't escape the app's files directory
+                final String name = fileName.equals("")
+                        ? "track-" + System.currentTimeMillis() + "." + TrackExporter.getExtension(format)
+                        : new File(fileName).getName();
+                final File output = new File(directory, name);
+
+                try {
+                    final int points = TrackExporter.export(session, output, format, providerCode);
+                    callbackContext.success(JSONHelper.exportJSON(format, output.getAbsolutePath(), points));
+                }
+                catch(IOException exc){
+                    Log.e(TAG, ErrorMessages.TRACK_EXPORT_FAILED().message + ", " + exc.getMessage());
+                    callbackContext.error(
+                            JSONHelper.errorJSON(JSONHelper.TRACK_PROVIDER, ErrorMessages.TRACK_EXPORT_FAILED()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Replies once with the runtime metrics of each provider.
+     * @param args Optional reset flag, when true the metrics are zeroed as the snapshot is taken
+     * @param callbackContext The callback for this request only
+     */
+    private void getStats(final JSONArray args, final CallbackContext callbackContext){
+
+        final JSONObject options = args != null ? args.optJSONObject(0) : null;
+        final boolean reset = options != null && options.optBoolean("reset", false);
+
+        // The metrics are zeroed as they are read, so none recorded in between are lost
+        callbackContext.success(JSONHelper.statsJSON(
+                reset, GPSController.STATS, NetworkLocationController.STATS, CellLocationController.STATS, STREAM_STATS));
+    }
+
+    /**
+     * Writes the trace ring to a file on a background thread. Replies once with the path of
+     * the trace file.
+     * @param args Optional fileName
+     * @param callbackContext The callback for this request only
+     */
+    private void dumpTrace(final JSONArray args, final CallbackContext callbackContext){
+
+        final JSONObject options = args != null ? args.optJSONObject(0) : null;
+        final String fileName = options != null ? options.optString("fileName", "") : "";
+        final File directory = _cordovaActivity.getFilesDir();
+
+        cordova.getThreadPool().execute(new Runnable() {
+            @Override
+            public void run() {
+                // Only use the name portion so the trace can't escape the app's files directory
+                final String name = fileName.equals("")
+                        ? "trace-" + System.currentTimeMillis() + ".txt"
+                        : new File(fileName).getName();
+                final File output = new File(directory, name);
+
+                Writer out = null;
+
+                try {
+                    out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output), "UTF-8"));
+                    final int events = TraceRing.dump(out);
+                    out.close();
+                    out = null;
+
+                    callbackContext.success(JSONHelper.traceJSON(output.getAbsolutePath(), events));
+                }
+                catch(IOException exc){
+                    Log.e(TAG, ErrorMessages.TRACE_DUMP_FAILED().message + ", " + exc.getMessage());
+                    callbackContext.error(
+                            JSONHelper.errorJSON(JSONHelper.TRACE_PROVIDER, ErrorMessages.TRACE_DUMP_FAILED()));
+                }
+                finally {
+                    if(out != null){
+                        try {
+                            out.close();
+                        }
+                        catch(IOException ignore){
+                            // Already reported
+                        }
+                    }
+                }
+            }
+        });
+    }
+
     //
     //
     // PREFERENCES
@@ -447,6 +893,10 @@ public class AdvancedGeolocation extends CordovaPlugin{
             _cordovaActivity.finish();
         }
 
+        CurrentPositionController.cancelAll();
+        CallbackChannels.clear();
+        stopStream();
+
         sendCallback(PluginResult.Status.OK,
                 JSONHelper.killLocationJSON());
     }
@@ -522,6 +972,104 @@ public class AdvancedGeolocation extends CordovaPlugin{
         }
     }
 
+    /**
+     * Resolves the replayFile option. Relative paths are relative to the app's files directory.
+     * @return The log to replay or <code>null</code> to use live location providers
+     */
+    private File getReplayFile(){
+        if(_config.replayFile.equals("")){
+            return null;
+        }
+
+        final File file = new File(_config.replayFile);
+        return file.isAbsolute() ? file : new File(_cordovaActivity.getFilesDir(), _config.replayFile);
+    }
+
+    /**
+     * Builds the raw GNSS measurement options. Relative file paths are relative to the app's files directory.
+     * @return The options or <code>null</code> if raw measurements are turned off
+     */
+    private RawMeasurementOptions getRawMeasurementOptions(){
+        if(!RawMeasurementOptions.MODE_FILE.equals(_config.rawMeasurements)
+                && !RawMeasurementOptions.MODE_BRIDGE.equals(_config.rawMeasurements)){
+            return null;
+        }
+
+        final RawMeasurementOptions options = new RawMeasurementOptions();
+        final File file = new File(_config.rawFile);
+
+        options.mode = _config.rawMeasurements;
+        options.file = file.isAbsolute() ? file : new File(_cordovaActivity.getFilesDir(), _config.rawFile);
+        options.maxFileSize = _config.rawMaxFileSize;
+        options.batchSize = Math.max(1, _config.rawBatchSize);
+        options.filter = new MeasurementFilter(_config.rawConstellations, _config.rawSignals);
+
+        return options;
+    }
+
+    /**
+     * @param replayFile The resolved replayFile option
+     * @return A new duty cycle, or <code>null</code> if duty cycling is off. Recorded logs can't be switched on and off.
+     */
+    private DutyCycle getDutyCycle(File replayFile){
+        if(!_config.dutyCycle || replayFile != null){
+            return null;
+        }
+
+        return new DutyCycle(_config.dutyCycleAccuracy, _config.dutyCycleTimeout, _config.dutyCycleInterval);
+    }
+
+    /**
+     * Converts a JSONArray of names into a bit mask. Unknown names are ignored.
+     * @param names The names, or <code>null</code> to accept everything
+     * @param constellations <code>true</code> for constellation names, <code>false</code> for signal bands
+     * @return int mask
+     */
+    private static int namesToMask(JSONArray names, boolean constellations){
+        if(names == null || names.length() == 0){
+            return MeasurementFilter.ALL;
+        }
+
+        int mask = 0;
+
+        for(int i = 0; i < names.length(); i++){
+            final String name = names.optString(i);
+
+            if(constellations){
+                final int code = MeasurementFilter.constellationCode(name);
+                if(code >= 0){
+                    mask |= 1 << code;
+                }
+            }
+            else {
+                mask |= MeasurementFilter.bandCode(name);
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * Converts a JSONArray of payload keys into a PayloadFormat field mask. Unknown keys are ignored.
+     * @param names The keys, or <code>null</code> to write every field
+     * @param satellite <code>true</code> for satellite keys, <code>false</code> for location keys
+     * @return int mask
+     */
+    private static int fieldsToMask(JSONArray names, boolean satellite){
+        if(names == null || names.length() == 0){
+            return PayloadFormat.ALL;
+        }
+
+        int mask = 0;
+
+        for(int i = 0; i < names.length(); i++){
+            final String name = names.optString(i);
+            mask |= satellite ? PayloadFormat.satelliteField(name) : PayloadFormat.locationField(name);
+        }
+
+        return mask;
+    }
+
     /**
      * Check for <code>Network</code> connection.
      * Checks for generic Exceptions and writes them to logcat as <code>CheckConnectivity Exception</code>.
@@ -552,17 +1100,7 @@ public class AdvancedGeolocation extends CordovaPlugin{
         Log.d(TAG,"Execute args: " + args.toString());
         if(args.length() > 0){
             try {
-                final JSONObject obj = args.getJSONObject(0);
-                _minTime = obj.getLong("minTime");
-                _minDistance = obj.getLong("minDistance");
-                _noWarn = obj.getBoolean("noWarn");
-                _providers = obj.getString("providers");
-                _useCache = obj.getBoolean("useCache");
-                _returnSatelliteData = obj.getBoolean("satelliteData");
-                _buffer = obj.getBoolean("buffer");
-                _signalStrength = obj.getBoolean("signalStrength");
-                _bufferSize = obj.getInt("bufferSize");
-
+                _config = parseConfig(args.getJSONObject(0));
             }
             catch (Exception exc){
                 Log.d(TAG, ErrorMessages.INCORRECT_CONFIG_ARGS + ", " + exc.getMessage());
@@ -570,4 +1108,55 @@ public class AdvancedGeolocation extends CordovaPlugin{
             }
         }
     }
+
+    private static GeolocationConfig parseConfig(JSONObject obj) throws JSONException {
+        final GeolocationConfig config = new GeolocationConfig();
+
+        config.minTime = obj.getLong("minTime");
+        config.minDistance = obj.getLong("minDistance");
+        config.noWarn = obj.getBoolean("noWarn");
+        config.providers = obj.getString("providers");
+        config.useCache = obj.getBoolean("useCache");
+        config.satelliteData = obj.getBoolean("satelliteData");
+        config.buffer = obj.getBoolean("buffer");
+        config.signalStrength = obj.getBoolean("signalStrength");
+        config.bufferSize = obj.getInt("bufferSize");
+        config.signalStrengthThreshold = obj.optInt("signalStrengthThreshold", 0);
+        config.signalStrengthInterval = obj.optLong("signalStrengthInterval", 0);
+        config.signalStrengthSummaryInterval = obj.optLong("signalStrengthSummaryInterval", 0);
+        config.recordTrack = obj.optBoolean("recordTrack", false);
+        config.replayFile = obj.optString("replayFile", "");
+        config.replaySpeed = (float) obj.optDouble("replaySpeed", 1);
+        config.trace = obj.optBoolean("trace", false);
+        config.encodeThread = obj.optBoolean("encodeThread", false);
+        config.nmea = obj.optBoolean("nmea", false);
+        config.gnssStatus = obj.optBoolean("gnssStatus", false);
+        config.satelliteSummary = obj.optBoolean("satelliteSummary", false);
+        config.satelliteDetailInterval = obj.optLong("satelliteDetailInterval", 10000);
+        config.nmeaBatchSize = obj.optInt("nmeaBatchSize", 5);
+        config.adaptiveSampling = obj.optBoolean("adaptiveSampling", false);
+        config.dutyCycle = obj.optBoolean("dutyCycle", false);
+        config.dutyCycleAccuracy = (float) obj.optDouble("dutyCycleAccuracy", 20);
+        config.dutyCycleTimeout = obj.optLong("dutyCycleTimeout", 60000);
+        config.dutyCycleInterval = obj.optLong("dutyCycleInterval", 300000);
+        config.rawMeasurements = obj.optString("rawMeasurements", "");
+        config.rawFile = obj.optString("rawFile", "advanced-geolocation-raw.bin");
+        config.rawMaxFileSize = obj.optLong("rawMaxFileSize", 10485760);
+        config.rawBatchSize = obj.optInt("rawBatchSize", 10);
+        config.rawConstellations = namesToMask(obj.optJSONArray("rawConstellations"), true);
+        config.rawSignals = namesToMask(obj.optJSONArray("rawSignals"), false);
+
+        final PayloadFormat format = new PayloadFormat(
+                fieldsToMask(obj.optJSONArray("fields"), false),
+                fieldsToMask(obj.optJSONArray("satelliteFields"), true),
+                obj.optInt("precision", PayloadFormat.FULL_PRECISION),
+                obj.optInt("floatPrecision", PayloadFormat.FULL_PRECISION),
+                obj.optBoolean("deltaEncoding", false) ? Math.max(1, obj.optInt("keyframeInterval", 10)) : 0);
+        config.payloadFormat = format.equals(PayloadFormat.FULL) ? PayloadFormat.FULL : format;
+        config.streamServer = obj.optBoolean("streamServer", false);
+        config.streamPort = obj.optInt("streamPort", 0);
+        config.streamOnly = obj.optBoolean("streamOnly", false);
+
+        return config;
+    }
 }
@@ -26,13 +26,16 @@ package com.esri.cordova.geolocation.controllers;
 
 import android.content.Context;
 import android.os.Build;
+import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.telephony.CellInfo;
 import android.telephony.CellInfoCdma;
 import android.telephony.CellInfoGsm;
 import android.telephony.CellInfoLte;
 import android.telephony.CellInfoWcdma;
 import android.telephony.CellLocation;
+import android.telephony.CellSignalStrength;
 import android.telephony.PhoneStateListener;
 import android.telephony.SignalStrength;
 import android.telephony.TelephonyManager;
@@ -40,8 +43,13 @@ import android.telephony.cdma.CdmaCellLocation;
 import android.telephony.gsm.GsmCellLocation;
 import android.util.Log;
 
+import com.esri.cordova.geolocation.core.ProviderStats;
+import com.esri.cordova.geolocation.core.SignalCoalescer;
+import com.esri.cordova.geolocation.core.TraceRing;
 import com.esri.cordova.geolocation.listeners.SignalStrengthListener;
+import com.esri.cordova.geolocation.model.GeolocationConfig;
 import com.esri.cordova.geolocation.model.StrengthChange;
+import com.esri.cordova.geolocation.utils.CallbackChannels;
 import com.esri.cordova.geolocation.utils.ErrorMessages;
 import com.esri.cordova.geolocation.utils.JSONHelper;
 
@@ -54,6 +62,7 @@ import java.util.List;
 public final class CellLocationController implements Runnable{
 
     public static final String CELLINFO_PROVIDER = "cell";
+    public static final ProviderStats STATS = new ProviderStats(CELLINFO_PROVIDER);
     private static final String TAG = "GeolocationPlugin";
     private static CallbackContext _callbackContext; // Threadsafe
     private static TelephonyManager _telephonyManager = null;
@@ -62,17 +71,30 @@ public final class CellLocationController implements Runnable{
     private static CordovaInterface _cordova;
     private static boolean _isConnected = false;
     private static boolean _returnSignalStrength = false;
+    private static int _signalStrengthThreshold = 0;
+    private static long _signalStrengthInterval = 0;
+    private static long _signalStrengthSummaryInterval = 0;
+    private static SignalCoalescer _signalCoalescer = null;
+    private static Handler _signalHandler = null;
+    private static Runnable _summaryRunnable = null;
+    // The latest signal strength held back by the coalescer's minimum interval
+    private static SignalStrength _pendingSignalStrength = null;
+    private static long _pendingSignalNanos = 0;
+    private static boolean _pendingSignalPosted = false;
 
     public CellLocationController(
             boolean isConnected,
-            boolean returnSignalStrength,
+            GeolocationConfig config,
             CordovaInterface cordova,
             CallbackContext callbackContext
     ){
         _isConnected = isConnected;
         _cordova = cordova;
         _callbackContext = callbackContext;
-        _returnSignalStrength = returnSignalStrength;
+        _returnSignalStrength = config.signalStrength;
+        _signalStrengthThreshold = config.signalStrengthThreshold;
+        _signalStrengthInterval = config.signalStrengthInterval;
+        _signalStrengthSummaryInterval = config.signalStrengthSummaryInterval;
     }
 
     public void run(){
@@ -144,6 +166,15 @@ public final class CellLocationController implements Runnable{
             _telephonyManager.listen(_signalStrengthListener, PhoneStateListener.LISTEN_NONE);
         }
 
+        if(_signalHandler != null){
+            _signalHandler.removeCallbacksAndMessages(null);
+        }
+
+        _signalHandler = null;
+        _summaryRunnable = null;
+        _pendingSignalStrength = null;
+        _pendingSignalPosted = false;
+        _signalCoalescer = null;
         _signalStrengthListener = null;
         _phoneStateListener = null;
         _telephonyManager = null;
@@ -178,16 +209,43 @@ public final class CellLocationController implements Runnable{
     private void setPhoneStateListener(){
 
         if(_returnSignalStrength){
+            _signalCoalescer = new SignalCoalescer(_signalStrengthThreshold, _signalStrengthInterval);
+            _signalHandler = new Handler(Looper.myLooper());
+
+            if(_signalStrengthSummaryInterval > 0){
+                setSummaryTimer();
+            }
+
             _signalStrengthListener = new SignalStrengthListener();
             _signalStrengthListener.setListener(new StrengthChange() {
                 @Override
                 public SignalStrength onSignalStrengthChanged(SignalStrength signalStrength) {
+                    final long received = SystemClock.elapsedRealtimeNanos();
+                    TraceRing.record(TraceRing.PROVIDER_CELL, TraceRing.EVENT_CALLBACK);
+                    STATS.onReceived();
+
+                    final SignalCoalescer coalescer = _signalCoalescer;
+                    final int level = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M
+                            ? signalStrength.getLevel() : SignalCoalescer.UNKNOWN;
+
+                    if(coalescer == null){
+                        return null;
+                    }
 
-                    if(!Thread.currentThread().isInterrupted()){
-                        sendCallback(PluginResult.Status.OK,
-                                JSONHelper.signalStrengthJSON(signalStrength));
+                    // Modem jitter below the thresholds only goes into the summary, a change that
+                    // came too soon is sent when the interval expires
+                    if(!coalescer.offer(getDbm(signalStrength), level, received)){
+                        if(coalescer.hasPending()){
+                            _pendingSignalStrength = signalStrength;
+                            _pendingSignalNanos = received;
+                            postPendingSignal(coalescer.getPendingDelayMillis(received));
+                        }
+                        return null;
                     }
 
+                    _pendingSignalStrength = null;
+                    sendSignalStrength(signalStrength, received);
+
                     return null;
                 }
             });
@@ -198,18 +256,31 @@ public final class CellLocationController implements Runnable{
         _phoneStateListener = new PhoneStateListener(){
             @Override
             public void onCellLocationChanged(CellLocation location){
+                final long received = SystemClock.elapsedRealtimeNanos();
+                TraceRing.record(TraceRing.PROVIDER_CELL, TraceRing.EVENT_CALLBACK);
+                STATS.onReceived();
 
                 if(!Thread.currentThread().isInterrupted()){
+                    final long start = System.nanoTime();
+                    String json = null;
+
                     if(location instanceof CdmaCellLocation){
                         final CdmaCellLocation cellLocationCdma = (CdmaCellLocation) location;
-                        sendCallback(PluginResult.Status.OK,
-                                JSONHelper.cdmaCellLocationJSON(cellLocationCdma));
+                        json = JSONHelper.cdmaCellLocationJSON(cellLocationCdma, received);
                     }
                     if(location instanceof GsmCellLocation){
                         final GsmCellLocation cellLocationGsm = (GsmCellLocation) location;
-                        sendCallback(PluginResult.Status.OK,
-                                JSONHelper.gsmCellLocationJSON(cellLocationGsm));
+                        json = JSONHelper.gsmCellLocationJSON(cellLocationGsm, received);
                     }
+
+                    if(json != null){
+                        STATS.getEncodeTime().record(System.nanoTime() - start);
+                        TraceRing.record(TraceRing.PROVIDER_CELL, TraceRing.EVENT_ENCODE);
+                        sendCallback(CallbackChannels.CELL_LOCATION, json);
+                    }
+                }
+                else {
+                    STATS.onDropped();
                 }
             }
 
@@ -218,6 +289,11 @@ public final class CellLocationController implements Runnable{
                 if(!Thread.currentThread().isInterrupted()){
                     processCellInfos(cellInfo);
                 }
+                else {
+                    TraceRing.record(TraceRing.PROVIDER_CELL, TraceRing.EVENT_CALLBACK);
+                    STATS.onReceived();
+                    STATS.onDropped();
+                }
             }
         };
 
@@ -226,31 +302,48 @@ public final class CellLocationController implements Runnable{
 
     private static void processCellInfos(List<CellInfo> cellInfos){
         if(cellInfos != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M){
+            final long received = SystemClock.elapsedRealtimeNanos();
 
             for(CellInfo cellInfo : cellInfos){
+                TraceRing.record(TraceRing.PROVIDER_CELL, TraceRing.EVENT_CALLBACK);
+                STATS.onReceived();
+
+                final long start = System.nanoTime();
+                String json = null;
 
                 if(cellInfo instanceof  CellInfoWcdma){
                     final CellInfoWcdma cellInfoWcdma = (CellInfoWcdma) cellInfo;
-                    sendCallback(PluginResult.Status.OK,
-                            JSONHelper.cellInfoWCDMAJSON(cellInfoWcdma, _returnSignalStrength));
+                    json = JSONHelper.cellInfoWCDMAJSON(cellInfoWcdma, _returnSignalStrength, received);
                 }
                 if(cellInfo instanceof CellInfoGsm){
                     final CellInfoGsm cellInfoGsm = (CellInfoGsm) cellInfo;
-                    sendCallback(PluginResult.Status.OK,
-                            JSONHelper.cellInfoGSMJSON(cellInfoGsm, _returnSignalStrength));
+                    json = JSONHelper.cellInfoGSMJSON(cellInfoGsm, _returnSignalStrength, received);
                 }
                 if(cellInfo instanceof  CellInfoCdma){
                     final CellInfoCdma cellIdentityCdma = (CellInfoCdma) cellInfo;
-                    sendCallback(PluginResult.Status.OK,
-                            JSONHelper.cellInfoCDMAJSON(cellIdentityCdma, _returnSignalStrength));
+                    json = JSONHelper.cellInfoCDMAJSON(cellIdentityCdma, _returnSignalStrength, received);
                 }
                 if(cellInfo instanceof  CellInfoLte){
                     final CellInfoLte cellInfoLte = (CellInfoLte) cellInfo;
-                    sendCallback(PluginResult.Status.OK,
-                            JSONHelper.cellInfoLTEJSON(cellInfoLte, _returnSignalStrength));
+                    json = JSONHelper.cellInfoLTEJSON(cellInfoLte, _returnSignalStrength, received);
                 }
 
-                Log.d(TAG,cellInfo.toString());
+                if(json != null){
+                    STATS.getEncodeTime().record(System.nanoTime() - start);
+                    TraceRing.record(TraceRing.PROVIDER_CELL, TraceRing.EVENT_ENCODE);
+
+                    // CellInfo timestamps are nanoseconds since boot
+                    if(cellInfo.getTimeStamp() > 0){
+                        STATS.getFixAge().record(received - cellInfo.getTimeStamp());
+                    }
+
+                    sendCallback(CallbackChannels.CELL_INFO, json);
+                }
+
+                // toString() on every cell is expensive, only build it when debug logging is on
+                if(Log.isLoggable(TAG, Log.DEBUG)){
+                    Log.d(TAG, cellInfo.toString());
+                }
             }
         }
         else {
@@ -279,11 +372,194 @@ public final class CellLocationController implements Runnable{
         return verified;
     }
 
+    private static void sendSignalStrength(SignalStrength signalStrength, long received){
+        if(!Thread.currentThread().isInterrupted()){
+            final long start = System.nanoTime();
+            final String json = JSONHelper.signalStrengthJSON(signalStrength, received);
+            STATS.getEncodeTime().record(System.nanoTime() - start);
+            TraceRing.record(TraceRing.PROVIDER_CELL, TraceRing.EVENT_ENCODE);
+
+            sendCallback(CallbackChannels.SIGNAL_STRENGTH, json);
+        }
+        else {
+            STATS.onDropped();
+        }
+    }
+
+    private static void postPendingSignal(long delayMillis){
+        final Handler handler = _signalHandler;
+
+        if(handler != null && !_pendingSignalPosted){
+            _pendingSignalPosted = handler.postDelayed(_pendingSignalRunnable, delayMillis);
+        }
+    }
+
+    /**
+     * Trailing edge of the coalescer, sends the latest held back signal strength once the
+     * minimum interval has expired.
+     */
+    private static final Runnable _pendingSignalRunnable = new Runnable() {
+        @Override
+        public void run() {
+            final SignalCoalescer coalescer = _signalCoalescer;
+            final SignalStrength signalStrength = _pendingSignalStrength;
+            final long now = SystemClock.elapsedRealtimeNanos();
+
+            _pendingSignalPosted = false;
+
+            if(coalescer == null || signalStrength == null){
+                return;
+            }
+
+            if(coalescer.takePending(now)){
+                _pendingSignalStrength = null;
+                sendSignalStrength(signalStrength, _pendingSignalNanos);
+            }
+            // An event was emitted in the meantime and a newer change is waiting for its interval
+            else if(coalescer.hasPending()){
+                postPendingSignal(coalescer.getPendingDelayMillis(now));
+            }
+        }
+    };
+
+    /**
+     * Sends a summary of the suppressed signal strength events every signalStrengthSummaryInterval.
+     * Nothing is sent for a period without suppressed events.
+     */
+    private static void setSummaryTimer(){
+        _summaryRunnable = new Runnable() {
+            @Override
+            public void run() {
+                final SignalCoalescer coalescer = _signalCoalescer;
+                final Handler handler = _signalHandler;
+                final long now = SystemClock.elapsedRealtimeNanos();
+
+                if(coalescer == null || handler == null){
+                    return;
+                }
+
+                if(coalescer.getSuppressed() > 0){
+                    sendCallback(CallbackChannels.SIGNAL_STRENGTH, JSONHelper.signalStrengthSummaryJSON(coalescer, now));
+                }
+
+                coalescer.resetSummary(now);
+                handler.postDelayed(this, _signalStrengthSummaryInterval);
+            }
+        };
+
+        _signalHandler.postDelayed(_summaryRunnable, _signalStrengthSummaryInterval);
+    }
+
+    /**
+     * On Android 10 and later every radio technology reports its own dBm, the strongest is used.
+     * Older releases only report the GSM ASU and the CDMA dBm on SignalStrength, and isGsm() is
+     * also true for LTE and WCDMA whose ASU is unknown, so the registered cell's dBm is read first.
+     * @return The signal strength in dBm, or SignalCoalescer.UNKNOWN if the modem doesn't report it
+     */
+    private static int getDbm(SignalStrength signalStrength){
+        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q){
+            int dbm = SignalCoalescer.UNKNOWN;
+
+            for(CellSignalStrength cellSignalStrength : signalStrength.getCellSignalStrengths()){
+                dbm = SignalCoalescer.strongerDbm(dbm, cellSignalStrength.getDbm());
+            }
+
+            return dbm;
+        }
+
+        final int registered = getRegisteredCellDbm();
+
+        if(registered != SignalCoalescer.UNKNOWN){
+            return registered;
+        }
+
+        if(signalStrength.isGsm()){
+            return SignalCoalescer.dbmFromAsu(signalStrength.getGsmSignalStrength());
+        }
+
+        return SignalCoalescer.validDbm(signalStrength.getCdmaDbm());
+    }
+
+    /**
+     * Reads the dBm of the registered LTE, WCDMA or GSM cell, for releases before Android 10.
+     * @return dBm, or SignalCoalescer.UNKNOWN if there is no registered cell or it has no dBm
+     */
+    private static int getRegisteredCellDbm(){
+        final TelephonyManager telephonyManager = _telephonyManager;
+
+        if(telephonyManager == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2){
+            return SignalCoalescer.UNKNOWN;
+        }
+
+        final List<CellInfo> cellInfos;
+
+        try {
+            cellInfos = telephonyManager.getAllCellInfo();
+        }
+        // Without location permission the cell info isn't available, fall back to the ASU
+        catch(SecurityException exc){
+            return SignalCoalescer.UNKNOWN;
+        }
+
+        int dbm = SignalCoalescer.UNKNOWN;
+
+        if(cellInfos != null){
+            for(CellInfo cellInfo : cellInfos){
+                if(!cellInfo.isRegistered()){
+                    continue;
+                }
+
+                if(cellInfo instanceof CellInfoLte){
+                    dbm = SignalCoalescer.strongerDbm(dbm, ((CellInfoLte) cellInfo).getCellSignalStrength().getDbm());
+                }
+                else if(cellInfo instanceof CellInfoWcdma){
+                    dbm = SignalCoalescer.strongerDbm(dbm, ((CellInfoWcdma) cellInfo).getCellSignalStrength().getDbm());
+                }
+                else if(cellInfo instanceof CellInfoGsm){
+                    dbm = SignalCoalescer.strongerDbm(dbm, ((CellInfoGsm) cellInfo).getCellSignalStrength().getDbm());
+                }
+            }
+        }
+
+        return dbm;
+    }
+
     private static void sendCallback(PluginResult.Status status, String message){
+        sendCallback(-1, status, message);
+    }
+
+    /**
+     * Sends a data payload to the stream server if it runs, and unless streamOnly is set to the
+     * callback subscribed to its channel, or to the start() callback
+     * @param channel One of the CallbackChannels
+     * @param message The payload
+     */
+    private static void sendCallback(int channel, String message){
+        if(CallbackChannels.stream(channel, message)){
+            sendCallback(channel, PluginResult.Status.OK, message);
+        }
+    }
+
+    /**
+     * @param channel One of the CallbackChannels, or -1 for the start() callback
+     */
+    private static void sendCallback(int channel, PluginResult.Status status, String message){
         if(!Thread.currentThread().isInterrupted()){
             final PluginResult result = new PluginResult(status, message);
             result.setKeepCallback(true);
-            _callbackContext.sendPluginResult(result);
+
+            if(channel < 0){
+                _callbackContext.sendPluginResult(result);
+            }
+            else {
+                CallbackChannels.send(channel, _callbackContext, result);
+            }
+
+            STATS.onSent();
+            TraceRing.record(TraceRing.PROVIDER_CELL, TraceRing.EVENT_SEND);
+        }
+        else {
+            STATS.onDropped();
         }
     }
 }
@@ -0,0 +1,321 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.controllers;
+
+import android.content.Context;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+
+import com.esri.cordova.geolocation.core.Fix;
+import com.esri.cordova.geolocation.core.LastFixCache;
+import com.esri.cordova.geolocation.utils.ErrorMessages;
+import com.esri.cordova.geolocation.utils.JSONHelper;
+import com.esri.cordova.geolocation.utils.LocationAdapter;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaInterface;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers a single getCurrentPosition request. A location from the LastFixCache or the
+ * LocationManager's cache is returned if it is recent and accurate enough, otherwise the cheapest provider that can reach the desired accuracy is
+ * started on its own thread and removed as soon as it has answered or the request times out.
+ *
+ * Unlike the continuous controllers every request has its own instance, so several requests
+ * can run at the same time. Requests waiting for a provider are kept until they answer, so
+ * cancelAll() can remove their listeners when the plugin is stopped.
+ */
+public final class CurrentPositionController {
+
+    // Network locations are rarely more accurate than this, tighter targets need the GPS
+    public static final float NETWORK_ACCURACY = 100;
+
+    private static final String TAG = "GeolocationPlugin";
+    public static final String[] CACHED_PROVIDERS =
+            {LocationManager.GPS_PROVIDER, LocationManager.NETWORK_PROVIDER, LocationManager.PASSIVE_PROVIDER};
+
+    // Requests with a provider started, guarded by itself
+    private static final List<CurrentPositionController> _pending = new ArrayList<CurrentPositionController>();
+
+    private final CallbackContext _callbackContext;
+    private final LocationManager _locationManager;
+    private final long _maximumAge;
+    private final long _timeout;
+    private final float _desiredAccuracy;
+
+    private HandlerThread _thread = null;
+    private Handler _handler = null;
+    private LocationListener _listener = null;
+    private String _provider = null;
+    private Location _best = null;
+    private volatile boolean _done = false;
+    private final Fix _fix = new Fix();
+
+    /**
+     * @param maximumAge Oldest cached location that is acceptable, in milliseconds. 0 never uses the cache
+     * @param timeout Longest time to wait for a provider, in milliseconds, not negative
+     * @param desiredAccuracy Accuracy to reach in meters, 0 accepts the first location of any accuracy
+     */
+    public CurrentPositionController(
+            CordovaInterface cordova,
+            CallbackContext callbackContext,
+            long maximumAge,
+            long timeout,
+            float desiredAccuracy
+    ){
+        _callbackContext = callbackContext;
+        _locationManager = (LocationManager) cordova.getActivity().getSystemService(Context.LOCATION_SERVICE);
+        _maximumAge = maximumAge;
+        _timeout = timeout;
+        _desiredAccuracy = desiredAccuracy;
+    }
+
+    public synchronized void start(){
+
+        if(getCachedFix(_fix)){
+            _callbackContext.success(JSONHelper.locationJSON(_fix));
+            return;
+        }
+
+        _provider = chooseProvider();
+
+        if(_provider == null){
+            _callbackContext.error(
+                    JSONHelper.errorJSON(JSONHelper.POSITION_PROVIDER, ErrorMessages.POSITION_UNAVAILABLE()));
+            return;
+        }
+
+        synchronized(_pending){
+            _pending.add(this);
+        }
+
+        _thread = new HandlerThread("CurrentPosition", android.os.Process.THREAD_PRIORITY_BACKGROUND);
+        _thread.start();
+        _handler = new Handler(_thread.getLooper());
+
+        _listener = new LocationListener() {
+            public void onLocationChanged(Location location) {
+                onLocation(location);
+            }
+
+            public void onStatusChanged(String provider, int status, Bundle extras) {
+            }
+
+            public void onProviderEnabled(String provider) {
+            }
+
+            public void onProviderDisabled(String provider) {
+            }
+        };
+
+        try {
+            _locationManager.requestLocationUpdates(_provider, 0, 0, _listener, _thread.getLooper());
+            _handler.postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    onTimeout();
+                }
+            }, _timeout);
+        }
+        // if the location permissions are not present
+        catch(SecurityException exc){
+            Log.e(TAG, "Unable to start " + _provider + " provider. " + exc.getMessage());
+            if(finish()){
+                _callbackContext.error(JSONHelper.errorJSON(JSONHelper.POSITION_PROVIDER, exc.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Removes the provider of every request that hasn't answered yet and sends each of them
+     * an error. Called when the plugin is stopped, paused or destroyed.
+     */
+    public static void cancelAll(){
+        final CurrentPositionController[] pending;
+
+        synchronized(_pending){
+            pending = _pending.toArray(new CurrentPositionController[_pending.size()]);
+        }
+
+        for(CurrentPositionController request : pending){
+            if(request.finish()){
+                request._callbackContext.error(
+                        JSONHelper.errorJSON(JSONHelper.POSITION_PROVIDER, ErrorMessages.POSITION_CANCELLED()));
+            }
+        }
+    }
+
+    /**
+     * Finds the most recent cached location of any provider that is young and accurate enough.
+     * @param out Receives the location
+     * @return <code>true</code> if a location was found
+     */
+    private boolean getCachedFix(Fix out){
+        if(_maximumAge <= 0){
+            return false;
+        }
+
+        try {
+            return getCachedFix(_locationManager, CACHED_PROVIDERS,
+                    TimeUnit.MILLISECONDS.toNanos(_maximumAge), _desiredAccuracy, out);
+        }
+        // Reported by the provider request that follows
+        catch(SecurityException exc){
+            Log.d(TAG, exc.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Finds the most recent location of several providers, from the LastFixCache or the
+     * LocationManager's cache, without starting any of them.
+     * @param locationManager The LocationManager
+     * @param providers The providers to look at
+     * @param maximumAgeNanos Oldest location that is acceptable
+     * @param desiredAccuracy Accuracy to reach in meters, 0 accepts any accuracy
+     * @param out Receives the location, marked as cached
+     * @return <code>true</code> if a location was found
+     * @throws SecurityException if nothing was found and a provider was refused for missing permissions
+     */
+    public static boolean getCachedFix(LocationManager locationManager, String[] providers,
+                                       long maximumAgeNanos, float desiredAccuracy, Fix out){
+        final Fix candidate = new Fix();
+        SecurityException denied = null;
+        boolean found = false;
+
+        for(String provider : providers){
+            try {
+                if(LocationAdapter.lastKnownFix(locationManager, provider, maximumAgeNanos, candidate)
+                        && isAccurateEnough(desiredAccuracy, candidate.accuracy)
+                        && (!found || candidate.elapsedRealtimeNanos > out.elapsedRealtimeNanos)){
+                    out.set(candidate);
+                    found = true;
+                }
+            }
+            // Coarse location alone still allows the network provider
+            catch(SecurityException exc){
+                denied = exc;
+            }
+        }
+
+        if(!found && denied != null){
+            throw denied;
+        }
+
+        return found;
+    }
+
+    /**
+     * @return The network provider if it can reach the desired accuracy, otherwise the GPS,
+     * or <code>null</code> if neither is enabled
+     */
+    private String chooseProvider(){
+        final boolean network = _locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER);
+        final boolean gps = _locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER);
+        final boolean coarseEnough = _desiredAccuracy <= 0 || _desiredAccuracy >= NETWORK_ACCURACY;
+
+        if(network && (coarseEnough || !gps)){
+            return LocationManager.NETWORK_PROVIDER;
+        }
+
+        return gps ? LocationManager.GPS_PROVIDER : null;
+    }
+
+    private static boolean isAccurateEnough(float desiredAccuracy, float accuracy){
+        return desiredAccuracy <= 0 || (accuracy > 0 && accuracy <= desiredAccuracy);
+    }
+
+    private void onLocation(Location location){
+        if(_done){
+            return;
+        }
+
+        LastFixCache.update(LocationAdapter.toFix(_provider, location, false, _fix));
+
+        if(_best == null || location.getAccuracy() < _best.getAccuracy()){
+            _best = location;
+        }
+
+        if(isAccurateEnough(_desiredAccuracy, location.hasAccuracy() ? location.getAccuracy() : 0) && finish()){
+            _callbackContext.success(JSONHelper.locationJSON(_provider, location, false));
+        }
+    }
+
+    /**
+     * Answers with the most accurate location seen, even though it missed the desired accuracy.
+     */
+    private void onTimeout(){
+        if(!finish()){
+            return;
+        }
+
+        if(_best != null){
+            _callbackContext.success(JSONHelper.locationJSON(_provider, _best, false));
+        }
+        else {
+            _callbackContext.error(
+                    JSONHelper.errorJSON(JSONHelper.POSITION_PROVIDER, ErrorMessages.POSITION_TIMEOUT()));
+        }
+    }
+
+    /**
+     * Removes the provider, only once. The request's own thread and cancelAll() race to finish it,
+     * whichever wins answers the request.
+     * @return <code>true</code> if this call finished the request
+     */
+    private synchronized boolean finish(){
+        if(_done){
+            return false;
+        }
+
+        _done = true;
+
+        synchronized(_pending){
+            _pending.remove(this);
+        }
+
+        if(_listener != null){
+            try {
+                _locationManager.removeUpdates(_listener);
+            }
+            catch(SecurityException exc){
+                Log.e(TAG, exc.getMessage());
+            }
+
+            _listener = null;
+        }
+
+        if(_handler != null){
+            _handler.removeCallbacksAndMessages(null);
+        }
+
+        if(_thread != null){
+            _thread.quit();
+            _thread = null;
+        }
+
+        return true;
+    }
+}
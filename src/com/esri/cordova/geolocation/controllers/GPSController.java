@@ -18,62 +18,304 @@ package com.esri.cordova.geolocation.controllers;
 
 
 import android.content.Context;
+import android.location.GnssClock;
+import android.location.GnssMeasurement;
+import android.location.GnssMeasurementsEvent;
+import android.location.GnssStatus;
+import android.location.GpsSatellite;
 import android.location.GpsStatus;
 import android.location.Location;
 import android.location.LocationListener;
 import android.location.LocationManager;
 import android.location.LocationProvider;
+import android.location.OnNmeaMessageListener;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
-import com.esri.cordova.geolocation.model.Coordinate;
+import com.esri.cordova.geolocation.core.DutyCycle;
+import com.esri.cordova.geolocation.core.EncodeStage;
+import com.esri.cordova.geolocation.core.Fix;
+import com.esri.cordova.geolocation.core.FixBuffer;
+import com.esri.cordova.geolocation.core.FixDispatcher;
+import com.esri.cordova.geolocation.core.FixPipeline;
+import com.esri.cordova.geolocation.core.LastFixCache;
+import com.esri.cordova.geolocation.core.MeasurementEncoder;
+import com.esri.cordova.geolocation.core.NmeaBatch;
+import com.esri.cordova.geolocation.core.NmeaParser;
+import com.esri.cordova.geolocation.core.PayloadFormat;
+import com.esri.cordova.geolocation.core.PayloadSink;
+import com.esri.cordova.geolocation.core.ProviderStats;
+import com.esri.cordova.geolocation.core.RollingFile;
+import com.esri.cordova.geolocation.core.SamplingPolicy;
+import com.esri.cordova.geolocation.core.SatelliteEncoder;
+import com.esri.cordova.geolocation.core.SatelliteSnapshot;
+import com.esri.cordova.geolocation.core.SatelliteTable;
+import com.esri.cordova.geolocation.core.SpscQueue;
+import com.esri.cordova.geolocation.core.TraceRing;
+import com.esri.cordova.geolocation.model.GeolocationConfig;
 import com.esri.cordova.geolocation.model.InitStatus;
-import com.esri.cordova.geolocation.model.LocationDataBuffer;
+import com.esri.cordova.geolocation.model.RawMeasurementOptions;
+import com.esri.cordova.geolocation.utils.CallbackChannels;
 import com.esri.cordova.geolocation.utils.ErrorMessages;
 import com.esri.cordova.geolocation.utils.JSONHelper;
+import com.esri.cordova.geolocation.utils.LocationAdapter;
+import com.esri.cordova.geolocation.utils.ResultSender;
+import com.esri.cordova.geolocation.utils.TrackRecorder;
 
 import org.apache.cordova.CallbackContext;
 import org.apache.cordova.CordovaInterface;
 import org.apache.cordova.PluginResult;
 
+import java.io.File;
+import java.io.IOException;
+
 public final class GPSController implements Runnable {
 
     private static LocationManager _locationManager = null;
     private static LocationListener _locationListenerGPSProvider = null;
     private static GpsStatus.Listener _gpsStatusListener = null;
+    private static GnssStatus.Callback _gnssStatusCallback = null;
+    private static GnssMeasurementsEvent.Callback _gnssMeasurementsCallback = null;
+    private static OnNmeaMessageListener _nmeaMessageListener = null;
+    private static GpsStatus.NmeaListener _nmeaListener = null;
 
     private static CallbackContext _callbackContext; // Threadsafe
     private static CordovaInterface _cordova;
+    private static Handler _handler = null;
+    // Guards _handler against update() until run() has created it, along with _pendingConfig
+    private static final Object _handlerLock = new Object();
+    private static Runnable _pendingConfig = null;
 
     private static long _minDistance = 0;
     private static long _minTime = 0;
+    private static boolean _adaptiveSampling = false;
+    private static final SamplingPolicy _samplingPolicy = new SamplingPolicy();
+    private static DutyCycle _dutyCycle = null;
+    private static boolean _dutyCycleBridge = false;
+    // Set and cleared under the class lock, see removeLocationListener()
+    private static volatile Handler _dutyCycleHandler = null;
+    private static boolean _bridging = false;
     private static boolean _buffer = false;
     private static int _bufferSize = 0;
     private static boolean _returnCache = false;
     private static boolean _returnSatelliteData = false;
-    private static LocationDataBuffer _locationDataBuffer = null;
+    private static boolean _useGnssStatus = false;
+    private static boolean _returnNmea = false;
+    private static int _nmeaBatchSize = 1;
+    private static RawMeasurementOptions _rawMeasurements = null;
+    private static volatile FixPipeline _fixPipeline = null;
+    // Network fixes that bridge the gaps between duty cycle windows, only used on the Looper
+    private static FixPipeline _bridgePipeline = null;
+    private static boolean _encodeThread = false;
+    private static SpscQueue<SatelliteSnapshot> _satelliteQueue = null;
+    private static final Fix _fix = new Fix();
+    private static final Fix _bridgeFix = new Fix();
+    private static File _replayFile = null;
+    private static float _replaySpeed = 1;
+    private static LocationReplayer _locationReplayer = null;
+    private static final NmeaParser _nmeaParser = new NmeaParser();
+    private static final NmeaBatch _nmeaBatch = new NmeaBatch(JSONHelper.NMEA_PROVIDER);
+    private static final SatelliteTable _satelliteTable = new SatelliteTable();
+    private static PayloadFormat _payloadFormat = PayloadFormat.FULL;
+    // Replaced when the format changes, the encode stage may still be finishing with the old one
+    private static volatile SatelliteEncoder _satelliteEncoder = new SatelliteEncoder(JSONHelper.GNSS_PROVIDER);
+    private static int _timeToFirstFix = -1;
+    private static boolean _satelliteSummary = false;
+    private static long _satelliteDetailInterval = 0;
+    private static long _lastSatelliteDetail = -1;
+    private static GpsStatus _gpsStatus = null;
+    private static final MeasurementEncoder _measurementEncoder = new MeasurementEncoder();
+    private static RollingFile _rawMeasurementFile = null;
 
     private static final String TAG = "GeolocationPlugin";
+    private static final int FIX_QUEUE_SIZE = 16;
+    private static final int SATELLITE_QUEUE_SIZE = 4;
+
+    public static final ProviderStats STATS = new ProviderStats(LocationManager.GPS_PROVIDER);
+
+    private static final ResultSender _sender = new ResultSender(STATS, TraceRing.PROVIDER_GPS);
 
     public GPSController(
             CordovaInterface cordova,
             CallbackContext callbackContext,
-            long minDistance,
-            long minTime,
-            boolean returnCache,
-            boolean returnSatelliteData,
-            boolean buffer,
-            int bufferSize
+            GeolocationConfig config,
+            RawMeasurementOptions rawMeasurements,
+            DutyCycle dutyCycle,
+            boolean dutyCycleBridge,
+            File replayFile
     ){
         _cordova = cordova;
         _callbackContext = callbackContext;
-        _minDistance = minDistance;
-        _minTime = minTime;
-        _returnCache = returnCache;
-        _returnSatelliteData = returnSatelliteData;
-        _buffer = buffer;
-        _bufferSize = bufferSize;
+        _sender.setCallbackContext(callbackContext);
+        _dutyCycleBridge = dutyCycleBridge;
+        _replayFile = replayFile;
+        _encodeThread = config.encodeThread;
+        setConfig(config, rawMeasurements, dutyCycle);
+
+        synchronized(_handlerLock){
+            _pendingConfig = null;
+        }
+    }
+
+    private static void setConfig(GeolocationConfig config, RawMeasurementOptions rawMeasurements, DutyCycle dutyCycle){
+        _minDistance = config.minDistance;
+        _minTime = config.minTime;
+        _adaptiveSampling = config.adaptiveSampling;
+        _dutyCycle = dutyCycle;
+        _returnCache = config.useCache;
+        _returnSatelliteData = config.satelliteData;
+        _useGnssStatus = config.gnssStatus;
+        _satelliteSummary = config.satelliteSummary;
+        _satelliteDetailInterval = config.satelliteDetailInterval;
+        _buffer = config.buffer;
+        _bufferSize = config.bufferSize;
+        _returnNmea = config.nmea;
+        _nmeaBatchSize = Math.max(1, config.nmeaBatchSize);
+        _rawMeasurements = rawMeasurements;
+        _replaySpeed = config.replaySpeed;
+        _payloadFormat = config.payloadFormat;
+
+        if(!_satelliteEncoder.getFormat().equals(_payloadFormat)){
+            _satelliteEncoder = new SatelliteEncoder(JSONHelper.GNSS_PROVIDER, _payloadFormat);
+        }
+    }
+
+    /**
+     * Compares two configurations and returns the parts of a running GPSController that differ.
+     * @param previous The running configuration
+     * @param config The new configuration
+     * @return A combination of the GeolocationConfig.CHANGED_ flags, 0 if nothing the GPS provider uses changed
+     */
+    public static int diff(GeolocationConfig previous, GeolocationConfig config){
+        int changes = 0;
+
+        if(previous.minTime != config.minTime
+                || previous.minDistance != config.minDistance
+                || previous.adaptiveSampling != config.adaptiveSampling
+                || previous.dutyCycle != config.dutyCycle
+                || previous.dutyCycleAccuracy != config.dutyCycleAccuracy
+                || previous.dutyCycleTimeout != config.dutyCycleTimeout
+                || previous.dutyCycleInterval != config.dutyCycleInterval){
+            changes |= GeolocationConfig.CHANGED_LISTENER;
+        }
+
+        if(previous.satelliteData != config.satelliteData
+                || previous.gnssStatus != config.gnssStatus
+                || previous.satelliteSummary != config.satelliteSummary
+                || previous.satelliteDetailInterval != config.satelliteDetailInterval){
+            changes |= GeolocationConfig.CHANGED_SATELLITES;
+        }
+
+        if(previous.nmea != config.nmea || previous.nmeaBatchSize != config.nmeaBatchSize){
+            changes |= GeolocationConfig.CHANGED_NMEA;
+        }
+
+        if(!previous.rawMeasurements.equals(config.rawMeasurements)
+                || !previous.rawFile.equals(config.rawFile)
+                || previous.rawMaxFileSize != config.rawMaxFileSize
+                || previous.rawBatchSize != config.rawBatchSize
+                || previous.rawConstellations != config.rawConstellations
+                || previous.rawSignals != config.rawSignals){
+            changes |= GeolocationConfig.CHANGED_RAW;
+        }
+
+        if(previous.buffer != config.buffer || previous.bufferSize != config.bufferSize){
+            changes |= GeolocationConfig.CHANGED_BUFFER;
+        }
+
+        if(!previous.payloadFormat.equals(config.payloadFormat)){
+            changes |= GeolocationConfig.CHANGED_FORMAT;
+        }
+
+        return changes;
+    }
+
+    /**
+     * Applies a new configuration on this controller's thread. Only the listeners named in
+     * <code>changes</code> are removed and registered again, everything else keeps running.
+     * @param changes Flags returned by {@link #diff(GeolocationConfig, GeolocationConfig)}
+     */
+    public void update(final GeolocationConfig config, final RawMeasurementOptions rawMeasurements,
+                       final DutyCycle dutyCycle, final int changes){
+        synchronized(_handlerLock){
+            final Handler handler = _handler;
+
+            // The controller hasn't started yet, run() applies the new values on its thread before starting
+            if(handler == null){
+                _pendingConfig = new Runnable() {
+                    @Override
+                    public void run() {
+                        setConfig(config, rawMeasurements, dutyCycle);
+                    }
+                };
+                return;
+            }
+
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    applyConfig(config, rawMeasurements, dutyCycle, changes);
+                }
+            });
+        }
+    }
+
+    private void applyConfig(GeolocationConfig config, RawMeasurementOptions rawMeasurements,
+                             DutyCycle dutyCycle, int changes){
+        if(_locationManager == null || Thread.currentThread().isInterrupted()){
+            return;
+        }
+
+        setConfig(config, rawMeasurements, dutyCycle);
+
+        // Recorded logs only drive the location listener, with their own timing
+        final boolean live = _replayFile == null;
+
+        if((changes & GeolocationConfig.CHANGED_BUFFER) != 0){
+            // The encode stage may be using the old pipeline, it is simply dropped
+            if(_sender.getEncodeStage() == null){
+                _fixPipeline.clear();
+            }
+            _fixPipeline = createFixPipeline();
+        }
+        // Keeps the buffered fixes, satellites pick up the format in setConfig
+        else if((changes & GeolocationConfig.CHANGED_FORMAT) != 0){
+            _fixPipeline = _fixPipeline.withFormat(_payloadFormat);
+        }
+
+        if((changes & GeolocationConfig.CHANGED_FORMAT) != 0){
+            _bridgePipeline = createBridgePipeline();
+        }
+
+        if((changes & GeolocationConfig.CHANGED_LISTENER) != 0 && live){
+            removeLocationListener();
+            sendInitError(setLocationListenerGPSProvider());
+        }
+
+        if((changes & GeolocationConfig.CHANGED_SATELLITES) != 0 && live){
+            removeSatelliteListeners();
+            if(_returnSatelliteData){
+                sendInitError(setSatelliteListener());
+            }
+        }
+
+        if((changes & GeolocationConfig.CHANGED_NMEA) != 0 && live){
+            removeNmeaListeners();
+            if(_returnNmea){
+                sendInitError(setNmeaListener());
+            }
+        }
+
+        if((changes & GeolocationConfig.CHANGED_RAW) != 0 && live){
+            removeGnssMeasurementsCallback();
+            if(_rawMeasurements != null){
+                sendInitError(setGnssMeasurementsCallback());
+            }
+        }
     }
 
     public void run(){
@@ -84,6 +326,20 @@ public final class GPSController implements Runnable {
         if(Looper.myLooper() == null){
             _locationManager = (LocationManager) _cordova.getActivity().getSystemService(Context.LOCATION_SERVICE);
             Looper.prepare();
+
+            final Runnable pendingConfig;
+
+            synchronized(_handlerLock){
+                _handler = new Handler(Looper.myLooper());
+                pendingConfig = _pendingConfig;
+                _pendingConfig = null;
+            }
+
+            // An update that arrived before the Looper was ready
+            if(pendingConfig != null){
+                pendingConfig.run();
+            }
+
             startLocation();
             Looper.loop();
         }
@@ -100,56 +356,56 @@ public final class GPSController implements Runnable {
                     Log.e(TAG, "Failing gracefully after detecting an uncaught exception on GPSController thread. "
                         + throwable.getMessage());
 
-                    sendCallback(PluginResult.Status.ERROR,
+                    _sender.sendCallback(PluginResult.Status.ERROR,
                             JSONHelper.errorJSON(LocationManager.GPS_PROVIDER, ErrorMessages.UNCAUGHT_THREAD_EXCEPTION()));
                     stopLocation();
                 }
             });
 
-            if(_buffer) {
-                _locationDataBuffer = new LocationDataBuffer(_bufferSize);
+            _fixPipeline = createFixPipeline();
+            _bridgePipeline = createBridgePipeline();
+
+            if(_encodeThread){
+                startEncodeStage();
             }
 
-            final InitStatus gpsListener = setLocationListenerGPSProvider();
+            final InitStatus gpsListener = _replayFile == null ? setLocationListenerGPSProvider() : setLocationReplayer();
             InitStatus satelliteListener = new InitStatus();
 
-            if(_returnSatelliteData){
-               satelliteListener = setGPSStatusListener();
+            // Recorded logs don't carry satellite data
+            if(_returnSatelliteData && _replayFile == null){
+                satelliteListener = setSatelliteListener();
+            }
+
+            // Recorded logs are replayed as fixes, not as NMEA sentences
+            if(_returnNmea && _replayFile == null && satelliteListener.success){
+                satelliteListener = setNmeaListener();
+            }
+
+            if(_rawMeasurements != null && _replayFile == null && satelliteListener.success){
+                satelliteListener = setGnssMeasurementsCallback();
             }
 
             if(!gpsListener.success || !satelliteListener.success){
-                if(gpsListener.exception == null){
-                    // Handle custom error messages
-                    sendCallback(PluginResult.Status.ERROR,
-                            JSONHelper.errorJSON(LocationManager.GPS_PROVIDER, gpsListener.error));
-                }
-                else {
-                    // Handle system exceptions
-                    sendCallback(PluginResult.Status.ERROR,
-                            JSONHelper.errorJSON(LocationManager.GPS_PROVIDER, gpsListener.exception));
-                }
+                sendInitError(gpsListener.success ? satelliteListener : gpsListener);
             }
             else {
                 // Return cache immediate if requested, otherwise wait for a location provider
-                if(_returnCache){
+                if(_returnCache && _replayFile == null){
 
-                    Location location = null;
+                    final Fix cached = new Fix();
 
+                    // The newest of the plugin's cache and the LocationManager's. Nothing is returned
+                    // if the GPS hasn't had a full signal lock yet.
                     try {
-                        location = _locationManager.getLastKnownLocation(LocationManager.GPS_PROVIDER);
+                        if(LocationAdapter.lastKnownFix(_locationManager, LocationManager.GPS_PROVIDER, Long.MAX_VALUE, cached)) {
+                            _sender.sendCallback(CallbackChannels.GPS, JSONHelper.locationJSON(cached, _payloadFormat));
+                        }
                     }
                     catch(SecurityException exc){
                         Log.e(TAG, exc.getMessage());
-                    }
-
-                    final String parsedLocation;
-
-                    // If the provider is disabled or currently unavailable then null is returned
-                    // Some devices will return null if the GPS is still warming up and hasn't gotten
-                    // a full signal lock yet.
-                    if(location != null) {
-                        parsedLocation = JSONHelper.locationJSON(LocationManager.GPS_PROVIDER, location, true);
-                        sendCallback(PluginResult.Status.OK, parsedLocation);
+                        _sender.sendCallback(PluginResult.Status.ERROR,
+                                JSONHelper.errorJSON(LocationManager.GPS_PROVIDER, exc.getMessage()));
                     }
                 }
             }
@@ -167,28 +423,24 @@ public final class GPSController implements Runnable {
         if(_locationManager != null){
             Log.d(TAG, "Attempting to stop gps geolocation");
 
-            if(_gpsStatusListener != null){
-                _locationManager.removeGpsStatusListener(_gpsStatusListener);
-                _gpsStatusListener = null;
+            if(_locationReplayer != null){
+                _locationReplayer.stop();
+                _locationReplayer = null;
             }
 
-            if(_locationListenerGPSProvider != null){
-
-                try {
-                    _locationManager.removeUpdates(_locationListenerGPSProvider);
-                }
-                catch(SecurityException exc){
-                    Log.e(TAG, exc.getMessage());
-                }
-
-                _locationListenerGPSProvider = null;
-            }
+            removeSatelliteListeners();
+            removeGnssMeasurementsCallback();
+            removeNmeaListeners();
+            removeLocationListener();
 
             _locationManager = null;
+            _handler = null;
+
+            // Wait for the encode stage to finish with the buffer, then clear all elements from it
+            _sender.stopEncodeStage();
 
-            // Clear all elements from the buffer
-            if(_locationDataBuffer != null) {
-                _locationDataBuffer.clear();
+            if(_fixPipeline != null) {
+                _fixPipeline.clear();
             }
 
             try {
@@ -196,7 +448,7 @@ public final class GPSController implements Runnable {
             }
             catch(SecurityException exc){
                 Log.e(TAG, exc.getMessage());
-                sendCallback(PluginResult.Status.ERROR,
+                _sender.sendCallback(PluginResult.Status.ERROR,
                         JSONHelper.errorJSON(LocationManager.GPS_PROVIDER, ErrorMessages.FAILED_THREAD_INTERRUPT()));
             }
         }
@@ -205,16 +457,197 @@ public final class GPSController implements Runnable {
         }
     }
 
+    private static FixPipeline createFixPipeline(){
+        return new FixPipeline(TraceRing.PROVIDER_GPS, _buffer ? new FixBuffer(_bufferSize) : null, STATS, new PayloadSink() {
+            @Override
+            public void send(String payload, Fix fix) {
+                if(fix.elapsedRealtimeNanos > 0){
+                    STATS.getFixAge().record(SystemClock.elapsedRealtimeNanos() - fix.elapsedRealtimeNanos);
+                }
+
+                _sender.sendCallback(CallbackChannels.GPS, payload);
+            }
+        }, _payloadFormat);
+    }
+
+    /**
+     * Bridged network fixes aren't averaged with the GPS fixes and keep their own channel.
+     */
+    private static FixPipeline createBridgePipeline(){
+        return new FixPipeline(TraceRing.PROVIDER_GPS, null, STATS, new PayloadSink() {
+            @Override
+            public void send(String payload, Fix fix) {
+                if(fix.elapsedRealtimeNanos > 0){
+                    STATS.getFixAge().record(SystemClock.elapsedRealtimeNanos() - fix.elapsedRealtimeNanos);
+                }
+
+                _sender.sendCallback(CallbackChannels.NETWORK, payload);
+            }
+        }, _payloadFormat);
+    }
+
+    /**
+     * Starts a thread that encodes and sends fixes and GnssStatus updates, so the listeners
+     * only copy primitives into a queue.
+     */
+    private static void startEncodeStage(){
+        final SatelliteSnapshot[] snapshots = new SatelliteSnapshot[SATELLITE_QUEUE_SIZE];
+        for(int i = 0; i < snapshots.length; i++){
+            snapshots[i] = new SatelliteSnapshot();
+        }
+
+        final EncodeStage stage = _sender.createEncodeStage(FIX_QUEUE_SIZE, new EncodeStage.SlotHandler<Fix>() {
+            @Override
+            public void handle(Fix fix) {
+                _fixPipeline.onFix(fix);
+            }
+        });
+        _satelliteQueue = stage.addLane(snapshots, new EncodeStage.SlotHandler<SatelliteSnapshot>() {
+            @Override
+            public void handle(SatelliteSnapshot snapshot) {
+                sendSatelliteSnapshot(snapshot);
+            }
+        });
+        stage.start("GPSController encoder");
+    }
+
+    private static void sendSatelliteSnapshot(SatelliteSnapshot snapshot){
+        final long start = System.nanoTime();
+        final String payload = _satelliteEncoder.encode(
+                snapshot.table, snapshot.timestamp, snapshot.receivedNanos, snapshot.timeToFirstFix, snapshot.includeSatellites);
+        STATS.getEncodeTime().record(System.nanoTime() - start);
+        TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_ENCODE);
+
+        _sender.sendCallback(CallbackChannels.SATELLITE, payload);
+    }
+
     /**
-     * Callback handler for this Class
+     * GnssStatus is available from API 24, older devices fall back to GpsStatus
+     */
+    private static InitStatus setSatelliteListener(){
+        _lastSatelliteDetail = -1;
+
+        return (_useGnssStatus || _satelliteSummary) && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                ? setGnssStatusCallback() : setGPSStatusListener();
+    }
+
+    private static void removeSatelliteListeners(){
+        if(_gpsStatusListener != null){
+            _locationManager.removeGpsStatusListener(_gpsStatusListener);
+            _gpsStatusListener = null;
+            _gpsStatus = null;
+        }
+
+        if(_gnssStatusCallback != null){
+            _locationManager.unregisterGnssStatusCallback(_gnssStatusCallback);
+            _gnssStatusCallback = null;
+        }
+    }
+
+    private static void removeGnssMeasurementsCallback(){
+        if(_gnssMeasurementsCallback != null){
+            _locationManager.unregisterGnssMeasurementsCallback(_gnssMeasurementsCallback);
+            _gnssMeasurementsCallback = null;
+        }
+
+        closeRawMeasurementFile();
+        _measurementEncoder.clear();
+    }
+
+    private static void removeNmeaListeners(){
+        if(_nmeaMessageListener != null){
+            _locationManager.removeNmeaListener(_nmeaMessageListener);
+            _nmeaMessageListener = null;
+        }
+
+        if(_nmeaListener != null){
+            _locationManager.removeNmeaListener(_nmeaListener);
+            _nmeaListener = null;
+        }
+
+        // Send the epochs of a partial batch, including the one still being parsed, rather than dropping them
+        synchronized(_nmeaBatch){
+            if(_nmeaParser.flush()){
+                STATS.onReceived();
+                _nmeaBatch.add(_nmeaParser.getCompleted());
+            }
+
+            if(_nmeaBatch.size() > 0){
+                _sender.sendCallback(CallbackChannels.NMEA, _nmeaBatch.flush());
+            }
+
+            _nmeaParser.clear();
+            _nmeaBatch.clear();
+        }
+    }
+
+    /**
+     * Removes the GPS location listener along with any duty cycle timers and network bridge.
+     * stopLocation() calls it off the Looper, so it holds the class lock that the duty cycle
+     * windows hold while they register listeners on the Looper.
+     */
+    private static synchronized void removeLocationListener(){
+        final Handler dutyCycleHandler = _dutyCycleHandler;
+
+        if(dutyCycleHandler != null){
+            dutyCycleHandler.removeCallbacksAndMessages(null);
+            _dutyCycleHandler = null;
+        }
+
+        stopBridge();
+
+        if(_locationListenerGPSProvider != null){
+
+            try {
+                _locationManager.removeUpdates(_locationListenerGPSProvider);
+            }
+            catch(SecurityException exc){
+                Log.e(TAG, exc.getMessage());
+            }
+
+            _locationListenerGPSProvider = null;
+        }
+    }
+
+    /**
+     * Reports a listener that failed to start, does nothing if it started
+     */
+    private static void sendInitError(InitStatus status){
+        if(status.success){
+            return;
+        }
+
+        if(status.exception == null){
+            // Handle custom error messages
+            _sender.sendCallback(PluginResult.Status.ERROR,
+                    JSONHelper.errorJSON(LocationManager.GPS_PROVIDER, status.error));
+        }
+        else {
+            // Handle system exceptions
+            _sender.sendCallback(PluginResult.Status.ERROR,
+                    JSONHelper.errorJSON(LocationManager.GPS_PROVIDER, status.exception));
+        }
+    }
+
+    /**
+     * Binary callback handler, the data arrives in JavaScript as an ArrayBuffer on the raw channel
      * @param status Message status
-     * @param message Any message
+     * @param data Any binary data
      */
-    private static void sendCallback(PluginResult.Status status, String message){
+    private static void sendCallback(PluginResult.Status status, byte[] data){
         if(!Thread.currentThread().isInterrupted()){
-            final PluginResult result = new PluginResult(status, message);
+            if(!CallbackChannels.stream(CallbackChannels.RAW, data)){
+                return;
+            }
+
+            final PluginResult result = new PluginResult(status, data);
             result.setKeepCallback(true);
-            _callbackContext.sendPluginResult(result);
+            CallbackChannels.send(CallbackChannels.RAW, _callbackContext, result);
+            STATS.onSent();
+            TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_SEND);
+        }
+        else {
+            STATS.onDropped();
         }
     }
 
@@ -226,15 +659,33 @@ public final class GPSController implements Runnable {
 
             @Override
             public void onGpsStatusChanged(int event) {
-                Log.d(TAG, "GPS status changed.");
+                if(Log.isLoggable(TAG, Log.DEBUG)){
+                    Log.d(TAG, "GPS status changed.");
+                }
 
                 // Ignore if GPS_EVENT_STARTED or GPS_EVENT_STOPPED
-                if(!Thread.currentThread().isInterrupted() &&
-                        (event == GpsStatus.GPS_EVENT_FIRST_FIX ||
-                                event == GpsStatus.GPS_EVENT_SATELLITE_STATUS) &&
-                                        _locationManager != null){
-                    sendCallback(PluginResult.Status.OK,
-                            JSONHelper.satelliteDataJSON(_locationManager.getGpsStatus(null)));
+                if(event == GpsStatus.GPS_EVENT_FIRST_FIX || event == GpsStatus.GPS_EVENT_SATELLITE_STATUS){
+                    final long received = SystemClock.elapsedRealtimeNanos();
+                    TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_CALLBACK);
+                    STATS.onReceived();
+
+                    if(!Thread.currentThread().isInterrupted() && _locationManager != null){
+                        final long start = System.nanoTime();
+
+                        // Reuse the same GpsStatus instead of letting the LocationManager allocate one per event
+                        _gpsStatus = _locationManager.getGpsStatus(_gpsStatus);
+
+                        final String satelliteData = _satelliteSummary
+                                ? encodeGpsStatus(_gpsStatus, received)
+                                : JSONHelper.satelliteDataJSON(_gpsStatus, received, _payloadFormat);
+                        STATS.getEncodeTime().record(System.nanoTime() - start);
+                        TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_ENCODE);
+
+                        _sender.sendCallback(CallbackChannels.SATELLITE, satelliteData);
+                    }
+                    else {
+                        STATS.onDropped();
+                    }
                 }
             }
         };
@@ -262,37 +713,626 @@ public final class GPSController implements Runnable {
         return status;
     }
 
+    /**
+     * Reads a legacy GpsStatus into the satellite table so that summary mode returns the same
+     * "gnss" payload on every API level.
+     */
+    private static String encodeGpsStatus(GpsStatus gpsStatus, long receivedNanos){
+        final int timeToFirstFix = gpsStatus.getTimeToFirstFix();
+
+        _satelliteTable.reset(gpsStatus.getMaxSatellites());
+
+        final Iterable<GpsSatellite> satellites = gpsStatus.getSatellites();
+
+        if(satellites != null){
+            for(GpsSatellite sat : satellites){
+                _satelliteTable.add(
+                        SatelliteTable.constellationFromPrn(sat.getPrn()),
+                        sat.getPrn(),
+                        sat.getSnr(),
+                        sat.getElevation(),
+                        sat.getAzimuth(),
+                        sat.usedInFix(),
+                        sat.hasEphemeris(),
+                        sat.hasAlmanac(),
+                        0);
+            }
+        }
+
+        return _satelliteEncoder.encode(_satelliteTable, System.currentTimeMillis(), receivedNanos,
+                timeToFirstFix > 0 ? timeToFirstFix : -1, includeSatelliteDetail());
+    }
+
+    /**
+     * In summary mode the per-satellite table is only included once every satelliteDetailInterval.
+     * @return <code>true</code> if this payload should carry every satellite
+     */
+    private static boolean includeSatelliteDetail(){
+        if(!_satelliteSummary){
+            return true;
+        }
+
+        if(_satelliteDetailInterval <= 0){
+            return false;
+        }
+
+        final long now = SystemClock.elapsedRealtime();
+
+        if(_lastSatelliteDetail < 0 || now - _lastSatelliteDetail >= _satelliteDetailInterval){
+            _lastSatelliteDetail = now;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Reads satellites through GnssStatus' indexed accessors into a reusable table, rather than
+     * creating a GpsSatellite object for each satellite on every update.
+     */
+    private static InitStatus setGnssStatusCallback(){
+
+        _timeToFirstFix = -1;
+        _gnssStatusCallback = new GnssStatus.Callback() {
+            @Override
+            public void onFirstFix(int ttffMillis) {
+                _timeToFirstFix = ttffMillis;
+            }
+
+            @Override
+            public void onSatelliteStatusChanged(GnssStatus status) {
+                processGnssStatus(status);
+            }
+        };
+
+        final InitStatus status = new InitStatus();
+
+        final Boolean gpsProviderEnabled = _locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER);
+
+        if(gpsProviderEnabled){
+            try{
+                // Deliver callbacks on this controller's Looper rather than the main thread
+                _locationManager.registerGnssStatusCallback(_gnssStatusCallback, new Handler(Looper.myLooper()));
+            }
+            // if the ACCESS_FINE_LOCATION permission is not present
+            catch(SecurityException exc){
+                status.success = false;
+                status.exception = exc.getMessage();
+            }
+        }
+        else {
+            //GPS not enabled
+            status.success = false;
+            status.error = ErrorMessages.GPS_UNAVAILABLE();
+        }
+
+        return status;
+    }
+
+    private static void processGnssStatus(GnssStatus status){
+        final long received = SystemClock.elapsedRealtimeNanos();
+        TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_CALLBACK);
+        STATS.onReceived();
+
+        if(Thread.currentThread().isInterrupted()){
+            STATS.onDropped();
+            return;
+        }
+
+        final long start = System.nanoTime();
+        final int count = status.getSatelliteCount();
+        final boolean carrierFrequency = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O;
+        final EncodeStage stage = _sender.getEncodeStage();
+        final SatelliteSnapshot snapshot = stage != null ? _satelliteQueue.claim() : null;
+
+        if(stage != null && snapshot == null){
+            STATS.onDropped();
+            return;
+        }
+
+        final SatelliteTable table = snapshot != null ? snapshot.table : _satelliteTable;
+
+        table.reset(count);
+
+        for(int i = 0; i < count; i++){
+            table.add(
+                    status.getConstellationType(i),
+                    status.getSvid(i),
+                    status.getCn0DbHz(i),
+                    status.getElevationDegrees(i),
+                    status.getAzimuthDegrees(i),
+                    status.usedInFix(i),
+                    status.hasEphemerisData(i),
+                    status.hasAlmanacData(i),
+                    carrierFrequency && status.hasCarrierFrequencyHz(i) ? status.getCarrierFrequencyHz(i) : 0);
+        }
+
+        // Only the copy happens here, the stage's thread encodes and sends the snapshot
+        if(snapshot != null){
+            snapshot.timestamp = System.currentTimeMillis();
+            snapshot.receivedNanos = received;
+            snapshot.timeToFirstFix = _timeToFirstFix;
+            snapshot.includeSatellites = includeSatelliteDetail();
+            stage.publish(_satelliteQueue);
+            return;
+        }
+
+        final String payload = _satelliteEncoder.encode(
+                _satelliteTable, System.currentTimeMillis(), received, _timeToFirstFix, includeSatelliteDetail());
+        STATS.getEncodeTime().record(System.nanoTime() - start);
+        TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_ENCODE);
+
+        _sender.sendCallback(CallbackChannels.SATELLITE, payload);
+    }
+
+    /**
+     * Encodes each GnssMeasurementsEvent into a binary epoch that is appended to a rolling file,
+     * or sent to the bridge as an ArrayBuffer every batchSize epochs.
+     */
+    private static InitStatus setGnssMeasurementsCallback(){
+
+        final InitStatus status = new InitStatus();
+
+        if(Build.VERSION.SDK_INT < Build.VERSION_CODES.N){
+            status.success = false;
+            status.error = ErrorMessages.RAW_MEASUREMENTS_NOT_SUPPORTED();
+            return status;
+        }
+
+        if(RawMeasurementOptions.MODE_FILE.equals(_rawMeasurements.mode)){
+            try {
+                _rawMeasurementFile = new RollingFile(_rawMeasurements.file, _rawMeasurements.maxFileSize);
+            }
+            catch(IOException exc){
+                Log.e(TAG, "Unable to open raw measurement file. " + exc.getMessage());
+                status.success = false;
+                status.error = ErrorMessages.RAW_MEASUREMENTS_FILE_FAILED();
+                return status;
+            }
+        }
+
+        _gnssMeasurementsCallback = new GnssMeasurementsEvent.Callback() {
+            @Override
+            public void onGnssMeasurementsReceived(GnssMeasurementsEvent event) {
+                processMeasurements(event);
+            }
+
+            @Override
+            public void onStatusChanged(int status) {
+                if(status == GnssMeasurementsEvent.Callback.STATUS_NOT_SUPPORTED){
+                    _sender.sendCallback(PluginResult.Status.ERROR,
+                            JSONHelper.errorJSON(LocationManager.GPS_PROVIDER, ErrorMessages.RAW_MEASUREMENTS_NOT_SUPPORTED()));
+                }
+            }
+        };
+
+        try {
+            status.success = _locationManager.registerGnssMeasurementsCallback(
+                    _gnssMeasurementsCallback, new Handler(Looper.myLooper()));
+
+            if(!status.success){
+                status.error = ErrorMessages.RAW_MEASUREMENTS_NOT_SUPPORTED();
+            }
+        }
+        // if the ACCESS_FINE_LOCATION permission is not present
+        catch(SecurityException exc){
+            status.success = false;
+            status.exception = exc.getMessage();
+        }
+
+        return status;
+    }
+
+    private static void processMeasurements(GnssMeasurementsEvent event){
+        TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_CALLBACK);
+        STATS.onReceived();
+
+        if(Thread.currentThread().isInterrupted()){
+            STATS.onDropped();
+            return;
+        }
+
+        final long start = System.nanoTime();
+        final GnssClock clock = event.getClock();
+        final int flags = (clock.hasFullBiasNanos() ? MeasurementEncoder.FLAG_FULL_BIAS : 0)
+                | (clock.hasBiasNanos() ? MeasurementEncoder.FLAG_BIAS : 0)
+                | (clock.hasLeapSecond() ? MeasurementEncoder.FLAG_LEAP_SECOND : 0);
+
+        _measurementEncoder.beginEpoch(
+                clock.getTimeNanos(),
+                clock.hasFullBiasNanos() ? clock.getFullBiasNanos() : 0,
+                clock.hasBiasNanos() ? clock.getBiasNanos() : 0,
+                clock.getHardwareClockDiscontinuityCount(),
+                flags,
+                clock.hasLeapSecond() ? clock.getLeapSecond() : 0);
+
+        for(GnssMeasurement measurement : event.getMeasurements()){
+            final float carrierFrequency = measurement.hasCarrierFrequencyHz() ? measurement.getCarrierFrequencyHz() : 0;
+
+            if(_rawMeasurements.filter.accept(measurement.getConstellationType(), carrierFrequency)){
+                _measurementEncoder.addMeasurement(
+                        measurement.getConstellationType(),
+                        measurement.getSvid(),
+                        measurement.getMultipathIndicator(),
+                        measurement.getState(),
+                        measurement.getTimeOffsetNanos(),
+                        measurement.getReceivedSvTimeNanos(),
+                        measurement.getReceivedSvTimeUncertaintyNanos(),
+                        measurement.getCn0DbHz(),
+                        measurement.getPseudorangeRateMetersPerSecond(),
+                        measurement.getPseudorangeRateUncertaintyMetersPerSecond(),
+                        measurement.getAccumulatedDeltaRangeState(),
+                        measurement.getAccumulatedDeltaRangeMeters(),
+                        measurement.getAccumulatedDeltaRangeUncertaintyMeters(),
+                        carrierFrequency);
+            }
+        }
+
+        _measurementEncoder.endEpoch();
+
+        if(_rawMeasurementFile != null){
+            try {
+                _measurementEncoder.drainTo(_rawMeasurementFile);
+                STATS.getEncodeTime().record(System.nanoTime() - start);
+                TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_ENCODE);
+            }
+            catch(IOException exc){
+                Log.e(TAG, ErrorMessages.RAW_MEASUREMENTS_FILE_FAILED().message + ", " + exc.getMessage());
+                closeRawMeasurementFile();
+                _locationManager.unregisterGnssMeasurementsCallback(_gnssMeasurementsCallback);
+                _gnssMeasurementsCallback = null;
+                _sender.sendCallback(PluginResult.Status.ERROR,
+                        JSONHelper.errorJSON(LocationManager.GPS_PROVIDER, ErrorMessages.RAW_MEASUREMENTS_FILE_FAILED()));
+            }
+        }
+        else if(_measurementEncoder.getEpochs() >= _rawMeasurements.batchSize){
+            final byte[] batch = _measurementEncoder.drain();
+            STATS.getEncodeTime().record(System.nanoTime() - start);
+            TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_ENCODE);
+
+            sendCallback(PluginResult.Status.OK, batch);
+        }
+        else {
+            STATS.getEncodeTime().record(System.nanoTime() - start);
+        }
+    }
+
+    private static void closeRawMeasurementFile(){
+        if(_rawMeasurementFile != null){
+            try {
+                _rawMeasurementFile.close();
+            }
+            catch(IOException exc){
+                Log.e(TAG, exc.getMessage());
+            }
+
+            _rawMeasurementFile = null;
+        }
+    }
+
+    /**
+     * Streams NMEA sentences through the native parser. Only the selected fields of each epoch
+     * are sent, in batches of nmeaBatchSize epochs.
+     */
+    private static InitStatus setNmeaListener(){
+
+        final InitStatus status = new InitStatus();
+
+        try {
+            // OnNmeaMessageListener replaces GpsStatus.NmeaListener at API 24
+            if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.N){
+                _nmeaMessageListener = new OnNmeaMessageListener() {
+                    @Override
+                    public void onNmeaMessage(String message, long timestamp) {
+                        processNmea(message, timestamp);
+                    }
+                };
+                status.success = _locationManager.addNmeaListener(_nmeaMessageListener);
+            }
+            else {
+                _nmeaListener = new GpsStatus.NmeaListener() {
+                    @Override
+                    public void onNmeaReceived(long timestamp, String nmea) {
+                        processNmea(nmea, timestamp);
+                    }
+                };
+                status.success = _locationManager.addNmeaListener(_nmeaListener);
+            }
+
+            if(!status.success){
+                status.error = ErrorMessages.GPS_UNAVAILABLE();
+            }
+        }
+        // if the ACCESS_FINE_LOCATION permission is not present
+        catch(SecurityException exc){
+            status.success = false;
+            status.exception = exc.getMessage();
+        }
+
+        return status;
+    }
+
+    /**
+     * Parses a sentence and batches each completed epoch. STATS counts epochs, not sentences,
+     * so that received is comparable with the location listener's count.
+     */
+    private static void processNmea(String sentence, long timestamp){
+        final long received = SystemClock.elapsedRealtimeNanos();
+        TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_CALLBACK);
+
+        // Shared with removeNmeaListeners(), which flushes the batch from the stopping thread
+        synchronized(_nmeaBatch){
+            if(!_nmeaParser.parse(sentence, timestamp, received)){
+                return;
+            }
+
+            STATS.onReceived();
+
+            if(Thread.currentThread().isInterrupted()){
+                STATS.onDropped();
+                return;
+            }
+
+            final long start = System.nanoTime();
+            _nmeaBatch.add(_nmeaParser.getCompleted());
+
+            if(_nmeaBatch.size() >= _nmeaBatchSize){
+                final String payload = _nmeaBatch.flush();
+                STATS.getEncodeTime().record(System.nanoTime() - start);
+                TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_ENCODE);
+
+                _sender.sendCallback(CallbackChannels.NMEA, payload);
+            }
+            else {
+                STATS.getEncodeTime().record(System.nanoTime() - start);
+            }
+        }
+    }
+
     private InitStatus setLocationListenerGPSProvider(){
 
-        _locationListenerGPSProvider = new LocationListener() {
+        _locationListenerGPSProvider = createLocationListener();
 
+        final InitStatus status = new InitStatus();
+        final Boolean gpsProviderEnabled = _locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER);
+
+        if(gpsProviderEnabled){
+
+            try{
+                Log.d(TAG, "Starting LocationManager.GPS_PROVIDER");
+
+                if(_dutyCycle != null){
+                    startDutyCycle();
+                }
+                else {
+                    // Register the listener with the Location Manager to receive location updates
+                    _samplingPolicy.reset();
+                    _locationManager.requestLocationUpdates(
+                            LocationManager.GPS_PROVIDER, _minTime, _minDistance, _locationListenerGPSProvider);
+                }
+            }
+            catch(SecurityException exc){
+                Log.e(TAG, "Unable to start GPS provider. " + exc.getMessage());
+                status.success = false;
+                status.exception = exc.getMessage();
+            }
+        }
+        else {
+            Log.w(TAG, ErrorMessages.GPS_UNAVAILABLE().message);
+            //GPS not enabled
+            status.success = false;
+            status.error = ErrorMessages.GPS_UNAVAILABLE();
+        }
+
+        return status;
+    }
+
+    /**
+     * Replays a recorded log through the same LocationListener that handles live GPS data.
+     */
+    private InitStatus setLocationReplayer(){
+
+        _locationListenerGPSProvider = createLocationListener();
+        _locationReplayer = new LocationReplayer(
+                LocationManager.GPS_PROVIDER, _replayFile, _replaySpeed, _locationListenerGPSProvider);
+
+        final InitStatus status = new InitStatus();
+
+        Log.d(TAG, "Replaying " + _replayFile.getName() + " as LocationManager.GPS_PROVIDER");
+
+        if(!_locationReplayer.start()){
+            status.success = false;
+            status.error = ErrorMessages.REPLAY_FILE_UNAVAILABLE();
+        }
+
+        return status;
+    }
+
+    /**
+     * Re-registers the GPS listener with the parameters of the sampling policy's new level.
+     * Requesting updates for a listener that is already registered replaces its registration.
+     */
+    private static void applySamplingPolicy(){
+        try {
+            _locationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER,
+                    _samplingPolicy.getMinTime(), _samplingPolicy.getMinDistance(), _locationListenerGPSProvider);
+
+            _sender.sendCallback(PluginResult.Status.OK,
+                    JSONHelper.samplingPolicyJSON(LocationManager.GPS_PROVIDER, _samplingPolicy, _fix));
+        }
+        catch(SecurityException exc){
+            Log.e(TAG, "Unable to apply sampling policy. " + exc.getMessage());
+        }
+    }
+
+    private static final Runnable _dutyCycleStart = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                startDutyCycleWindow();
+            }
+            catch(SecurityException exc){
+                Log.e(TAG, "Unable to restart GPS provider. " + exc.getMessage());
+            }
+        }
+    };
+
+    private static final Runnable _dutyCycleTimeout = new Runnable() {
+        @Override
+        public void run() {
+            endDutyCycleWindow();
+        }
+    };
+
+    private static synchronized void startDutyCycle(){
+        final Handler dutyCycleHandler = _dutyCycleHandler;
+
+        if(dutyCycleHandler != null){
+            dutyCycleHandler.removeCallbacksAndMessages(null);
+        }
+
+        _dutyCycle.reset();
+        _dutyCycleHandler = new Handler(Looper.myLooper());
+        startDutyCycleWindow();
+    }
+
+    /**
+     * Turns the GPS provider on, at its fastest rate, until a fix reaches the target accuracy
+     * or the window times out. Does nothing once removeLocationListener() has run.
+     */
+    private static synchronized void startDutyCycleWindow(){
+        final Handler dutyCycleHandler = _dutyCycleHandler;
+
+        if(dutyCycleHandler == null || _locationManager == null || Thread.currentThread().isInterrupted()){
+            return;
+        }
+
+        stopBridge();
+
+        _dutyCycle.startWindow(SystemClock.elapsedRealtimeNanos());
+        _locationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER, 0, 0, _locationListenerGPSProvider);
+        dutyCycleHandler.postDelayed(_dutyCycleTimeout, _dutyCycle.getTimeoutMillis());
+    }
+
+    /**
+     * Turns the GPS provider off, reports the window and schedules the next one. Network fixes
+     * bridge the gap if no other controller is providing them.
+     */
+    private static synchronized void endDutyCycleWindow(){
+        final Handler dutyCycleHandler = _dutyCycleHandler;
+
+        if(dutyCycleHandler == null || _locationManager == null || !_dutyCycle.isOn()){
+            return;
+        }
+
+        final long now = SystemClock.elapsedRealtimeNanos();
+
+        dutyCycleHandler.removeCallbacks(_dutyCycleTimeout);
+        _dutyCycle.endWindow(now);
+
+        try {
+            _locationManager.removeUpdates(_locationListenerGPSProvider);
+        }
+        catch(SecurityException exc){
+            Log.e(TAG, exc.getMessage());
+        }
+
+        _sender.sendCallback(PluginResult.Status.OK, JSONHelper.dutyCycleJSON(_dutyCycle, now));
+
+        if(_dutyCycleBridge){
+            startBridge();
+        }
+
+        dutyCycleHandler.postDelayed(_dutyCycleStart, _dutyCycle.getIntervalMillis());
+    }
+
+    /**
+     * Registered between duty cycle windows. Bridged fixes are counted, recorded and encoded like
+     * GPS fixes, but sent on the network channel.
+     */
+    private static final LocationListener _bridgeListener = new LocationListener() {
+        public void onLocationChanged(Location location) {
+            TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_CALLBACK);
+            STATS.onReceived();
+            LocationAdapter.toFix(LocationManager.NETWORK_PROVIDER, location, false, _bridgeFix);
+            TrackRecorder.record(_bridgeFix);
+            LastFixCache.update(_bridgeFix);
+
+            if(!Thread.currentThread().isInterrupted()){
+                FixDispatcher.dispatch(_bridgeFix);
+                _bridgePipeline.onFix(_bridgeFix);
+            }
+            else {
+                STATS.onDropped();
+            }
+        }
+
+        public void onStatusChanged(String provider, int status, Bundle extras) {
+        }
+
+        public void onProviderEnabled(String provider) {
+        }
+
+        public void onProviderDisabled(String provider) {
+        }
+    };
+
+    private static void startBridge(){
+        if(!_locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER)){
+            return;
+        }
+
+        try {
+            _locationManager.requestLocationUpdates(
+                    LocationManager.NETWORK_PROVIDER, _minTime, _minDistance, _bridgeListener);
+            _bridging = true;
+        }
+        catch(SecurityException exc){
+            Log.e(TAG, "Unable to start network bridge. " + exc.getMessage());
+        }
+    }
+
+    private static void stopBridge(){
+        if(_bridging && _locationManager != null){
+            try {
+                _locationManager.removeUpdates(_bridgeListener);
+            }
+            catch(SecurityException exc){
+                Log.e(TAG, exc.getMessage());
+            }
+        }
+
+        _bridging = false;
+    }
+
+    private LocationListener createLocationListener(){
+
+        return new LocationListener() {
             public void onLocationChanged(Location location) {
-                if(_buffer && !Thread.currentThread().isInterrupted()){
-                    final Coordinate coordinate = new Coordinate();
-                    coordinate.latitude = location.getLatitude();
-                    coordinate.longitude = location.getLongitude();
-                    coordinate.accuracy = location.getAccuracy();
-
-                    // Get the size of the buffer
-                    final int size = _locationDataBuffer.add(coordinate);
-
-                    final Coordinate center = _locationDataBuffer.getGeographicCenter();
-
-                    sendCallback(PluginResult.Status.OK,
-                            JSONHelper.locationJSON(
-                                    LocationManager.GPS_PROVIDER,
-                                    location,
-                                    false,
-                                    _buffer,
-                                    center.latitude,
-                                    center.longitude,
-                                    center.accuracy,
-                                    size)
-                    );
+                TraceRing.record(TraceRing.PROVIDER_GPS, TraceRing.EVENT_CALLBACK);
+                STATS.onReceived();
+                LocationAdapter.toFix(LocationManager.GPS_PROVIDER, location, false, _fix);
+                TrackRecorder.record(_fix);
+
+                if(_replayFile == null){
+                    LastFixCache.update(_fix);
+                }
+
+                if(!Thread.currentThread().isInterrupted()){
+                    _sender.dispatchFix(_fix, _fixPipeline);
+
+                    if(_dutyCycleHandler != null){
+                        if(_dutyCycle.onFix(_fix.accuracy, SystemClock.elapsedRealtimeNanos())){
+                            endDutyCycleWindow();
+                        }
+                    }
+                    // Recorded logs are not throttled by the LocationManager
+                    else if(_adaptiveSampling && _replayFile == null && _samplingPolicy.update(_fix)){
+                        applySamplingPolicy();
+                    }
                 }
                 else {
-                    sendCallback(PluginResult.Status.OK,
-                            JSONHelper.locationJSON(LocationManager.GPS_PROVIDER, location, false));
+                    STATS.onDropped();
                 }
             }
 
@@ -301,13 +1341,13 @@ public final class GPSController implements Runnable {
                     case LocationProvider.OUT_OF_SERVICE:
                         // Reference: https://developer.android.com/reference/android/location/LocationProvider.html#OUT_OF_SERVICE
                         Log.d(TAG, "Location Status Changed: " + ErrorMessages.GPS_OUT_OF_SERVICE().message);
-                        sendCallback(PluginResult.Status.ERROR,
+                        _sender.sendCallback(PluginResult.Status.ERROR,
                                 JSONHelper.errorJSON(LocationManager.GPS_PROVIDER, ErrorMessages.GPS_OUT_OF_SERVICE()));
 
                         break;
                     case LocationProvider.TEMPORARILY_UNAVAILABLE:
                         Log.d(TAG, "Location Status Changed: " + ErrorMessages.GPS_UNAVAILABLE().message);
-                        sendCallback(PluginResult.Status.ERROR,
+                        _sender.sendCallback(PluginResult.Status.ERROR,
                                 JSONHelper.errorJSON(LocationManager.GPS_PROVIDER, ErrorMessages.GPS_UNAVAILABLE()));
                         break;
                     case LocationProvider.AVAILABLE:
@@ -324,31 +1364,5 @@ public final class GPSController implements Runnable {
                 stopLocation();
             }
         };
-
-        final InitStatus status = new InitStatus();
-        final Boolean gpsProviderEnabled = _locationManager.isProviderEnabled(LocationManager.GPS_PROVIDER);
-
-        if(gpsProviderEnabled){
-
-            try{
-                Log.d(TAG, "Starting LocationManager.GPS_PROVIDER");
-                // Register the listener with the Location Manager to receive location updates
-                _locationManager.requestLocationUpdates(
-                        LocationManager.GPS_PROVIDER, _minTime, _minDistance, _locationListenerGPSProvider);
-            }
-            catch(SecurityException exc){
-                Log.e(TAG, "Unable to start GPS provider. " + exc.getMessage());
-                status.success = false;
-                status.exception = exc.getMessage();
-            }
-        }
-        else {
-            Log.w(TAG, ErrorMessages.GPS_UNAVAILABLE().message);
-            //GPS not enabled
-            status.success = false;
-            status.error = ErrorMessages.GPS_UNAVAILABLE();
-        }
-
-        return status;
     }
 }
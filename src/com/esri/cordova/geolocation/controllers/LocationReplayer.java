@@ -0,0 +1,190 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.controllers;
+
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.esri.cordova.geolocation.core.Fix;
+import com.esri.cordova.geolocation.utils.ReplayReader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * Feeds a recorded GPX, NMEA or JSON log through a controller's LocationListener in place of
+ * the LocationManager. Fixes are scheduled on the calling thread's Looper so the listener runs
+ * on the same thread it would for live data. Timing follows the log's timestamps divided by the
+ * replay speed, a speed of zero or less delivers fixes as fast as the Looper allows.
+ *
+ * The reader is only used on the Looper's thread. stop() may be called from any thread, it
+ * posts the teardown to the Looper so a fix that is being delivered finishes first.
+ */
+final class LocationReplayer implements Runnable {
+
+    private static final String TAG = "GeolocationPlugin";
+
+    private final String _provider;
+    private final File _file;
+    private final float _speed;
+    private final LocationListener _listener;
+    private final Fix _fix = new Fix();
+
+    private volatile Handler _handler = null;
+    private volatile boolean _stopped = false;
+    private ReplayReader _reader = null;
+    private long _startUptime = 0;
+    private long _startFixTime = 0;
+    private boolean _first = true;
+
+    LocationReplayer(String provider, File file, float speed, LocationListener listener){
+        _provider = provider;
+        _file = file;
+        _speed = speed;
+        _listener = listener;
+    }
+
+    /**
+     * Must be called on a thread that has a Looper.
+     * @return <code>false</code> if the log could not be opened
+     */
+    boolean start(){
+        try {
+            _reader = new ReplayReader(new InputStreamReader(new FileInputStream(_file), "UTF-8"));
+        }
+        catch(IOException exc){
+            Log.e(TAG, "Unable to open replay file " + _file + ". " + exc.getMessage());
+            return false;
+        }
+
+        _handler = new Handler();
+        _first = true;
+        scheduleNext();
+
+        return true;
+    }
+
+    void stop(){
+        _stopped = true;
+
+        final Handler handler = _handler;
+
+        // Never started, or the log couldn't be opened
+        if(handler == null){
+            return;
+        }
+
+        handler.removeCallbacks(this);
+
+        final boolean posted = handler.post(new Runnable() {
+            @Override
+            public void run() {
+                closeReader();
+            }
+        });
+
+        // The Looper has exited, so nothing else can be using the reader
+        if(!posted){
+            closeReader();
+        }
+    }
+
+    @Override
+    public void run(){
+        if(_stopped || Thread.currentThread().isInterrupted()){
+            return;
+        }
+
+        final Location location = new Location(_provider);
+        location.setTime(_fix.time);
+        location.setElapsedRealtimeNanos(SystemClock.elapsedRealtimeNanos());
+        location.setLatitude(_fix.latitude);
+        location.setLongitude(_fix.longitude);
+        location.setAltitude(_fix.altitude);
+        location.setAccuracy(_fix.accuracy);
+        location.setSpeed(_fix.speed);
+        location.setBearing(_fix.bearing);
+
+        _listener.onLocationChanged(location);
+
+        scheduleNext();
+    }
+
+    private void scheduleNext(){
+        final ReplayReader reader = _reader;
+
+        if(_stopped || reader == null){
+            return;
+        }
+
+        try {
+            while(reader.next(_fix)){
+                // Logs without a provider, such as GPX and NMEA, are replayed as GPS
+                final String provider = _fix.provider == null ? LocationManager.GPS_PROVIDER : _fix.provider;
+
+                if(!provider.equals(_provider)){
+                    continue;
+                }
+
+                if(_first){
+                    _first = false;
+                    _startUptime = SystemClock.uptimeMillis();
+                    _startFixTime = _fix.time;
+                }
+
+                final Handler handler = _handler;
+
+                if(_speed > 0){
+                    // Anchor every fix to the start of the replay so scheduling delays don't accumulate
+                    final long offset = (long) ((_fix.time - _startFixTime) / _speed);
+                    handler.postAtTime(this, _startUptime + Math.max(0, offset));
+                }
+                else {
+                    handler.post(this);
+                }
+
+                return;
+            }
+
+            Log.d(TAG, "Replay of " + _file.getName() + " finished for " + _provider);
+        }
+        catch(IOException exc){
+            Log.e(TAG, "Unable to read replay file. " + exc.getMessage());
+        }
+
+        closeReader();
+    }
+
+    private void closeReader(){
+        if(_reader != null){
+            try {
+                _reader.close();
+            }
+            catch(IOException exc){
+                Log.e(TAG, exc.getMessage());
+            }
+
+            _reader = null;
+        }
+    }
+}
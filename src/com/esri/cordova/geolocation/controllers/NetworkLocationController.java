@@ -22,52 +22,164 @@ import android.location.LocationListener;
 import android.location.LocationManager;
 import android.location.LocationProvider;
 import android.os.Bundle;
+import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
-import com.esri.cordova.geolocation.model.Coordinate;
+import com.esri.cordova.geolocation.core.EncodeStage;
+import com.esri.cordova.geolocation.core.Fix;
+import com.esri.cordova.geolocation.core.FixBuffer;
+import com.esri.cordova.geolocation.core.FixPipeline;
+import com.esri.cordova.geolocation.core.LastFixCache;
+import com.esri.cordova.geolocation.core.PayloadFormat;
+import com.esri.cordova.geolocation.core.PayloadSink;
+import com.esri.cordova.geolocation.core.ProviderStats;
+import com.esri.cordova.geolocation.core.TraceRing;
+import com.esri.cordova.geolocation.model.GeolocationConfig;
 import com.esri.cordova.geolocation.model.InitStatus;
-import com.esri.cordova.geolocation.model.LocationDataBuffer;
+import com.esri.cordova.geolocation.utils.CallbackChannels;
 import com.esri.cordova.geolocation.utils.ErrorMessages;
 import com.esri.cordova.geolocation.utils.JSONHelper;
+import com.esri.cordova.geolocation.utils.LocationAdapter;
+import com.esri.cordova.geolocation.utils.ResultSender;
+import com.esri.cordova.geolocation.utils.TrackRecorder;
 
 import org.apache.cordova.CallbackContext;
 import org.apache.cordova.CordovaInterface;
 import org.apache.cordova.PluginResult;
 
+import java.io.File;
+
 public final class NetworkLocationController implements Runnable {
 
     private static LocationManager _locationManager = null;
     private static LocationListener _locationListenerNetworkProvider = null;
 
-    private static CallbackContext _callbackContext; // Threadsafe
     private static CordovaInterface _cordova;
+    private static Handler _handler = null;
+    // Guards _handler against update() until run() has created it, along with _pendingConfig
+    private static final Object _handlerLock = new Object();
+    private static Runnable _pendingConfig = null;
 
     private static long _minDistance = 0;
     private static long _minTime = 0;
     private static boolean _buffer = false;
     private static int _bufferSize = 0;
     private static boolean _returnCache = false;
-    private static LocationDataBuffer _locationDataBuffer = null;
+    private static PayloadFormat _payloadFormat = PayloadFormat.FULL;
+    private static volatile FixPipeline _fixPipeline = null;
+    private static boolean _encodeThread = false;
+    private static final Fix _fix = new Fix();
+    private static File _replayFile = null;
+    private static float _replaySpeed = 1;
+    private static LocationReplayer _locationReplayer = null;
 
     private static final String TAG = "GeolocationPlugin";
+    private static final int FIX_QUEUE_SIZE = 16;
+
+    public static final ProviderStats STATS = new ProviderStats(LocationManager.NETWORK_PROVIDER);
+
+    private static final ResultSender _sender = new ResultSender(STATS, TraceRing.PROVIDER_NETWORK);
 
     public NetworkLocationController(
             CordovaInterface cordova,
             CallbackContext callbackContext,
-            long minDistance,
-            long minTime,
-            boolean returnCache,
-            boolean buffer,
-            int bufferSize
+            GeolocationConfig config,
+            File replayFile
     ){
         _cordova = cordova;
-        _callbackContext = callbackContext;
-        _minDistance = minDistance;
-        _minTime = minTime;
-        _returnCache = returnCache;
-        _buffer = buffer;
-        _bufferSize = bufferSize;
+        _sender.setCallbackContext(callbackContext);
+        _replayFile = replayFile;
+        _encodeThread = config.encodeThread;
+        setConfig(config);
+
+        synchronized(_handlerLock){
+            _pendingConfig = null;
+        }
+    }
+
+    private static void setConfig(GeolocationConfig config){
+        _minDistance = config.minDistance;
+        _minTime = config.minTime;
+        _returnCache = config.useCache;
+        _buffer = config.buffer;
+        _bufferSize = config.bufferSize;
+        _replaySpeed = config.replaySpeed;
+        _payloadFormat = config.payloadFormat;
+    }
+
+    /**
+     * Compares two configurations and returns the parts of a running NetworkLocationController that differ.
+     * @return A combination of the GeolocationConfig.CHANGED_ flags, 0 if nothing the network provider uses changed
+     */
+    public static int diff(GeolocationConfig previous, GeolocationConfig config){
+        int changes = 0;
+
+        if(previous.minTime != config.minTime || previous.minDistance != config.minDistance){
+            changes |= GeolocationConfig.CHANGED_LISTENER;
+        }
+
+        if(previous.buffer != config.buffer || previous.bufferSize != config.bufferSize){
+            changes |= GeolocationConfig.CHANGED_BUFFER;
+        }
+
+        if(!previous.payloadFormat.equals(config.payloadFormat)){
+            changes |= GeolocationConfig.CHANGED_FORMAT;
+        }
+
+        return changes;
+    }
+
+    /**
+     * Applies a new configuration on this controller's thread, only re-registering the
+     * listener if minTime or minDistance changed.
+     * @param changes Flags returned by {@link #diff(GeolocationConfig, GeolocationConfig)}
+     */
+    public void update(final GeolocationConfig config, final int changes){
+        synchronized(_handlerLock){
+            final Handler handler = _handler;
+
+            // The controller hasn't started yet, run() applies the new values on its thread before starting
+            if(handler == null){
+                _pendingConfig = new Runnable() {
+                    @Override
+                    public void run() {
+                        setConfig(config);
+                    }
+                };
+                return;
+            }
+
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if(_locationManager == null || Thread.currentThread().isInterrupted()){
+                        return;
+                    }
+
+                    setConfig(config);
+
+                    if((changes & GeolocationConfig.CHANGED_BUFFER) != 0){
+                        // The encode stage may be using the old pipeline, it is simply dropped
+                        if(_sender.getEncodeStage() == null){
+                            _fixPipeline.clear();
+                        }
+                        _fixPipeline = createFixPipeline();
+                    }
+                    // Keeps the buffered fixes
+                    else if((changes & GeolocationConfig.CHANGED_FORMAT) != 0){
+                        _fixPipeline = _fixPipeline.withFormat(_payloadFormat);
+                    }
+
+                    // Recorded logs are replayed with their own timing
+                    if((changes & GeolocationConfig.CHANGED_LISTENER) != 0 && _replayFile == null){
+                        removeLocationListener();
+                        sendInitError(setLocationListenerNetworkProvider());
+                    }
+                }
+            });
+        }
     }
 
     public void run(){
@@ -78,6 +190,20 @@ public final class NetworkLocationController implements Runnable {
         if(Looper.myLooper() == null){
             _locationManager = (LocationManager) _cordova.getActivity().getSystemService(Context.LOCATION_SERVICE);
             Looper.prepare();
+
+            final Runnable pendingConfig;
+
+            synchronized(_handlerLock){
+                _handler = new Handler(Looper.myLooper());
+                pendingConfig = _pendingConfig;
+                _pendingConfig = null;
+            }
+
+            // An update that arrived before the Looper was ready
+            if(pendingConfig != null){
+                pendingConfig.run();
+            }
+
             startLocation();
             Looper.loop();
         }
@@ -92,51 +218,41 @@ public final class NetworkLocationController implements Runnable {
                 public void uncaughtException(Thread thread, Throwable throwable) {
                 Log.e(TAG, "Failing gracefully after detecting an uncaught exception on NetworkLocationController thread."
                         + throwable.getMessage());
-                sendCallback(PluginResult.Status.ERROR,
+                _sender.sendCallback(PluginResult.Status.ERROR,
                     JSONHelper.errorJSON(LocationManager.NETWORK_PROVIDER, ErrorMessages.UNCAUGHT_THREAD_EXCEPTION()));
 
                 stopLocation();
                 }
             });
 
-            if(_buffer) {
-                _locationDataBuffer = new LocationDataBuffer(_bufferSize);
+            _fixPipeline = createFixPipeline();
+
+            if(_encodeThread){
+                startEncodeStage();
             }
 
-            final InitStatus networkListener = setLocationListenerNetworkProvider();
+            final InitStatus networkListener = _replayFile == null ? setLocationListenerNetworkProvider() : setLocationReplayer();
 
             if(!networkListener.success){
-
-                if(networkListener.exception == null){
-                    // Handle custom error messages
-                    sendCallback(PluginResult.Status.ERROR,
-                            JSONHelper.errorJSON(LocationManager.NETWORK_PROVIDER, networkListener.error));
-                }
-                else if(networkListener.error == null){
-                    // Handle system exceptions
-                    sendCallback(PluginResult.Status.ERROR,
-                            JSONHelper.errorJSON(LocationManager.NETWORK_PROVIDER, networkListener.exception));
-                }
+                sendInitError(networkListener);
             }
             else {
 
                 // Return cache immediate if requested, otherwise wait for a location provider
-                if(_returnCache){
+                if(_returnCache && _replayFile == null){
 
-                    Location location = null;
+                    final Fix cached = new Fix();
 
+                    // The newest of the plugin's cache and the LocationManager's
                     try {
-                        location = _locationManager.getLastKnownLocation(LocationManager.NETWORK_PROVIDER);
+                        if(LocationAdapter.lastKnownFix(_locationManager, LocationManager.NETWORK_PROVIDER, Long.MAX_VALUE, cached)) {
+                            _sender.sendCallback(CallbackChannels.NETWORK, JSONHelper.locationJSON(cached, _payloadFormat));
+                        }
                     }
                     catch(SecurityException exc){
                         Log.e(TAG, exc.getMessage());
-                        sendCallback(PluginResult.Status.ERROR, exc.getMessage());
-                    }
-
-                    // If the provider is disabled or currently unavailable then null may be returned on some devices
-                    if(location != null) {
-                        final String parsedLocation = JSONHelper.locationJSON(LocationManager.NETWORK_PROVIDER, location, true);
-                        sendCallback(PluginResult.Status.OK, parsedLocation);
+                        _sender.sendCallback(PluginResult.Status.ERROR,
+                                JSONHelper.errorJSON(LocationManager.NETWORK_PROVIDER, exc.getMessage()));
                     }
                 }
             }
@@ -152,24 +268,21 @@ public final class NetworkLocationController implements Runnable {
     public void stopLocation(){
 
         if(_locationManager != null){
-            if(_locationListenerNetworkProvider != null){
-
-                try {
-                    _locationManager.removeUpdates(_locationListenerNetworkProvider);
-                }
-
-                catch(SecurityException exc){
-                    Log.e(TAG, exc.getMessage());
-                }
-
-                _locationListenerNetworkProvider = null;
+            if(_locationReplayer != null){
+                _locationReplayer.stop();
+                _locationReplayer = null;
             }
 
+            removeLocationListener();
+
             _locationManager = null;
+            _handler = null;
 
-            // Clear all elements from the buffer
-            if(_locationDataBuffer != null) {
-                _locationDataBuffer.clear();
+            // Wait for the encode stage to finish with the buffer, then clear all elements from it
+            _sender.stopEncodeStage();
+
+            if(_fixPipeline != null) {
+                _fixPipeline.clear();
             }
 
             try {
@@ -177,7 +290,7 @@ public final class NetworkLocationController implements Runnable {
             }
             catch(SecurityException exc){
                 Log.e(TAG, exc.getMessage());
-                sendCallback(PluginResult.Status.ERROR,
+                _sender.sendCallback(PluginResult.Status.ERROR,
                         JSONHelper.errorJSON(LocationManager.NETWORK_PROVIDER, ErrorMessages.FAILED_THREAD_INTERRUPT()));
             }
         }
@@ -185,46 +298,134 @@ public final class NetworkLocationController implements Runnable {
         Log.d(TAG, "Stopping network geolocation");
     }
 
-    private static void sendCallback(PluginResult.Status status, String message){
-        if(!Thread.currentThread().isInterrupted()){
-            final PluginResult result = new PluginResult(status, message);
-            result.setKeepCallback(true);
-            _callbackContext.sendPluginResult(result);
+    private static FixPipeline createFixPipeline(){
+        return new FixPipeline(TraceRing.PROVIDER_NETWORK, _buffer ? new FixBuffer(_bufferSize) : null, STATS, new PayloadSink() {
+            @Override
+            public void send(String payload, Fix fix) {
+                if(fix.elapsedRealtimeNanos > 0){
+                    STATS.getFixAge().record(SystemClock.elapsedRealtimeNanos() - fix.elapsedRealtimeNanos);
+                }
+
+                _sender.sendCallback(CallbackChannels.NETWORK, payload);
+            }
+        }, _payloadFormat);
+    }
+
+    /**
+     * Starts a thread that encodes and sends fixes, so the listener only copies them into a queue.
+     */
+    private static void startEncodeStage(){
+        _sender.createEncodeStage(FIX_QUEUE_SIZE, new EncodeStage.SlotHandler<Fix>() {
+            @Override
+            public void handle(Fix fix) {
+                _fixPipeline.onFix(fix);
+            }
+        }).start("NetworkLocationController encoder");
+    }
+
+    private static void removeLocationListener(){
+        if(_locationListenerNetworkProvider != null){
+
+            try {
+                _locationManager.removeUpdates(_locationListenerNetworkProvider);
+            }
+
+            catch(SecurityException exc){
+                Log.e(TAG, exc.getMessage());
+            }
+
+            _locationListenerNetworkProvider = null;
+        }
+    }
+
+    /**
+     * Reports a listener that failed to start, does nothing if it started
+     */
+    private static void sendInitError(InitStatus status){
+        if(status.success){
+            return;
+        }
+
+        if(status.exception == null){
+            // Handle custom error messages
+            _sender.sendCallback(PluginResult.Status.ERROR,
+                    JSONHelper.errorJSON(LocationManager.NETWORK_PROVIDER, status.error));
+        }
+        else {
+            // Handle system exceptions
+            _sender.sendCallback(PluginResult.Status.ERROR,
+                    JSONHelper.errorJSON(LocationManager.NETWORK_PROVIDER, status.exception));
         }
     }
 
     private InitStatus setLocationListenerNetworkProvider() {
 
-        _locationListenerNetworkProvider = new LocationListener() {
+        _locationListenerNetworkProvider = createLocationListener();
+
+        final InitStatus status = new InitStatus();
+        final Boolean networkProviderEnabled = _locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER);
+
+        if(networkProviderEnabled){
+            try {
+                Log.d(TAG, "Starting LocationManager.NETWORK_PROVIDER");
+                // Register the listener with the Location Manager to receive location updates
+                _locationManager.requestLocationUpdates(
+                        LocationManager.NETWORK_PROVIDER, _minTime, _minDistance, _locationListenerNetworkProvider);
+
+            } catch (SecurityException exc) {
+                Log.e(TAG, "Unable to start network provider. " + exc.getMessage());
+                status.success = false;
+                status.exception = exc.getMessage();
+            }
+        }
+        else {
+            Log.w(TAG, ErrorMessages.NETWORK_PROVIDER_UNAVAILABLE().message);
+            status.success = false;
+            status.error = ErrorMessages.NETWORK_PROVIDER_UNAVAILABLE();
+        }
+
+        return status;
+    }
+
+    /**
+     * Replays a recorded log through the same LocationListener that handles live network data.
+     */
+    private InitStatus setLocationReplayer(){
+
+        _locationListenerNetworkProvider = createLocationListener();
+        _locationReplayer = new LocationReplayer(
+                LocationManager.NETWORK_PROVIDER, _replayFile, _replaySpeed, _locationListenerNetworkProvider);
+
+        final InitStatus status = new InitStatus();
+
+        Log.d(TAG, "Replaying " + _replayFile.getName() + " as LocationManager.NETWORK_PROVIDER");
+
+        if(!_locationReplayer.start()){
+            status.success = false;
+            status.error = ErrorMessages.REPLAY_FILE_UNAVAILABLE();
+        }
+
+        return status;
+    }
 
+    private LocationListener createLocationListener(){
+
+        return new LocationListener() {
             public void onLocationChanged(Location location) {
+                TraceRing.record(TraceRing.PROVIDER_NETWORK, TraceRing.EVENT_CALLBACK);
+                STATS.onReceived();
+                LocationAdapter.toFix(LocationManager.NETWORK_PROVIDER, location, false, _fix);
+                TrackRecorder.record(_fix);
+
+                if(_replayFile == null){
+                    LastFixCache.update(_fix);
+                }
 
-                if(_buffer && !Thread.currentThread().isInterrupted()){
-                    final Coordinate coordinate = new Coordinate();
-                    coordinate.latitude = location.getLatitude();
-                    coordinate.longitude = location.getLongitude();
-                    coordinate.accuracy = location.getAccuracy();
-
-                    // Get the size of the buffer
-                    final int size = _locationDataBuffer.add(coordinate);
-
-                    final Coordinate center = _locationDataBuffer.getGeographicCenter();
-
-                    sendCallback(PluginResult.Status.OK,
-                            JSONHelper.locationJSON(
-                                    LocationManager.NETWORK_PROVIDER,
-                                    location,
-                                    false,
-                                    _buffer,
-                                    center.latitude,
-                                    center.longitude,
-                                    center.accuracy,
-                                    size)
-                    );
+                if(!Thread.currentThread().isInterrupted()){
+                    _sender.dispatchFix(_fix, _fixPipeline);
                 }
                 else {
-                    sendCallback(PluginResult.Status.OK,
-                            JSONHelper.locationJSON(LocationManager.NETWORK_PROVIDER, location, false));
+                    STATS.onDropped();
                 }
             }
 
@@ -232,12 +433,12 @@ public final class NetworkLocationController implements Runnable {
                 switch (status) {
                     case LocationProvider.OUT_OF_SERVICE:
                         Log.d(TAG, "Location Status Changed: " + ErrorMessages.NETWORK_PROVIDER_OUT_OF_SERVICE().message);
-                        sendCallback(PluginResult.Status.ERROR,
+                        _sender.sendCallback(PluginResult.Status.ERROR,
                                 JSONHelper.errorJSON(LocationManager.NETWORK_PROVIDER, ErrorMessages.NETWORK_PROVIDER_OUT_OF_SERVICE()));
                         break;
                     case LocationProvider.TEMPORARILY_UNAVAILABLE:
                         Log.d(TAG, "Location Status Changed: " + ErrorMessages.NETWORK_PROVIDER_UNAVAILABLE().message);
-                        sendCallback(PluginResult.Status.ERROR,
+                        _sender.sendCallback(PluginResult.Status.ERROR,
                                 JSONHelper.errorJSON(LocationManager.NETWORK_PROVIDER, ErrorMessages.NETWORK_PROVIDER_UNAVAILABLE()));
                         break;
                     case LocationProvider.AVAILABLE:
@@ -254,29 +455,5 @@ public final class NetworkLocationController implements Runnable {
                 stopLocation();
             }
         };
-
-        final InitStatus status = new InitStatus();
-        final Boolean networkProviderEnabled = _locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER);
-
-        if(networkProviderEnabled){
-            try {
-                Log.d(TAG, "Starting LocationManager.NETWORK_PROVIDER");
-                // Register the listener with the Location Manager to receive location updates
-                _locationManager.requestLocationUpdates(
-                        LocationManager.NETWORK_PROVIDER, _minTime, _minDistance, _locationListenerNetworkProvider);
-
-            } catch (SecurityException exc) {
-                Log.e(TAG, "Unable to start network provider. " + exc.getMessage());
-                status.success = false;
-                status.exception = exc.getMessage();
-            }
-        }
-        else {
-            Log.w(TAG, ErrorMessages.NETWORK_PROVIDER_UNAVAILABLE().message);
-            status.success = false;
-            status.error = ErrorMessages.NETWORK_PROVIDER_UNAVAILABLE();
-        }
-
-        return status;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,178 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Bookkeeping for a receiver that is switched on for a window until a fix reaches a target
+ * accuracy, or a timeout expires, and then switched off for an interval. The caller owns the
+ * timers and tells the cycle when windows start and end; the cycle tracks time to fix for the
+ * latest window and the overall on-time ratio. Times are monotonic nanoseconds.
+ * A cycle is used from a single thread.
+ */
+public final class DutyCycle {
+
+    private final float _targetAccuracy;
+    private final long _timeoutMillis;
+    private final long _intervalMillis;
+
+    private long _startedNanos = -1;
+    private long _onNanos = 0;
+    private int _windows = 0;
+
+    private boolean _on = false;
+    private long _windowStartNanos = 0;
+    private long _windowNanos = 0;
+    private long _timeToFirstFixNanos = -1;
+    private long _timeToFixNanos = -1;
+    private float _bestAccuracy = 0;
+
+    /**
+     * @param targetAccuracy A window ends as soon as a fix is at least this accurate, in meters
+     * @param timeoutMillis Longest a window stays on without reaching the target accuracy
+     * @param intervalMillis Time the receiver stays off between windows
+     */
+    public DutyCycle(float targetAccuracy, long timeoutMillis, long intervalMillis){
+        _targetAccuracy = targetAccuracy;
+        _timeoutMillis = timeoutMillis;
+        _intervalMillis = intervalMillis;
+    }
+
+    public void startWindow(long nowNanos){
+        if(_startedNanos < 0){
+            _startedNanos = nowNanos;
+        }
+
+        _on = true;
+        _windowStartNanos = nowNanos;
+        _windowNanos = 0;
+        _timeToFirstFixNanos = -1;
+        _timeToFixNanos = -1;
+        _bestAccuracy = 0;
+    }
+
+    /**
+     * Records a fix received during the current window.
+     * @return <code>true</code> if the fix reached the target accuracy and the window should end
+     */
+    public boolean onFix(float accuracy, long nowNanos){
+        if(!_on){
+            return false;
+        }
+
+        if(_timeToFirstFixNanos < 0){
+            _timeToFirstFixNanos = nowNanos - _windowStartNanos;
+        }
+
+        if(accuracy > 0 && (_bestAccuracy == 0 || accuracy < _bestAccuracy)){
+            _bestAccuracy = accuracy;
+        }
+
+        if(accuracy > 0 && accuracy <= _targetAccuracy){
+            _timeToFixNanos = nowNanos - _windowStartNanos;
+            return true;
+        }
+
+        return false;
+    }
+
+    public void endWindow(long nowNanos){
+        if(_on){
+            _on = false;
+            _windowNanos = nowNanos - _windowStartNanos;
+            _onNanos += _windowNanos;
+            _windows++;
+        }
+    }
+
+    /**
+     * Forgets every window, for example when tracking is restarted.
+     */
+    public void reset(){
+        _startedNanos = -1;
+        _onNanos = 0;
+        _windows = 0;
+        _on = false;
+        _windowNanos = 0;
+        _timeToFirstFixNanos = -1;
+        _timeToFixNanos = -1;
+        _bestAccuracy = 0;
+    }
+
+    public boolean isOn(){
+        return _on;
+    }
+
+    public long getTimeoutMillis(){
+        return _timeoutMillis;
+    }
+
+    public long getIntervalMillis(){
+        return _intervalMillis;
+    }
+
+    public int getWindows(){
+        return _windows;
+    }
+
+    /**
+     * @return <code>true</code> if the latest window reached the target accuracy
+     */
+    public boolean isFixed(){
+        return _timeToFixNanos >= 0;
+    }
+
+    /**
+     * @return Milliseconds from the start of the latest window to the fix that reached the target accuracy, or -1
+     */
+    public long getTimeToFix(){
+        return _timeToFixNanos < 0 ? -1 : _timeToFixNanos / 1000000;
+    }
+
+    /**
+     * @return Milliseconds from the start of the latest window to its first fix of any accuracy, or -1
+     */
+    public long getTimeToFirstFix(){
+        return _timeToFirstFixNanos < 0 ? -1 : _timeToFirstFixNanos / 1000000;
+    }
+
+    /**
+     * @return Best accuracy of the latest window in meters, or 0 if it had no fix
+     */
+    public float getBestAccuracy(){
+        return _bestAccuracy;
+    }
+
+    /**
+     * @return Length of the latest completed window, in milliseconds
+     */
+    public long getWindowMillis(){
+        return _windowNanos / 1000000;
+    }
+
+    /**
+     * @return Fraction of the time since the first window that the receiver has been on, 0 - 1
+     */
+    public double getOnTimeRatio(long nowNanos){
+        if(_startedNanos < 0 || nowNanos <= _startedNanos){
+            return 0;
+        }
+
+        final long on = _onNanos + (_on ? nowNanos - _windowStartNanos : 0);
+
+        return (double) on / (nowNanos - _startedNanos);
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * The monotonic clock that payload timestamps are read from. On Android the plugin sets it to
+ * SystemClock.elapsedRealtimeNanos, the clock Location and CellInfo timestamps use, which
+ * keeps counting in deep sleep. Without a source, for example on a plain JVM, System.nanoTime
+ * is used.
+ */
+public final class ElapsedClock {
+
+    /**
+     * Reads the current time, in nanoseconds.
+     */
+    public interface Source {
+        long nanos();
+    }
+
+    private static volatile Source _source = null;
+
+    private ElapsedClock(){
+    }
+
+    public static void setSource(Source source){
+        _source = source;
+    }
+
+    /**
+     * @return The current time of the source, in nanoseconds
+     */
+    public static long nanos(){
+        final Source source = _source;
+
+        return source != null ? source.nanos() : System.nanoTime();
+    }
+}
@@ -0,0 +1,312 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves encoding and sending off a provider's listener thread. The listener only copies
+ * primitives into a slot of one of the stage's lanes, each lane being an SpscQueue with its
+ * own handler, and the stage's thread drains every lane in batches, running the handler on
+ * each slot in order. The thread parks while all lanes are empty.
+ *
+ * Control and error messages have priority over data. They can be published from any thread,
+ * are sent before every data slot, including between the slots of a batch, are never dropped
+ * when a lane is full, and are still sent after the stage has been stopped.
+ *
+ * After each lane is drained the optional BatchSink is flushed, so the payloads of a batch can
+ * cross to JavaScript together. It is also flushed before a control message that arrives in the
+ * middle of a batch, to keep the order. stop() waits for the thread to finish, the batch and the
+ * data slots still queued are discarded before it returns.
+ *
+ * The time each slot waited in its lane and the lane depth are recorded in the provider's
+ * stats. Lanes are added before the stage is started.
+ */
+public final class EncodeStage implements Runnable {
+
+    /**
+     * Encodes and sends one slot, runs on the stage's thread.
+     */
+    public interface SlotHandler<T> {
+        void handle(T slot);
+    }
+
+    /**
+     * Sends control and error messages, runs on the stage's thread, or on the publishing thread
+     * once the stage has stopped.
+     */
+    public interface ControlSink {
+        void send(boolean error, String payload);
+    }
+
+    /**
+     * Sends or discards what the slot handlers of a batch produced, runs on the stage's thread.
+     */
+    public interface BatchSink {
+        void flush();
+        void discard();
+    }
+
+    // Longest wait for a handler that is still running when the stage is stopped
+    private static final long STOP_TIMEOUT_MILLIS = 1000;
+
+    private final ProviderStats _stats;
+    private final ControlSink _controlSink;
+    private final BatchSink _batchSink;
+    private final List<Lane<?>> _lanes = new ArrayList<Lane<?>>();
+    private final ConcurrentLinkedQueue<ControlMessage> _control = new ConcurrentLinkedQueue<ControlMessage>();
+
+    private volatile boolean _running = false;
+    private volatile boolean _waiting = false;
+    private volatile Thread _thread = null;
+
+    public EncodeStage(ProviderStats stats, ControlSink controlSink){
+        this(stats, controlSink, null);
+    }
+
+    /**
+     * @param batchSink Flushed after each lane was drained, or <code>null</code>
+     */
+    public EncodeStage(ProviderStats stats, ControlSink controlSink, BatchSink batchSink){
+        _stats = stats;
+        _controlSink = controlSink;
+        _batchSink = batchSink;
+    }
+
+    /**
+     * @param slots The lane's reusable elements, the length must be a power of two
+     * @param handler Encodes and sends each published slot
+     * @return The lane's queue, for the listener thread to claim and publish slots on
+     */
+    public <T> SpscQueue<T> addLane(T[] slots, SlotHandler<T> handler){
+        final Lane<T> lane = new Lane<T>(new SpscQueue<T>(slots), handler);
+        _lanes.add(lane);
+
+        return lane.queue;
+    }
+
+    public void start(String name){
+        _running = true;
+        _thread = new Thread(this, name);
+        _thread.start();
+    }
+
+    /**
+     * Publishes the slot claimed on the queue and wakes the stage if needed. Called on the
+     * listener thread.
+     */
+    public <T> void publish(SpscQueue<T> queue){
+        _stats.onQueued(queue.publish());
+
+        if(_waiting){
+            LockSupport.unpark(_thread);
+        }
+    }
+
+    /**
+     * Queues a control or error message ahead of all data. Called on any thread.
+     */
+    public void publishControl(boolean error, String payload){
+        _control.offer(new ControlMessage(error, payload));
+
+        // _running is cleared before the stage's last drain, so a message it missed is sent here
+        if(!_running){
+            drainControl();
+            return;
+        }
+
+        if(_waiting){
+            LockSupport.unpark(_thread);
+        }
+    }
+
+    /**
+     * @return <code>true</code> if called on the stage's own thread
+     */
+    public boolean isStageThread(){
+        return Thread.currentThread() == _thread;
+    }
+
+    /**
+     * Stops the stage's thread and waits for it to finish, for at most STOP_TIMEOUT_MILLIS.
+     * Data slots that were not handled yet are discarded, so no data is sent once this returns.
+     * Control messages are still sent.
+     */
+    public void stop(){
+        final Thread thread = _thread;
+        _running = false;
+
+        if(thread == null){
+            return;
+        }
+
+        thread.interrupt();
+
+        if(thread != Thread.currentThread()){
+            // The plugin's thread may already carry an interrupt from an earlier stop
+            boolean interrupted = Thread.interrupted();
+
+            try {
+                thread.join(STOP_TIMEOUT_MILLIS);
+            }
+            catch(InterruptedException exc){
+                interrupted = true;
+            }
+
+            if(interrupted){
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        drainControl();
+    }
+
+    @Override
+    public void run(){
+        while(_running){
+            int handled = drainControl();
+
+            for(Lane<?> lane : _lanes){
+                final int drained = lane.drain(this);
+
+                if(drained > 0){
+                    flushBatch(_running);
+                }
+
+                handled += drained;
+            }
+
+            if(handled == 0){
+                _waiting = true;
+
+                // Publishers check the flag after publishing, so look again before parking
+                if(isEmpty() && _running){
+                    LockSupport.park(this);
+                }
+
+                _waiting = false;
+            }
+        }
+
+        drainControl();
+
+        for(Lane<?> lane : _lanes){
+            while(lane.queue.peek() != null){
+                lane.queue.release();
+                _stats.onDropped();
+            }
+        }
+    }
+
+    private void flushBatch(boolean send){
+        if(_batchSink == null){
+            return;
+        }
+
+        try {
+            if(send){
+                _batchSink.flush();
+            }
+            else {
+                _batchSink.discard();
+            }
+        }
+        catch(RuntimeException exc){
+            _stats.onDropped();
+        }
+    }
+
+    private int drainControl(){
+        int handled = 0;
+        ControlMessage message;
+
+        while((message = _control.poll()) != null){
+            _controlSink.send(message.error, message.payload);
+            handled++;
+        }
+
+        return handled;
+    }
+
+    private boolean isEmpty(){
+        if(!_control.isEmpty()){
+            return false;
+        }
+
+        for(Lane<?> lane : _lanes){
+            if(lane.queue.size() > 0){
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static final class Lane<T> {
+        final SpscQueue<T> queue;
+        final SlotHandler<T> handler;
+
+        Lane(SpscQueue<T> queue, SlotHandler<T> handler){
+            this.queue = queue;
+            this.handler = handler;
+        }
+
+        int drain(EncodeStage stage){
+            final ProviderStats stats = stage._stats;
+            int handled = 0;
+            T slot;
+
+            // Stops mid-batch, the rest is discarded when the thread exits
+            while(stage._running && (slot = queue.peek()) != null){
+                // Control messages go first, even in the middle of a batch, after the data before them
+                if(!stage._control.isEmpty()){
+                    if(handled > 0){
+                        stage.flushBatch(true);
+                    }
+
+                    handled += stage.drainControl();
+                }
+                stats.getQueueTime().record(System.nanoTime() - queue.getPublishedNanos());
+
+                try {
+                    handler.handle(slot);
+                }
+                catch(RuntimeException exc){
+                    stats.onDropped();
+                }
+
+                queue.release();
+                handled++;
+            }
+
+            return handled;
+        }
+    }
+
+    private static final class ControlMessage {
+        final boolean error;
+        final String payload;
+
+        ControlMessage(boolean error, String payload){
+            this.error = error;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Platform independent location fix. Android Locations and recorded logs are copied into
+ * this type so the rest of the pipeline can run, and be tested, on any JVM.
+ *
+ * Instances are reused by their producers. Listeners that keep a Fix beyond the callback
+ * must copy it with {@link #set(Fix)}.
+ */
+public final class Fix {
+    public String provider;
+    public long time;                   // UTC milliseconds since January 1, 1970
+    public long elapsedRealtimeNanos;   // monotonic time since boot, 0 if unknown
+    public long receivedNanos;          // monotonic time the listener received the fix, 0 if unknown
+    public double latitude;
+    public double longitude;
+    public double altitude;
+    public float accuracy;
+    public float speed;
+    public float bearing;
+    public boolean cached;
+
+    public void set(Fix fix){
+        provider = fix.provider;
+        time = fix.time;
+        elapsedRealtimeNanos = fix.elapsedRealtimeNanos;
+        receivedNanos = fix.receivedNanos;
+        latitude = fix.latitude;
+        longitude = fix.longitude;
+        altitude = fix.altitude;
+        accuracy = fix.accuracy;
+        speed = fix.speed;
+        bearing = fix.bearing;
+        cached = fix.cached;
+    }
+
+    public void clear(){
+        provider = null;
+        time = 0;
+        elapsedRealtimeNanos = 0;
+        receivedNanos = 0;
+        latitude = 0;
+        longitude = 0;
+        altitude = 0;
+        accuracy = 0;
+        speed = 0;
+        bearing = 0;
+        cached = false;
+    }
+}
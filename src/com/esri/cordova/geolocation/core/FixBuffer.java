@@ -0,0 +1,185 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * FIFO queue for storing and manipulating cartesian coordinates.
+ *
+ * Each coordinate is converted to unit sphere cartesian form once, when it is added, and the
+ * buffer keeps running sums so the geographic center is available in constant time regardless
+ * of the buffer size. Elements live in fixed primitive arrays, so adding a fix doesn't allocate.
+ */
+public final class FixBuffer {
+
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180;
+    private static final double RADIANS_TO_DEGREES = 180 / Math.PI;
+
+    private final int _maxBufferSize;
+    private final double[] _x;
+    private final double[] _y;
+    private final double[] _z;
+    private final float[] _accuracy;
+
+    private int _head = 0; // index of the oldest element
+    private int _size = 0;
+    private double _xSum = 0;
+    private double _ySum = 0;
+    private double _zSum = 0;
+    private double _accuracySum = 0;
+
+    private double _centerLatitude = 0;
+    private double _centerLongitude = 0;
+    private float _centerAccuracy = 0;
+
+    public FixBuffer(int maxBufferSize){
+        _maxBufferSize = Math.max(1, maxBufferSize);
+        _x = new double[_maxBufferSize];
+        _y = new double[_maxBufferSize];
+        _z = new double[_maxBufferSize];
+        _accuracy = new float[_maxBufferSize];
+    }
+
+    /**
+     * Adds a position to the queue, removing the oldest element once the queue is full.
+     * @param latitude Latitude in degrees
+     * @param longitude Longitude in degrees
+     * @param accuracy Horizontal accuracy in meters
+     * @return Size of the queue.
+     */
+    public synchronized int add(double latitude, double longitude, float accuracy){
+
+        // Trim the queue to the maxBufferSize
+        if(_size == _maxBufferSize){
+            _xSum -= _x[_head];
+            _ySum -= _y[_head];
+            _zSum -= _z[_head];
+            _accuracySum -= _accuracy[_head];
+            _head = (_head + 1) % _maxBufferSize;
+            _size--;
+
+            // Re-add the sums once per pass through the buffer so rounding errors can't accumulate
+            if(_head == 0){
+                resum();
+            }
+        }
+
+        final double latRad = latitude * DEGREES_TO_RADIANS;
+        final double lonRad = longitude * DEGREES_TO_RADIANS;
+        final double cosLat = Math.cos(latRad);
+        final int index = (_head + _size) % _maxBufferSize;
+
+        _x[index] = cosLat * Math.cos(lonRad);
+        _y[index] = cosLat * Math.sin(lonRad);
+        _z[index] = Math.sin(latRad);
+        _accuracy[index] = accuracy;
+
+        _xSum += _x[index];
+        _ySum += _y[index];
+        _zSum += _z[index];
+        _accuracySum += accuracy;
+        _size++;
+
+        return _size;
+    }
+
+    /**
+     * Calculates the average geometric center of the queue from the running sums.
+     * Reference: http://stackoverflow.com/questions/6671183/calculate-the-center-point-of-multiple-latitude-longitude-coordinate-pairs
+     * Reference: http://en.wikipedia.org/wiki/Spherical_coordinate_system
+     * Read the result with getCenterLatitude(), getCenterLongitude() and getCenterAccuracy().
+     */
+    public synchronized void computeCenter(){
+        if(_size > 0){
+            // Averages of the unit sphere cartesian coordinates, converted back to degrees
+            _centerLatitude = Math.asin(_zSum / _size) * RADIANS_TO_DEGREES;
+            _centerLongitude = Math.atan2(_ySum / _size, _xSum / _size) * RADIANS_TO_DEGREES;
+            _centerAccuracy = (float) (_accuracySum / _size);
+        }
+        else {
+            _centerLatitude = 0;
+            _centerLongitude = 0;
+            _centerAccuracy = 0;
+        }
+    }
+
+    /**
+     * The buffer's geometric latitudinal center as of the last computeCenter().
+     * @return Latitude in degrees
+     */
+    public synchronized double getCenterLatitude(){
+        return _centerLatitude;
+    }
+
+    /**
+     * The buffer's geometric longitudinal center as of the last computeCenter().
+     * @return Longitude in degrees
+     */
+    public synchronized double getCenterLongitude(){
+        return _centerLongitude;
+    }
+
+    /**
+     * The buffer's average horizontal accuracy as of the last computeCenter().
+     * @return Accuracy in meters
+     */
+    public synchronized float getCenterAccuracy(){
+        return _centerAccuracy;
+    }
+
+    /**
+     * Remove all elements from the queue.
+     */
+    public synchronized void clear(){
+        _head = 0;
+        _size = 0;
+        _xSum = 0;
+        _ySum = 0;
+        _zSum = 0;
+        _accuracySum = 0;
+    }
+
+    /**
+     * Returns <code>true</code> if queue contains no elements.
+     * @return boolean
+     */
+    public synchronized boolean isEmpty(){
+        return _size == 0;
+    }
+
+    /**
+     * Returns the number of elements in the queue.
+     * @return int
+     */
+    public synchronized int size(){
+        return _size;
+    }
+
+    private void resum(){
+        _xSum = 0;
+        _ySum = 0;
+        _zSum = 0;
+        _accuracySum = 0;
+
+        for(int i = 0; i < _size; i++){
+            final int index = (_head + i) % _maxBufferSize;
+            _xSum += _x[index];
+            _ySum += _y[index];
+            _zSum += _z[index];
+            _accuracySum += _accuracy[index];
+        }
+    }
+}
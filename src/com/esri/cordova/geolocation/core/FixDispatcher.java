@@ -0,0 +1,111 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Process-wide registry of native FixListeners, so other Java code in the app, such as another
+ * Cordova plugin, can receive the same fixes as the WebView without running its own
+ * LocationManager listeners or parsing JSON. Listeners only receive fixes while a provider has
+ * been started from JavaScript.
+ *
+ * Each fix is dispatched on the thread that produced it, the GPS or NETWORK provider's thread,
+ * before it is encoded for the WebView, so listeners should return quickly. The Fix is reused
+ * once onFix returns, copy it with Fix.set to keep it. A listener that throws is skipped for
+ * that fix only.
+ *
+ * Adding and removing listeners copies the registry, dispatching doesn't lock or allocate.
+ */
+public final class FixDispatcher {
+
+    private static final Entry[] NONE = new Entry[0];
+    private static volatile Entry[] _entries = NONE;
+
+    private FixDispatcher(){
+    }
+
+    /**
+     * Receives the fixes of every provider.
+     */
+    public static void addListener(FixListener listener){
+        addListener(null, listener);
+    }
+
+    /**
+     * @param provider LastFixCache.GPS or LastFixCache.NETWORK, or <code>null</code> for every provider
+     * @param listener Receives the provider's fixes until it is removed
+     */
+    public static synchronized void addListener(String provider, FixListener listener){
+        final Entry[] entries = new Entry[_entries.length + 1];
+        System.arraycopy(_entries, 0, entries, 0, _entries.length);
+        entries[_entries.length] = new Entry(provider, listener);
+        _entries = entries;
+    }
+
+    /**
+     * Removes every registration of the listener.
+     */
+    public static synchronized void removeListener(FixListener listener){
+        int kept = 0;
+
+        for(Entry entry : _entries){
+            if(entry.listener != listener){
+                kept++;
+            }
+        }
+
+        final Entry[] entries = kept == 0 ? NONE : new Entry[kept];
+        int i = 0;
+
+        for(Entry entry : _entries){
+            if(entry.listener != listener){
+                entries[i++] = entry;
+            }
+        }
+
+        _entries = entries;
+    }
+
+    /**
+     * Hands a fix to every listener registered for its provider.
+     */
+    public static void dispatch(Fix fix){
+        final Entry[] entries = _entries;
+
+        for(Entry entry : entries){
+            if(entry.provider != null && !entry.provider.equals(fix.provider)){
+                continue;
+            }
+
+            try {
+                entry.listener.onFix(fix);
+            }
+            catch(RuntimeException exc){
+                // Another component's bug shouldn't stop the location stream
+            }
+        }
+    }
+
+    private static final class Entry {
+        final String provider;
+        final FixListener listener;
+
+        Entry(String provider, FixListener listener){
+            this.provider = provider;
+            this.listener = listener;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Encodes fixes into the plugin's location JSON. The output matches what org.json produces for
+ * the same values, including key order and number formatting, but is written straight into a
+ * reused JsonWriter without building an intermediate object tree.
+ *
+ * Each payload ends with the fix's sensor and receipt times and the time it was encoded for
+ * dispatch, all on the ElapsedClock. A PayloadFormat can leave out fields and round decimals.
+ *
+ * A delta encoder numbers its payloads with "seq". Every keyframeInterval payloads, starting with
+ * the first, is a keyframe marked "keyframe" that carries absolute values and the "decimals"
+ * coordinates are quantized to. The payloads in between replace latitude, longitude, their
+ * buffered values and timestamp with the integer change since the previous payload: "dLat",
+ * "dLon", "dBufferedLat", "dBufferedLon" in units of the last decimal and "dTime" in
+ * milliseconds. Every other field is written as usual.
+ *
+ * An encoder is not threadsafe, use one per thread.
+ */
+public final class FixEncoder {
+
+    private static final int FRAME_ABSOLUTE = 0;
+    private static final int FRAME_KEY = 1;
+    private static final int FRAME_DELTA = 2;
+
+    // Slots of the previous payload's quantized values
+    private static final int LATITUDE = 0;
+    private static final int LONGITUDE = 1;
+    private static final int BUFFERED_LATITUDE = 2;
+    private static final int BUFFERED_LONGITUDE = 3;
+    private static final int TIME = 4;
+
+    private final JsonWriter _json = new JsonWriter(320);
+    private final PayloadFormat _format;
+    private final boolean _delta;
+    private final int _decimals;
+    private final double _scale;
+    private final long[] _previous = new long[5];
+    private long _sequence = 0;
+    private int _frame = FRAME_ABSOLUTE;
+
+    public FixEncoder(){
+        this(PayloadFormat.FULL);
+    }
+
+    /**
+     * @param format The fields to write and their precision
+     */
+    public FixEncoder(PayloadFormat format){
+        this(format, false);
+    }
+
+    /**
+     * @param format The fields to write and their precision
+     * @param stream <code>true</code> if the encoder sees every payload of a stream, so it can
+     *               delta encode them when the format has a keyframe interval
+     */
+    public FixEncoder(PayloadFormat format, boolean stream){
+        _format = format;
+        _delta = stream && format.keyframeInterval > 0;
+        _decimals = format.deltaDecimals();
+        _scale = Math.pow(10, _decimals);
+    }
+
+    /**
+     * Converts a fix into a JSON form that can be consumed within a JavaScript application
+     * @param fix The fix to encode
+     * @return Location data. Note: this library returns 0 rather than null to avoid nullPointExceptions
+     */
+    public String encode(Fix fix){
+        _json.reset().beginObject().put("provider", fix.provider);
+        beginFrame();
+        putCoordinate(PayloadFormat.LATITUDE, "latitude", "dLat", LATITUDE, fix.latitude);
+        putCoordinate(PayloadFormat.LONGITUDE, "longitude", "dLon", LONGITUDE, fix.longitude);
+        putDecimal(PayloadFormat.ALTITUDE, "altitude", fix.altitude);
+        putDecimal(PayloadFormat.ACCURACY, "accuracy", fix.accuracy);
+        putDecimal(PayloadFormat.BEARING, "bearing", fix.bearing);
+        putDecimal(PayloadFormat.SPEED, "speed", fix.speed);
+        putTimestamp(fix);
+        putCached(fix);
+        putTimes(fix);
+
+        return _json.endObject().toString();
+    }
+
+    /**
+     * Converts a fix and the state of its buffer into a JSON form that can be consumed within
+     * a JavaScript application
+     * @param fix The fix to encode
+     * @param buffer Boolean indicates whether or not buffering is activated
+     * @param bufferLat The buffer's geometric latitudinal center.
+     * @param bufferedLon The buffer's geometric longitudinal center.
+     * @param bufferedAccuracy The buffer's average accuracy.
+     * @param bufferSize The number of elements within the buffer
+     * @return Location data. Note: this library returns 0 rather than null to avoid nullPointExceptions
+     */
+    public String encode(
+            Fix fix,
+            boolean buffer,
+            double bufferLat,
+            double bufferedLon,
+            float bufferedAccuracy,
+            int bufferSize){
+        _json.reset().beginObject().put("provider", fix.provider);
+        beginFrame();
+        putTimestamp(fix);
+        putCoordinate(PayloadFormat.LATITUDE, "latitude", "dLat", LATITUDE, fix.latitude);
+        putCoordinate(PayloadFormat.LONGITUDE, "longitude", "dLon", LONGITUDE, fix.longitude);
+        putDecimal(PayloadFormat.ALTITUDE, "altitude", fix.altitude);
+        putDecimal(PayloadFormat.ACCURACY, "accuracy", fix.accuracy);
+        putDecimal(PayloadFormat.BEARING, "bearing", fix.bearing);
+        putDecimal(PayloadFormat.SPEED, "speed", fix.speed);
+        putCached(fix);
+
+        if(_format.hasLocation(PayloadFormat.BUFFER)){
+            _json.put("buffer", buffer);
+        }
+
+        if(_format.hasLocation(PayloadFormat.BUFFER_SIZE)){
+            _json.put("bufferSize", bufferSize);
+        }
+
+        putCoordinate(PayloadFormat.BUFFERED_LATITUDE, "bufferedLatitude", "dBufferedLat", BUFFERED_LATITUDE, bufferLat);
+        putCoordinate(PayloadFormat.BUFFERED_LONGITUDE, "bufferedLongitude", "dBufferedLon", BUFFERED_LONGITUDE, bufferedLon);
+        putDecimal(PayloadFormat.BUFFERED_ACCURACY, "bufferedAccuracy", bufferedAccuracy);
+        putTimes(fix);
+
+        return _json.endObject().toString();
+    }
+
+    /**
+     * Writes the sequence number, and the keyframe marker when one is due, of a delta encoded payload.
+     */
+    private void beginFrame(){
+        if(!_delta){
+            return;
+        }
+
+        _frame = _sequence % _format.keyframeInterval == 0 ? FRAME_KEY : FRAME_DELTA;
+        _json.put("seq", _sequence++);
+
+        if(_frame == FRAME_KEY){
+            _json.put("keyframe", true).put("decimals", _decimals);
+        }
+    }
+
+    private void putCoordinate(int field, String key, String deltaKey, int slot, double value){
+        if(!_format.hasLocation(field)){
+            return;
+        }
+
+        if(_frame == FRAME_ABSOLUTE){
+            _json.put(key, value, _format.coordinateDecimals);
+            return;
+        }
+
+        final long quantized = Math.round(value * _scale);
+
+        // Keyframes are written at the quantized value, so the decoder starts from the same integer
+        if(_frame == FRAME_KEY){
+            _json.put(key, quantized / _scale, _decimals);
+        }
+        else {
+            _json.put(deltaKey, quantized - _previous[slot]);
+        }
+
+        _previous[slot] = quantized;
+    }
+
+    private void putDecimal(int field, String key, double value){
+        if(_format.hasLocation(field)){
+            _json.put(key, value, _format.floatDecimals);
+        }
+    }
+
+    private void putTimestamp(Fix fix){
+        if(!_format.hasLocation(PayloadFormat.TIMESTAMP)){
+            return;
+        }
+
+        if(_frame == FRAME_DELTA){
+            _json.put("dTime", fix.time - _previous[TIME]);
+        }
+        else {
+            _json.put("timestamp", fix.time);
+        }
+
+        _previous[TIME] = fix.time;
+    }
+
+    private void putCached(Fix fix){
+        if(_format.hasLocation(PayloadFormat.CACHED)){
+            _json.put("cached", fix.cached);
+        }
+    }
+
+    private void putTimes(Fix fix){
+        final long received = fix.receivedNanos > 0 ? fix.receivedNanos : fix.elapsedRealtimeNanos;
+
+        if(_format.hasLocation(PayloadFormat.SENSOR_NANOS)){
+            _json.put("sensorNanos", fix.elapsedRealtimeNanos > 0 ? fix.elapsedRealtimeNanos : received);
+        }
+
+        if(_format.hasLocation(PayloadFormat.RECEIVED_NANOS)){
+            _json.put("receivedNanos", received);
+        }
+
+        if(_format.hasLocation(PayloadFormat.DISPATCH_NANOS)){
+            _json.put("dispatchNanos", ElapsedClock.nanos());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * The per-provider location pipeline: optionally buffers each fix, encodes it and hands the
+ * payload to a sink. A pipeline is used from a single thread, the provider's listener thread
+ * or its EncodeStage thread. Its payloads are delta encoded when the format asks for it, a new
+ * pipeline starts again with a keyframe.
+ */
+public final class FixPipeline implements FixListener {
+
+    private final int _traceProvider;
+    private final FixBuffer _buffer;
+    private final FixEncoder _encoder;
+    private final ProviderStats _stats;
+    private final PayloadSink _sink;
+
+    /**
+     * @param traceProvider The TraceRing provider code events are recorded under
+     * @param buffer The buffer to average fixes with, or <code>null</code> to send raw fixes
+     * @param stats Records the encode time of each payload
+     * @param sink Receives each encoded payload
+     * @param format The location fields to encode and their precision
+     */
+    public FixPipeline(int traceProvider, FixBuffer buffer, ProviderStats stats, PayloadSink sink, PayloadFormat format){
+        _traceProvider = traceProvider;
+        _buffer = buffer;
+        _stats = stats;
+        _sink = sink;
+        _encoder = new FixEncoder(format, true);
+    }
+
+    /**
+     * Builds a pipeline that keeps this one's buffer, stats and sink but encodes with another
+     * format. Use it from the thread this pipeline runs on, and stop using this one.
+     */
+    public FixPipeline withFormat(PayloadFormat format){
+        return new FixPipeline(_traceProvider, _buffer, _stats, _sink, format);
+    }
+
+    @Override
+    public void onFix(Fix fix){
+        final long start = System.nanoTime();
+        final String payload;
+
+        if(_buffer != null){
+            final int size = _buffer.add(fix.latitude, fix.longitude, fix.accuracy);
+            _buffer.computeCenter();
+            TraceRing.record(_traceProvider, TraceRing.EVENT_BUFFER);
+
+            payload = _encoder.encode(
+                    fix,
+                    true,
+                    _buffer.getCenterLatitude(),
+                    _buffer.getCenterLongitude(),
+                    _buffer.getCenterAccuracy(),
+                    size);
+        }
+        else {
+            payload = _encoder.encode(fix);
+        }
+
+        _stats.getEncodeTime().record(System.nanoTime() - start);
+        TraceRing.record(_traceProvider, TraceRing.EVENT_ENCODE);
+        _sink.send(payload, fix);
+    }
+
+    /**
+     * Remove all elements from the buffer, if there is one.
+     */
+    public void clear(){
+        if(_buffer != null){
+            _buffer.clear();
+        }
+    }
+}
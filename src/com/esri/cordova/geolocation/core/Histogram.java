@@ -0,0 +1,133 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size histogram of non-negative long values with power of two buckets. Recording is
+ * lock-free and allocation free so it can sit on a listener's hot path, and any thread can
+ * read it. Percentiles are reported as the upper bound of the bucket they fall in, which is
+ * accurate to within a factor of two and capped at the largest recorded value.
+ */
+public final class Histogram {
+
+    // Bucket 0 holds zero, bucket n holds values in [2^(n-1), 2^n - 1]
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray _buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong _count = new AtomicLong();
+    private final AtomicLong _sum = new AtomicLong();
+    private final AtomicLong _max = new AtomicLong();
+
+    public void record(long value){
+        if(value < 0){
+            value = 0;
+        }
+
+        _buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value)));
+        _count.incrementAndGet();
+        _sum.addAndGet(value);
+
+        long max = _max.get();
+        while(value > max && !_max.compareAndSet(max, value)){
+            max = _max.get();
+        }
+    }
+
+    public long getCount(){
+        return _count.get();
+    }
+
+    public long getMax(){
+        return _max.get();
+    }
+
+    public double getMean(){
+        final long count = _count.get();
+        return count <= 0 ? 0 : (double) _sum.get() / count;
+    }
+
+    /**
+     * @param percentile A value between 0 and 100
+     * @return Upper bound of the bucket holding the percentile, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile){
+        final long count = _count.get();
+
+        if(count <= 0){
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+
+        for(int i = 0; i < BUCKETS; i++){
+            seen += _buckets.get(i);
+
+            if(seen >= rank){
+                final long upper = i == 0 ? 0 : i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(upper, _max.get());
+            }
+        }
+
+        return _max.get();
+    }
+
+    /**
+     * Copies the histogram, optionally zeroing it. With <code>reset</code> each bucket is
+     * swapped with zero, so every recorded value is counted by exactly one snapshot. A value
+     * recorded while the snapshot is taken may have its sum and maximum reported by the next one.
+     * @param reset Indicates if the histogram is zeroed as it is copied
+     * @return A histogram that is no longer updated
+     */
+    public Histogram snapshot(boolean reset){
+        final Histogram snapshot = new Histogram();
+        long count = 0;
+
+        for(int i = 0; i < BUCKETS; i++){
+            final long value = reset ? _buckets.getAndSet(i, 0) : _buckets.get(i);
+            snapshot._buckets.set(i, value);
+            count += value;
+        }
+
+        // The count is taken from the buckets so that it matches the percentiles
+        snapshot._count.set(count);
+        if(reset){
+            _count.addAndGet(-count);
+        }
+        snapshot._sum.set(reset ? _sum.getAndSet(0) : _sum.get());
+        snapshot._max.set(reset ? _max.getAndSet(0) : _max.get());
+
+        return snapshot;
+    }
+
+    /**
+     * Zeros the histogram. Values recorded concurrently with a reset may be partially kept,
+     * use snapshot(true) to read and zero it without losing any.
+     */
+    public void reset(){
+        for(int i = 0; i < BUCKETS; i++){
+            _buckets.set(i, 0);
+        }
+
+        _count.set(0);
+        _sum.set(0);
+        _max.set(0);
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Minimal streaming JSON writer over a reused StringBuilder. Output matches what org.json
+ * produces for the same values: whole numbers are written without a fraction, everything else
+ * using Double.toString, and floats are widened to double first just as JSONObject.put does.
+ *
+ * Commas are inserted automatically, so callers only describe the structure.
+ * A writer is not threadsafe, use one per thread.
+ */
+public final class JsonWriter {
+
+    public static final int MAX_DECIMALS = 9;
+    private static final long[] POWERS = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L
+    };
+
+    private final StringBuilder _json;
+
+    public JsonWriter(int capacity){
+        _json = new StringBuilder(capacity);
+    }
+
+    public JsonWriter reset(){
+        _json.setLength(0);
+        return this;
+    }
+
+    public int length(){
+        return _json.length();
+    }
+
+    public JsonWriter beginObject(){
+        separator();
+        _json.append('{');
+        return this;
+    }
+
+    public JsonWriter endObject(){
+        _json.append('}');
+        return this;
+    }
+
+    public JsonWriter beginArray(){
+        separator();
+        _json.append('[');
+        return this;
+    }
+
+    public JsonWriter endArray(){
+        _json.append(']');
+        return this;
+    }
+
+    public JsonWriter key(String key){
+        separator();
+        _json.append('"').append(key).append("\":");
+        return this;
+    }
+
+    public JsonWriter value(String value){
+        separator();
+
+        if(value == null){
+            _json.append("null");
+            return this;
+        }
+
+        _json.append('"');
+        for(int i = 0; i < value.length(); i++){
+            final char c = value.charAt(i);
+            if(c == '"' || c == '\\'){
+                _json.append('\\');
+            }
+            _json.append(c);
+        }
+        _json.append('"');
+
+        return this;
+    }
+
+    public JsonWriter value(long value){
+        separator();
+        _json.append(value);
+        return this;
+    }
+
+    public JsonWriter value(boolean value){
+        separator();
+        _json.append(value);
+        return this;
+    }
+
+    public JsonWriter value(double value){
+        separator();
+
+        if(Double.isNaN(value) || Double.isInfinite(value)){
+            // org.json rejects these, send 0 to keep the payload valid
+            _json.append('0');
+        }
+        else if(value == (long) value){
+            _json.append((long) value);
+        }
+        else {
+            _json.append(value);
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes a value rounded to a number of decimals, without trailing zeros and without
+     * allocating. Values too large to round exactly are written in full.
+     * @param decimals 0 to 9, or a negative number for full precision
+     */
+    public JsonWriter value(double value, int decimals){
+        if(decimals < 0 || Double.isNaN(value) || Double.isInfinite(value)){
+            return value(value);
+        }
+
+        final int places = Math.min(decimals, MAX_DECIMALS);
+        final long factor = POWERS[places];
+
+        if(Math.abs(value) * factor >= Long.MAX_VALUE / 2){
+            return value(value);
+        }
+
+        separator();
+
+        long scaled = Math.round(value * factor);
+
+        if(scaled < 0){
+            _json.append('-');
+            scaled = -scaled;
+        }
+
+        _json.append(scaled / factor);
+
+        long fraction = scaled % factor;
+
+        if(fraction != 0){
+            int digits = places;
+
+            while(fraction % 10 == 0){
+                fraction /= 10;
+                digits--;
+            }
+
+            _json.append('.');
+
+            // Leading zeros of the fraction
+            for(long power = POWERS[digits - 1]; power > fraction; power /= 10){
+                _json.append('0');
+            }
+
+            _json.append(fraction);
+        }
+
+        return this;
+    }
+
+    public JsonWriter put(String key, String value){
+        return key(key).value(value);
+    }
+
+    public JsonWriter put(String key, long value){
+        return key(key).value(value);
+    }
+
+    public JsonWriter put(String key, boolean value){
+        return key(key).value(value);
+    }
+
+    public JsonWriter put(String key, double value){
+        return key(key).value(value);
+    }
+
+    public JsonWriter put(String key, double value, int decimals){
+        return key(key).value(value, decimals);
+    }
+
+    @Override
+    public String toString(){
+        return _json.toString();
+    }
+
+    private void separator(){
+        final int length = _json.length();
+
+        if(length > 0){
+            final char last = _json.charAt(length - 1);
+            if(last != '{' && last != '[' && last != ':'){
+                _json.append(',');
+            }
+        }
+    }
+}
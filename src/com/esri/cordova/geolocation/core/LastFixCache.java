@@ -0,0 +1,106 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Process-wide cache of the newest fix from each provider. Every live location listener writes
+ * its fixes here, so a new session or a one-shot request can answer immediately from any
+ * provider that ran recently, without starting a listener of its own.
+ *
+ * Each provider has one preallocated slot that is copied into under its own lock, so updates
+ * don't allocate and the GPS and NETWORK threads never wait on each other. Ages are measured
+ * on the monotonic elapsedRealtimeNanos clock, fixes without it are not cached.
+ */
+public final class LastFixCache {
+
+    // Same values as LocationManager.GPS_PROVIDER and LocationManager.NETWORK_PROVIDER
+    public static final String GPS = "gps";
+    public static final String NETWORK = "network";
+
+    private static final String[] PROVIDERS = {GPS, NETWORK};
+    private static final Fix[] FIXES = {new Fix(), new Fix()};
+
+    private LastFixCache(){
+    }
+
+    /**
+     * Keeps a copy of the fix if it is newer than the one cached for its provider. Fixes from
+     * other providers are ignored.
+     */
+    public static void update(Fix fix){
+        final int slot = slotOf(fix.provider);
+
+        if(slot < 0 || fix.elapsedRealtimeNanos <= 0){
+            return;
+        }
+
+        final Fix cached = FIXES[slot];
+
+        synchronized (cached){
+            if(fix.elapsedRealtimeNanos > cached.elapsedRealtimeNanos){
+                cached.set(fix);
+                cached.cached = true;
+            }
+        }
+    }
+
+    /**
+     * Copies the cached fix of one provider.
+     * @param provider GPS or NETWORK
+     * @param maximumAgeNanos Oldest fix that is acceptable
+     * @param nowNanos The current elapsedRealtimeNanos
+     * @param out Receives the fix, marked as cached
+     * @return <code>true</code> if a fix was copied
+     */
+    public static boolean get(String provider, long maximumAgeNanos, long nowNanos, Fix out){
+        final int slot = slotOf(provider);
+
+        if(slot < 0){
+            return false;
+        }
+
+        final Fix cached = FIXES[slot];
+
+        synchronized (cached){
+            if(cached.elapsedRealtimeNanos <= 0 || nowNanos - cached.elapsedRealtimeNanos > maximumAgeNanos){
+                return false;
+            }
+
+            out.set(cached);
+        }
+
+        return true;
+    }
+
+    public static void clear(){
+        for(Fix cached : FIXES){
+            synchronized (cached){
+                cached.clear();
+            }
+        }
+    }
+
+    private static int slotOf(String provider){
+        for(int i = 0; i < PROVIDERS.length; i++){
+            if(PROVIDERS[i].equals(provider)){
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes raw GNSS measurement epochs into fixed-size big-endian binary records, so that a
+ * 1 Hz stream of pseudoranges and carrier phase never goes through JSON. Several epochs can
+ * accumulate before they are drained as one batch.
+ *
+ * Epoch header, 40 bytes:
+ *   int magic 'AGRM', short version, short measurement count, long clock timeNanos,
+ *   long fullBiasNanos, double biasNanos, int hardwareClockDiscontinuityCount,
+ *   short flags (1 fullBias, 2 bias, 4 leapSecond), short leapSecond
+ *
+ * Followed by one 64 byte record per measurement:
+ *   byte constellation, short svid, byte multipathIndicator, int state, double timeOffsetNanos,
+ *   long receivedSvTimeNanos, float receivedSvTimeUncertaintyNanos, float cn0DbHz,
+ *   double pseudorangeRateMetersPerSecond, float pseudorangeRateUncertaintyMetersPerSecond,
+ *   short accumulatedDeltaRangeState, double accumulatedDeltaRangeMeters,
+ *   float accumulatedDeltaRangeUncertaintyMeters, float carrierFrequencyHz, 2 bytes padding
+ *
+ * An encoder is used from a single thread.
+ */
+public final class MeasurementEncoder {
+
+    public static final int MAGIC = 0x4147524D; // AGRM
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 40;
+    public static final int MEASUREMENT_SIZE = 64;
+
+    public static final int FLAG_FULL_BIAS = 1;
+    public static final int FLAG_BIAS = 2;
+    public static final int FLAG_LEAP_SECOND = 4;
+
+    private ByteBuffer _buffer = ByteBuffer.allocate(HEADER_SIZE + 64 * MEASUREMENT_SIZE);
+    private int _epochStart = -1;
+    private short _measurements = 0;
+    private int _epochs = 0;
+
+    /**
+     * Starts a new epoch with the receiver clock values of GnssClock.
+     */
+    public void beginEpoch(long timeNanos, long fullBiasNanos, double biasNanos,
+                           int discontinuityCount, int flags, int leapSecond){
+        ensureCapacity(HEADER_SIZE);
+
+        _epochStart = _buffer.position();
+        _measurements = 0;
+
+        _buffer.putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) 0)   // count is patched by endEpoch
+                .putLong(timeNanos)
+                .putLong(fullBiasNanos)
+                .putDouble(biasNanos)
+                .putInt(discontinuityCount)
+                .putShort((short) flags)
+                .putShort((short) leapSecond);
+    }
+
+    /**
+     * Adds a measurement to the current epoch, the values are those of GnssMeasurement.
+     */
+    public void addMeasurement(int constellation, int svid, int multipathIndicator, int state,
+                               double timeOffsetNanos, long receivedSvTimeNanos,
+                               long receivedSvTimeUncertaintyNanos, double cn0DbHz,
+                               double pseudorangeRate, double pseudorangeRateUncertainty,
+                               int accumulatedDeltaRangeState, double accumulatedDeltaRange,
+                               double accumulatedDeltaRangeUncertainty, float carrierFrequencyHz){
+        ensureCapacity(MEASUREMENT_SIZE);
+
+        _buffer.put((byte) constellation)
+                .putShort((short) svid)
+                .put((byte) multipathIndicator)
+                .putInt(state)
+                .putDouble(timeOffsetNanos)
+                .putLong(receivedSvTimeNanos)
+                .putFloat((float) receivedSvTimeUncertaintyNanos)
+                .putFloat((float) cn0DbHz)
+                .putDouble(pseudorangeRate)
+                .putFloat((float) pseudorangeRateUncertainty)
+                .putShort((short) accumulatedDeltaRangeState)
+                .putDouble(accumulatedDeltaRange)
+                .putFloat((float) accumulatedDeltaRangeUncertainty)
+                .putFloat(carrierFrequencyHz)
+                .putShort((short) 0);
+
+        _measurements++;
+    }
+
+    public void endEpoch(){
+        _buffer.putShort(_epochStart + 6, _measurements);
+        _epochStart = -1;
+        _epochs++;
+    }
+
+    /**
+     * @return The number of complete epochs waiting to be drained
+     */
+    public int getEpochs(){
+        return _epochs;
+    }
+
+    /**
+     * @return A copy of every complete epoch, the encoder is then empty
+     */
+    public byte[] drain(){
+        final byte[] batch = new byte[_buffer.position()];
+        System.arraycopy(_buffer.array(), 0, batch, 0, batch.length);
+        clear();
+
+        return batch;
+    }
+
+    /**
+     * Writes every complete epoch without copying, the encoder is then empty.
+     */
+    public void drainTo(OutputStream out) throws IOException {
+        out.write(_buffer.array(), 0, _buffer.position());
+        clear();
+    }
+
+    public void clear(){
+        _buffer.clear();
+        _epochStart = -1;
+        _measurements = 0;
+        _epochs = 0;
+    }
+
+    private void ensureCapacity(int bytes){
+        if(_buffer.remaining() < bytes){
+            final ByteBuffer larger = ByteBuffer.allocate(Math.max(_buffer.capacity() * 2, _buffer.position() + bytes));
+            _buffer.flip();
+            larger.put(_buffer);
+            _buffer = larger;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Selects raw GNSS measurements by constellation and frequency band. Constellation codes
+ * follow android.location.GnssStatus, see SatelliteTable.CONSTELLATION_NAMES.
+ */
+public final class MeasurementFilter {
+
+    public static final int ALL = 0xffffffff;
+
+    public static final int BAND_L1 = 1;    // L1, E1, B1, G1: 1559 - 1610 MHz
+    public static final int BAND_L2 = 2;    // L2, G2: 1215 - 1254 MHz
+    public static final int BAND_L5 = 4;    // L5, E5a, E5b, B2: 1164 - 1215 MHz
+    public static final int BAND_E6 = 8;    // E6, B3, LEX: 1254 - 1300 MHz
+
+    private final int _constellations;
+    private final int _bands;
+
+    /**
+     * @param constellations Bit mask of accepted constellation codes, <code>1 &lt;&lt; code</code>, or ALL
+     * @param bands Bit mask of the BAND_ constants, or ALL
+     */
+    public MeasurementFilter(int constellations, int bands){
+        _constellations = constellations;
+        _bands = bands;
+    }
+
+    /**
+     * @param constellation The constellation code
+     * @param carrierFrequencyHz The carrier frequency, or 0 if the receiver doesn't report it
+     * @return <code>true</code> if the measurement should be kept
+     */
+    public boolean accept(int constellation, float carrierFrequencyHz){
+        return (_constellations & 1 << constellation) != 0 && (_bands & band(carrierFrequencyHz)) != 0;
+    }
+
+    /**
+     * Receivers that don't report a carrier frequency are tracking L1.
+     * @return One of the BAND_ constants, or 0 for an unknown band
+     */
+    public static int band(float carrierFrequencyHz){
+        final float mhz = carrierFrequencyHz / 1e6f;
+
+        if(carrierFrequencyHz == 0 || (mhz >= 1559 && mhz <= 1610)){
+            return BAND_L1;
+        }
+        if(mhz >= 1164 && mhz < 1215){
+            return BAND_L5;
+        }
+        if(mhz >= 1215 && mhz < 1254){
+            return BAND_L2;
+        }
+        if(mhz >= 1254 && mhz <= 1300){
+            return BAND_E6;
+        }
+
+        return 0;
+    }
+
+    /**
+     * @param name A band name: L1, L2, L5 or E6
+     * @return The BAND_ constant, or 0 if the name isn't known
+     */
+    public static int bandCode(String name){
+        if("L1".equalsIgnoreCase(name)){
+            return BAND_L1;
+        }
+        if("L2".equalsIgnoreCase(name)){
+            return BAND_L2;
+        }
+        if("L5".equalsIgnoreCase(name)){
+            return BAND_L5;
+        }
+        if("E6".equalsIgnoreCase(name)){
+            return BAND_E6;
+        }
+
+        return 0;
+    }
+
+    /**
+     * @param name A constellation name such as gps, glonass or galileo
+     * @return The constellation code, or -1 if the name isn't known
+     */
+    public static int constellationCode(String name){
+        for(int i = 0; i < SatelliteTable.CONSTELLATION_NAMES.length; i++){
+            if(SatelliteTable.CONSTELLATION_NAMES[i].equalsIgnoreCase(name)){
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
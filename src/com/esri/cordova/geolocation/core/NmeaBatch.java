@@ -0,0 +1,103 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Accumulates completed NMEA epochs into a single JSON payload so the bridge is crossed once
+ * per batch rather than once per sentence. Fields that were not reported are left out.
+ * Each epoch carries its receipt time, the batch the time it was flushed for dispatch.
+ * A batch is not thread-safe, callers that flush it from another thread synchronize on it.
+ */
+public final class NmeaBatch {
+
+    private final String _provider;
+    private final JsonWriter _json = new JsonWriter(2048);
+    private int _size = 0;
+
+    /**
+     * @param provider Value of the provider property of each payload
+     */
+    public NmeaBatch(String provider){
+        _provider = provider;
+        clear();
+    }
+
+    /**
+     * Encodes an epoch into the batch. The epoch can be reused as soon as this returns.
+     */
+    public void add(NmeaEpoch epoch){
+        // NMEA sentences only carry a system time, so receipt is also the sensor time
+        _json.beginObject()
+                .put("timestamp", epoch.timestamp)
+                .put("sensorNanos", epoch.receivedNanos)
+                .put("receivedNanos", epoch.receivedNanos);
+
+        if(epoch.utcTime > 0){
+            _json.put("utcTime", epoch.utcTime);
+        }
+
+        putDecimal("latitude", epoch.latitude);
+        putDecimal("longitude", epoch.longitude);
+        putDecimal("altitude", epoch.altitude);
+        putDecimal("geoidSeparation", epoch.geoidSeparation);
+        putInteger("fixQuality", epoch.fixQuality);
+        putInteger("fixType", epoch.fixType);
+        putInteger("satellitesUsed", epoch.satellitesUsed);
+        putInteger("satellitesInView", epoch.satellitesInView);
+        putDecimal("hdop", epoch.hdop);
+        putDecimal("pdop", epoch.pdop);
+        putDecimal("vdop", epoch.vdop);
+        putDecimal("differentialAge", epoch.differentialAge);
+        putInteger("differentialStation", epoch.differentialStation);
+        putDecimal("speed", epoch.speed);
+        putDecimal("course", epoch.course);
+
+        _json.endObject();
+        _size++;
+    }
+
+    public int size(){
+        return _size;
+    }
+
+    /**
+     * @return The payload holding every epoch added since the last flush, the batch is then empty
+     */
+    public String flush(){
+        final String payload = _json.endArray().put("dispatchNanos", ElapsedClock.nanos()).endObject().toString();
+        clear();
+
+        return payload;
+    }
+
+    public void clear(){
+        _json.reset().beginObject().put("provider", _provider).key("epochs").beginArray();
+        _size = 0;
+    }
+
+    private void putDecimal(String key, double value){
+        if(!Double.isNaN(value)){
+            _json.put(key, value);
+        }
+    }
+
+    private void putInteger(String key, int value){
+        if(value >= 0){
+            _json.put(key, value);
+        }
+    }
+}
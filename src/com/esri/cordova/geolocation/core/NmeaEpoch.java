@@ -0,0 +1,91 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Selected fields of one NMEA epoch, the group of sentences a receiver outputs for a single
+ * fix. Values that were not reported are NaN for decimals and -1 for integers.
+ */
+public final class NmeaEpoch {
+    public long timestamp;              // system time the first sentence of the epoch was received
+    public long receivedNanos;          // ElapsedClock time the first sentence of the epoch was received
+    public long timeOfDay;              // UTC milliseconds since midnight, -1 if unknown
+    public long utcTime;                // UTC milliseconds since January 1, 1970, 0 until an RMC date is seen
+    public double latitude;
+    public double longitude;
+    public double altitude;             // meters above mean sea level
+    public double geoidSeparation;      // meters
+    public int fixQuality;              // GGA quality: 0 invalid, 1 GPS, 2 DGPS, 4 RTK fixed, 5 RTK float...
+    public int fixType;                 // GSA: 1 no fix, 2 2D, 3 3D
+    public int satellitesUsed;
+    public int satellitesInView;
+    public double hdop;
+    public double pdop;
+    public double vdop;
+    public double differentialAge;      // seconds since the last differential correction
+    public int differentialStation;
+    public double speed;                // meters per second
+    public double course;               // degrees true
+
+    public NmeaEpoch(){
+        clear();
+    }
+
+    public void set(NmeaEpoch epoch){
+        timestamp = epoch.timestamp;
+        receivedNanos = epoch.receivedNanos;
+        timeOfDay = epoch.timeOfDay;
+        utcTime = epoch.utcTime;
+        latitude = epoch.latitude;
+        longitude = epoch.longitude;
+        altitude = epoch.altitude;
+        geoidSeparation = epoch.geoidSeparation;
+        fixQuality = epoch.fixQuality;
+        fixType = epoch.fixType;
+        satellitesUsed = epoch.satellitesUsed;
+        satellitesInView = epoch.satellitesInView;
+        hdop = epoch.hdop;
+        pdop = epoch.pdop;
+        vdop = epoch.vdop;
+        differentialAge = epoch.differentialAge;
+        differentialStation = epoch.differentialStation;
+        speed = epoch.speed;
+        course = epoch.course;
+    }
+
+    public void clear(){
+        timestamp = 0;
+        receivedNanos = 0;
+        timeOfDay = -1;
+        utcTime = 0;
+        latitude = Double.NaN;
+        longitude = Double.NaN;
+        altitude = Double.NaN;
+        geoidSeparation = Double.NaN;
+        fixQuality = -1;
+        fixType = -1;
+        satellitesUsed = -1;
+        satellitesInView = -1;
+        hdop = Double.NaN;
+        pdop = Double.NaN;
+        vdop = Double.NaN;
+        differentialAge = Double.NaN;
+        differentialStation = -1;
+        speed = Double.NaN;
+        course = Double.NaN;
+    }
+}
@@ -0,0 +1,451 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Allocation-free parser for the GGA, GSA, GSV and RMC sentences of any talker. Fields are
+ * located by index and converted in place, no substrings, split arrays or boxed numbers are
+ * created per sentence.
+ *
+ * Sentences are grouped into epochs by the time of day carried in GGA and RMC. GSA and GSV
+ * don't carry a time, so the latest DOP and satellites in view values are applied to an
+ * epoch when it completes. A parser is used from a single thread.
+ */
+public final class NmeaParser {
+
+    private static final int MAX_FIELDS = 32;
+    private static final double KNOTS_TO_METERS_PER_SECOND = 0.514444;
+    private static final long MAX_MANTISSA = 100000000000000000L;
+
+    // Talker ids with their own GSV cycle
+    private static final String[] TALKERS = {"GP", "GL", "GA", "GB", "BD", "GQ", "QZ", "GI"};
+
+    private final int[] _start = new int[MAX_FIELDS];
+    private final int[] _end = new int[MAX_FIELDS];
+    private int _fields = 0;
+    private String _sentence = null;
+
+    private final NmeaEpoch _current = new NmeaEpoch();
+    private final NmeaEpoch _completed = new NmeaEpoch();
+    private boolean _hasCurrent = false;
+
+    // Values carried between epochs
+    private long _date = -1;
+    private int _fixType = -1;
+    private double _pdop = Double.NaN;
+    private double _hdop = Double.NaN;
+    private double _vdop = Double.NaN;
+    private final int[] _inView = new int[TALKERS.length + 1];
+
+    public NmeaParser(){
+        clear();
+    }
+
+    /**
+     * Parses one sentence.
+     * @param sentence A complete NMEA sentence, with or without the trailing line break
+     * @param timestamp System time the sentence was received, in milliseconds
+     * @param receivedNanos ElapsedClock time the sentence was received
+     * @return <code>true</code> if the sentence started a new epoch. The previous epoch is then
+     * available from {@link #getCompleted()} until the next call.
+     */
+    public boolean parse(String sentence, long timestamp, long receivedNanos){
+        if(!tokenize(sentence)){
+            return false;
+        }
+
+        if(length(0) != 5){
+            // Proprietary sentences such as $PGLOR are ignored
+            return false;
+        }
+
+        // Ignore the talker id so GP, GN, GL and GA sentences are all accepted
+        final int type = _end[0] - 3;
+
+        if(sentence.regionMatches(type, "GGA", 0, 3)){
+            final boolean completed = beginEpoch(timestamp, receivedNanos);
+            parseGga();
+            return completed;
+        }
+        if(sentence.regionMatches(type, "RMC", 0, 3)){
+            final boolean completed = beginEpoch(timestamp, receivedNanos);
+            parseRmc();
+            return completed;
+        }
+        if(sentence.regionMatches(type, "GSA", 0, 3)){
+            parseGsa();
+        }
+        else if(sentence.regionMatches(type, "GSV", 0, 3)){
+            parseGsv();
+        }
+
+        return false;
+    }
+
+    /**
+     * Completes the current epoch, for example when the stream stops.
+     * @return <code>true</code> if there was an epoch to complete
+     */
+    public boolean flush(){
+        if(!_hasCurrent){
+            return false;
+        }
+
+        complete();
+        return true;
+    }
+
+    public NmeaEpoch getCompleted(){
+        return _completed;
+    }
+
+    public void clear(){
+        _current.clear();
+        _completed.clear();
+        _hasCurrent = false;
+        _date = -1;
+        _fixType = -1;
+        _pdop = Double.NaN;
+        _hdop = Double.NaN;
+        _vdop = Double.NaN;
+
+        for(int i = 0; i < _inView.length; i++){
+            _inView[i] = -1;
+        }
+    }
+
+    //
+    //
+    // SENTENCES
+    //
+    //
+
+    private boolean beginEpoch(long timestamp, long receivedNanos){
+        final long timeOfDay = parseTimeOfDay(1);
+        boolean completed = false;
+
+        if(_hasCurrent && timeOfDay != _current.timeOfDay){
+            complete();
+            completed = true;
+        }
+
+        if(!_hasCurrent){
+            _current.clear();
+            _current.timestamp = timestamp;
+            _current.receivedNanos = receivedNanos;
+            _current.timeOfDay = timeOfDay;
+            _hasCurrent = true;
+        }
+
+        return completed;
+    }
+
+    private void complete(){
+        _current.fixType = _fixType;
+        _current.pdop = _pdop;
+        _current.hdop = Double.isNaN(_current.hdop) ? _hdop : _current.hdop;
+        _current.vdop = _vdop;
+        _current.satellitesInView = sumInView();
+
+        if(_date >= 0 && _current.timeOfDay >= 0){
+            _current.utcTime = _date + _current.timeOfDay;
+        }
+
+        _completed.set(_current);
+        _current.clear();
+        _hasCurrent = false;
+    }
+
+    // $--GGA,hhmmss.ss,llll.ll,a,yyyyy.yy,a,q,nn,h.h,alt,M,sep,M,age,station*hh
+    private void parseGga(){
+        _current.latitude = parseCoordinate(2, 3);
+        _current.longitude = parseCoordinate(4, 5);
+        _current.fixQuality = parseInt(6);
+        _current.satellitesUsed = parseInt(7);
+        _current.hdop = parseDouble(8);
+        _current.altitude = parseDouble(9);
+        _current.geoidSeparation = parseDouble(11);
+        _current.differentialAge = parseDouble(13);
+        _current.differentialStation = parseInt(14);
+    }
+
+    // $--RMC,hhmmss.ss,A,llll.ll,a,yyyyy.yy,a,knots,course,ddmmyy,...*hh
+    private void parseRmc(){
+        // A status of V is a receiver warning, its position isn't valid
+        final boolean valid = length(2) == 1 && _sentence.charAt(_start[2]) == 'A';
+
+        if(valid && Double.isNaN(_current.latitude)){
+            _current.latitude = parseCoordinate(3, 4);
+            _current.longitude = parseCoordinate(5, 6);
+        }
+
+        _current.speed = parseDouble(7) * KNOTS_TO_METERS_PER_SECOND;
+        _current.course = parseDouble(8);
+
+        if(length(9) == 6){
+            final int day = parseDigits(_start[9], 2);
+            final int month = parseDigits(_start[9] + 2, 2);
+            final int twoDigitYear = parseDigits(_start[9] + 4, 2);
+
+            if(day > 0 && month > 0 && twoDigitYear >= 0){
+                _date = utcMidnight(twoDigitYear < 80 ? 2000 + twoDigitYear : 1900 + twoDigitYear, month, day);
+            }
+        }
+    }
+
+    // $--GSA,a,x,prn,prn,...,pdop,hdop,vdop*hh, NMEA 4.11 appends a system id
+    private void parseGsa(){
+        if(_fields < 18){
+            return;
+        }
+
+        _fixType = parseInt(2);
+        _pdop = parseDouble(15);
+        _hdop = parseDouble(16);
+        _vdop = parseDouble(17);
+    }
+
+    // $--GSV,total,number,inView,...*hh
+    private void parseGsv(){
+        if(parseInt(2) == 1){
+            _inView[talker()] = parseInt(3);
+        }
+    }
+
+    private int sumInView(){
+        int sum = -1;
+
+        for(int value : _inView){
+            if(value >= 0){
+                sum = sum < 0 ? value : sum + value;
+            }
+        }
+
+        return sum;
+    }
+
+    private int talker(){
+        for(int i = 0; i < TALKERS.length; i++){
+            if(_sentence.regionMatches(_start[0], TALKERS[i], 0, 2)){
+                return i;
+            }
+        }
+
+        return TALKERS.length;
+    }
+
+    //
+    //
+    // FIELDS
+    //
+    //
+
+    /**
+     * Validates the checksum, if present, and records where each field starts and ends.
+     */
+    private boolean tokenize(String sentence){
+        final int length = sentence.length();
+
+        if(length < 7 || (sentence.charAt(0) != '$' && sentence.charAt(0) != '!')){
+            return false;
+        }
+
+        _sentence = sentence;
+        _fields = 0;
+        _start[0] = 1;
+
+        int checksum = 0;
+        int i = 1;
+
+        for(; i < length; i++){
+            final char c = sentence.charAt(i);
+
+            if(c == '*' || c == '\r' || c == '\n'){
+                break;
+            }
+
+            checksum ^= c;
+
+            if(c == ','){
+                if(_fields == MAX_FIELDS - 1){
+                    return false;
+                }
+                _end[_fields++] = i;
+                _start[_fields] = i + 1;
+            }
+        }
+
+        _end[_fields++] = i;
+
+        if(i < length && sentence.charAt(i) == '*'){
+            if(i + 3 > length){
+                return false;
+            }
+
+            final int high = Character.digit(sentence.charAt(i + 1), 16);
+            final int low = Character.digit(sentence.charAt(i + 2), 16);
+
+            if(high < 0 || low < 0 || checksum != (high << 4 | low)){
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int length(int field){
+        return field < _fields ? _end[field] - _start[field] : 0;
+    }
+
+    private int parseInt(int field){
+        if(length(field) == 0){
+            return -1;
+        }
+
+        final double value = parseDouble(field);
+        return Double.isNaN(value) ? -1 : (int) value;
+    }
+
+    /**
+     * Parses a decimal field without creating a String.
+     * @return The value, or NaN if the field is empty or malformed
+     */
+    private double parseDouble(int field){
+        if(length(field) == 0){
+            return Double.NaN;
+        }
+
+        int i = _start[field];
+        final int end = _end[field];
+        boolean negative = false;
+
+        if(_sentence.charAt(i) == '-' || _sentence.charAt(i) == '+'){
+            negative = _sentence.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int scale = 0;
+        boolean digits = false;
+        boolean fraction = false;
+
+        for(; i < end; i++){
+            final char c = _sentence.charAt(i);
+
+            if(c == '.' && !fraction){
+                fraction = true;
+            }
+            else if(c >= '0' && c <= '9'){
+                digits = true;
+
+                // Digits beyond what a long holds are below double precision anyway
+                if(mantissa < MAX_MANTISSA){
+                    mantissa = mantissa * 10 + (c - '0');
+                    scale += fraction ? 1 : 0;
+                }
+                else if(!fraction){
+                    scale--;
+                }
+            }
+            else {
+                return Double.NaN;
+            }
+        }
+
+        if(!digits){
+            return Double.NaN;
+        }
+
+        double value = mantissa;
+
+        if(scale > 0){
+            value /= Math.pow(10, scale);
+        }
+        else if(scale < 0){
+            value *= Math.pow(10, -scale);
+        }
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * Converts ddmm.mmmm or dddmm.mmmm plus a hemisphere field into decimal degrees.
+     */
+    private double parseCoordinate(int field, int hemisphereField){
+        final double raw = parseDouble(field);
+
+        if(Double.isNaN(raw) || length(hemisphereField) != 1){
+            return Double.NaN;
+        }
+
+        final double degrees = Math.floor(raw / 100);
+        final double decimal = degrees + (raw - degrees * 100) / 60;
+        final char hemisphere = _sentence.charAt(_start[hemisphereField]);
+
+        return hemisphere == 'S' || hemisphere == 'W' ? -decimal : decimal;
+    }
+
+    /**
+     * Converts hhmmss.sss into milliseconds since midnight.
+     */
+    private long parseTimeOfDay(int field){
+        if(length(field) < 6){
+            return -1;
+        }
+
+        final int hours = parseDigits(_start[field], 2);
+        final int minutes = parseDigits(_start[field] + 2, 2);
+        final double time = parseDouble(field);
+
+        if(hours < 0 || minutes < 0 || Double.isNaN(time)){
+            return -1;
+        }
+
+        final double seconds = time - hours * 10000 - minutes * 100;
+        return hours * 3600000L + minutes * 60000L + Math.round(seconds * 1000);
+    }
+
+    private int parseDigits(int start, int count){
+        int value = 0;
+
+        for(int i = start; i < start + count; i++){
+            final char c = _sentence.charAt(i);
+            if(c < '0' || c > '9'){
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+
+        return value;
+    }
+
+    /**
+     * Milliseconds since the epoch for midnight UTC of a date, without allocating a Calendar.
+     * Reference: http://howardhinnant.github.io/date_algorithms.html#days_from_civil
+     * @param month 1 to 12
+     * @param day 1 to 31
+     */
+    public static long utcMidnight(int year, int month, int day){
+        final int y = month <= 2 ? year - 1 : year;
+        final int era = (y >= 0 ? y : y - 399) / 400;
+        final int yearOfEra = y - era * 400;
+        final int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return (era * 146097L + dayOfEra - 719468L) * 86400000L;
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Which optional fields the location and satellite encoders write, and how many decimals they
+ * keep. The provider property and the satellite summaries are always written. Each field is one
+ * bit of a mask, named after the JSON key it controls, see LOCATION_FIELD_NAMES and
+ * SATELLITE_FIELD_NAMES. Decimals of -1 keep the full precision.
+ *
+ * With a keyframe interval the location stream is delta encoded, see FixEncoder.
+ *
+ * Formats are immutable, so encoders on different threads can share one.
+ */
+public final class PayloadFormat {
+
+    public static final int ALL = -1;
+    public static final int FULL_PRECISION = -1;
+
+    // Location fields, bit i is LOCATION_FIELD_NAMES[i]
+    public static final int LATITUDE = 1;
+    public static final int LONGITUDE = 1 << 1;
+    public static final int ALTITUDE = 1 << 2;
+    public static final int ACCURACY = 1 << 3;
+    public static final int BEARING = 1 << 4;
+    public static final int SPEED = 1 << 5;
+    public static final int TIMESTAMP = 1 << 6;
+    public static final int CACHED = 1 << 7;
+    public static final int BUFFER = 1 << 8;
+    public static final int BUFFER_SIZE = 1 << 9;
+    public static final int BUFFERED_LATITUDE = 1 << 10;
+    public static final int BUFFERED_LONGITUDE = 1 << 11;
+    public static final int BUFFERED_ACCURACY = 1 << 12;
+    public static final int SENSOR_NANOS = 1 << 13;
+    public static final int RECEIVED_NANOS = 1 << 14;
+    public static final int DISPATCH_NANOS = 1 << 15;
+
+    public static final String[] LOCATION_FIELD_NAMES = {
+            "latitude", "longitude", "altitude", "accuracy", "bearing", "speed", "timestamp", "cached",
+            "buffer", "bufferSize", "bufferedLatitude", "bufferedLongitude", "bufferedAccuracy",
+            "sensorNanos", "receivedNanos", "dispatchNanos"
+    };
+
+    // Satellite fields, bit i is SATELLITE_FIELD_NAMES[i]
+    public static final int CONSTELLATION = 1;
+    public static final int SVID = 1 << 1;
+    public static final int CN0 = 1 << 2;
+    public static final int ELEVATION = 1 << 3;
+    public static final int AZIMUTH = 1 << 4;
+    public static final int USED_IN_FIX = 1 << 5;
+    public static final int HAS_EPHEMERIS = 1 << 6;
+    public static final int HAS_ALMANAC = 1 << 7;
+    public static final int CARRIER_FREQUENCY = 1 << 8;
+    public static final int TIME_TO_FIRST_FIX = 1 << 9;
+
+    public static final String[] SATELLITE_FIELD_NAMES = {
+            "constellation", "svid", "cn0", "elevation", "azimuth", "usedInFix", "hasEphemeris",
+            "hasAlmanac", "carrierFrequencyHz", "timeToFirstFix"
+    };
+
+    // Decimals latitude and longitude deltas are quantized to when no precision is set, about 1 cm
+    public static final int DELTA_DECIMALS = 7;
+
+    public static final PayloadFormat FULL = new PayloadFormat(ALL, ALL, FULL_PRECISION, FULL_PRECISION, 0);
+
+    public final int locationFields;
+    public final int satelliteFields;
+    public final int coordinateDecimals;    // latitude and longitude
+    public final int floatDecimals;         // every other decimal value
+    public final int keyframeInterval;      // location payloads per keyframe, 0 for absolute payloads only
+
+    public PayloadFormat(int locationFields, int satelliteFields, int coordinateDecimals, int floatDecimals, int keyframeInterval){
+        this.locationFields = locationFields;
+        this.satelliteFields = satelliteFields;
+        this.coordinateDecimals = coordinateDecimals;
+        this.floatDecimals = floatDecimals;
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * @return The decimals latitude and longitude are quantized to in delta encoded payloads
+     */
+    public int deltaDecimals(){
+        return coordinateDecimals < 0 ? DELTA_DECIMALS : Math.min(coordinateDecimals, JsonWriter.MAX_DECIMALS);
+    }
+
+    /**
+     * @param name A location JSON key, such as "latitude"
+     * @return The field's bit, or 0 if there is no such field
+     */
+    public static int locationField(String name){
+        return field(LOCATION_FIELD_NAMES, name);
+    }
+
+    /**
+     * @param name A satellite JSON key, such as "cn0". The legacy satellite keys "PRN" and "SNR"
+     *             are the same fields as "svid" and "cn0".
+     * @return The field's bit, or 0 if there is no such field
+     */
+    public static int satelliteField(String name){
+        if("PRN".equals(name)){
+            return SVID;
+        }
+
+        if("SNR".equals(name)){
+            return CN0;
+        }
+
+        return field(SATELLITE_FIELD_NAMES, name);
+    }
+
+    public boolean hasLocation(int field){
+        return (locationFields & field) != 0;
+    }
+
+    public boolean hasSatellite(int field){
+        return (satelliteFields & field) != 0;
+    }
+
+    @Override
+    public boolean equals(Object other){
+        if(!(other instanceof PayloadFormat)){
+            return false;
+        }
+
+        final PayloadFormat format = (PayloadFormat) other;
+
+        return locationFields == format.locationFields
+                && satelliteFields == format.satelliteFields
+                && coordinateDecimals == format.coordinateDecimals
+                && floatDecimals == format.floatDecimals
+                && keyframeInterval == format.keyframeInterval;
+    }
+
+    @Override
+    public int hashCode(){
+        return (((locationFields * 31 + satelliteFields) * 31 + coordinateDecimals) * 31 + floatDecimals) * 31 + keyframeInterval;
+    }
+
+    private static int field(String[] names, String name){
+        for(int i = 0; i < names.length; i++){
+            if(names[i].equals(name)){
+                return 1 << i;
+            }
+        }
+
+        return 0;
+    }
+}
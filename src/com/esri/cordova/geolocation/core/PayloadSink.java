@@ -0,0 +1,29 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Destination for encoded payloads. On Android this wraps the Cordova CallbackContext,
+ * on a plain JVM it can simply collect the payloads.
+ */
+public interface PayloadSink {
+    /**
+     * @param payload The encoded payload
+     * @param fix The fix it was encoded from, only valid during the call
+     */
+    void send(String payload, Fix fix);
+}
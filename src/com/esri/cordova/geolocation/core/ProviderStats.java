@@ -0,0 +1,168 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runtime counters for a single provider. Written from the provider's listener thread and
+ * read on demand from any thread.
+ *
+ * received: events delivered to the plugin by the platform, NMEA is counted per epoch
+ * sent: results passed to the JavaScript callback
+ * dropped: events or results discarded, for example because the provider was stopping
+ * queue: depth and wait time of the encode stage's lanes, when encodeThread is enabled
+ */
+public final class ProviderStats {
+
+    private final String _provider;
+    private final AtomicLong _received = new AtomicLong();
+    private final AtomicLong _sent = new AtomicLong();
+    private final AtomicLong _dropped = new AtomicLong();
+    private final Histogram _encodeTime;
+    private final Histogram _fixAge;
+    private final Histogram _queueTime;
+    private final AtomicLong _queueDepth = new AtomicLong();
+    private final AtomicLong _maxQueueDepth = new AtomicLong();
+
+    public ProviderStats(String provider){
+        _provider = provider;
+        _encodeTime = new Histogram();
+        _fixAge = new Histogram();
+        _queueTime = new Histogram();
+    }
+
+    private ProviderStats(ProviderStats stats, boolean reset){
+        _provider = stats._provider;
+        _received.set(take(stats._received, reset));
+        _sent.set(take(stats._sent, reset));
+        _dropped.set(take(stats._dropped, reset));
+        _queueDepth.set(take(stats._queueDepth, reset));
+        _maxQueueDepth.set(take(stats._maxQueueDepth, reset));
+        _encodeTime = stats._encodeTime.snapshot(reset);
+        _fixAge = stats._fixAge.snapshot(reset);
+        _queueTime = stats._queueTime.snapshot(reset);
+    }
+
+    public String getProvider(){
+        return _provider;
+    }
+
+    public void onReceived(){
+        _received.incrementAndGet();
+    }
+
+    public void onSent(){
+        _sent.incrementAndGet();
+    }
+
+    public void onDropped(){
+        _dropped.incrementAndGet();
+    }
+
+    /**
+     * Counts a batch of results that were passed to the callback together.
+     */
+    public void onSent(int count){
+        _sent.addAndGet(count);
+    }
+
+    public void onDropped(int count){
+        _dropped.addAndGet(count);
+    }
+
+    /**
+     * Records the depth of an encode stage lane after an event was published to it.
+     */
+    public void onQueued(int depth){
+        _queueDepth.set(depth);
+
+        if(depth > _maxQueueDepth.get()){
+            _maxQueueDepth.set(depth);
+        }
+    }
+
+    public long getReceived(){
+        return _received.get();
+    }
+
+    public long getSent(){
+        return _sent.get();
+    }
+
+    public long getDropped(){
+        return _dropped.get();
+    }
+
+    /**
+     * @return Time spent encoding payloads, in nanoseconds
+     */
+    public Histogram getEncodeTime(){
+        return _encodeTime;
+    }
+
+    /**
+     * @return Age of each fix when it was handed to the callback, in nanoseconds
+     */
+    public Histogram getFixAge(){
+        return _fixAge;
+    }
+
+    /**
+     * @return Time events waited in the encode stage before being encoded, in nanoseconds
+     */
+    public Histogram getQueueTime(){
+        return _queueTime;
+    }
+
+    /**
+     * @return Lane depth after the latest event was published
+     */
+    public long getQueueDepth(){
+        return _queueDepth.get();
+    }
+
+    public long getMaxQueueDepth(){
+        return _maxQueueDepth.get();
+    }
+
+    /**
+     * Copies the counters, optionally zeroing them. With <code>reset</code> each counter is
+     * swapped with zero as it is read, so an event counted while the snapshot is taken is
+     * reported by this snapshot or the next one, never lost.
+     * @param reset Indicates if the counters are zeroed as they are copied
+     * @return Counters that are no longer updated
+     */
+    public ProviderStats snapshot(boolean reset){
+        return new ProviderStats(this, reset);
+    }
+
+    public void reset(){
+        _received.set(0);
+        _sent.set(0);
+        _dropped.set(0);
+        _encodeTime.reset();
+        _fixAge.reset();
+        _queueTime.reset();
+        _queueDepth.set(0);
+        _maxQueueDepth.set(0);
+    }
+
+    private static long take(AtomicLong counter, boolean reset){
+        return reset ? counter.getAndSet(0) : counter.get();
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Append-only output that rolls over once the file reaches a size limit. The full file is
+ * renamed with a ".1" suffix, replacing any earlier one, so disk use stays below twice the
+ * limit however long the session runs. Not threadsafe.
+ */
+public final class RollingFile extends OutputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final File _file;
+    private final long _maxBytes;
+    private OutputStream _out = null;
+    private long _size = 0;
+
+    public RollingFile(File file, long maxBytes) throws IOException {
+        _file = file;
+        _maxBytes = maxBytes;
+        open();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        roll(1);
+        _out.write(b);
+        _size++;
+    }
+
+    /**
+     * Writes the bytes to the current file. A write is never split across two files, so
+     * records don't straddle a roll over.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        roll(len);
+        _out.write(b, off, len);
+        _size += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        _out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        _out.close();
+    }
+
+    private void roll(int len) throws IOException {
+        if(_size > 0 && _size + len > _maxBytes){
+            _out.close();
+
+            final File previous = new File(_file.getPath() + ".1");
+            if((previous.exists() && !previous.delete()) || !_file.renameTo(previous)){
+                throw new IOException("Unable to roll over " + _file.getName());
+            }
+
+            open();
+        }
+    }
+
+    private void open() throws IOException {
+        _out = new BufferedOutputStream(new FileOutputStream(_file, true), BUFFER_SIZE);
+        _size = _file.length();
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Chooses location request parameters from the observed speed. Each level has its own minTime
+ * and minDistance, so the receiver samples sparsely while stationary and densely at speed.
+ *
+ * Changes are damped in three ways so registrations don't churn: a level boundary must be
+ * crossed by a margin, several consecutive fixes must agree on the new level, and a level is
+ * held for a minimum time before the next change. Fixes less accurate than MAX_ACCURACY are
+ * ignored. A policy is used from a single thread.
+ */
+public final class SamplingPolicy {
+
+    public static final int STATIONARY = 0;
+    public static final int WALKING = 1;
+    public static final int MOVING = 2;
+    public static final int FAST = 3;
+
+    public static final String[] LEVEL_NAMES = {"stationary", "walking", "moving", "fast"};
+
+    // Upper speed bound of each level, in meters/second
+    private static final float[] MAX_SPEED = {0.5f, 3f, 15f, Float.MAX_VALUE};
+    private static final long[] MIN_TIME = {30000, 5000, 2000, 1000};
+    private static final long[] MIN_DISTANCE = {10, 5, 10, 25};
+
+    public static final float HYSTERESIS = 0.2f;
+    public static final int REQUIRED_FIXES = 3;
+    public static final long MIN_DWELL_NANOS = 30000000000L;
+    public static final float MAX_ACCURACY = 50;
+
+    private static final double METERS_PER_DEGREE = 111319.49;
+
+    private int _level = -1;
+    private int _previousLevel = -1;
+    private int _candidate = -1;
+    private int _candidateFixes = 0;
+    private long _changedNanos = 0;
+    private float _speed = 0;
+
+    private boolean _hasPrevious = false;
+    private double _previousLatitude;
+    private double _previousLongitude;
+    private float _previousAccuracy;
+    private long _previousNanos;
+
+    /**
+     * Feeds a fix to the policy.
+     * @param fix A fix with a valid elapsedRealtimeNanos
+     * @return <code>true</code> if the level changed and the listener should be re-registered
+     */
+    public boolean update(Fix fix){
+        if(fix.accuracy <= 0 || fix.accuracy > MAX_ACCURACY){
+            return false;
+        }
+
+        _speed = speedOf(fix);
+
+        final int target = target(_speed);
+
+        if(target == _level){
+            _candidate = -1;
+            _candidateFixes = 0;
+            return false;
+        }
+
+        if(target == _candidate){
+            _candidateFixes++;
+        }
+        else {
+            _candidate = target;
+            _candidateFixes = 1;
+        }
+
+        final boolean dwelled = _level < 0 || fix.elapsedRealtimeNanos - _changedNanos >= MIN_DWELL_NANOS;
+
+        if(_candidateFixes >= REQUIRED_FIXES && dwelled){
+            _previousLevel = _level;
+            _level = target;
+            _changedNanos = fix.elapsedRealtimeNanos;
+            _candidate = -1;
+            _candidateFixes = 0;
+            return true;
+        }
+
+        return false;
+    }
+
+    public void reset(){
+        _level = -1;
+        _previousLevel = -1;
+        _candidate = -1;
+        _candidateFixes = 0;
+        _changedNanos = 0;
+        _speed = 0;
+        _hasPrevious = false;
+    }
+
+    /**
+     * @return The current level, or -1 until enough fixes have been seen
+     */
+    public int getLevel(){
+        return _level;
+    }
+
+    public int getPreviousLevel(){
+        return _previousLevel;
+    }
+
+    public long getMinTime(){
+        return MIN_TIME[_level];
+    }
+
+    public long getMinDistance(){
+        return MIN_DISTANCE[_level];
+    }
+
+    /**
+     * @return The speed, in meters/second, used for the latest decision
+     */
+    public float getSpeed(){
+        return _speed;
+    }
+
+    /**
+     * Level for a speed, only leaving the current level once a boundary is crossed by the margin.
+     */
+    private int target(float speed){
+        int raw = 0;
+        while(speed >= MAX_SPEED[raw]){
+            raw++;
+        }
+
+        if(_level < 0 || raw == _level){
+            return raw;
+        }
+
+        if(raw > _level){
+            return speed >= MAX_SPEED[_level] * (1 + HYSTERESIS) ? raw : _level;
+        }
+
+        return speed < MAX_SPEED[_level - 1] * (1 - HYSTERESIS) ? raw : _level;
+    }
+
+    /**
+     * Uses the reported speed, or if there is none, the distance from the previous fix when it's
+     * larger than both fixes' accuracy combined, so position noise doesn't look like movement.
+     */
+    private float speedOf(Fix fix){
+        float speed = fix.speed;
+
+        if(speed <= 0 && _hasPrevious && fix.elapsedRealtimeNanos > _previousNanos){
+            final double dy = (fix.latitude - _previousLatitude) * METERS_PER_DEGREE;
+            final double dx = (fix.longitude - _previousLongitude) * METERS_PER_DEGREE
+                    * Math.cos(Math.toRadians(fix.latitude));
+            final double distance = Math.sqrt(dx * dx + dy * dy);
+
+            if(distance > fix.accuracy + _previousAccuracy){
+                speed = (float) (distance / ((fix.elapsedRealtimeNanos - _previousNanos) / 1e9));
+            }
+        }
+
+        _hasPrevious = true;
+        _previousLatitude = fix.latitude;
+        _previousLongitude = fix.longitude;
+        _previousAccuracy = fix.accuracy;
+        _previousNanos = fix.elapsedRealtimeNanos;
+
+        return speed;
+    }
+}
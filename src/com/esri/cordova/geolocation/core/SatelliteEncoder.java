@@ -0,0 +1,172 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Encodes a SatelliteTable into the "gnss" payload: overall and per-constellation summaries
+ * plus, optionally, the satellites themselves as parallel arrays rather than one object each.
+ * A PayloadFormat selects the arrays and the precision of their decimals.
+ * An encoder is not threadsafe, use one per thread.
+ */
+public final class SatelliteEncoder {
+
+    private final String _provider;
+    private final PayloadFormat _format;
+    private final JsonWriter _json = new JsonWriter(4096);
+
+    /**
+     * @param provider Value of the provider property of each payload
+     */
+    public SatelliteEncoder(String provider){
+        this(provider, PayloadFormat.FULL);
+    }
+
+    /**
+     * @param provider Value of the provider property of each payload
+     * @param format The satellite fields to write and their precision
+     */
+    public SatelliteEncoder(String provider, PayloadFormat format){
+        _provider = provider;
+        _format = format;
+    }
+
+    public PayloadFormat getFormat(){
+        return _format;
+    }
+
+    /**
+     * @param table The satellites of one status update
+     * @param timestamp Time of the update, in milliseconds
+     * @param receivedNanos ElapsedClock time the update was received, status updates carry no
+     *                      sensor time so it is also used as the sensor time
+     * @param timeToFirstFix Milliseconds to the first fix since the receiver started, or -1 if unknown
+     * @param includeSatellites <code>true</code> to append the per-satellite table
+     * @return JSON
+     */
+    public String encode(SatelliteTable table, long timestamp, long receivedNanos, int timeToFirstFix, boolean includeSatellites){
+        _json.reset().beginObject()
+                .put("provider", _provider)
+                .put("timestamp", timestamp)
+                .put("sensorNanos", receivedNanos)
+                .put("receivedNanos", receivedNanos);
+
+        if(timeToFirstFix >= 0 && _format.hasSatellite(PayloadFormat.TIME_TO_FIRST_FIX)){
+            _json.put("timeToFirstFix", timeToFirstFix);
+        }
+
+        putSummary(table, -1);
+
+        _json.key("constellations").beginArray();
+        for(int c = 0; c < SatelliteTable.CONSTELLATIONS; c++){
+            if(table.getInView(c) > 0){
+                _json.beginObject().put("constellation", SatelliteTable.CONSTELLATION_NAMES[c]);
+                putSummary(table, c);
+                _json.endObject();
+            }
+        }
+        _json.endArray();
+
+        if(includeSatellites){
+            final int size = table.size();
+
+            _json.key("satellites").beginObject();
+
+            if(_format.hasSatellite(PayloadFormat.CONSTELLATION)){
+                _json.key("constellation").beginArray();
+                for(int i = 0; i < size; i++){
+                    _json.value(table.getConstellation(i));
+                }
+                _json.endArray();
+            }
+
+            if(_format.hasSatellite(PayloadFormat.SVID)){
+                _json.key("svid").beginArray();
+                for(int i = 0; i < size; i++){
+                    _json.value(table.getSvid(i));
+                }
+                _json.endArray();
+            }
+
+            if(_format.hasSatellite(PayloadFormat.CN0)){
+                _json.key("cn0").beginArray();
+                for(int i = 0; i < size; i++){
+                    _json.value(table.getCn0(i), _format.floatDecimals);
+                }
+                _json.endArray();
+            }
+
+            if(_format.hasSatellite(PayloadFormat.ELEVATION)){
+                _json.key("elevation").beginArray();
+                for(int i = 0; i < size; i++){
+                    _json.value(table.getElevation(i), _format.floatDecimals);
+                }
+                _json.endArray();
+            }
+
+            if(_format.hasSatellite(PayloadFormat.AZIMUTH)){
+                _json.key("azimuth").beginArray();
+                for(int i = 0; i < size; i++){
+                    _json.value(table.getAzimuth(i), _format.floatDecimals);
+                }
+                _json.endArray();
+            }
+
+            if(_format.hasSatellite(PayloadFormat.USED_IN_FIX)){
+                _json.key("usedInFix").beginArray();
+                for(int i = 0; i < size; i++){
+                    _json.value(table.isUsedInFix(i) ? 1 : 0);
+                }
+                _json.endArray();
+            }
+
+            if(_format.hasSatellite(PayloadFormat.HAS_EPHEMERIS)){
+                _json.key("hasEphemeris").beginArray();
+                for(int i = 0; i < size; i++){
+                    _json.value(table.hasEphemeris(i) ? 1 : 0);
+                }
+                _json.endArray();
+            }
+
+            if(_format.hasSatellite(PayloadFormat.HAS_ALMANAC)){
+                _json.key("hasAlmanac").beginArray();
+                for(int i = 0; i < size; i++){
+                    _json.value(table.hasAlmanac(i) ? 1 : 0);
+                }
+                _json.endArray();
+            }
+
+            if(_format.hasSatellite(PayloadFormat.CARRIER_FREQUENCY)){
+                _json.key("carrierFrequencyHz").beginArray();
+                for(int i = 0; i < size; i++){
+                    _json.value(table.getCarrierFrequency(i));
+                }
+                _json.endArray();
+            }
+
+            _json.endObject();
+        }
+
+        return _json.put("dispatchNanos", ElapsedClock.nanos()).endObject().toString();
+    }
+
+    private void putSummary(SatelliteTable table, int constellation){
+        _json.put("inView", table.getInView(constellation))
+                .put("usedInFix", table.getUsedInFix(constellation))
+                .put("meanCn0", table.getMeanCn0(constellation), _format.floatDecimals)
+                .put("maxCn0", table.getMaxCn0(constellation), _format.floatDecimals);
+    }
+}
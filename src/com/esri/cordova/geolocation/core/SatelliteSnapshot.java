@@ -0,0 +1,29 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * One satellite status update captured on the listener thread, with everything
+ * SatelliteEncoder needs to encode it later on another thread.
+ */
+public final class SatelliteSnapshot {
+    public final SatelliteTable table = new SatelliteTable();
+    public long timestamp;              // UTC milliseconds the update was received
+    public long receivedNanos;          // ElapsedClock time the update was received
+    public int timeToFirstFix;          // milliseconds, -1 if unknown
+    public boolean includeSatellites;   // whether the per-satellite table is encoded
+}
@@ -0,0 +1,229 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Reusable, column oriented table of the satellites in one status update. Per-constellation
+ * aggregates are maintained as rows are added, so a summary needs no second pass. The columns
+ * only grow when a receiver reports more satellites than ever before, steady state updates
+ * don't allocate.
+ *
+ * Constellation codes follow android.location.GnssStatus: 0 unknown, 1 GPS, 2 SBAS, 3 GLONASS,
+ * 4 QZSS, 5 BeiDou, 6 Galileo, 7 IRNSS.
+ */
+public final class SatelliteTable {
+
+    public static final int CONSTELLATIONS = 8;
+    public static final String[] CONSTELLATION_NAMES =
+            {"unknown", "gps", "sbas", "glonass", "qzss", "beidou", "galileo", "irnss"};
+
+    private int _count = 0;
+    private int[] _constellation = new int[0];
+    private int[] _svid = new int[0];
+    private float[] _cn0 = new float[0];
+    private float[] _elevation = new float[0];
+    private float[] _azimuth = new float[0];
+    private float[] _carrierFrequency = new float[0];
+    private boolean[] _used = new boolean[0];
+    private boolean[] _ephemeris = new boolean[0];
+    private boolean[] _almanac = new boolean[0];
+
+    private final int[] _inView = new int[CONSTELLATIONS];
+    private final int[] _usedInFix = new int[CONSTELLATIONS];
+    private final double[] _cn0Sum = new double[CONSTELLATIONS];
+    private final float[] _cn0Max = new float[CONSTELLATIONS];
+
+    /**
+     * Maps a legacy GpsStatus PRN to a constellation code. GpsStatus offsets each constellation's
+     * satellite ids into its own PRN range: GPS 1-32, SBAS 33-64, GLONASS 65-96, QZSS 193-200,
+     * BeiDou 201-235 and Galileo 301-336.
+     * @param prn The PRN reported by GpsSatellite
+     * @return int constellation code, 0 if the range isn't known
+     */
+    public static int constellationFromPrn(int prn){
+        if(prn >= 1 && prn <= 32){
+            return 1;
+        }
+        if(prn >= 33 && prn <= 64){
+            return 2;
+        }
+        if(prn >= 65 && prn <= 96){
+            return 3;
+        }
+        if(prn >= 193 && prn <= 200){
+            return 4;
+        }
+        if(prn >= 201 && prn <= 235){
+            return 5;
+        }
+        if(prn >= 301 && prn <= 336){
+            return 6;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Empties the table and makes room for at least <code>capacity</code> satellites.
+     */
+    public void reset(int capacity){
+        if(capacity > _svid.length){
+            _constellation = new int[capacity];
+            _svid = new int[capacity];
+            _cn0 = new float[capacity];
+            _elevation = new float[capacity];
+            _azimuth = new float[capacity];
+            _carrierFrequency = new float[capacity];
+            _used = new boolean[capacity];
+            _ephemeris = new boolean[capacity];
+            _almanac = new boolean[capacity];
+        }
+
+        _count = 0;
+
+        for(int i = 0; i < CONSTELLATIONS; i++){
+            _inView[i] = 0;
+            _usedInFix[i] = 0;
+            _cn0Sum[i] = 0;
+            _cn0Max[i] = 0;
+        }
+    }
+
+    /**
+     * Adds a satellite. Call {@link #reset(int)} with the number of satellites first.
+     * @param carrierFrequencyHz The carrier frequency, or 0 if unknown
+     */
+    public void add(int constellation, int svid, float cn0, float elevation, float azimuth,
+                    boolean used, boolean ephemeris, boolean almanac, float carrierFrequencyHz){
+        final int i = _count++;
+        final int c = constellation > 0 && constellation < CONSTELLATIONS ? constellation : 0;
+
+        _constellation[i] = c;
+        _svid[i] = svid;
+        _cn0[i] = cn0;
+        _elevation[i] = elevation;
+        _azimuth[i] = azimuth;
+        _used[i] = used;
+        _ephemeris[i] = ephemeris;
+        _almanac[i] = almanac;
+        _carrierFrequency[i] = carrierFrequencyHz;
+
+        _inView[c]++;
+        _usedInFix[c] += used ? 1 : 0;
+        _cn0Sum[c] += cn0;
+        _cn0Max[c] = Math.max(_cn0Max[c], cn0);
+    }
+
+    public int size(){
+        return _count;
+    }
+
+    public int getConstellation(int i){
+        return _constellation[i];
+    }
+
+    public int getSvid(int i){
+        return _svid[i];
+    }
+
+    public float getCn0(int i){
+        return _cn0[i];
+    }
+
+    public float getElevation(int i){
+        return _elevation[i];
+    }
+
+    public float getAzimuth(int i){
+        return _azimuth[i];
+    }
+
+    public float getCarrierFrequency(int i){
+        return _carrierFrequency[i];
+    }
+
+    public boolean isUsedInFix(int i){
+        return _used[i];
+    }
+
+    public boolean hasEphemeris(int i){
+        return _ephemeris[i];
+    }
+
+    public boolean hasAlmanac(int i){
+        return _almanac[i];
+    }
+
+    //
+    //
+    // AGGREGATES, pass a constellation code or -1 for all constellations
+    //
+    //
+
+    public int getInView(int constellation){
+        if(constellation >= 0){
+            return _inView[constellation];
+        }
+
+        return _count;
+    }
+
+    public int getUsedInFix(int constellation){
+        if(constellation >= 0){
+            return _usedInFix[constellation];
+        }
+
+        int used = 0;
+        for(int value : _usedInFix){
+            used += value;
+        }
+
+        return used;
+    }
+
+    public double getMeanCn0(int constellation){
+        final int inView = getInView(constellation);
+
+        if(inView == 0){
+            return 0;
+        }
+
+        if(constellation >= 0){
+            return _cn0Sum[constellation] / inView;
+        }
+
+        double sum = 0;
+        for(double value : _cn0Sum){
+            sum += value;
+        }
+
+        return sum / inView;
+    }
+
+    public float getMaxCn0(int constellation){
+        if(constellation >= 0){
+            return _cn0Max[constellation];
+        }
+
+        float max = 0;
+        for(float value : _cn0Max){
+            max = Math.max(max, value);
+        }
+
+        return max;
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+/**
+ * Decides which signal strength events are worth sending. An event is emitted when the signal
+ * level changes, or when its dBm moved by at least the threshold since the last emitted event,
+ * but never sooner than the minimum interval after it. The first event is always emitted.
+ * A change that arrives too soon is held as pending, and takePending() emits the latest one
+ * once the interval has expired, so the final state of a burst isn't lost.
+ *
+ * Suppressed events are folded into a running min, max and mean that is read, and reset, by
+ * the periodic summary. Values of UNKNOWN are ignored. A coalescer is used from a single thread.
+ */
+public final class SignalCoalescer {
+
+    // Value used when the modem doesn't report a dBm or level
+    public static final int UNKNOWN = Integer.MAX_VALUE;
+
+    // Weakest plausible signal, NR and LTE reference signal power bottoms out at -140 dBm
+    public static final int MIN_DBM = -140;
+
+    private final int _thresholdDbm;
+    private final long _minIntervalNanos;
+
+    private boolean _emitted = false;
+    private int _lastDbm = UNKNOWN;
+    private int _lastLevel = UNKNOWN;
+    private long _lastNanos = 0;
+
+    private boolean _pending = false;
+    private int _pendingDbm = UNKNOWN;
+    private int _pendingLevel = UNKNOWN;
+
+    private int _suppressed = 0;
+    private int _min = UNKNOWN;
+    private int _max = UNKNOWN;
+    private long _sum = 0;
+    private int _samples = 0;
+    private long _summaryStartNanos = 0;
+
+    /**
+     * @param thresholdDbm Smallest dBm change that is emitted, 0 emits every change
+     * @param minIntervalMillis Shortest time between emitted events, 0 for no limit
+     */
+    public SignalCoalescer(int thresholdDbm, long minIntervalMillis){
+        _thresholdDbm = thresholdDbm;
+        _minIntervalNanos = minIntervalMillis * 1000000;
+    }
+
+    /**
+     * Converts a GSM signal strength in ASU to dBm.
+     * Reference: 3GPP TS 27.007, 0 is -113 dBm or less, 31 is -51 dBm or more, 99 is unknown
+     * @return dBm, or UNKNOWN
+     */
+    public static int dbmFromAsu(int asu){
+        return asu >= 0 && asu <= 31 ? -113 + 2 * asu : UNKNOWN;
+    }
+
+    /**
+     * Keeps a dBm reported by the modem only if it is plausible. Unknown values are reported as
+     * Integer.MAX_VALUE by CellSignalStrength and as 0 or positive values by older modems.
+     * @return dBm, or UNKNOWN
+     */
+    public static int validDbm(int dbm){
+        return dbm < 0 && dbm >= MIN_DBM ? dbm : UNKNOWN;
+    }
+
+    /**
+     * Picks the stronger of two signals, for a modem that reports several radio technologies
+     * at once, for example LTE and NR.
+     * @return The stronger valid dBm, or UNKNOWN if neither is valid
+     */
+    public static int strongerDbm(int dbm, int other){
+        final int a = validDbm(dbm);
+        final int b = validDbm(other);
+
+        if(a == UNKNOWN){
+            return b;
+        }
+
+        return b == UNKNOWN || a >= b ? a : b;
+    }
+
+    /**
+     * Feeds an event to the coalescer.
+     * @param dbm Signal strength in dBm, or UNKNOWN
+     * @param level Signal level 0 - 4, or UNKNOWN
+     * @param nowNanos Monotonic time of the event
+     * @return <code>true</code> if the event should be emitted
+     */
+    public boolean offer(int dbm, int level, long nowNanos){
+        if(_summaryStartNanos == 0){
+            _summaryStartNanos = nowNanos;
+        }
+
+        if(!_emitted || (nowNanos - _lastNanos >= _minIntervalNanos && changed(dbm, level))){
+            _emitted = true;
+            _lastDbm = dbm;
+            _lastLevel = level;
+            _lastNanos = nowNanos;
+            _pending = false;
+            return true;
+        }
+
+        // Only the latest event counts, a signal that went back to the emitted one is no longer pending
+        _pending = changed(dbm, level);
+        _pendingDbm = dbm;
+        _pendingLevel = level;
+
+        _suppressed++;
+
+        if(dbm != UNKNOWN){
+            _min = _min == UNKNOWN || dbm < _min ? dbm : _min;
+            _max = _max == UNKNOWN || dbm > _max ? dbm : _max;
+            _sum += dbm;
+            _samples++;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return <code>true</code> if a change was held back by the minimum interval
+     */
+    public boolean hasPending(){
+        return _pending;
+    }
+
+    /**
+     * @return Milliseconds until the pending change can be emitted, 0 if it can be emitted now
+     */
+    public long getPendingDelayMillis(long nowNanos){
+        return Math.max(0, (_lastNanos + _minIntervalNanos - nowNanos + 999999) / 1000000);
+    }
+
+    /**
+     * Emits the pending change if the minimum interval has expired. The held event stays
+     * counted in the summary.
+     * @param nowNanos Monotonic time of the emission
+     * @return <code>true</code> if the pending change should be emitted now
+     */
+    public boolean takePending(long nowNanos){
+        if(!_pending || nowNanos - _lastNanos < _minIntervalNanos){
+            return false;
+        }
+
+        _pending = false;
+        _lastDbm = _pendingDbm;
+        _lastLevel = _pendingLevel;
+        _lastNanos = nowNanos;
+        return true;
+    }
+
+    /**
+     * @return Events suppressed since the last summary
+     */
+    public int getSuppressed(){
+        return _suppressed;
+    }
+
+    public int getMinDbm(){
+        return _min;
+    }
+
+    public int getMaxDbm(){
+        return _max;
+    }
+
+    /**
+     * @return Mean dBm of the suppressed events since the last summary, or 0 if none had a dBm
+     */
+    public double getMeanDbm(){
+        return _samples == 0 ? 0 : (double) _sum / _samples;
+    }
+
+    /**
+     * @return Milliseconds covered by the current summary
+     */
+    public long getSummaryMillis(long nowNanos){
+        return _summaryStartNanos == 0 ? 0 : (nowNanos - _summaryStartNanos) / 1000000;
+    }
+
+    /**
+     * Starts a new summary period, call after the summary has been read.
+     */
+    public void resetSummary(long nowNanos){
+        _suppressed = 0;
+        _min = UNKNOWN;
+        _max = UNKNOWN;
+        _sum = 0;
+        _samples = 0;
+        _summaryStartNanos = nowNanos;
+    }
+
+    private boolean changed(int dbm, int level){
+        if(level != _lastLevel){
+            return true;
+        }
+
+        if(dbm == UNKNOWN || _lastDbm == UNKNOWN){
+            return dbm != _lastDbm;
+        }
+
+        return Math.abs(dbm - _lastDbm) >= _thresholdDbm;
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer/single-consumer queue over preallocated slots. The producer claims
+ * the next free slot, copies its data into it and publishes it; the consumer peeks at the
+ * oldest published slot and releases it when done. Slots are reused, so nothing is allocated
+ * per element, and the only synchronization is one volatile write per side.
+ *
+ * Exactly one thread may call claim and publish, and exactly one other thread peek and release.
+ */
+public final class SpscQueue<T> {
+
+    private final T[] _slots;
+    private final long[] _publishedNanos;
+    private final int _mask;
+
+    // Next slot to release, written by the consumer only
+    private final AtomicLong _head = new AtomicLong();
+    // Next slot to publish, written by the producer only
+    private final AtomicLong _tail = new AtomicLong();
+
+    /**
+     * @param slots The reusable elements, the length must be a power of two
+     */
+    public SpscQueue(T[] slots){
+        if(Integer.bitCount(slots.length) != 1){
+            throw new IllegalArgumentException("Slot count must be a power of two");
+        }
+
+        _slots = slots;
+        _publishedNanos = new long[slots.length];
+        _mask = slots.length - 1;
+    }
+
+    /**
+     * @return The slot to fill, or <code>null</code> if the queue is full
+     */
+    public T claim(){
+        final long tail = _tail.get();
+
+        if(tail - _head.get() >= _slots.length){
+            return null;
+        }
+
+        return _slots[(int) (tail & _mask)];
+    }
+
+    /**
+     * Hands the claimed slot to the consumer.
+     * @return The number of published slots waiting, including this one
+     */
+    public int publish(){
+        final long tail = _tail.get();
+
+        _publishedNanos[(int) (tail & _mask)] = System.nanoTime();
+        _tail.set(tail + 1);
+
+        return (int) (tail + 1 - _head.get());
+    }
+
+    /**
+     * @return The oldest published slot, or <code>null</code> if the queue is empty
+     */
+    public T peek(){
+        final long head = _head.get();
+
+        if(head >= _tail.get()){
+            return null;
+        }
+
+        return _slots[(int) (head & _mask)];
+    }
+
+    /**
+     * @return System.nanoTime when the slot returned by peek was published
+     */
+    public long getPublishedNanos(){
+        return _publishedNanos[(int) (_head.get() & _mask)];
+    }
+
+    /**
+     * Returns the slot returned by peek to the producer.
+     */
+    public void release(){
+        _head.set(_head.get() + 1);
+    }
+
+    public int size(){
+        return (int) (_tail.get() - _head.get());
+    }
+
+    public int capacity(){
+        return _slots.length;
+    }
+}
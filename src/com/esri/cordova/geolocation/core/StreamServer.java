@@ -0,0 +1,581 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loopback-only WebSocket server that streams payloads to local clients, such as the WebView,
+ * outside the Cordova bridge. Each payload is sent as one unfragmented frame that holds the
+ * same JSON the callbacks receive, in a text frame, or the same bytes in a binary frame.
+ *
+ * Clients connect to ws://127.0.0.1:port/token, the random token keeps other apps on the device
+ * from reading the stream. An optional "channels" query parameter, for example
+ * ?channels=gps,satellite, limits a connection to some of the channels, by default it receives
+ * all of them.
+ *
+ * Each connection has its own bounded queue and writer thread. A client that reads too slowly
+ * only fills its own queue, then loses its oldest frames, so it never blocks the providers or
+ * the other clients. Publishing never blocks. Ping and close frames from the client are
+ * answered, anything else it sends is ignored.
+ *
+ * A client has a few seconds to complete its handshake. The number of handshakes in progress
+ * and of connections are capped, clients beyond that are disconnected right away.
+ *
+ * The server is threadsafe, publish is called from every provider's thread.
+ */
+public final class StreamServer {
+
+    public static final int DEFAULT_QUEUE_SIZE = 256;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final char[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final int MAX_REQUEST_BYTES = 8192;
+    private static final int MAX_CLIENT_FRAME = 65536;
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+    private static final int MAX_PENDING = 4;
+    private static final int MAX_CONNECTIONS = 8;
+
+    private static final int OP_TEXT = 0x1;
+    private static final int OP_BINARY = 0x2;
+    private static final int OP_CLOSE = 0x8;
+    private static final int OP_PING = 0x9;
+    private static final int OP_PONG = 0xA;
+
+    private final int _port;
+    private final String _token;
+    private final String[] _channels;
+    private final int _queueSize;
+    private final ProviderStats _stats;
+    private final CopyOnWriteArrayList<Connection> _connections = new CopyOnWriteArrayList<Connection>();
+    // Connections that are still handshaking
+    private final AtomicInteger _pending = new AtomicInteger();
+
+    private volatile ServerSocket _serverSocket = null;
+
+    /**
+     * @param port The loopback port to listen on, 0 for any free port
+     * @param channels The channel names clients may select, indexed like the channels passed to publish
+     * @param queueSize Frames each connection can fall behind by before its oldest ones are dropped
+     * @param stats Counts published payloads, frames sent and frames dropped for slow clients
+     */
+    public StreamServer(int port, String[] channels, int queueSize, ProviderStats stats){
+        _port = port;
+        _channels = channels;
+        _queueSize = queueSize;
+        _stats = stats;
+        _token = randomToken();
+    }
+
+    /**
+     * Binds the port and starts accepting clients.
+     * @throws IOException if the port can't be bound
+     */
+    public synchronized void start() throws IOException {
+        if(_serverSocket != null){
+            return;
+        }
+
+        final ServerSocket serverSocket = new ServerSocket(_port, 8, InetAddress.getByName("127.0.0.1"));
+        _serverSocket = serverSocket;
+
+        final Thread acceptThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept(serverSocket);
+            }
+        }, "StreamServer");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    /**
+     * Closes the port and every connection.
+     */
+    public synchronized void stop(){
+        final ServerSocket serverSocket = _serverSocket;
+        _serverSocket = null;
+
+        if(serverSocket != null){
+            try {
+                serverSocket.close();
+            }
+            catch(IOException exc){
+                // Already closed
+            }
+        }
+
+        for(Connection connection : _connections){
+            connection.close();
+        }
+    }
+
+    public boolean isRunning(){
+        return _serverSocket != null;
+    }
+
+    /**
+     * @return The bound port, or -1 if the server isn't running
+     */
+    public int getPort(){
+        final ServerSocket serverSocket = _serverSocket;
+        return serverSocket != null ? serverSocket.getLocalPort() : -1;
+    }
+
+    /**
+     * @return The path clients connect to, including the token
+     */
+    public String getPath(){
+        return "/" + _token;
+    }
+
+    public int getConnectionCount(){
+        return _connections.size();
+    }
+
+    /**
+     * Queues a payload for every connection that selected its channel. Called on any thread,
+     * never blocks.
+     * @param channel Index into the channel names
+     * @param payload The JSON payload
+     */
+    public void publish(int channel, String payload){
+        // Nobody is listening, skip encoding the frame
+        if(!_connections.isEmpty()){
+            publishFrame(channel, frame(OP_TEXT, payload.getBytes(UTF_8)));
+        }
+    }
+
+    /**
+     * Queues binary data for every connection that selected its channel. Called on any thread,
+     * never blocks.
+     * @param channel Index into the channel names
+     * @param data The bytes, not modified
+     */
+    public void publish(int channel, byte[] data){
+        if(!_connections.isEmpty()){
+            publishFrame(channel, frame(OP_BINARY, data));
+        }
+    }
+
+    private void publishFrame(int channel, byte[] frame){
+        _stats.onReceived();
+
+        final int bit = 1 << channel;
+
+        for(Connection connection : _connections){
+            if((connection.channels & bit) != 0){
+                connection.offer(frame);
+            }
+        }
+    }
+
+    private void accept(ServerSocket serverSocket){
+        while(!serverSocket.isClosed()){
+            final Socket socket;
+
+            try {
+                socket = serverSocket.accept();
+            }
+            catch(IOException exc){
+                // Closed by stop()
+                return;
+            }
+
+            // Refused before a thread is spent on it
+            final int pending = _pending.get();
+
+            if(pending >= MAX_PENDING || pending + _connections.size() >= MAX_CONNECTIONS){
+                closeQuietly(socket);
+                continue;
+            }
+
+            _pending.incrementAndGet();
+
+            final Connection connection = new Connection(socket);
+            final Thread reader = new Thread(connection, "StreamServer reader");
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    /**
+     * @return A complete, unmasked server frame
+     */
+    private static byte[] frame(int opcode, byte[] payload){
+        final int header = payload.length < 126 ? 2 : payload.length < 65536 ? 4 : 10;
+        final byte[] frame = new byte[header + payload.length];
+
+        frame[0] = (byte) (0x80 | opcode);
+
+        if(header == 2){
+            frame[1] = (byte) payload.length;
+        }
+        else if(header == 4){
+            frame[1] = 126;
+            frame[2] = (byte) (payload.length >>> 8);
+            frame[3] = (byte) payload.length;
+        }
+        else {
+            frame[1] = 127;
+            for(int i = 0; i < 8; i++){
+                frame[2 + i] = (byte) ((long) payload.length >>> (56 - 8 * i));
+            }
+        }
+
+        System.arraycopy(payload, 0, frame, header, payload.length);
+
+        return frame;
+    }
+
+    /**
+     * @return The Sec-WebSocket-Accept value for a client's key
+     */
+    private static String acceptKey(String key){
+        final byte[] digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-1").digest((key + ACCEPT_GUID).getBytes(UTF_8));
+        }
+        catch(NoSuchAlgorithmException exc){
+            throw new IllegalStateException(exc);
+        }
+
+        final StringBuilder base64 = new StringBuilder(28);
+
+        for(int i = 0; i < digest.length; i += 3){
+            final int remaining = digest.length - i;
+            final int bits = (digest[i] & 0xFF) << 16
+                    | (remaining > 1 ? (digest[i + 1] & 0xFF) << 8 : 0)
+                    | (remaining > 2 ? digest[i + 2] & 0xFF : 0);
+
+            base64.append(BASE64[bits >>> 18 & 0x3F]);
+            base64.append(BASE64[bits >>> 12 & 0x3F]);
+            base64.append(remaining > 1 ? BASE64[bits >>> 6 & 0x3F] : '=');
+            base64.append(remaining > 2 ? BASE64[bits & 0x3F] : '=');
+        }
+
+        return base64.toString();
+    }
+
+    private static String randomToken(){
+        final byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+
+        final StringBuilder token = new StringBuilder(32);
+
+        for(byte b : bytes){
+            token.append(Character.forDigit(b >>> 4 & 0xF, 16));
+            token.append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return token.toString();
+    }
+
+    private static void closeQuietly(Socket socket){
+        try {
+            socket.close();
+        }
+        catch(IOException exc){
+            // Nothing left to clean up
+        }
+    }
+
+    private final class Connection implements Runnable {
+        private final Socket _socket;
+        private final ArrayBlockingQueue<byte[]> _queue = new ArrayBlockingQueue<byte[]>(_queueSize);
+        private OutputStream _out = null;
+        private Thread _writer = null;
+        private volatile boolean _open = true;
+        private boolean _handshaking = true;
+
+        volatile int channels = 0;
+
+        Connection(Socket socket){
+            _socket = socket;
+        }
+
+        /**
+         * Handshakes, then answers the client's control frames until it goes away.
+         */
+        @Override
+        public void run(){
+            try {
+                _socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+
+                final InputStream in = _socket.getInputStream();
+                _out = new BufferedOutputStream(_socket.getOutputStream(), 8192);
+
+                if(!handshake(in)){
+                    return;
+                }
+
+                // Waits for the client's control frames as long as it stays connected
+                _socket.setSoTimeout(0);
+
+                _writer = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        write();
+                    }
+                }, "StreamServer writer");
+                _writer.setDaemon(true);
+                _writer.start();
+                _connections.add(this);
+                _pending.decrementAndGet();
+                _handshaking = false;
+
+                // stop() may have run before the connection was added
+                if(_serverSocket == null){
+                    return;
+                }
+
+                read(new DataInputStream(in));
+            }
+            catch(IOException exc){
+                // The client went away or the handshake timed out
+            }
+            finally {
+                if(_handshaking){
+                    _pending.decrementAndGet();
+                }
+
+                close();
+            }
+        }
+
+        void offer(byte[] frame){
+            // Keeps the newest frames, the client is behind already
+            while(!_queue.offer(frame)){
+                if(_queue.poll() != null){
+                    _stats.onDropped();
+                }
+            }
+
+            _stats.onQueued(_queue.size());
+        }
+
+        void close(){
+            if(!_open){
+                return;
+            }
+
+            _open = false;
+            _connections.remove(this);
+            closeQuietly(_socket);
+
+            if(_writer != null){
+                _writer.interrupt();
+            }
+        }
+
+        private void write(){
+            try {
+                while(_open){
+                    final byte[] frame = _queue.take();
+
+                    synchronized (this){
+                        _out.write(frame);
+
+                        // Frames that queued up meanwhile go out in the same write
+                        if(_queue.isEmpty()){
+                            _out.flush();
+                        }
+                    }
+
+                    _stats.onSent();
+                }
+            }
+            catch(InterruptedException exc){
+                // Closed
+            }
+            catch(IOException exc){
+                close();
+            }
+        }
+
+        private void send(int opcode, byte[] payload) throws IOException {
+            synchronized (this){
+                _out.write(frame(opcode, payload));
+                _out.flush();
+            }
+        }
+
+        private boolean handshake(InputStream in) throws IOException {
+            final String request = readRequest(in);
+            final String[] lines = request != null ? request.split("\r\n") : new String[0];
+            final String[] requestLine = lines.length > 0 ? lines[0].split(" ") : new String[0];
+
+            if(requestLine.length < 3 || !requestLine[0].equals("GET")){
+                reject("400 Bad Request");
+                return false;
+            }
+
+            final String target = requestLine[1];
+            final int query = target.indexOf('?');
+            final String path = query < 0 ? target : target.substring(0, query);
+
+            // Compares in constant time, so the response time doesn't reveal how much of the token matched
+            if(!MessageDigest.isEqual(path.getBytes(UTF_8), getPath().getBytes(UTF_8))){
+                reject("403 Forbidden");
+                return false;
+            }
+
+            String key = null;
+
+            for(int i = 1; i < lines.length; i++){
+                final int colon = lines[i].indexOf(':');
+
+                if(colon > 0 && lines[i].substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Key")){
+                    key = lines[i].substring(colon + 1).trim();
+                }
+            }
+
+            if(key == null){
+                reject("400 Bad Request");
+                return false;
+            }
+
+            channels = query < 0 ? -1 : channelMask(target.substring(query + 1));
+
+            _out.write(("HTTP/1.1 101 Switching Protocols\r\n"
+                    + "Upgrade: websocket\r\n"
+                    + "Connection: Upgrade\r\n"
+                    + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n").getBytes(UTF_8));
+            _out.flush();
+
+            return true;
+        }
+
+        private void reject(String status) throws IOException {
+            _out.write(("HTTP/1.1 " + status + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n").getBytes(UTF_8));
+            _out.flush();
+        }
+
+        /**
+         * @return The request line and headers, or <code>null</code> if they are too long or incomplete
+         */
+        private String readRequest(InputStream in) throws IOException {
+            final byte[] request = new byte[MAX_REQUEST_BYTES];
+            int length = 0;
+
+            while(length < request.length){
+                final int b = in.read();
+
+                if(b < 0){
+                    return null;
+                }
+
+                request[length++] = (byte) b;
+
+                if(length >= 4 && request[length - 4] == '\r' && request[length - 3] == '\n'
+                        && request[length - 2] == '\r' && request[length - 1] == '\n'){
+                    return new String(request, 0, length - 4, UTF_8);
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * @param query A query string such as "channels=gps,satellite"
+         * @return The mask of the selected channels, unknown names are ignored
+         */
+        private int channelMask(String query){
+            for(String parameter : query.split("&")){
+                if(!parameter.startsWith("channels=")){
+                    continue;
+                }
+
+                int mask = 0;
+
+                for(String name : parameter.substring("channels=".length()).split(",")){
+                    for(int i = 0; i < _channels.length; i++){
+                        if(_channels[i].equals(name)){
+                            mask |= 1 << i;
+                        }
+                    }
+                }
+
+                return mask;
+            }
+
+            return -1;
+        }
+
+        private void read(DataInputStream in) throws IOException {
+            final byte[] mask = new byte[4];
+
+            while(_open){
+                final int first = in.readUnsignedByte();
+                final int second = in.readUnsignedByte();
+                final int opcode = first & 0x0F;
+                long length = second & 0x7F;
+
+                if(length == 126){
+                    length = in.readUnsignedShort();
+                }
+                else if(length == 127){
+                    length = in.readLong();
+                }
+
+                if(length < 0 || length > MAX_CLIENT_FRAME){
+                    return;
+                }
+
+                final boolean masked = (second & 0x80) != 0;
+
+                if(masked){
+                    in.readFully(mask);
+                }
+
+                final byte[] payload = new byte[(int) length];
+                in.readFully(payload);
+
+                if(masked){
+                    for(int i = 0; i < payload.length; i++){
+                        payload[i] ^= mask[i & 3];
+                    }
+                }
+
+                if(opcode == OP_CLOSE){
+                    send(OP_CLOSE, payload.length >= 2 ? new byte[]{payload[0], payload[1]} : new byte[0]);
+                    return;
+                }
+
+                if(opcode == OP_PING){
+                    send(OP_PONG, payload);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.core;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Process-wide, fixed-size ring of timestamped hot-path events. Recording is lock-free, never
+ * allocates and costs a single volatile read while tracing is disabled. When the ring is full
+ * the oldest events are overwritten, so a dump always holds the most recent events.
+ *
+ * The ring's memory is only allocated the first time an event is recorded with tracing enabled.
+ */
+public final class TraceRing {
+
+    public static final int PROVIDER_GPS = 1;
+    public static final int PROVIDER_NETWORK = 2;
+    public static final int PROVIDER_CELL = 3;
+
+    public static final int EVENT_CALLBACK = 1;     // listener callback entry
+    public static final int EVENT_BUFFER = 2;       // buffer update done
+    public static final int EVENT_ENCODE = 3;       // payload encoded
+    public static final int EVENT_SEND = 4;         // sendPluginResult returned
+
+    private static final String[] PROVIDER_NAMES = {"", "gps", "network", "cell"};
+    private static final String[] EVENT_NAMES = {"", "callback", "buffer", "encode", "send"};
+
+    private static volatile boolean _enabled = false;
+
+    private TraceRing(){
+    }
+
+    public static void setEnabled(boolean enabled){
+        _enabled = enabled;
+    }
+
+    public static boolean isEnabled(){
+        return _enabled;
+    }
+
+    /**
+     * Records an event. Safe to call from any number of threads.
+     * @param provider One of the PROVIDER_ constants
+     * @param event One of the EVENT_ constants
+     */
+    public static void record(int provider, int event){
+        if(_enabled){
+            Ring.record(provider, event);
+        }
+    }
+
+    /**
+     * Writes the events currently held in the ring, oldest first, one per line:
+     * nanoseconds since the first event, provider and event. Events being overwritten
+     * while the dump runs are skipped.
+     * @param out Destination, it is not closed
+     * @return The number of events written
+     * @throws IOException if the writer fails
+     */
+    public static int dump(Writer out) throws IOException {
+        return Ring.dump(out);
+    }
+
+    /**
+     * Discards all recorded events.
+     */
+    public static void clear(){
+        Ring.clear();
+    }
+
+    /**
+     * Holder so the arrays are only allocated once tracing is actually used.
+     */
+    private static final class Ring {
+
+        private static final int CAPACITY = 8192;   // must be a power of two
+        private static final int MASK = CAPACITY - 1;
+
+        // Atomic so that a dump reads them in order with SEQUENCE, plain reads could be
+        // reordered past its second sequence check
+        private static final AtomicLongArray TIMES = new AtomicLongArray(CAPACITY);
+        private static final AtomicIntegerArray CODES = new AtomicIntegerArray(CAPACITY);
+
+        // Holds index + 1 of the event in each slot once it is complete, -1 while it is being written
+        private static final AtomicLongArray SEQUENCE = new AtomicLongArray(CAPACITY);
+        private static final AtomicLong NEXT = new AtomicLong();
+
+        static void record(int provider, int event){
+            final long index = NEXT.getAndIncrement();
+            final int slot = (int) (index & MASK);
+
+            SEQUENCE.getAndSet(slot, -1);
+            TIMES.lazySet(slot, System.nanoTime());
+            CODES.lazySet(slot, provider << 8 | event);
+            SEQUENCE.lazySet(slot, index + 1);
+        }
+
+        static int dump(Writer out) throws IOException {
+            final long end = NEXT.get();
+            final long start = Math.max(0, end - CAPACITY);
+            final StringBuilder line = new StringBuilder(48);
+
+            long first = 0;
+            int count = 0;
+
+            for(long index = start; index < end; index++){
+                final int slot = (int) (index & MASK);
+
+                final long before = SEQUENCE.get(slot);
+                final long time = TIMES.get(slot);
+                final int code = CODES.get(slot);
+
+                if(before != index + 1 || SEQUENCE.get(slot) != before){
+                    continue;
+                }
+
+                if(count == 0){
+                    first = time;
+                }
+
+                line.setLength(0);
+                line.append(time - first).append(' ')
+                        .append(name(PROVIDER_NAMES, code >> 8)).append(' ')
+                        .append(name(EVENT_NAMES, code & 0xff)).append('\n');
+                out.write(line.toString());
+                count++;
+            }
+
+            return count;
+        }
+
+        static void clear(){
+            for(int i = 0; i < CAPACITY; i++){
+                SEQUENCE.set(i, 0);
+            }
+        }
+
+        private static String name(String[] names, int code){
+            return code > 0 && code < names.length ? names[code] : Integer.toString(code);
+        }
+    }
+}
@@ -16,8 +16,44 @@
  */
 package com.esri.cordova.geolocation.model;
 
+/**
+ * An error number and message. Instances are shared constants, see ErrorMessages, and also
+ * hold their serialized JSON for each provider that has reported them.
+ */
+public final class Error {
+    public final String number;
+    public final String message;
+
+    // Provider and JSON pairs, replaced rather than modified so readers don't need a lock
+    private volatile String[] _json = new String[0];
+
+    public Error(String number, String message){
+        this.number = number;
+        this.message = message;
+    }
+
+    /**
+     * @return The JSON previously stored for the provider, or <code>null</code>
+     */
+    public String getJSON(String provider){
+        final String[] json = _json;
+
+        for(int i = 0; i < json.length; i += 2){
+            if(json[i].equals(provider)){
+                return json[i + 1];
+            }
+        }
+
+        return null;
+    }
 
-public class Error {
-    public String number;
-    public String message;
+    public synchronized void putJSON(String provider, String json){
+        if(getJSON(provider) == null){
+            final String[] pairs = new String[_json.length + 2];
+            System.arraycopy(_json, 0, pairs, 0, _json.length);
+            pairs[_json.length] = provider;
+            pairs[_json.length + 1] = json;
+            _json = pairs;
+        }
+    }
 }
@@ -0,0 +1,78 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.model;
+
+import com.esri.cordova.geolocation.core.MeasurementFilter;
+import com.esri.cordova.geolocation.core.PayloadFormat;
+
+/**
+ * The configuration options passed to start or update, see api_reference.md.
+ * Raw measurement constellations and signals are held as MeasurementFilter masks, and the
+ * payload fields, together with their precision, as a PayloadFormat.
+ */
+public class GeolocationConfig {
+
+    // Parts of a running controller that a new configuration can change, see update
+    public static final int CHANGED_LISTENER = 1;
+    public static final int CHANGED_SATELLITES = 2;
+    public static final int CHANGED_NMEA = 4;
+    public static final int CHANGED_RAW = 8;
+    public static final int CHANGED_BUFFER = 16;
+    public static final int CHANGED_FORMAT = 32;
+    public static final String[] CHANGE_NAMES = {"listener", "satellites", "nmea", "raw", "buffer", "format"};
+
+    public long minTime = 0;
+    public long minDistance = 0;
+    public boolean noWarn = false;
+    public String providers = "";
+    public boolean useCache = false;
+    public boolean satelliteData = false;
+    public boolean buffer = false;
+    public int bufferSize = 0;
+    public boolean signalStrength = false;
+    public int signalStrengthThreshold = 0;
+    public long signalStrengthInterval = 0;
+    public long signalStrengthSummaryInterval = 0;
+    public boolean recordTrack = false;
+    public String replayFile = "";
+    public float replaySpeed = 1;
+    public boolean trace = false;
+    public boolean encodeThread = false;
+    public boolean nmea = false;
+    public int nmeaBatchSize = 5;
+    public boolean gnssStatus = false;
+    public boolean satelliteSummary = false;
+    public long satelliteDetailInterval = 10000;
+    public boolean adaptiveSampling = false;
+    public boolean dutyCycle = false;
+    public float dutyCycleAccuracy = 20;
+    public long dutyCycleTimeout = 60000;
+    public long dutyCycleInterval = 300000;
+    public String rawMeasurements = "";
+    public String rawFile = "advanced-geolocation-raw.bin";
+    public long rawMaxFileSize = 10485760;
+    public int rawBatchSize = 10;
+    public int rawConstellations = MeasurementFilter.ALL;
+    public int rawSignals = MeasurementFilter.ALL;
+    public PayloadFormat payloadFormat = PayloadFormat.FULL;
+    public boolean streamServer = false;
+    public int streamPort = 0;
+    public boolean streamOnly = false;
+
+    public GeolocationConfig(){
+    }
+}
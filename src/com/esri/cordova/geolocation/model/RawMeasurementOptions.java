@@ -0,0 +1,35 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.model;
+
+import com.esri.cordova.geolocation.core.MeasurementFilter;
+
+import java.io.File;
+
+public class RawMeasurementOptions {
+    public static final String MODE_FILE = "file";
+    public static final String MODE_BRIDGE = "bridge";
+
+    public String mode = MODE_BRIDGE;
+    public File file = null;
+    public long maxFileSize = 10485760;
+    public int batchSize = 10;
+    public MeasurementFilter filter = new MeasurementFilter(MeasurementFilter.ALL, MeasurementFilter.ALL);
+
+    public RawMeasurementOptions(){
+    }
+}
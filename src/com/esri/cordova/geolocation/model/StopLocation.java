@@ -17,6 +17,11 @@
 package com.esri.cordova.geolocation.model;
 
 public class StopLocation {
-    public String provider;
-    public boolean success;
+    public final String provider;
+    public final boolean success;
+
+    public StopLocation(String provider, boolean success){
+        this.provider = provider;
+        this.success = success;
+    }
 }
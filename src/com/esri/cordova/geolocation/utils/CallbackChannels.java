@@ -0,0 +1,198 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.utils;
+
+import com.esri.cordova.geolocation.core.StreamServer;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Threadsafe registry of the callbacks JavaScript subscribed to individual payload types.
+ * Providers send each payload to its channel's callback if there is one, and to the start()
+ * callback otherwise, so a page that only wants positions never receives satellite or cell
+ * traffic on the callback it parses. Errors and control results stay on the start() callback.
+ *
+ * When the loopback StreamServer runs, every payload is also published to it on the same
+ * channel, and with streamOnly it no longer crosses the bridge at all.
+ *
+ * Channels are looked up by index on the listener threads, so sending doesn't hash a name.
+ */
+public final class CallbackChannels {
+
+    public static final int GPS = 0;
+    public static final int NETWORK = 1;
+    public static final int SATELLITE = 2;          // satellite and gnss payloads
+    public static final int NMEA = 3;
+    public static final int RAW = 4;                // raw measurement batches
+    public static final int CELL_INFO = 5;
+    public static final int CELL_LOCATION = 6;
+    public static final int SIGNAL_STRENGTH = 7;    // signal strengths and their summaries
+
+    private static final String[] NAMES = {
+            "gps", "network", "satellite", "nmea", "raw", "cell_info", "cell_location", "signal_strength"
+    };
+
+    private static final AtomicReferenceArray<CallbackContext> CONTEXTS =
+            new AtomicReferenceArray<CallbackContext>(NAMES.length);
+
+    private static volatile StreamServer _stream = null;
+    private static volatile boolean _streamOnly = false;
+
+    private CallbackChannels(){
+    }
+
+    /**
+     * @param name A channel name such as "gps" or "cell_info"
+     * @return The channel's index, or -1 if there is no such channel
+     */
+    public static int indexOf(String name){
+        for(int i = 0; i < NAMES.length; i++){
+            if(NAMES[i].equals(name)){
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @param channel The channel's index
+     * @param fallback The start() callback
+     * @return The channel's callback, or the fallback if the channel has no subscriber
+     */
+    public static CallbackContext get(int channel, CallbackContext fallback){
+        final CallbackContext callbackContext = CONTEXTS.get(channel);
+
+        return callbackContext != null ? callbackContext : fallback;
+    }
+
+    /**
+     * Sends a result to the channel's callback, or to the fallback if the channel has no
+     * subscriber. A subscriber is replaced before it is closed, so a callback found closed here
+     * was closed after it was looked up, and the channel is looked up again rather than the
+     * result being dropped.
+     * @param channel The channel's index
+     * @param fallback The start() callback
+     * @param result A result that keeps the callback
+     */
+    public static void send(int channel, CallbackContext fallback, PluginResult result){
+        while(true){
+            final CallbackContext callbackContext = get(channel, fallback);
+
+            // close() holds the same lock, so the check and the send can't straddle it
+            synchronized(callbackContext){
+                if(callbackContext == fallback || !callbackContext.isFinished()){
+                    callbackContext.sendPluginResult(result);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Routes a channel to a new callback. A previous subscriber is closed, see send().
+     */
+    public static void subscribe(int channel, CallbackContext callbackContext){
+        close(channel, CONTEXTS.getAndSet(channel, callbackContext));
+
+        final PluginResult result = new PluginResult(PluginResult.Status.OK, JSONHelper.channelJSON(NAMES[channel], true));
+        result.setKeepCallback(true);
+        callbackContext.sendPluginResult(result);
+    }
+
+    /**
+     * Routes a channel back to the start() callback.
+     * @return <code>true</code> if the channel had a subscriber
+     */
+    public static boolean unsubscribe(int channel){
+        final CallbackContext previous = CONTEXTS.getAndSet(channel, null);
+        close(channel, previous);
+
+        return previous != null;
+    }
+
+    /**
+     * @return The number of channels
+     */
+    public static int count(){
+        return NAMES.length;
+    }
+
+    /**
+     * @return A copy of the channel names, indexed like the channel constants
+     */
+    public static String[] getNames(){
+        return NAMES.clone();
+    }
+
+    /**
+     * @param stream The running stream server, or <code>null</code> to stop publishing to one
+     * @param streamOnly <code>true</code> to skip the callbacks while the stream runs
+     */
+    public static void setStream(StreamServer stream, boolean streamOnly){
+        _streamOnly = streamOnly;
+        _stream = stream;
+    }
+
+    /**
+     * Publishes a payload to the stream server, if one runs.
+     * @return <code>true</code> if the payload should also be sent to a callback
+     */
+    public static boolean stream(int channel, String payload){
+        final StreamServer stream = _stream;
+
+        if(stream == null){
+            return true;
+        }
+
+        stream.publish(channel, payload);
+        return !_streamOnly;
+    }
+
+    /**
+     * Publishes binary data to the stream server, if one runs.
+     * @return <code>true</code> if the data should also be sent to a callback
+     */
+    public static boolean stream(int channel, byte[] data){
+        final StreamServer stream = _stream;
+
+        if(stream == null){
+            return true;
+        }
+
+        stream.publish(channel, data);
+        return !_streamOnly;
+    }
+
+    public static void clear(){
+        for(int i = 0; i < NAMES.length; i++){
+            unsubscribe(i);
+        }
+    }
+
+    // The last result doesn't keep the callback, so Cordova releases it and drops later results
+    private static void close(int channel, CallbackContext callbackContext){
+        if(callbackContext != null){
+            synchronized(callbackContext){
+                callbackContext.success(JSONHelper.channelJSON(NAMES[channel], false));
+            }
+        }
+    }
+}
@@ -20,115 +20,202 @@ import com.esri.cordova.geolocation.model.Error;
 
 /**
  * This is a central repository for managing error messages and reducing duplication.
+ * Each Error is a shared constant, so reporting an error doesn't allocate and its JSON
+ * is only serialized once per provider, see JSONHelper.errorJSON.
  */
 public class ErrorMessages {
 
     // Configuration errors are 900 series
     public static final String INCORRECT_CONFIG_ARGS = "{\"error\": \"901\", \"msg\": \"There was a problem with the optional configuration arguments\"}";
 
-    public static Error CELL_DATA_NOT_AVAILABLE(){
-        final Error err = new Error();
-        err.number = "102";
-        err.message = "Cell data requested but unavailable. Check internet connection";
+    private static final Error CELL_DATA_NOT_AVAILABLE = new Error("102",
+            "Cell data requested but unavailable. Check internet connection");
 
-        return err;
+    public static Error CELL_DATA_NOT_AVAILABLE(){
+        return CELL_DATA_NOT_AVAILABLE;
     }
 
-    public static Error CELL_DATA_NOT_ALLOWED(){
-        final Error err = new Error();
-        err.number = "103";
-        err.message = "Cell Data option is not available on Android API versions < 18";
+    private static final Error CELL_DATA_NOT_ALLOWED = new Error("103",
+            "Cell Data option is not available on Android API versions < 18");
 
-        return err;
+    public static Error CELL_DATA_NOT_ALLOWED(){
+        return CELL_DATA_NOT_ALLOWED;
     }
 
-    public static Error CELL_DATA_IS_NULL(){
-        final Error err = new Error();
-        err.number = "104";
-        err.message = "Cell data is returning null. This option may not be supported on the device";
+    private static final Error CELL_DATA_IS_NULL = new Error("104",
+            "Cell data is returning null. This option may not be supported on the device");
 
-        return err;
+    public static Error CELL_DATA_IS_NULL(){
+        return CELL_DATA_IS_NULL;
     }
 
-    public static Error CELL_DATA_MIN_VERSION(){
-        final Error err = new Error();
-        err.number = "105";
-        err.message = "WARNING: A minimum SDK v17 is required for CellLocation to work, and  minimum SDK v21 is REQUIRED for this library";
+    private static final Error CELL_DATA_MIN_VERSION = new Error("105",
+            "WARNING: A minimum SDK v17 is required for CellLocation to work, and  minimum SDK v21 is REQUIRED for this library");
 
-        return err;
+    public static Error CELL_DATA_MIN_VERSION(){
+        return CELL_DATA_MIN_VERSION;
     }
 
-    public static Error LOCATION_SERVICES_UNAVAILABLE(){
-        final Error err = new Error();
-        err.number = "110";
-        err.message = "Neither GPS nor network location is available";
+    private static final Error LOCATION_SERVICES_UNAVAILABLE = new Error("110",
+            "Neither GPS nor network location is available");
 
-        return err;
+    public static Error LOCATION_SERVICES_UNAVAILABLE(){
+        return LOCATION_SERVICES_UNAVAILABLE;
     }
 
-    public static Error LOCATION_SERVICES_DENIED_NOASK(){
-        final Error err = new Error();
-        err.number = "111";
-        err.message = "Location services were denied by user with the flag to never ask again";
+    private static final Error LOCATION_SERVICES_DENIED_NOASK = new Error("111",
+            "Location services were denied by user with the flag to never ask again");
 
-        return err;
+    public static Error LOCATION_SERVICES_DENIED_NOASK(){
+        return LOCATION_SERVICES_DENIED_NOASK;
     }
 
-    public static Error LOCATION_SERVICES_DENIED(){
-        final Error err = new Error();
-        err.number = "112";
-        err.message = "Location services were denied by user";
+    private static final Error LOCATION_SERVICES_DENIED = new Error("112",
+            "Location services were denied by user");
 
-        return err;
+    public static Error LOCATION_SERVICES_DENIED(){
+        return LOCATION_SERVICES_DENIED;
     }
 
-    public static Error GPS_UNAVAILABLE(){
-        final Error err = new Error();
-        err.number = "120";
-        err.message = "GPS location requested but GPS is not available. Check system Location settings";
+    private static final Error GPS_UNAVAILABLE = new Error("120",
+            "GPS location requested but GPS is not available. Check system Location settings");
 
-        return err;
+    public static Error GPS_UNAVAILABLE(){
+        return GPS_UNAVAILABLE;
     }
 
-    public static Error GPS_OUT_OF_SERVICE(){
-        final Error err = new Error();
-        err.number = "121";
-        err.message = "GPS is out of service";
+    private static final Error GPS_OUT_OF_SERVICE = new Error("121",
+            "GPS is out of service");
 
-        return err;
+    public static Error GPS_OUT_OF_SERVICE(){
+        return GPS_OUT_OF_SERVICE;
     }
 
-    public static Error UNCAUGHT_THREAD_EXCEPTION(){
-        final Error err = new Error();
-        err.number = "122";
-        err.message = "Uncaught thread exception. The app may be partial and incorrectly operating. See logcat for full exception dump";
+    private static final Error UNCAUGHT_THREAD_EXCEPTION = new Error("122",
+            "Uncaught thread exception. The app may be partial and incorrectly operating. See logcat for full exception dump");
 
-        return err;
+    public static Error UNCAUGHT_THREAD_EXCEPTION(){
+        return UNCAUGHT_THREAD_EXCEPTION;
     }
 
     public static final String JSON_EXCEPTION =  "{\"error\": \"130\", \"msg\":\"Problem in JSONHelper while processing JSON. \"}";
 
-    public static Error NETWORK_PROVIDER_UNAVAILABLE(){
-        final Error err = new Error();
-        err.number = "140";
-        err.message = "Network location requested but the provider is not available. Check system Location settings";
+    private static final Error NETWORK_PROVIDER_UNAVAILABLE = new Error("140",
+            "Network location requested but the provider is not available. Check system Location settings");
 
-        return err;
+    public static Error NETWORK_PROVIDER_UNAVAILABLE(){
+        return NETWORK_PROVIDER_UNAVAILABLE;
     }
 
-    public static Error NETWORK_PROVIDER_OUT_OF_SERVICE(){
-        final Error err = new Error();
-        err.number = "141";
-        err.message = "Network location requested but it's out of service. Check your device";
+    private static final Error NETWORK_PROVIDER_OUT_OF_SERVICE = new Error("141",
+            "Network location requested but it's out of service. Check your device");
 
-        return err;
+    public static Error NETWORK_PROVIDER_OUT_OF_SERVICE(){
+        return NETWORK_PROVIDER_OUT_OF_SERVICE;
     }
 
+    private static final Error FAILED_THREAD_INTERRUPT = new Error("150",
+            "The plugin attempted a thread interrupt on a location providers thread and failed. See logcat for full exception dump");
+
     public static Error FAILED_THREAD_INTERRUPT(){
-        final Error err = new Error();
-        err.number = "150";
-        err.message = "The plugin attempted a thread interrupt on a location providers thread and failed. See logcat for full exception dump";
+        return FAILED_THREAD_INTERRUPT;
+    }
+
+    private static final Error TRACK_NOT_AVAILABLE = new Error("160",
+            "No recorded track is available. Set the recordTrack option to true before starting");
+
+    public static Error TRACK_NOT_AVAILABLE(){
+        return TRACK_NOT_AVAILABLE;
+    }
+
+    private static final Error TRACK_EXPORT_FAILED = new Error("161",
+            "Unable to export the recorded track. See logcat for full exception dump");
+
+    public static Error TRACK_EXPORT_FAILED(){
+        return TRACK_EXPORT_FAILED;
+    }
+
+    private static final Error TRACK_FORMAT_NOT_SUPPORTED = new Error("162",
+            "Track export format is not supported. Use polyline, geojson or gpx");
+
+    public static Error TRACK_FORMAT_NOT_SUPPORTED(){
+        return TRACK_FORMAT_NOT_SUPPORTED;
+    }
+
+    private static final Error REPLAY_FILE_UNAVAILABLE = new Error("170",
+            "The replay file could not be opened. Check the replayFile path");
+
+    public static Error REPLAY_FILE_UNAVAILABLE(){
+        return REPLAY_FILE_UNAVAILABLE;
+    }
+
+    private static final Error TRACE_DUMP_FAILED = new Error("180",
+            "Unable to write the trace file. See logcat for full exception dump");
+
+    public static Error TRACE_DUMP_FAILED(){
+        return TRACE_DUMP_FAILED;
+    }
+
+    private static final Error RAW_MEASUREMENTS_NOT_SUPPORTED = new Error("190",
+            "Raw GNSS measurements are not supported on this device. They require Android 7.0 or greater");
+
+    public static Error RAW_MEASUREMENTS_NOT_SUPPORTED(){
+        return RAW_MEASUREMENTS_NOT_SUPPORTED;
+    }
+
+    private static final Error RAW_MEASUREMENTS_FILE_FAILED = new Error("191",
+            "Unable to write raw GNSS measurements to the file. Raw measurements stopped. See logcat for full exception dump");
+
+    public static Error RAW_MEASUREMENTS_FILE_FAILED(){
+        return RAW_MEASUREMENTS_FILE_FAILED;
+    }
+
+    private static final Error POSITION_TIMEOUT = new Error("200",
+            "No location was received before the timeout expired");
+
+    public static Error POSITION_TIMEOUT(){
+        return POSITION_TIMEOUT;
+    }
+
+    private static final Error POSITION_UNAVAILABLE = new Error("201",
+            "Unable to get the current position, neither the GPS nor the NETWORK provider is enabled");
+
+    public static Error POSITION_UNAVAILABLE(){
+        return POSITION_UNAVAILABLE;
+    }
+
+    private static final Error LAST_LOCATION_UNAVAILABLE = new Error("202",
+            "No cached location is available for the requested provider and maximum age");
+
+    public static Error LAST_LOCATION_UNAVAILABLE(){
+        return LAST_LOCATION_UNAVAILABLE;
+    }
+
+    private static final Error POSITION_CANCELLED = new Error("203",
+            "The request was cancelled because the plugin was stopped");
+
+    public static Error POSITION_CANCELLED(){
+        return POSITION_CANCELLED;
+    }
+
+    private static final Error POSITION_INVALID_TIMEOUT = new Error("204",
+            "The timeout can't be negative");
+
+    public static Error POSITION_INVALID_TIMEOUT(){
+        return POSITION_INVALID_TIMEOUT;
+    }
+
+    private static final Error UNKNOWN_CHANNEL = new Error("210",
+            "The requested callback channel does not exist");
+
+    public static Error UNKNOWN_CHANNEL(){
+        return UNKNOWN_CHANNEL;
+    }
+
+    private static final Error STREAM_UNAVAILABLE = new Error("211",
+            "Unable to start the stream server, the port may already be in use");
 
-        return err;
+    public static Error STREAM_UNAVAILABLE(){
+        return STREAM_UNAVAILABLE;
     }
 }
\ No newline at end of file
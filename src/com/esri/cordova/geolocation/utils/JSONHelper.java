@@ -37,6 +37,15 @@ import android.telephony.cdma.CdmaCellLocation;
 import android.telephony.gsm.GsmCellLocation;
 import android.util.Log;
 
+import com.esri.cordova.geolocation.core.DutyCycle;
+import com.esri.cordova.geolocation.core.ElapsedClock;
+import com.esri.cordova.geolocation.core.Fix;
+import com.esri.cordova.geolocation.core.FixEncoder;
+import com.esri.cordova.geolocation.core.Histogram;
+import com.esri.cordova.geolocation.core.PayloadFormat;
+import com.esri.cordova.geolocation.core.ProviderStats;
+import com.esri.cordova.geolocation.core.SamplingPolicy;
+import com.esri.cordova.geolocation.core.SignalCoalescer;
 import com.esri.cordova.geolocation.model.Error;
 import com.esri.cordova.geolocation.model.StopLocation;
 
@@ -44,7 +53,6 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.util.Calendar;
 import java.util.List;
 
 /**
@@ -55,7 +63,20 @@ public final class JSONHelper {
     public static final String SATELLITE_PROVIDER = "satellite";
     public static final String CELLINFO_PROVIDER = "cell_info";
     public static final String CELLLOCATION_PROVIDER = "cell_location";
+    public static final String TRACK_PROVIDER = "track";
+    public static final String STATS_PROVIDER = "stats";
+    public static final String TRACE_PROVIDER = "trace";
+    public static final String NMEA_PROVIDER = "nmea";
+    public static final String GNSS_PROVIDER = "gnss";
+    public static final String SAMPLING_PROVIDER = "sampling";
+    public static final String DUTYCYCLE_PROVIDER = "dutycycle";
+    public static final String POSITION_PROVIDER = "position";
+    public static final String CLOCK_PROVIDER = "clock";
+    public static final String CHANNEL_PROVIDER = "channel";
+    public static final String STREAM_PROVIDER = "stream";
     private static final String SIGNAL_STRENGTH = "signal_strength";
+    private static final String KILL_LOCATION = "{\"success\":\"true\"}";
+    private static final String SIGNAL_STRENGTH_SUMMARY = "signal_strength_summary";
     private static final String CDMA = "cdma";
     private static final String WCDMA = "wcdma";
     private static final String GSM = "gsm";
@@ -90,16 +111,48 @@ public final class JSONHelper {
         return stopLocationDetails.toString();
     }
 
+    /**
+     * Lists what an update request changed in the running providers.
+     * @param applied Names such as gps.listener or network.buffer, empty if nothing was running or nothing changed
+     * @return JSONObject with an array of the applied changes
+     */
+    public static String updateJSON(List<String> applied) {
+        final JSONObject json = new JSONObject();
+
+        try {
+            json.put("update", new JSONArray(applied));
+        }
+        catch( JSONException exc) {
+            logJSONException(exc);
+        }
+
+        return json.toString();
+    }
+
     /**
      * Attempt to forcefully shutdown a location provider.
      * Be sure to also check for error events.
      * @return JSONObject that indicates kill request was successful.
      */
     public static String killLocationJSON() {
+        return KILL_LOCATION;
+    }
+
+    /**
+     * Describes a completed track export.
+     * @param format The export format
+     * @param path Absolute path of the exported file
+     * @param points The number of fixes written to the file
+     * @return JSON
+     */
+    public static String exportJSON(String format, String path, int points) {
         final JSONObject json = new JSONObject();
 
         try {
-            json.put("success", "true");
+            json.put("provider", TRACK_PROVIDER);
+            json.put("format", format);
+            json.put("path", path);
+            json.put("points", points);
         }
         catch( JSONException exc) {
             logJSONException(exc);
@@ -109,33 +162,146 @@ public final class JSONHelper {
     }
 
     /**
-     * Converts location data into a JSON form that can be consumed within a JavaScript application
-     * @param provider Indicates if this location is coming from gps or network provider
-     * @param location The android Location
-     * @param cached Indicates if the value was pulled from the device cache or not
-     * @return Location data. Note: this library returns 0 rather than null to avoid nullPointExceptions
+     * Describes a completed trace dump.
+     * @param path Absolute path of the trace file
+     * @param events The number of events written to the file
+     * @return JSON
      */
-    public static String locationJSON(String provider, Location location, boolean cached) {
-
+    public static String traceJSON(String path, int events) {
         final JSONObject json = new JSONObject();
 
-        if(location != null){
-            try {
+        try {
+            json.put("provider", TRACE_PROVIDER);
+            json.put("path", path);
+            json.put("events", events);
+        }
+        catch( JSONException exc) {
+            logJSONException(exc);
+        }
 
-                json.put("provider", provider);
-                json.put("latitude", location.getLatitude());
-                json.put("longitude", location.getLongitude());
-                json.put("altitude", location.getAltitude());
-                json.put("accuracy", location.getAccuracy());
-                json.put("bearing", location.getBearing());
-                json.put("speed", location.getSpeed());
-                json.put("timestamp", location.getTime());
-                json.put("cached", cached);
+        return json.toString();
+    }
+
+    /**
+     * Snapshot of the runtime metrics of each provider. Encode times are in microseconds,
+     * fix ages in milliseconds.
+     * @param reset Indicates if the metrics are zeroed as the snapshot is taken
+     * @param stats The metrics of each provider
+     * @return JSON
+     */
+    public static String statsJSON(boolean reset, ProviderStats... stats) {
+        final JSONObject json = new JSONObject();
+
+        try {
+            json.put("provider", STATS_PROVIDER);
+
+            for(ProviderStats current : stats){
+                final ProviderStats providerStats = current.snapshot(reset);
+                final JSONObject provider = new JSONObject();
+                provider.put("received", providerStats.getReceived());
+                provider.put("sent", providerStats.getSent());
+                provider.put("dropped", providerStats.getDropped());
+                provider.put("encodeTimeMicros", histogramJSON(providerStats.getEncodeTime(), 1000));
+                provider.put("fixAgeMillis", histogramJSON(providerStats.getFixAge(), 1000000));
+                provider.put("queueDepth", providerStats.getQueueDepth());
+                provider.put("maxQueueDepth", providerStats.getMaxQueueDepth());
+                provider.put("queueTimeMicros", histogramJSON(providerStats.getQueueTime(), 1000));
+                json.put(providerStats.getProvider(), provider);
             }
-            catch (JSONException exc) {
-                logJSONException(exc);
+
+            json.put("reset", reset);
+        }
+        catch( JSONException exc) {
+            logJSONException(exc);
+        }
+
+        return json.toString();
+    }
+
+    /**
+     * Summarizes the signal strength events that were suppressed since the previous summary
+     * @param coalescer The cell controller's coalescer, before its summary is reset
+     * @param nowNanos Monotonic time of the summary
+     * @return Signal strength summary data
+     */
+    public static String signalStrengthSummaryJSON(SignalCoalescer coalescer, long nowNanos) {
+        final JSONObject json = new JSONObject();
+
+        try {
+            json.put("provider", SIGNAL_STRENGTH);
+            json.put("type", SIGNAL_STRENGTH_SUMMARY);
+            json.put("timestamp", System.currentTimeMillis());
+            json.put("interval", coalescer.getSummaryMillis(nowNanos));
+            json.put("suppressed", coalescer.getSuppressed());
+            putTimes(json, nowNanos, nowNanos);
+
+            // Only dBm values the modem reported are summarized
+            if(coalescer.getMinDbm() != SignalCoalescer.UNKNOWN){
+                json.put("minDbm", coalescer.getMinDbm());
+                json.put("maxDbm", coalescer.getMaxDbm());
+                json.put("meanDbm", coalescer.getMeanDbm());
             }
         }
+        catch( JSONException exc) {
+            logJSONException(exc);
+        }
+
+        return json.toString();
+    }
+
+    /**
+     * Reports a change of the adaptive sampling level
+     * @param provider The location provider that was re-registered
+     * @param policy The policy, after the change
+     * @param fix The fix that triggered the change
+     * @return Sampling policy data
+     */
+    public static String samplingPolicyJSON(String provider, SamplingPolicy policy, Fix fix) {
+        final JSONObject json = new JSONObject();
+
+        try {
+            json.put("provider", SAMPLING_PROVIDER);
+            json.put("timestamp", fix.time);
+            json.put("locationProvider", provider);
+            json.put("level", SamplingPolicy.LEVEL_NAMES[policy.getLevel()]);
+            json.put("previousLevel", policy.getPreviousLevel() >= 0
+                    ? SamplingPolicy.LEVEL_NAMES[policy.getPreviousLevel()] : "configured");
+            json.put("minTime", policy.getMinTime());
+            json.put("minDistance", policy.getMinDistance());
+            json.put("speed", policy.getSpeed());
+            json.put("accuracy", fix.accuracy);
+        }
+        catch( JSONException exc) {
+            logJSONException(exc);
+        }
+
+        return json.toString();
+    }
+
+    /**
+     * Reports a completed GPS duty cycle window
+     * @param dutyCycle The cycle, after the window ended
+     * @param nowNanos Monotonic time the window ended
+     * @return Duty cycle data
+     */
+    public static String dutyCycleJSON(DutyCycle dutyCycle, long nowNanos) {
+        final JSONObject json = new JSONObject();
+
+        try {
+            json.put("provider", DUTYCYCLE_PROVIDER);
+            json.put("timestamp", System.currentTimeMillis());
+            json.put("window", dutyCycle.getWindows());
+            json.put("fixed", dutyCycle.isFixed());
+            json.put("timeToFix", dutyCycle.getTimeToFix());
+            json.put("timeToFirstFix", dutyCycle.getTimeToFirstFix());
+            json.put("bestAccuracy", dutyCycle.getBestAccuracy());
+            json.put("onTime", dutyCycle.getWindowMillis());
+            json.put("onTimeRatio", dutyCycle.getOnTimeRatio(nowNanos));
+            json.put("nextWindow", dutyCycle.getIntervalMillis());
+        }
+        catch( JSONException exc) {
+            logJSONException(exc);
+        }
 
         return json.toString();
     }
@@ -145,64 +311,49 @@ public final class JSONHelper {
      * @param provider Indicates if this location is coming from gps or network provider
      * @param location The android Location
      * @param cached Indicates if the value was pulled from the device cache or not
-     * @param buffer Boolean indicates whether or not buffering is activated
-     * @param bufferLat The buffer's geometric latitudinal center.
-     * @param bufferedLon The buffer's geometric longitudinal center.
-     * @param bufferedAccuracy The buffer's average accuracy.
-     * @param bufferSize The number of elements within the buffer
      * @return Location data. Note: this library returns 0 rather than null to avoid nullPointExceptions
      */
-    public static String locationJSON(
-            String provider,
-            Location location,
-            boolean cached,
-            boolean buffer,
-            double bufferLat,
-            double bufferedLon,
-            float bufferedAccuracy,
-            int bufferSize) {
+    public static String locationJSON(String provider, Location location, boolean cached) {
 
-        final JSONObject json = new JSONObject();
+        if(location == null){
+            return "{}";
+        }
 
-        if(location != null){
-            try {
+        return new FixEncoder().encode(LocationAdapter.toFix(provider, location, cached, new Fix()));
+    }
 
-                json.put("provider", provider);
-                json.put("timestamp", location.getTime());
-                json.put("latitude", location.getLatitude());
-                json.put("longitude", location.getLongitude());
-                json.put("altitude", location.getAltitude());
-                json.put("accuracy", location.getAccuracy());
-                json.put("bearing", location.getBearing());
-                json.put("speed", location.getSpeed());
-                json.put("cached", cached);
-                json.put("buffer", buffer);
-                json.put("bufferSize", bufferSize);
-                json.put("bufferedLatitude", bufferLat);
-                json.put("bufferedLongitude", bufferedLon);
-                json.put("bufferedAccuracy", bufferedAccuracy);
-            }
-            catch (JSONException exc) {
-                logJSONException(exc);
-            }
-        }
+    /**
+     * Converts a fix into a JSON form that can be consumed within a JavaScript application
+     * @param fix The fix, its provider and cached flag are used as is
+     * @return Location data. Note: this library returns 0 rather than null to avoid nullPointExceptions
+     */
+    public static String locationJSON(Fix fix) {
+        return new FixEncoder().encode(fix);
+    }
 
-        return json.toString();
+    /**
+     * Converts a fix into JSON with only the selected fields and precision
+     * @param fix The fix, its provider and cached flag are used as is
+     * @param format The fields and decimals to write
+     * @return Location data
+     */
+    public static String locationJSON(Fix fix, PayloadFormat format) {
+        return new FixEncoder(format).encode(fix);
     }
 
     /**
      * Originates from a change in signal strength
      * @param signalStrength SignalStrength
+     * @param receivedNanos ElapsedClock time the change was received
      * @return JSON
      */
-    public static String signalStrengthJSON(SignalStrength signalStrength){
-        final Calendar calendar = Calendar.getInstance();
+    public static String signalStrengthJSON(SignalStrength signalStrength, long receivedNanos){
         final JSONObject json = new JSONObject();
 
         try {
             json.put("provider", SIGNAL_STRENGTH); // Yep provider and type are same values
             json.put("type", SIGNAL_STRENGTH);
-            json.put("timestamp", calendar.getTimeInMillis());
+            json.put("timestamp", System.currentTimeMillis());
             json.put("cdmaDbm", signalStrength.getCdmaDbm());
             json.put("cdmaEcio", signalStrength.getCdmaEcio());
             json.put("evdoDbm", signalStrength.getEvdoDbm());
@@ -216,6 +367,7 @@ public final class JSONHelper {
             }
 
             json.put("isGSM", signalStrength.isGsm());
+            putTimes(json, receivedNanos, receivedNanos);
         }
         catch(JSONException exc) {
             logJSONException(exc);
@@ -227,18 +379,18 @@ public final class JSONHelper {
     /**
      * Converts CellInfoCdma into JSON
      * @param cellInfo CellInfoCdma
+     * @param receivedNanos ElapsedClock time the cell info was received
      * @return JSON
      */
-    public static String cellInfoCDMAJSON(CellInfoCdma cellInfo, boolean returnSignalStrength){
+    public static String cellInfoCDMAJSON(CellInfoCdma cellInfo, boolean returnSignalStrength, long receivedNanos){
 
-        final Calendar calendar = Calendar.getInstance();
         final JSONObject json = new JSONObject();
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2 && cellInfo != null) {
             try {
                 json.put("provider", CELLINFO_PROVIDER);
                 json.put("type", CDMA);
-                json.put("timestamp", calendar.getTimeInMillis());
+                json.put("timestamp", System.currentTimeMillis());
 
                 final CellIdentityCdma identityCdma = cellInfo.getCellIdentity();
 
@@ -247,6 +399,7 @@ public final class JSONHelper {
                 json.put("basestationId", identityCdma.getBasestationId());
                 json.put("networkId", identityCdma.getNetworkId());
                 json.put("systemId", identityCdma.getSystemId());
+                putTimes(json, cellInfo.getTimeStamp(), receivedNanos);
 
                 if (returnSignalStrength){
                     final JSONObject jsonSignalStrength = new JSONObject();
@@ -279,18 +432,18 @@ public final class JSONHelper {
      * - Reference 1: https://code.google.com/p/android/issues/detail?id=191492
      * - Reference 2: http://stackoverflow.com/questions/17815062/cellidentitygsm-on-android
      * @param cellInfo CellInfoWcdma
+     * @param receivedNanos ElapsedClock time the cell info was received
      * @return JSON
      */
-    public static String cellInfoWCDMAJSON(CellInfoWcdma cellInfo, boolean returnSignalStrength){
+    public static String cellInfoWCDMAJSON(CellInfoWcdma cellInfo, boolean returnSignalStrength, long receivedNanos){
 
-        final Calendar calendar = Calendar.getInstance();
         final JSONObject json = new JSONObject();
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2 && cellInfo != null) {
             try {
                 json.put("provider", CELLINFO_PROVIDER);
                 json.put("type", WCDMA);
-                json.put("timestamp", calendar.getTimeInMillis());
+                json.put("timestamp", System.currentTimeMillis());
 
                 final CellIdentityWcdma identityWcdma = cellInfo.getCellIdentity();
 
@@ -299,6 +452,7 @@ public final class JSONHelper {
                 json.put("mcc", identityWcdma.getMcc());
                 json.put("mnc", identityWcdma.getMnc());
                 json.put("psc", identityWcdma.getPsc());
+                putTimes(json, cellInfo.getTimeStamp(), receivedNanos);
 
                 if (returnSignalStrength){
                     final JSONObject jsonSignalStrength = new JSONObject();
@@ -320,18 +474,18 @@ public final class JSONHelper {
     /**
      * Converts CellInfoGsm into JSON
      * @param cellInfo CellInfoGsm
+     * @param receivedNanos ElapsedClock time the cell info was received
      * @return JSON
      */
-    public static String cellInfoGSMJSON(CellInfoGsm cellInfo, boolean returnSignalStrength){
+    public static String cellInfoGSMJSON(CellInfoGsm cellInfo, boolean returnSignalStrength, long receivedNanos){
 
-        final Calendar calendar = Calendar.getInstance();
         final JSONObject json = new JSONObject();
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2 && cellInfo != null) {
             try {
                 json.put("provider", CELLINFO_PROVIDER);
                 json.put("type", GSM);
-                json.put("timestamp", calendar.getTimeInMillis());
+                json.put("timestamp", System.currentTimeMillis());
 
                 final CellIdentityGsm identityGsm = cellInfo.getCellIdentity();
 
@@ -339,6 +493,7 @@ public final class JSONHelper {
                 json.put("lac", identityGsm.getLac());
                 json.put("mcc", identityGsm.getMcc());
                 json.put("mnc", identityGsm.getMnc());
+                putTimes(json, cellInfo.getTimeStamp(), receivedNanos);
 
                 if (returnSignalStrength){
                     final JSONObject jsonSignalStrength = new JSONObject();
@@ -360,18 +515,18 @@ public final class JSONHelper {
     /**
      * Converts CellInfoLte into JSON
      * @param cellInfo CellInfoLte
+     * @param receivedNanos ElapsedClock time the cell info was received
      * @return JSON
      */
-    public static String cellInfoLTEJSON(CellInfoLte cellInfo, boolean returnSignalStrength){
+    public static String cellInfoLTEJSON(CellInfoLte cellInfo, boolean returnSignalStrength, long receivedNanos){
 
-        final Calendar calendar = Calendar.getInstance();
         final JSONObject json = new JSONObject();
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2 && cellInfo != null) {
             try {
                 json.put("provider", CELLINFO_PROVIDER);
                 json.put("type", LTE);
-                json.put("timestamp", calendar.getTimeInMillis());
+                json.put("timestamp", System.currentTimeMillis());
 
                 final CellIdentityLte identityLte = cellInfo.getCellIdentity();
 
@@ -380,6 +535,7 @@ public final class JSONHelper {
                 json.put("mnc", identityLte.getMnc());
                 json.put("pci", identityLte.getPci());
                 json.put("tac", identityLte.getTac());
+                putTimes(json, cellInfo.getTimeStamp(), receivedNanos);
 
                 if (returnSignalStrength){
                     final JSONObject jsonSignalStrength = new JSONObject();
@@ -403,23 +559,24 @@ public final class JSONHelper {
      * Parses data from PhoneStateListener.LISTEN_CELL_LOCATION.onCellLocationChanged
      * http://developer.android.com/reference/android/telephony/cdma/CdmaCellLocation.html
      * @param location CdmaCellLocation
+     * @param receivedNanos ElapsedClock time the change was received
      * @return JSON
      */
-    public static String cdmaCellLocationJSON(CdmaCellLocation location){
+    public static String cdmaCellLocationJSON(CdmaCellLocation location, long receivedNanos){
 
-        final Calendar calendar = Calendar.getInstance();
         final JSONObject json = new JSONObject();
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2 && location != null) {
             try {
                 json.put("provider", CELLLOCATION_PROVIDER);
                 json.put("type", CDMA);
-                json.put("timestamp", calendar.getTimeInMillis());
+                json.put("timestamp", System.currentTimeMillis());
                 json.put("baseStationId", location.getBaseStationId()); // -1 if unknown
                 json.put("networkId", location.getNetworkId()); // -1 if unknown
                 json.put("systemId", location.getSystemId()); // -1 if unknown
                 json.put("baseStationLatitude", CdmaCellLocation.convertQuartSecToDecDegrees(location.getBaseStationLatitude()));
                 json.put("baseStationLongitude", CdmaCellLocation.convertQuartSecToDecDegrees(location.getBaseStationLongitude()));
+                putTimes(json, receivedNanos, receivedNanos);
             }
             catch(JSONException exc) {
                 logJSONException(exc);
@@ -433,21 +590,22 @@ public final class JSONHelper {
      * Parses data from PhoneStateListener.LISTEN_CELL_LOCATION.onCellLocationChanged
      * http://developer.android.com/reference/android/telephony/cdma/CdmaCellLocation.html
      * @param location GsmCellLocation
+     * @param receivedNanos ElapsedClock time the change was received
      * @return JSON
      */
-    public static String gsmCellLocationJSON(GsmCellLocation location){
+    public static String gsmCellLocationJSON(GsmCellLocation location, long receivedNanos){
 
-        final Calendar calendar = Calendar.getInstance();
         final JSONObject json = new JSONObject();
 
         if(location != null){
             try {
                 json.put("provider", CELLLOCATION_PROVIDER);
                 json.put("type", GSM);
-                json.put("timestamp", calendar.getTimeInMillis());
+                json.put("timestamp", System.currentTimeMillis());
                 json.put("cid", location.getCid());
                 json.put("lac", location.getLac());
                 json.put("psc", location.getPsc());
+                putTimes(json, receivedNanos, receivedNanos);
             }
             catch(JSONException exc) {
                 logJSONException(exc);
@@ -460,38 +618,70 @@ public final class JSONHelper {
     /**
      * Converts GpsStatus into JSON.
      * @param gpsStatus Send a GpsStatus whenever the GPS fires
+     * @param receivedNanos ElapsedClock time the status was received
      * @return JSON representation of the satellite data
      */
-    public static String satelliteDataJSON(GpsStatus gpsStatus){
+    public static String satelliteDataJSON(GpsStatus gpsStatus, long receivedNanos){
+        return satelliteDataJSON(gpsStatus, receivedNanos, PayloadFormat.FULL);
+    }
+
+    /**
+     * Converts GpsStatus into JSON with only the selected satellite fields and precision.
+     * PRN is the SVID field and SNR the CN0 field.
+     * @param gpsStatus Send a GpsStatus whenever the GPS fires
+     * @param receivedNanos ElapsedClock time the status was received
+     * @param format The fields and decimals to write
+     * @return JSON representation of the satellite data
+     */
+    public static String satelliteDataJSON(GpsStatus gpsStatus, long receivedNanos, PayloadFormat format){
 
-        final Calendar calendar = Calendar.getInstance();
         final JSONObject json = new JSONObject();
 
         try {
             json.put("provider", SATELLITE_PROVIDER);
-            json.put("timestamp", calendar.getTimeInMillis());
+            json.put("timestamp", System.currentTimeMillis());
+
+            final Iterable<GpsSatellite> satellites = gpsStatus.getSatellites();
 
-            if(gpsStatus.getSatellites() != null) {
+            if(satellites != null) {
                 int count = 0;
                 final int timeToFirstFix = gpsStatus.getTimeToFirstFix();
 
-                for(GpsSatellite sat: gpsStatus.getSatellites() ){
+                for(GpsSatellite sat: satellites){
                     final JSONObject satelliteInfo = new JSONObject();
 
-                    satelliteInfo.put("PRN", sat.getPrn());
-                    satelliteInfo.put("timeToFirstFix", timeToFirstFix);
-                    satelliteInfo.put("usedInFix", sat.usedInFix());
-                    satelliteInfo.put("azimuth", sat.getAzimuth());
-                    satelliteInfo.put("elevation", sat.getElevation());
-                    satelliteInfo.put("hasEphemeris", sat.hasEphemeris());
-                    satelliteInfo.put("hasAlmanac", sat.hasAlmanac());
-                    satelliteInfo.put("SNR", sat.getSnr());
+                    if(format.hasSatellite(PayloadFormat.SVID)){
+                        satelliteInfo.put("PRN", sat.getPrn());
+                    }
+                    if(format.hasSatellite(PayloadFormat.TIME_TO_FIRST_FIX)){
+                        satelliteInfo.put("timeToFirstFix", timeToFirstFix);
+                    }
+                    if(format.hasSatellite(PayloadFormat.USED_IN_FIX)){
+                        satelliteInfo.put("usedInFix", sat.usedInFix());
+                    }
+                    if(format.hasSatellite(PayloadFormat.AZIMUTH)){
+                        satelliteInfo.put("azimuth", round(sat.getAzimuth(), format.floatDecimals));
+                    }
+                    if(format.hasSatellite(PayloadFormat.ELEVATION)){
+                        satelliteInfo.put("elevation", round(sat.getElevation(), format.floatDecimals));
+                    }
+                    if(format.hasSatellite(PayloadFormat.HAS_EPHEMERIS)){
+                        satelliteInfo.put("hasEphemeris", sat.hasEphemeris());
+                    }
+                    if(format.hasSatellite(PayloadFormat.HAS_ALMANAC)){
+                        satelliteInfo.put("hasAlmanac", sat.hasAlmanac());
+                    }
+                    if(format.hasSatellite(PayloadFormat.CN0)){
+                        satelliteInfo.put("SNR", round(sat.getSnr(), format.floatDecimals));
+                    }
 
                     json.put(Integer.toString(count), satelliteInfo);
 
                     count++;
                 }
             }
+
+            putTimes(json, receivedNanos, receivedNanos);
         }
         catch (JSONException exc){
             logJSONException(exc);
@@ -500,6 +690,68 @@ public final class JSONHelper {
         return json.toString();
     }
 
+    /**
+     * Confirms that a callback channel was opened or closed
+     * @param channel The channel name
+     * @param subscribed <code>false</code> for the last result the channel's callback receives
+     * @return Channel data
+     */
+    public static String channelJSON(String channel, boolean subscribed) {
+        final JSONObject json = new JSONObject();
+
+        try {
+            json.put("provider", CHANNEL_PROVIDER);
+            json.put("channel", channel);
+            json.put("subscribed", subscribed);
+        }
+        catch (JSONException exc) {
+            logJSONException(exc);
+        }
+
+        return json.toString();
+    }
+
+    /**
+     * Tells JavaScript where the loopback stream server listens
+     * @param port The bound port
+     * @param path The path, including the token clients must present
+     * @param streamOnly <code>true</code> if data payloads no longer go to the callbacks
+     * @return Stream data
+     */
+    public static String streamJSON(int port, String path, boolean streamOnly) {
+        final JSONObject json = new JSONObject();
+
+        try {
+            json.put("provider", STREAM_PROVIDER);
+            json.put("url", "ws://127.0.0.1:" + port + path);
+            json.put("port", port);
+            json.put("streamOnly", streamOnly);
+        }
+        catch (JSONException exc) {
+            logJSONException(exc);
+        }
+
+        return json.toString();
+    }
+
+    /**
+     * Reads the clock that payload timestamps use, so JavaScript can map them to its own clock
+     * @return Clock data
+     */
+    public static String clockJSON() {
+        final JSONObject json = new JSONObject();
+
+        try {
+            json.put("provider", CLOCK_PROVIDER);
+            json.put("elapsedRealtimeNanos", ElapsedClock.nanos());
+        }
+        catch (JSONException exc) {
+            logJSONException(exc);
+        }
+
+        return json.toString();
+    }
+
     /**
      * Helper method for reporting errors coming off a location provider
      * @param provider Indicates if this error is coming from gps or network provider
@@ -522,13 +774,20 @@ public final class JSONHelper {
     }
 
     /**
-     * Helper method for reporting errors coming off a location provider
+     * Helper method for reporting errors coming off a location provider. The JSON is serialized
+     * once per provider and error, and then reused.
      * @param provider Indicates if this error is coming from gps or network provider
      * @param error The actual error being thrown by the provider
      * @return Error string
      */
     public static String errorJSON(String provider, Error error) {
 
+        final String cached = provider != null ? error.getJSON(provider) : null;
+
+        if(cached != null){
+            return cached;
+        }
+
         final JSONObject json = new JSONObject();
 
         try {
@@ -540,7 +799,49 @@ public final class JSONHelper {
             logJSONException(exc);
         }
 
-        return json.toString();
+        final String payload = json.toString();
+
+        if(provider != null){
+            error.putJSON(provider, payload);
+        }
+
+        return payload;
+    }
+
+    private static JSONObject histogramJSON(Histogram histogram, double nanosPerUnit) throws JSONException {
+        final JSONObject json = new JSONObject();
+        json.put("count", histogram.getCount());
+        json.put("mean", histogram.getMean() / nanosPerUnit);
+        json.put("p50", histogram.getPercentile(50) / nanosPerUnit);
+        json.put("p95", histogram.getPercentile(95) / nanosPerUnit);
+        json.put("p99", histogram.getPercentile(99) / nanosPerUnit);
+        json.put("max", histogram.getMax() / nanosPerUnit);
+
+        return json;
+    }
+
+    /**
+     * Appends the sensor, receipt and dispatch times of a payload, all on the ElapsedClock.
+     * Dispatch is read last, once the rest of the payload has been built.
+     * @param sensorNanos When the measurement was taken, or 0 if the platform doesn't report it
+     * @param receivedNanos When the listener received it
+     */
+    private static void putTimes(JSONObject json, long sensorNanos, long receivedNanos) throws JSONException {
+        json.put("sensorNanos", sensorNanos > 0 ? sensorNanos : receivedNanos);
+        json.put("receivedNanos", receivedNanos);
+        json.put("dispatchNanos", ElapsedClock.nanos());
+    }
+
+    /**
+     * @param decimals Digits after the point, or a negative number to keep the value as is
+     */
+    private static double round(float value, int decimals){
+        if(decimals < 0){
+            return value;
+        }
+
+        final double scale = Math.pow(10, decimals);
+        return Math.round(value * scale) / scale;
     }
 
     private static void logJSONException(JSONException exc){
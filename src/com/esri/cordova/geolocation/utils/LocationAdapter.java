@@ -0,0 +1,96 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.utils;
+
+import android.location.Location;
+import android.location.LocationManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.esri.cordova.geolocation.core.Fix;
+import com.esri.cordova.geolocation.core.LastFixCache;
+
+/**
+ * Copies Android Locations into the platform independent core Fix.
+ */
+public final class LocationAdapter {
+
+    private static final String TAG = "GeolocationPlugin";
+
+    private LocationAdapter(){
+    }
+
+    /**
+     * Populates a fix from an android Location.
+     * @param provider Either LocationManager.GPS_PROVIDER or LocationManager.NETWORK_PROVIDER
+     * @param location The android Location
+     * @param cached Whether or not the location came from the provider's cache
+     * @param fix The fix to populate, it is reused between calls
+     * @return The populated fix
+     */
+    public static Fix toFix(String provider, Location location, boolean cached, Fix fix){
+        fix.provider = provider;
+        fix.time = location.getTime();
+        fix.elapsedRealtimeNanos = location.getElapsedRealtimeNanos();
+        fix.receivedNanos = SystemClock.elapsedRealtimeNanos();
+        fix.latitude = location.getLatitude();
+        fix.longitude = location.getLongitude();
+        fix.altitude = location.getAltitude();
+        fix.accuracy = location.getAccuracy();
+        fix.speed = location.getSpeed();
+        fix.bearing = location.getBearing();
+        fix.cached = cached;
+
+        return fix;
+    }
+
+    /**
+     * Finds the newest known location of a provider, from either the plugin's LastFixCache or
+     * the LocationManager's last known location. Doesn't start a listener.
+     * @param locationManager The LocationManager
+     * @param provider Either LocationManager.GPS_PROVIDER, NETWORK_PROVIDER or PASSIVE_PROVIDER
+     * @param maximumAgeNanos Oldest location that is acceptable
+     * @param fix Receives the location, marked as cached
+     * @return <code>true</code> if a location was found
+     * @throws SecurityException if the app lacks the permissions for the provider
+     */
+    public static boolean lastKnownFix(LocationManager locationManager, String provider, long maximumAgeNanos, Fix fix){
+        final long now = SystemClock.elapsedRealtimeNanos();
+        final boolean found = LastFixCache.get(provider, maximumAgeNanos, now, fix);
+
+        Location location = null;
+
+        try {
+            location = locationManager.getLastKnownLocation(provider);
+        }
+        // A provider the device doesn't have, missing permissions are left to the caller
+        catch(IllegalArgumentException exc){
+            Log.d(TAG, exc.getMessage());
+        }
+
+        // If the provider is disabled or currently unavailable then null is returned
+        if(location == null
+                || now - location.getElapsedRealtimeNanos() > maximumAgeNanos
+                || (found && location.getElapsedRealtimeNanos() <= fix.elapsedRealtimeNanos)){
+            return found;
+        }
+
+        toFix(provider, location, true, fix);
+
+        return true;
+    }
+}
@@ -0,0 +1,330 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.utils;
+
+import com.esri.cordova.geolocation.core.Fix;
+import com.esri.cordova.geolocation.core.NmeaEpoch;
+import com.esri.cordova.geolocation.core.NmeaParser;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming reader for recorded location logs. It understands GPX tracks, NMEA 0183 sentences
+ * (RMC and GGA, parsed by the core NmeaParser) and the plugin's own JSON output logged one
+ * payload per line. The format is detected line by line and only one fix is held in memory at
+ * a time.
+ *
+ * This class has no Android dependencies so it can be used from a plain JVM.
+ */
+public final class ReplayReader {
+
+    public static final String PROVIDER_GPS = "gps";
+    public static final String PROVIDER_NETWORK = "network";
+
+    private static final int BUFFER_SIZE = 8192;
+    // Rough user equivalent range error used to turn NMEA HDOP into an accuracy in meters
+    private static final float UERE_METERS = 5.0f;
+
+    private final BufferedReader _reader;
+    private final Fix _pending = new Fix();
+
+    private String _line = null;
+    private int _pos = 0;
+
+    // GPX state
+    private boolean _inPoint = false;
+
+    // Merges the sentences of each NMEA epoch into one fix
+    private final NmeaParser _nmea = new NmeaParser();
+
+    public ReplayReader(Reader reader){
+        _reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, BUFFER_SIZE);
+    }
+
+    /**
+     * Reads the next fix.
+     * @param fix Populated with the next fix. It is reused by the caller between calls.
+     * @return <code>false</code> once the end of the log is reached
+     * @throws IOException if the underlying reader fails
+     */
+    public boolean next(Fix fix) throws IOException {
+
+        while(true){
+            if(_line == null || _pos >= _line.length()){
+                final String line = _reader.readLine();
+
+                if(line == null){
+                    return _nmea.flush() && toFix(_nmea.getCompleted(), fix);
+                }
+
+                _line = line.trim();
+                _pos = 0;
+
+                if(_line.length() == 0){
+                    continue;
+                }
+
+                final char first = _line.charAt(0);
+
+                if(first == '$'){
+                    _pos = _line.length();
+                    if(_nmea.parse(_line, 0, 0) && toFix(_nmea.getCompleted(), fix)){
+                        return true;
+                    }
+                    continue;
+                }
+                if(first == '{' || first == '['){
+                    _pos = _line.length();
+                    if(parseJson(_line, fix)){
+                        return true;
+                    }
+                    continue;
+                }
+            }
+
+            if(parseGpx(fix)){
+                return true;
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        _reader.close();
+    }
+
+    //
+    //
+    // JSON
+    //
+    //
+
+    private static boolean parseJson(String line, Fix fix){
+        int start = 0;
+        int end = line.length();
+
+        // Tolerate a log that was saved as a JSON array with one payload per line
+        while(start < end && (line.charAt(start) == '[' || line.charAt(start) == ',')){
+            start++;
+        }
+        while(end > start && (line.charAt(end - 1) == ']' || line.charAt(end - 1) == ',')){
+            end--;
+        }
+
+        try {
+            final JSONObject json = new JSONObject(line.substring(start, end));
+            final String provider = json.optString("provider", PROVIDER_GPS);
+
+            // Satellite and cell payloads are skipped, only positions are replayed
+            if(!json.has("latitude") || !json.has("longitude")
+                    || !(provider.equals(PROVIDER_GPS) || provider.equals(PROVIDER_NETWORK))){
+                return false;
+            }
+
+            fix.clear();
+            fix.provider = provider;
+            fix.time = json.optLong("timestamp", 0);
+            fix.latitude = json.optDouble("latitude", 0);
+            fix.longitude = json.optDouble("longitude", 0);
+            fix.altitude = json.optDouble("altitude", 0);
+            fix.accuracy = (float) json.optDouble("accuracy", 0);
+            fix.speed = (float) json.optDouble("speed", 0);
+            fix.bearing = (float) json.optDouble("bearing", 0);
+
+            return true;
+        }
+        catch(JSONException exc){
+            return false;
+        }
+    }
+
+    //
+    //
+    // GPX
+    //
+    //
+
+    private boolean parseGpx(Fix fix){
+
+        while(true){
+            final int open = _line.indexOf('<', _pos);
+            final int close = open < 0 ? -1 : _line.indexOf('>', open);
+
+            if(close < 0){
+                _pos = _line.length();
+                return false;
+            }
+
+            final String tag = _line.substring(open + 1, close);
+            _pos = close + 1;
+
+            if(tag.startsWith("trkpt") || tag.startsWith("rtept") || tag.startsWith("wpt ")){
+                _pending.clear();
+                _pending.latitude = parseDouble(attribute(tag, "lat"));
+                _pending.longitude = parseDouble(attribute(tag, "lon"));
+                _inPoint = true;
+
+                if(tag.endsWith("/")){
+                    _inPoint = false;
+                    fix.set(_pending);
+                    return true;
+                }
+            }
+            else if(_inPoint){
+                if(tag.equals("/trkpt") || tag.equals("/rtept") || tag.equals("/wpt")){
+                    _inPoint = false;
+                    fix.set(_pending);
+                    return true;
+                }
+                if(tag.equals("ele")){
+                    _pending.altitude = parseDouble(elementText());
+                }
+                else if(tag.equals("time")){
+                    _pending.time = parseIsoTime(elementText());
+                }
+                else if(tag.equals("speed")){
+                    _pending.speed = (float) parseDouble(elementText());
+                }
+                else if(tag.equals("course")){
+                    _pending.bearing = (float) parseDouble(elementText());
+                }
+            }
+        }
+    }
+
+    private String elementText(){
+        final int end = _line.indexOf('<', _pos);
+        return (end < 0 ? _line.substring(_pos) : _line.substring(_pos, end)).trim();
+    }
+
+    private static String attribute(String tag, String name){
+        int index = tag.indexOf(" " + name + "=");
+
+        if(index < 0){
+            return null;
+        }
+
+        index += name.length() + 2;
+
+        if(index >= tag.length()){
+            return null;
+        }
+
+        final char quote = tag.charAt(index);
+        final int end = tag.indexOf(quote, index + 1);
+
+        return end < 0 ? null : tag.substring(index + 1, end);
+    }
+
+    /**
+     * Parses ISO 8601 date-times such as 2016-01-12T21:39:29Z, 2016-01-12T21:39:29.250Z
+     * or 2016-01-12T14:39:29-07:00.
+     */
+    private static long parseIsoTime(String text){
+        if(text == null || text.length() < 19){
+            return 0;
+        }
+
+        try {
+            long millis = NmeaParser.utcMidnight(
+                    Integer.parseInt(text.substring(0, 4)),
+                    Integer.parseInt(text.substring(5, 7)),
+                    Integer.parseInt(text.substring(8, 10)))
+                    + Integer.parseInt(text.substring(11, 13)) * 3600000L
+                    + Integer.parseInt(text.substring(14, 16)) * 60000L
+                    + Integer.parseInt(text.substring(17, 19)) * 1000L;
+
+            int index = 19;
+
+            if(index < text.length() && text.charAt(index) == '.'){
+                int scale = 100;
+                index++;
+                while(index < text.length() && Character.isDigit(text.charAt(index))){
+                    millis += (text.charAt(index) - '0') * scale;
+                    scale /= 10;
+                    index++;
+                }
+            }
+
+            if(index + 6 <= text.length() && (text.charAt(index) == '+' || text.charAt(index) == '-')){
+                final int sign = text.charAt(index) == '+' ? 1 : -1;
+                final int hours = Integer.parseInt(text.substring(index + 1, index + 3));
+                final int minutes = Integer.parseInt(text.substring(index + 4, index + 6));
+                millis -= sign * (hours * 3600000L + minutes * 60000L);
+            }
+
+            return millis;
+        }
+        catch(NumberFormatException exc){
+            return 0;
+        }
+    }
+
+    //
+    //
+    // NMEA
+    //
+    //
+
+    /**
+     * Copies a completed epoch into a fix. Epochs without a position, or whose GGA reports no
+     * fix, are skipped.
+     */
+    private static boolean toFix(NmeaEpoch epoch, Fix fix){
+        if(Double.isNaN(epoch.latitude) || Double.isNaN(epoch.longitude) || epoch.fixQuality == 0){
+            return false;
+        }
+
+        fix.clear();
+        fix.time = epoch.utcTime != 0 ? epoch.utcTime : Math.max(0, epoch.timeOfDay);
+        fix.latitude = epoch.latitude;
+        fix.longitude = epoch.longitude;
+        fix.altitude = orZero(epoch.altitude);
+        fix.accuracy = (float) orZero(epoch.hdop) * UERE_METERS;
+        fix.speed = (float) orZero(epoch.speed);
+        fix.bearing = (float) orZero(epoch.course);
+
+        return true;
+    }
+
+    //
+    //
+    // UTILITY METHODS
+    //
+    //
+
+    private static double parseDouble(String value){
+        if(value == null || value.length() == 0){
+            return 0;
+        }
+
+        try {
+            return Double.parseDouble(value);
+        }
+        catch(NumberFormatException exc){
+            return 0;
+        }
+    }
+
+    private static double orZero(double value){
+        return Double.isNaN(value) ? 0 : value;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.utils;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the results an EncodeStage sends while it drains a batch and sends them as one
+ * multipart PluginResult per channel, so the bridge is crossed once per batch rather than
+ * once per payload. The plugin's JavaScript hands each part to the callback in turn.
+ * The channel's callback is looked up when the batch is flushed, see CallbackChannels.send().
+ * A batch is used from the encode stage's thread only.
+ */
+public final class ResultBatch {
+
+    // Results by channel, and the channels in the order their first result was added
+    private final List<List<PluginResult>> _results = new ArrayList<List<PluginResult>>();
+    private final int[] _channels = new int[CallbackChannels.count()];
+    private int _channelCount = 0;
+    private int _size = 0;
+
+    public ResultBatch(){
+        for(int i = 0; i < _channels.length; i++){
+            _results.add(new ArrayList<PluginResult>());
+        }
+    }
+
+    /**
+     * Adds a data result, it is sent by the next flush.
+     * @param channel One of the CallbackChannels
+     */
+    public void add(int channel, PluginResult result){
+        final List<PluginResult> results = _results.get(channel);
+
+        if(results.isEmpty()){
+            _channels[_channelCount++] = channel;
+        }
+
+        results.add(result);
+        _size++;
+    }
+
+    public int size(){
+        return _size;
+    }
+
+    /**
+     * Sends every result added since the last flush, a single result as it is.
+     * @param fallback The start() callback
+     * @return The number of results sent
+     */
+    public int flush(CallbackContext fallback){
+        final int sent = _size;
+
+        try {
+            for(int i = 0; i < _channelCount; i++){
+                final List<PluginResult> results = _results.get(_channels[i]);
+
+                if(results.size() == 1){
+                    CallbackChannels.send(_channels[i], fallback, results.get(0));
+                }
+                else {
+                    final PluginResult result = new PluginResult(PluginResult.Status.OK, new ArrayList<PluginResult>(results));
+                    result.setKeepCallback(true);
+                    CallbackChannels.send(_channels[i], fallback, result);
+                }
+            }
+        }
+        finally {
+            clear();
+        }
+
+        return sent;
+    }
+
+    /**
+     * Discards the results added since the last flush.
+     * @return The number of results discarded
+     */
+    public int clear(){
+        final int discarded = _size;
+
+        for(int i = 0; i < _channelCount; i++){
+            _results.get(_channels[i]).clear();
+        }
+
+        _channelCount = 0;
+        _size = 0;
+
+        return discarded;
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.utils;
+
+import com.esri.cordova.geolocation.core.EncodeStage;
+import com.esri.cordova.geolocation.core.Fix;
+import com.esri.cordova.geolocation.core.FixDispatcher;
+import com.esri.cordova.geolocation.core.FixPipeline;
+import com.esri.cordova.geolocation.core.ProviderStats;
+import com.esri.cordova.geolocation.core.SpscQueue;
+import com.esri.cordova.geolocation.core.TraceRing;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+
+/**
+ * Sends a location provider's fixes and results to JavaScript, either directly from the
+ * listener's thread or through an optional EncodeStage. On the stage's thread data payloads are
+ * collected in a ResultBatch and sent once per batch, errors from other threads overtake the
+ * queued data, and the provider's stats and trace events are updated for every send.
+ * Each provider has one sender.
+ */
+public final class ResultSender {
+
+    private final ProviderStats _stats;
+    private final int _traceProvider;
+    // Payloads of the batch the encode stage is draining, only used on the stage's thread
+    private final ResultBatch _resultBatch = new ResultBatch();
+
+    private volatile CallbackContext _callbackContext = null;
+    private volatile EncodeStage _encodeStage = null;
+    private SpscQueue<Fix> _fixQueue = null;
+
+    /**
+     * @param stats The provider's stats
+     * @param traceProvider One of the TraceRing.PROVIDER_ constants
+     */
+    public ResultSender(ProviderStats stats, int traceProvider){
+        _stats = stats;
+        _traceProvider = traceProvider;
+    }
+
+    /**
+     * @param callbackContext The start() callback, used by every send that follows
+     */
+    public void setCallbackContext(CallbackContext callbackContext){
+        _callbackContext = callbackContext;
+    }
+
+    /**
+     * @return The running encode stage, or <code>null</code> if fixes are encoded on the listener's thread
+     */
+    public EncodeStage getEncodeStage(){
+        return _encodeStage;
+    }
+
+    /**
+     * Creates an encode stage with a lane for fixes, so the listener only copies them into a queue.
+     * Further lanes can be added before the caller starts the stage. When the stage is stopped
+     * its queues are left in place for a listener callback that is already running, they are
+     * replaced when a stage is created again.
+     * @param fixQueueSize Number of fixes that can wait, a power of two
+     * @param fixHandler Encodes and sends each fix on the stage's thread
+     * @return The stage, not started yet
+     */
+    public EncodeStage createEncodeStage(int fixQueueSize, EncodeStage.SlotHandler<Fix> fixHandler){
+        final Fix[] fixes = new Fix[fixQueueSize];
+        for(int i = 0; i < fixes.length; i++){
+            fixes[i] = new Fix();
+        }
+
+        final EncodeStage stage = new EncodeStage(_stats, new EncodeStage.ControlSink() {
+            @Override
+            public void send(boolean error, String payload) {
+                // Sent even while the stage is stopping, unlike data
+                sendResult(error ? PluginResult.Status.ERROR : PluginResult.Status.OK, payload);
+            }
+        }, new EncodeStage.BatchSink() {
+            @Override
+            public void flush() {
+                flushResults();
+            }
+
+            @Override
+            public void discard() {
+                _stats.onDropped(_resultBatch.clear());
+            }
+        });
+        _fixQueue = stage.addLane(fixes, fixHandler);
+        _encodeStage = stage;
+
+        return stage;
+    }
+
+    /**
+     * Waits for the stage's thread to finish, does nothing if there is no stage.
+     */
+    public void stopEncodeStage(){
+        final EncodeStage stage = _encodeStage;
+
+        if(stage != null){
+            stage.stop();
+            _encodeStage = null;
+        }
+    }
+
+    /**
+     * Hands a fix to the native listeners, then to the pipeline, directly or through the encode
+     * stage. Called on the listener's thread.
+     */
+    public void dispatchFix(Fix fix, FixPipeline pipeline){
+        final EncodeStage stage = _encodeStage;
+
+        FixDispatcher.dispatch(fix);
+
+        if(stage == null){
+            pipeline.onFix(fix);
+            return;
+        }
+
+        final Fix slot = _fixQueue.claim();
+
+        // The encoder is falling behind, newer fixes are more useful than queued ones
+        if(slot == null){
+            _stats.onDropped();
+            return;
+        }
+
+        slot.set(fix);
+        stage.publish(_fixQueue);
+    }
+
+    /**
+     * Sends a result to the start() callback.
+     * @param status Message status
+     * @param message Any message
+     */
+    public void sendCallback(PluginResult.Status status, String message){
+        final EncodeStage stage = _encodeStage;
+
+        // Errors overtake any fixes still waiting in the encode stage
+        if(status == PluginResult.Status.ERROR && stage != null && !stage.isStageThread()){
+            stage.publishControl(true, message);
+            return;
+        }
+
+        if(!Thread.currentThread().isInterrupted()){
+            // Keeps the order with the payloads the stage has batched so far
+            if(stage != null && stage.isStageThread()){
+                flushResults();
+            }
+
+            sendResult(status, message);
+        }
+        else {
+            _stats.onDropped();
+        }
+    }
+
+    /**
+     * Sends a data payload to the stream server if it runs, and unless streamOnly is set to the
+     * callback subscribed to its channel, or to the start() callback
+     * @param channel One of the CallbackChannels
+     * @param message The payload
+     */
+    public void sendCallback(int channel, String message){
+        if(Thread.currentThread().isInterrupted()){
+            _stats.onDropped();
+        }
+        else if(CallbackChannels.stream(channel, message)){
+            final PluginResult result = new PluginResult(PluginResult.Status.OK, message);
+            result.setKeepCallback(true);
+            final EncodeStage stage = _encodeStage;
+
+            // The encode stage sends its payloads once it has drained the batch
+            if(stage != null && stage.isStageThread()){
+                _resultBatch.add(channel, result);
+            }
+            else {
+                CallbackChannels.send(channel, _callbackContext, result);
+                _stats.onSent();
+                TraceRing.record(_traceProvider, TraceRing.EVENT_SEND);
+            }
+        }
+    }
+
+    private void sendResult(PluginResult.Status status, String message){
+        final PluginResult result = new PluginResult(status, message);
+        result.setKeepCallback(true);
+        _callbackContext.sendPluginResult(result);
+        _stats.onSent();
+        TraceRing.record(_traceProvider, TraceRing.EVENT_SEND);
+    }
+
+    private void flushResults(){
+        final int sent = _resultBatch.flush(_callbackContext);
+
+        if(sent > 0){
+            _stats.onSent(sent);
+            TraceRing.record(_traceProvider, TraceRing.EVENT_SEND);
+        }
+    }
+}
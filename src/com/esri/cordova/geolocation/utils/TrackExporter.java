@@ -0,0 +1,267 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Streams a session recorded by TrackRecorder into an encoded polyline, a GeoJSON LineString
+ * or a GPX track. Fixes are read and written one at a time so memory use stays constant
+ * regardless of how long the track is. Only depends on the JDK so it is built and tested
+ * with the core package.
+ */
+public final class TrackExporter {
+
+    public static final String FORMAT_POLYLINE = "polyline";
+    public static final String FORMAT_GEOJSON = "geojson";
+    public static final String FORMAT_GPX = "gpx";
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int COORDINATE_DECIMALS = 7;
+    private static final int ALTITUDE_DECIMALS = 1;
+    private static final long[] POW10 = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L};
+
+    private TrackExporter(){
+    }
+
+    public static boolean isSupportedFormat(String format){
+        return FORMAT_POLYLINE.equals(format) || FORMAT_GEOJSON.equals(format) || FORMAT_GPX.equals(format);
+    }
+
+    /**
+     * Returns the file extension used for a given format.
+     * @param format One of the FORMAT_ constants
+     * @return String extension without the leading dot
+     */
+    public static String getExtension(String format){
+        if(FORMAT_GEOJSON.equals(format)){
+            return "geojson";
+        }
+        if(FORMAT_GPX.equals(format)){
+            return "gpx";
+        }
+        return "txt";
+    }
+
+    /**
+     * Converts a recorded session into the requested format.
+     * @param session The binary session file written by TrackRecorder
+     * @param output Destination file, overwritten if it exists
+     * @param format One of the FORMAT_ constants
+     * @param providerCode Only export fixes with this TrackRecorder provider code, or <code>0</code> for all providers
+     * @return The number of fixes written. A GeoJSON LineString needs at least two positions, so a
+     * GeoJSON session with fewer is written with a <code>null</code> geometry and reports <code>0</code>.
+     * @throws IOException if the session can't be read or the output can't be written
+     */
+    public static int export(File session, File output, String format, byte providerCode) throws IOException {
+
+        int count = 0;
+
+        DataInputStream in = null;
+        Writer out = null;
+
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(session), BUFFER_SIZE));
+            out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output), "UTF-8"), BUFFER_SIZE);
+
+            final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+            dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+            final Date date = new Date();
+
+            // Running state for the polyline delta encoding
+            long previousLat = 0;
+            long previousLon = 0;
+
+            // The first GeoJSON position is held back until a second one makes the LineString valid
+            double firstLatitude = 0;
+            double firstLongitude = 0;
+            double firstAltitude = 0;
+
+            writeHeader(out, format);
+
+            while(true){
+                final byte code;
+                final long time;
+                final double latitude;
+                final double longitude;
+                final double altitude;
+
+                try {
+                    code = in.readByte();
+                    time = in.readLong();
+                    latitude = in.readDouble();
+                    longitude = in.readDouble();
+                    altitude = in.readDouble();
+                    in.readFloat(); // accuracy is not part of any export format
+                }
+                catch(EOFException exc){
+                    // End of session, or a partial record left by an interrupted write
+                    break;
+                }
+
+                if(providerCode != 0 && code != providerCode){
+                    continue;
+                }
+
+                if(FORMAT_POLYLINE.equals(format)){
+                    final long lat = Math.round(latitude * 1e5);
+                    final long lon = Math.round(longitude * 1e5);
+                    writePolylineValue(out, lat - previousLat);
+                    writePolylineValue(out, lon - previousLon);
+                    previousLat = lat;
+                    previousLon = lon;
+                }
+                else if(FORMAT_GEOJSON.equals(format)){
+                    if(count == 0){
+                        firstLatitude = latitude;
+                        firstLongitude = longitude;
+                        firstAltitude = altitude;
+                    }
+                    else {
+                        if(count == 1){
+                            out.write("{\"type\":\"LineString\",\"coordinates\":[");
+                            writePosition(out, firstLatitude, firstLongitude, firstAltitude);
+                        }
+                        out.write(',');
+                        writePosition(out, latitude, longitude, altitude);
+                    }
+                }
+                else {
+                    date.setTime(time);
+                    out.write("<trkpt lat=\"");
+                    writeDecimal(out, latitude, COORDINATE_DECIMALS);
+                    out.write("\" lon=\"");
+                    writeDecimal(out, longitude, COORDINATE_DECIMALS);
+                    out.write("\"><ele>");
+                    writeDecimal(out, altitude, ALTITUDE_DECIMALS);
+                    out.write("</ele><time>");
+                    out.write(dateFormat.format(date));
+                    out.write("</time></trkpt>\n");
+                }
+
+                count++;
+            }
+
+            writeFooter(out, format, count);
+
+            if(FORMAT_GEOJSON.equals(format) && count < 2){
+                count = 0;
+            }
+        }
+        finally {
+            if(in != null){
+                try {
+                    in.close();
+                }
+                catch(IOException ignore){
+                    // Nothing left to read
+                }
+            }
+            if(out != null){
+                out.close();
+            }
+        }
+
+        return count;
+    }
+
+    private static void writeHeader(Writer out, String format) throws IOException {
+        if(FORMAT_GEOJSON.equals(format)){
+            out.write("{\"type\":\"Feature\",\"properties\":{},\"geometry\":");
+        }
+        else if(FORMAT_GPX.equals(format)){
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            out.write("<gpx version=\"1.1\" creator=\"cordova-plugin-advanced-geolocation\" xmlns=\"http://www.topografix.com/GPX/1/1\">\n");
+            out.write("<trk><trkseg>\n");
+        }
+    }
+
+    private static void writeFooter(Writer out, String format, int count) throws IOException {
+        if(FORMAT_GEOJSON.equals(format)){
+            out.write(count < 2 ? "null}" : "]}}");
+        }
+        else if(FORMAT_GPX.equals(format)){
+            out.write("</trkseg></trk>\n</gpx>\n");
+        }
+    }
+
+    private static void writePosition(Writer out, double latitude, double longitude, double altitude) throws IOException {
+        out.write('[');
+        writeDecimal(out, longitude, COORDINATE_DECIMALS);
+        out.write(',');
+        writeDecimal(out, latitude, COORDINATE_DECIMALS);
+        out.write(',');
+        writeDecimal(out, altitude, ALTITUDE_DECIMALS);
+        out.write(']');
+    }
+
+    /**
+     * Writes a single signed value using Google's encoded polyline algorithm.
+     * Reference: https://developers.google.com/maps/documentation/utilities/polylinealgorithm
+     */
+    private static void writePolylineValue(Writer out, long value) throws IOException {
+        long shifted = value << 1;
+        if(value < 0){
+            shifted = ~shifted;
+        }
+
+        while(shifted >= 0x20){
+            out.write((int) ((0x20 | (shifted & 0x1f)) + 63));
+            shifted >>= 5;
+        }
+
+        out.write((int) (shifted + 63));
+    }
+
+    /**
+     * Writes a fixed-point decimal without going through String.format or scientific notation,
+     * which is not valid in GPX.
+     */
+    private static void writeDecimal(Writer out, double value, int decimals) throws IOException {
+        if(value < 0){
+            out.write('-');
+            value = -value;
+        }
+
+        final long scale = POW10[decimals];
+        final long scaled = Math.round(value * scale);
+
+        out.write(Long.toString(scaled / scale));
+
+        if(decimals > 0){
+            out.write('.');
+            final long fraction = scaled % scale;
+
+            for(long digit = scale / 10; digit > 0; digit /= 10){
+                out.write((int) ('0' + (fraction / digit) % 10));
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * @author Andy Gup
+ *
+ * Copyright 2016 Esri
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.​
+ */
+package com.esri.cordova.geolocation.utils;
+
+import android.location.LocationManager;
+import android.util.Log;
+
+import com.esri.cordova.geolocation.core.Fix;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Threadsafe recorder that appends every fix of a tracking session to a compact binary file.
+ * Fixes are written through a small fixed-size buffer so memory use does not grow with the
+ * length of the track. Use TrackExporter to convert a session into a shareable format.
+ */
+public final class TrackRecorder {
+
+    public static final String SESSION_FILE = "advanced-geolocation-track.bin";
+
+    // Each record is 37 bytes:
+    // provider (1) + time (8) + latitude (8) + longitude (8) + altitude (8) + accuracy (4)
+    public static final byte PROVIDER_GPS = 1;
+    public static final byte PROVIDER_NETWORK = 2;
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final String TAG = "GeolocationPlugin";
+
+    private static DataOutputStream _out = null;
+    private static File _sessionFile = null;
+
+    private TrackRecorder(){
+    }
+
+    /**
+     * Opens the session file for writing.
+     * @param directory Directory that holds the session file, typically the app's files directory
+     * @param append <code>true</code> to continue the previous session, for example on resume
+     * @return <code>true</code> if the recorder is ready
+     */
+    public static synchronized boolean start(File directory, boolean append){
+        stop();
+
+        _sessionFile = new File(directory, SESSION_FILE);
+
+        try {
+            _out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(_sessionFile, append), BUFFER_SIZE));
+        }
+        catch(IOException exc){
+            Log.e(TAG, "Unable to open track session file. " + exc.getMessage());
+            _out = null;
+        }
+
+        return _out != null;
+    }
+
+    /**
+     * Appends a fix to the session. Does nothing if the recorder has not been started.
+     * @param fix The fix, its provider is either LocationManager.GPS_PROVIDER or LocationManager.NETWORK_PROVIDER
+     */
+    public static synchronized void record(Fix fix){
+        if(_out != null && fix != null){
+            try {
+                _out.writeByte(providerCode(fix.provider));
+                _out.writeLong(fix.time);
+                _out.writeDouble(fix.latitude);
+                _out.writeDouble(fix.longitude);
+                _out.writeDouble(fix.altitude);
+                _out.writeFloat(fix.accuracy);
+            }
+            catch(IOException exc){
+                Log.e(TAG, "Unable to record fix, closing track session. " + exc.getMessage());
+                stop();
+            }
+        }
+    }
+
+    /**
+     * Pushes any buffered fixes to disk without closing the session.
+     */
+    public static synchronized void flush(){
+        if(_out != null){
+            try {
+                _out.flush();
+            }
+            catch(IOException exc){
+                Log.e(TAG, exc.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Closes the session file. The file is kept so the session can still be exported.
+     */
+    public static synchronized void stop(){
+        if(_out != null){
+            try {
+                _out.close();
+            }
+            catch(IOException exc){
+                Log.e(TAG, exc.getMessage());
+            }
+
+            _out = null;
+        }
+    }
+
+    public static synchronized boolean isRecording(){
+        return _out != null;
+    }
+
+    /**
+     * Returns the file holding the current or most recent session.
+     * @param directory Directory that holds the session file
+     * @return File
+     */
+    public static synchronized File getSessionFile(File directory){
+        if(_sessionFile == null){
+            _sessionFile = new File(directory, SESSION_FILE);
+        }
+
+        return _sessionFile;
+    }
+
+    public static byte providerCode(String provider){
+        return LocationManager.NETWORK_PROVIDER.equals(provider) ? PROVIDER_NETWORK : PROVIDER_GPS;
+    }
+}
@@ -17,6 +17,36 @@
  */
 var exec = cordova.require('cordova/exec');
 
+// Offset from performance.now() to the plugin's elapsedRealtimeNanos clock, set by syncClock()
+var clockSync = null;
+
+function now() {
+    return typeof performance !== "undefined" && performance.now ? performance.now() : Date.now();
+}
+
+// Delta keys of a delta encoded location and the absolute keys they rebuild, see deltaEncoding
+var DELTA_KEYS = {
+    dLat: "latitude",
+    dLon: "longitude",
+    dBufferedLat: "bufferedLatitude",
+    dBufferedLon: "bufferedLongitude",
+    dTime: "timestamp"
+};
+var COORDINATE_KEYS = {latitude: true, longitude: true, bufferedLatitude: true, bufferedLongitude: true};
+
+// The encode thread sends a batch of payloads as one multipart result, which arrives as one
+// argument per payload. Hands each of them to the callback in turn.
+function eachPart(callback) {
+    if(!callback){
+        return callback;
+    }
+    return function() {
+        for(var i = 0; i < arguments.length; i++){
+            callback(arguments[i]);
+        }
+    };
+}
+
 var AdvancedGeolocation = {
 
     start: function(successCallback, errorCallback, args) {
@@ -24,7 +54,7 @@ var AdvancedGeolocation = {
         if(args){
             argsArray.push(args);
         }
-        exec(successCallback, errorCallback, "AdvancedGeolocation", "start", argsArray);
+        exec(eachPart(successCallback), errorCallback, "AdvancedGeolocation", "start", argsArray);
     },
 
     stop: function(successCallback, errorCallback) {
@@ -33,6 +63,178 @@ var AdvancedGeolocation = {
 
     kill: function(successCallback, errorCallback) {
         exec(successCallback, errorCallback, "AdvancedGeolocation", "kill", []);
+    },
+
+    exportTrack: function(successCallback, errorCallback, args) {
+        var argsArray = [];
+        if(args){
+            argsArray.push(args);
+        }
+        exec(successCallback, errorCallback, "AdvancedGeolocation", "export", argsArray);
+    },
+
+    getStats: function(successCallback, errorCallback, args) {
+        var argsArray = [];
+        if(args){
+            argsArray.push(args);
+        }
+        exec(successCallback, errorCallback, "AdvancedGeolocation", "stats", argsArray);
+    },
+
+    update: function(successCallback, errorCallback, args) {
+        var argsArray = [];
+        if(args){
+            argsArray.push(args);
+        }
+        exec(successCallback, errorCallback, "AdvancedGeolocation", "update", argsArray);
+    },
+
+    dumpTrace: function(successCallback, errorCallback, args) {
+        var argsArray = [];
+        if(args){
+            argsArray.push(args);
+        }
+        exec(successCallback, errorCallback, "AdvancedGeolocation", "trace", argsArray);
+    },
+
+    getLastLocation: function(successCallback, errorCallback, args) {
+        var argsArray = [];
+        if(args){
+            argsArray.push(args);
+        }
+        exec(successCallback, errorCallback, "AdvancedGeolocation", "getLastLocation", argsArray);
+    },
+
+    getCurrentPosition: function(successCallback, errorCallback, args) {
+        var argsArray = [];
+        if(args){
+            argsArray.push(args);
+        }
+        exec(successCallback, errorCallback, "AdvancedGeolocation", "getCurrentPosition", argsArray);
+    },
+
+    subscribe: function(successCallback, errorCallback, args) {
+        var argsArray = [];
+        if(args){
+            argsArray.push(args);
+        }
+        exec(eachPart(successCallback), errorCallback, "AdvancedGeolocation", "subscribe", argsArray);
+    },
+
+    unsubscribe: function(successCallback, errorCallback, args) {
+        var argsArray = [];
+        if(args){
+            argsArray.push(args);
+        }
+        exec(successCallback, errorCallback, "AdvancedGeolocation", "unsubscribe", argsArray);
+    },
+
+    syncClock: function(successCallback, errorCallback, args) {
+        var samples = args && args.samples > 0 ? args.samples : 5;
+        var best = null;
+
+        // Keeps the sample with the shortest round trip, its offset is accurate to half of it
+        var sample = function() {
+            var sent = now();
+            exec(function(result) {
+                var received = now();
+                var clock = typeof result === "string" ? JSON.parse(result) : result;
+                var roundTrip = received - sent;
+
+                if(best === null || roundTrip < best.roundTrip){
+                    best = {
+                        offset: clock.elapsedRealtimeNanos / 1e6 - (sent + received) / 2,
+                        roundTrip: roundTrip
+                    };
+                }
+
+                if(--samples > 0){
+                    sample();
+                }
+                else {
+                    clockSync = best;
+                    if(successCallback){
+                        successCallback({offset: best.offset, uncertainty: best.roundTrip / 2});
+                    }
+                }
+            }, errorCallback, "AdvancedGeolocation", "clock", []);
+        };
+
+        sample();
+    },
+
+    getLatency: function(payload) {
+        var data = typeof payload === "string" ? JSON.parse(payload) : payload;
+        // NMEA batches carry the times of each epoch, the newest one is measured
+        var times = data && data.epochs && data.epochs.length ? data.epochs[data.epochs.length - 1] : data;
+
+        if(clockSync === null || !times || times.sensorNanos === undefined || data.dispatchNanos === undefined){
+            return null;
+        }
+
+        var screen = now() + clockSync.offset;
+
+        return {
+            sensorToReceipt: (times.receivedNanos - times.sensorNanos) / 1e6,
+            receiptToDispatch: (data.dispatchNanos - times.receivedNanos) / 1e6,
+            bridge: screen - data.dispatchNanos / 1e6,
+            total: screen - times.sensorNanos / 1e6,
+            uncertainty: clockSync.roundTrip / 2
+        };
+    },
+
+    createDeltaDecoder: function() {
+        // Quantized values of the last payload, per provider
+        var streams = {};
+
+        return {
+            decode: function(payload) {
+                var data = typeof payload === "string" ? JSON.parse(payload) : payload;
+
+                // Absolute locations and every other payload pass through
+                if(!data || data.seq === undefined){
+                    return data;
+                }
+
+                var stream = streams[data.provider];
+                var location = {};
+                var key, absolute;
+
+                if(data.keyframe){
+                    stream = streams[data.provider] = {scale: Math.pow(10, data.decimals), values: {}};
+                }
+                else if(!stream || data.seq !== stream.seq + 1){
+                    // A payload was missed, wait for the next keyframe
+                    delete streams[data.provider];
+                    return null;
+                }
+
+                stream.seq = data.seq;
+
+                for(key in data){
+                    absolute = DELTA_KEYS[key];
+
+                    if(absolute !== undefined){
+                        stream.values[absolute] += data[key];
+                        location[absolute] = absolute === "timestamp" ?
+                            stream.values[absolute] : stream.values[absolute] / stream.scale;
+                    }
+                    else if(key !== "seq" && key !== "keyframe" && key !== "decimals"){
+                        location[key] = data[key];
+
+                        // Keyframe coordinates are exact multiples of the last decimal
+                        if(data.keyframe && key === "timestamp"){
+                            stream.values[key] = data[key];
+                        }
+                        else if(data.keyframe && COORDINATE_KEYS[key]){
+                            stream.values[key] = Math.round(data[key] * stream.scale);
+                        }
+                    }
+                }
+
+                return location;
+            }
+        };
     }
 }
 